@@ -0,0 +1,109 @@
+package com.ecommerce.inventory.config;
+
+import com.ecommerce.inventory.event.LowStockAlert;
+import com.ecommerce.inventory.event.OrderEvent;
+import com.ecommerce.inventory.event.OrderEventDeserializer;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties.AckMode;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaConfig {
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${inventory.order-events.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${inventory.order-events.concurrency:1}")
+    private int concurrency;
+
+    @Value("${inventory.order-events.retry-backoff:1s}")
+    private Duration retryBackoff;
+
+    @Value("${inventory.order-events.max-retries:5}")
+    private long maxRetries;
+
+    @Value("${inventory.low-stock.topic.name:inventory-low-stock}")
+    private String lowStockTopic;
+
+    @Bean
+    public ConsumerFactory<String, OrderEvent> orderEventConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        // Offsets are committed after each batch is applied; replays are skipped as already settled
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        // An undecodable record arrives as a null value instead of failing every poll
+        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new OrderEventDeserializer()));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderEvent> orderEventListenerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(orderEventConsumerFactory());
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setAckMode(AckMode.BATCH);
+        // A failed batch is redelivered as a whole, in order, before the partition moves on
+        factory.setCommonErrorHandler(new DefaultErrorHandler(
+                new FixedBackOff(retryBackoff.toMillis(), maxRetries)));
+        return factory;
+    }
+
+    @Bean
+    public ProducerFactory<String, LowStockAlert> lowStockProducerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        // Fail fast when the broker is unreachable; LowStockMonitor retries later
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, 5000);
+        JsonSerializer<LowStockAlert> valueSerializer = new JsonSerializer<>();
+        valueSerializer.setAddTypeInfo(false);
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), valueSerializer);
+    }
+
+    @Bean
+    public KafkaTemplate<String, LowStockAlert> lowStockKafkaTemplate() {
+        return new KafkaTemplate<>(lowStockProducerFactory());
+    }
+
+    // Keyed by SKU and compacted: the latest alert of every SKU that is low, tombstones otherwise
+    @Bean
+    @ConditionalOnProperty(name = "inventory.low-stock.topic.enabled", matchIfMissing = true)
+    public NewTopic lowStockTopic() {
+        return TopicBuilder.name(lowStockTopic)
+                .partitions(3)
+                .replicas(1)
+                .compact()
+                .build();
+    }
+}
@@ -1,16 +1,24 @@
 package com.ecommerce.inventory.controller;
 
+import com.ecommerce.inventory.event.LowStockAlert;
 import com.ecommerce.inventory.model.Inventory;
+import com.ecommerce.inventory.model.StockMovement;
 import com.ecommerce.inventory.service.InventoryService;
+import com.ecommerce.inventory.service.LowStockMonitor;
+import com.ecommerce.inventory.service.StockMovementLog;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -21,9 +29,11 @@ public class InventoryController {
 
     private static final Logger log = LoggerFactory.getLogger(InventoryController.class);
     private final InventoryService inventoryService;
+    private final LowStockMonitor lowStockMonitor;
 
-    public InventoryController(InventoryService inventoryService) {
+    public InventoryController(InventoryService inventoryService, LowStockMonitor lowStockMonitor) {
         this.inventoryService = inventoryService;
+        this.lowStockMonitor = lowStockMonitor;
     }
 
     @GetMapping("/{sku}")
@@ -43,6 +53,14 @@ public class InventoryController {
         return ResponseEntity.ok(inventoryService.checkStock(skus));
     }
 
+    @PostMapping("/check")
+    @Operation(summary = "Check stock for a large batch of SKUs")
+    public ResponseEntity<List<InventoryService.StockCheckResponse>> checkStockBatch(
+            @RequestBody StockCheckRequest request) {
+        log.debug("POST /api/v1/inventory/check - {} SKUs", request.skus().size());
+        return ResponseEntity.ok(inventoryService.checkStock(request.skus()));
+    }
+
     @PostMapping("/reserve")
     @Operation(summary = "Reserve stock for an order")
     public ResponseEntity<InventoryService.ReservationResponse> reserveStock(
@@ -53,13 +71,29 @@ public class InventoryController {
                 .map(i -> new InventoryService.ReservationRequest(i.sku(), i.quantity()))
                 .toList();
         
-        InventoryService.ReservationResponse response = inventoryService.reserveStock(request.orderId(), items);
+        InventoryService.ReservationResponse response = inventoryService.reserveStock(
+                request.orderId(), items, request.region());
         
         return response.success() 
                 ? ResponseEntity.ok(response) 
                 : ResponseEntity.badRequest().body(response);
     }
 
+    @PostMapping("/reserve/batch")
+    @Operation(summary = "Reserve stock for many orders in one transaction")
+    public ResponseEntity<List<InventoryService.ReservationResponse>> reserveStockBatch(
+            @RequestBody BatchReserveRequest request) {
+        log.info("POST /api/v1/inventory/reserve/batch - {} orders", request.requests().size());
+
+        List<InventoryService.BatchReservation> reservations = request.requests().stream()
+                .map(r -> new InventoryService.BatchReservation(r.orderId(), r.items().stream()
+                        .map(i -> new InventoryService.ReservationRequest(i.sku(), i.quantity()))
+                        .toList(), r.region()))
+                .toList();
+
+        return ResponseEntity.ok(inventoryService.reserveBatch(reservations));
+    }
+
     @PostMapping("/release")
     @Operation(summary = "Release a stock reservation")
     public ResponseEntity<Void> releaseStock(@RequestBody ReleaseRequest request) {
@@ -104,21 +138,70 @@ public class InventoryController {
         return ResponseEntity.ok(updated);
     }
 
+    @PutMapping("/{sku}/warehouses/{warehouseId}/stock")
+    @Operation(summary = "Update stock quantity in one warehouse")
+    public ResponseEntity<Inventory> updateWarehouseStock(
+            @PathVariable String sku,
+            @PathVariable String warehouseId,
+            @RequestBody StockUpdateRequest request) {
+        log.info("PUT /api/v1/inventory/{}/warehouses/{}/stock - quantity: {}", sku, warehouseId, request.quantity());
+        Inventory updated = inventoryService.setWarehouseStock(sku, warehouseId, request.quantity());
+        return ResponseEntity.ok(updated);
+    }
+
     @GetMapping("/low-stock")
     @Operation(summary = "Get items with low stock")
     public ResponseEntity<List<Inventory>> getLowStockItems() {
         return ResponseEntity.ok(inventoryService.getLowStockItems());
     }
 
+    @GetMapping("/low-stock/alerts")
+    @Operation(summary = "Get the items low on stock now, as tracked from stock changes")
+    public ResponseEntity<List<LowStockAlert>> getLowStockAlerts() {
+        return ResponseEntity.ok(lowStockMonitor.lowStock());
+    }
+
+    @GetMapping(path = "/low-stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream low stock transitions, starting with the items low now")
+    public SseEmitter streamLowStock() {
+        log.info("GET /api/v1/inventory/low-stock/stream");
+        return lowStockMonitor.subscribe();
+    }
+
     @GetMapping("/stats")
     @Operation(summary = "Get inventory statistics")
     public ResponseEntity<InventoryService.InventoryStats> getStats() {
         return ResponseEntity.ok(inventoryService.getStats());
     }
 
+    @GetMapping("/{sku}/movements")
+    @Operation(summary = "Get the latest stock movements of a SKU")
+    public ResponseEntity<List<StockMovement>> getMovements(
+            @PathVariable String sku,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(inventoryService.getMovements(sku, Math.min(limit, 1000)));
+    }
+
+    @GetMapping("/movements")
+    @Operation(summary = "Read the stock movement log of one day in order")
+    public ResponseEntity<List<StockMovement>> getMovementsOn(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day,
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(inventoryService.getMovementsOn(day, afterId, Math.min(limit, 10000)));
+    }
+
+    @GetMapping("/{sku}/replay")
+    @Operation(summary = "Rebuild stock of a SKU from its latest snapshot and movement log")
+    public ResponseEntity<StockMovementLog.StockReplay> replayStock(@PathVariable String sku) {
+        return ResponseEntity.ok(inventoryService.replayStock(sku));
+    }
+
     // Request DTOs
-    record ReserveRequest(String orderId, List<ReserveItem> items) {}
+    record StockCheckRequest(List<String> skus) {}
+    record ReserveRequest(String orderId, List<ReserveItem> items, String region) {}
     record ReserveItem(String sku, int quantity) {}
+    record BatchReserveRequest(List<ReserveRequest> requests) {}
     record ReleaseRequest(String reservationId) {}
     record ConfirmRequest(String reservationId) {}
     record StockUpdateRequest(int quantity) {}
@@ -0,0 +1,33 @@
+package com.ecommerce.inventory.controller;
+
+import com.ecommerce.inventory.service.StockSync;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code GET /actuator/stocksync} reports the progress and diff summary of the latest bulk
+ * stock sync; {@code POST /actuator/stocksync {"file": "..."}} starts one from a snapshot file
+ * in the sync directory.
+ */
+@Component
+@Endpoint(id = "stocksync")
+public class StockSyncEndpoint {
+
+    private final StockSync stockSync;
+
+    public StockSyncEndpoint(StockSync stockSync) {
+        this.stockSync = stockSync;
+    }
+
+    @ReadOperation
+    public StockSync.SyncStatus status() {
+        return stockSync.status();
+    }
+
+    @WriteOperation
+    public StockSync.SyncStatus start(String file) {
+        return stockSync.start(file);
+    }
+}
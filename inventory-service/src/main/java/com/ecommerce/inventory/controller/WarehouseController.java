@@ -0,0 +1,72 @@
+package com.ecommerce.inventory.controller;
+
+import com.ecommerce.inventory.model.ShippingRegion;
+import com.ecommerce.inventory.model.Warehouse;
+import com.ecommerce.inventory.model.WarehouseStock;
+import com.ecommerce.inventory.service.WarehouseAllocator;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+@RequestMapping("/api/v1/warehouses")
+@Tag(name = "Warehouses", description = "APIs for warehouses and split-shipment allocation")
+@CrossOrigin(origins = "*")
+public class WarehouseController {
+
+    private static final Logger log = LoggerFactory.getLogger(WarehouseController.class);
+    private final WarehouseAllocator allocator;
+
+    public WarehouseController(WarehouseAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    @GetMapping
+    @Operation(summary = "List warehouses")
+    public ResponseEntity<List<Warehouse>> getWarehouses() {
+        return ResponseEntity.ok(allocator.findWarehouses());
+    }
+
+    @PutMapping
+    @Operation(summary = "Create or update a warehouse")
+    public ResponseEntity<Warehouse> saveWarehouse(@Valid @RequestBody Warehouse warehouse) {
+        log.info("PUT /api/v1/warehouses - warehouse: {}", warehouse.getWarehouseId());
+        return ResponseEntity.ok(allocator.saveWarehouse(warehouse));
+    }
+
+    @PutMapping("/regions/{code}")
+    @Operation(summary = "Create or update a shipping region's location")
+    public ResponseEntity<ShippingRegion> saveRegion(
+            @PathVariable String code,
+            @RequestBody RegionRequest request) {
+        log.info("PUT /api/v1/warehouses/regions/{}", code);
+        return ResponseEntity.ok(allocator.saveRegion(code, request.latitude(), request.longitude()));
+    }
+
+    @GetMapping("/stock/{sku}")
+    @Operation(summary = "Get stock of a SKU per warehouse")
+    public ResponseEntity<List<WarehouseStock>> getStock(@PathVariable String sku) {
+        return ResponseEntity.ok(allocator.findStock(sku));
+    }
+
+    @PostMapping("/allocate")
+    @Operation(summary = "Preview the warehouses an order would be shipped from")
+    public ResponseEntity<WarehouseAllocator.Allocation> allocate(@RequestBody AllocateRequest request) {
+        Map<String, Integer> quantities = new TreeMap<>();
+        request.items().forEach(item -> quantities.merge(item.sku(), item.quantity(), Integer::sum));
+        return ResponseEntity.ok(allocator.allocate(request.region(), quantities));
+    }
+
+    // Request DTOs
+    record RegionRequest(double latitude, double longitude) {}
+    record AllocateRequest(String region, List<AllocateItem> items) {}
+    record AllocateItem(String sku, int quantity) {}
+}
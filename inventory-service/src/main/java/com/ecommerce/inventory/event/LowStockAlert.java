@@ -0,0 +1,21 @@
+package com.ecommerce.inventory.event;
+
+import com.ecommerce.inventory.model.Inventory.InventoryStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A SKU's stock status crossing its reorder point, from {@code previousStatus} to
+ * {@code status}. Published to the compacted low-stock topic keyed by SKU, where a return to
+ * IN_STOCK is a tombstone, and streamed to {@code /low-stock/stream} subscribers.
+ *
+ * @param changedAt when the SKU reached {@code status}
+ */
+public record LowStockAlert(String sku, InventoryStatus status, InventoryStatus previousStatus,
+                            int quantityOnHand, int quantityReserved, int quantityAvailable,
+                            long version, LocalDateTime changedAt) {
+
+    public boolean isLow() {
+        return status != InventoryStatus.IN_STOCK;
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.inventory.event;
+
+import java.math.BigDecimal;
+
+/**
+ * An event from order-service's {@code order-events} topic. The order number is the
+ * {@code orderId} the order's stock was reserved under.
+ */
+public record OrderEvent(
+        String eventType,
+        String orderNumber,
+        Long customerId,
+        String status,
+        BigDecimal total
+) {}
@@ -0,0 +1,129 @@
+package com.ecommerce.inventory.event;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the compact binary encoding order-service uses for {@link OrderEvent}s.
+ *
+ * <pre>
+ * magic(1) version(1) type(1)[literal type] flags(1)
+ * [orderNumber] [customerId: zigzag varlong] [status(1)[literal status]] [total]
+ * </pre>
+ *
+ * Strings are varint length + UTF-8, decimals are zigzag varlong unscaled value + zigzag
+ * varint scale. Well-known event types and statuses are a one-byte code; anything else is
+ * written as a literal string after a zero code. The tables must match order-service's
+ * {@code OrderEventCodec}; codes are only ever appended there.
+ */
+public final class OrderEventCodec {
+
+    public static final byte MAGIC = (byte) 0xB8;
+    static final byte VERSION = 1;
+
+    private static final String[] EVENT_TYPES = {
+            "ORDER_CREATED", "ORDER_STATUS_CHANGED", "ORDER_CANCELLED",
+            "PAYMENT_PENDING", "PAYMENT_PAID", "PAYMENT_FAILED", "PAYMENT_REFUNDED"
+    };
+
+    private static final String[] STATUSES = {
+            "PENDING", "CONFIRMED", "PROCESSING", "SHIPPED", "DELIVERED", "CANCELLED", "REFUNDED"
+    };
+
+    private static final int ORDER_NUMBER = 1;
+    private static final int CUSTOMER_ID = 1 << 1;
+    private static final int STATUS = 1 << 2;
+    private static final int TOTAL = 1 << 3;
+
+    private OrderEventCodec() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == MAGIC;
+    }
+
+    public static OrderEvent decode(byte[] data) {
+        Reader in = new Reader(data);
+        if (in.readByte() != (MAGIC & 0xFF)) {
+            throw new SerializationException("Not a binary order event");
+        }
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new SerializationException("Unsupported order event version: " + version);
+        }
+
+        String eventType = readCode(in, EVENT_TYPES);
+        int flags = in.readByte();
+        String orderNumber = (flags & ORDER_NUMBER) != 0 ? in.readString() : null;
+        Long customerId = (flags & CUSTOMER_ID) != 0 ? in.readZigZagLong() : null;
+        String status = (flags & STATUS) != 0 ? readCode(in, STATUSES) : null;
+        BigDecimal total = (flags & TOTAL) != 0 ? in.readDecimal() : null;
+        return new OrderEvent(eventType, orderNumber, customerId, status, total);
+    }
+
+    private static String readCode(Reader in, String[] known) {
+        int code = in.readByte();
+        if (code == 0) {
+            String value = in.readString();
+            return value.isEmpty() ? null : value;
+        }
+        if (code > known.length) {
+            throw new SerializationException("Unknown order event code: " + code);
+        }
+        return known[code - 1];
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        int readByte() {
+            require(1);
+            return buffer[position++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint in order event");
+        }
+
+        long readZigZagLong() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String readString() {
+            long length = readVarLong();
+            if (length < 0 || length > buffer.length - position) {
+                throw new SerializationException("Truncated string in order event");
+            }
+            String value = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return value;
+        }
+
+        BigDecimal readDecimal() {
+            long unscaled = readZigZagLong();
+            return BigDecimal.valueOf(unscaled, (int) readZigZagLong());
+        }
+
+        private void require(int bytes) {
+            if (position + bytes > buffer.length) {
+                throw new SerializationException("Truncated order event");
+            }
+        }
+    }
+}
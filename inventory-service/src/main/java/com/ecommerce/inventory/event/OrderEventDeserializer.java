@@ -0,0 +1,47 @@
+package com.ecommerce.inventory.event;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Reads order events in either wire format: records starting with
+ * {@link OrderEventCodec#MAGIC} are decoded as binary, anything else as JSON.
+ */
+public class OrderEventDeserializer implements Deserializer<OrderEvent> {
+
+    private final JsonDeserializer<OrderEvent> json;
+
+    public OrderEventDeserializer() {
+        // order-service's type headers name its own class; always read into ours
+        this.json = new JsonDeserializer<>(OrderEvent.class, false);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public OrderEvent deserialize(String topic, byte[] data) {
+        if (OrderEventCodec.isBinary(data)) {
+            return OrderEventCodec.decode(data);
+        }
+        return json.deserialize(topic, data);
+    }
+
+    @Override
+    public OrderEvent deserialize(String topic, Headers headers, byte[] data) {
+        if (OrderEventCodec.isBinary(data)) {
+            return OrderEventCodec.decode(data);
+        }
+        return json.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
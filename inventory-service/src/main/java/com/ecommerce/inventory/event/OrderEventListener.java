@@ -0,0 +1,89 @@
+package com.ecommerce.inventory.event;
+
+import com.ecommerce.inventory.service.InventoryService;
+import com.ecommerce.inventory.service.InventoryService.Settlement;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consumes order-events in batches and settles the reservations of paid and cancelled orders,
+ * so stock is freed without order-service calling back synchronously. All instances share one
+ * consumer group: each partition, and so each order (events are keyed by order number), is
+ * handled by one consumer, in order.
+ *
+ * <p>Only the first settling event per order in a batch counts; once settled, a reservation is
+ * no longer ACTIVE and later events for it are no-ops, exactly as if applied one by one.
+ */
+@Component
+public class OrderEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderEventListener.class);
+
+    private final InventoryService inventoryService;
+    private final Counter undecodable;
+    private final Counter unmatched;
+    private final DistributionSummary batchSize;
+
+    public OrderEventListener(InventoryService inventoryService, MeterRegistry meterRegistry) {
+        this.inventoryService = inventoryService;
+
+        this.undecodable = Counter.builder("inventory.order_events.undecodable")
+                .description("Order events skipped because they could not be decoded")
+                .register(meterRegistry);
+        this.unmatched = Counter.builder("inventory.order_events.unmatched")
+                .description("Paid or cancelled orders without an active reservation")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("inventory.order_events.batch.size")
+                .description("Orders settled per consumed batch")
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(topics = "order-events", groupId = "${inventory.order-events.group-id:inventory-service}",
+            containerFactory = "orderEventListenerFactory",
+            autoStartup = "${inventory.order-events.enabled:true}")
+    public void onOrderEvents(List<ConsumerRecord<String, OrderEvent>> records) {
+        Map<String, Settlement> settlements = new LinkedHashMap<>();
+        for (ConsumerRecord<String, OrderEvent> record : records) {
+            OrderEvent event = record.value();
+            if (event == null) {
+                undecodable.increment();
+                log.warn("Skipping undecodable order event at {}-{}@{}",
+                        record.topic(), record.partition(), record.offset());
+                continue;
+            }
+            Settlement settlement = settlementFor(event);
+            if (settlement != null && event.orderNumber() != null) {
+                settlements.putIfAbsent(event.orderNumber(), settlement);
+            }
+        }
+        if (settlements.isEmpty()) {
+            return;
+        }
+
+        Map<String, Settlement> settled = inventoryService.settleOrders(settlements);
+        batchSize.record(settled.size());
+        unmatched.increment(settlements.size() - settled.size());
+    }
+
+    private static Settlement settlementFor(OrderEvent event) {
+        if (event.eventType() == null) {
+            return null;
+        }
+        return switch (event.eventType()) {
+            case "PAYMENT_PAID" -> Settlement.CONFIRM;
+            case "ORDER_CANCELLED" -> Settlement.RELEASE;
+            case "ORDER_STATUS_CHANGED" -> "CANCELLED".equals(event.status()) ? Settlement.RELEASE : null;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.inventory.event;
+
+import com.ecommerce.inventory.model.StockReservation;
+import com.ecommerce.inventory.model.StockReservation.ReservationStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * In-process notification that a reservation was created ({@code ACTIVE}) or left the
+ * ACTIVE state.
+ */
+public record ReservationChangedEvent(String reservationId, String orderId, ReservationStatus status,
+                                      LocalDateTime expiresAt) {
+
+    public static ReservationChangedEvent of(StockReservation reservation) {
+        return new ReservationChangedEvent(reservation.getReservationId(), reservation.getOrderId(),
+                reservation.getStatus(), reservation.getExpiresAt());
+    }
+}
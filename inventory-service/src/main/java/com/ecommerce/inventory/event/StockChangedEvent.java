@@ -0,0 +1,56 @@
+package com.ecommerce.inventory.event;
+
+import com.ecommerce.inventory.model.Inventory;
+import com.ecommerce.inventory.model.Inventory.InventoryStatus;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * In-process notification of committed stock changes, carrying the new availability of
+ * each affected SKU and what changed since the level before it.
+ */
+public record StockChangedEvent(List<StockLevel> levels) {
+
+    public static StockChangedEvent of(Inventory inventory) {
+        return new StockChangedEvent(List.of(StockLevel.of(inventory)));
+    }
+
+    public static StockChangedEvent of(Collection<Inventory> inventories) {
+        return new StockChangedEvent(inventories.stream().map(StockLevel::of).toList());
+    }
+
+    /**
+     * {@code version} orders levels of the same SKU; a level never replaces a newer one.
+     * {@code onHandChange}, {@code reservedChange} and {@code previousStatus} describe the
+     * change this level made; {@code previousStatus} is null for a SKU it created.
+     */
+    public record StockLevel(String sku, int onHand, int reserved, int available, InventoryStatus status,
+                             long version, int onHandChange, int reservedChange, InventoryStatus previousStatus) {
+
+        /**
+         * A level that changed nothing since the one before it.
+         */
+        public StockLevel(String sku, int onHand, int reserved, int available, InventoryStatus status,
+                          long version) {
+            this(sku, onHand, reserved, available, status, version, 0, 0, status);
+        }
+
+        public static StockLevel of(Inventory inventory) {
+            return new StockLevel(inventory.getSku(), inventory.getQuantityOnHand(), inventory.getQuantityReserved(),
+                    inventory.getQuantityAvailable(), inventory.getStatus(),
+                    inventory.getVersion() != null ? inventory.getVersion() : 0,
+                    inventory.getQuantityOnHand() - inventory.getLoadedOnHand(),
+                    inventory.getQuantityReserved() - inventory.getLoadedReserved(),
+                    inventory.getLoadedStatus());
+        }
+
+        /**
+         * This level as the change from {@code before}, the same SKU's level ahead of it.
+         */
+        public StockLevel since(StockLevel before) {
+            return new StockLevel(sku, onHand, reserved, available, status, version,
+                    onHand - before.onHand(), reserved - before.reserved(), before.status());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.inventory.event;
+
+import com.ecommerce.inventory.model.WarehouseStock;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * In-process notification of committed changes to per-warehouse stock.
+ */
+public record WarehouseStockChangedEvent(List<WarehouseLevel> levels) {
+
+    public static WarehouseStockChangedEvent of(Collection<WarehouseStock> rows) {
+        return new WarehouseStockChangedEvent(rows.stream()
+                .map(row -> new WarehouseLevel(row.getSku(), row.getWarehouseId(), row.getQuantityAvailable()))
+                .toList());
+    }
+
+    public record WarehouseLevel(String sku, String warehouseId, int available) {}
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.inventory.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Ownership of one reservation expiry partition: the instance that expires its reservations,
+ * until {@code expiresAt} unless renewed. A lease without owner, or past its expiry, may be
+ * claimed by any instance.
+ */
+@Entity
+@Table(name = "expiry_leases")
+public class ExpiryLease {
+
+    @Id
+    private Integer partitionId;
+
+    @Column(length = 100)
+    private String owner;
+
+    private LocalDateTime expiresAt;
+
+    public ExpiryLease() {}
+
+    public ExpiryLease(Integer partitionId) {
+        this.partitionId = partitionId;
+    }
+
+    public Integer getPartitionId() { return partitionId; }
+    public String getOwner() { return owner; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+}
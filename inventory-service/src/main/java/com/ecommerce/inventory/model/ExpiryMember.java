@@ -0,0 +1,30 @@
+package com.ecommerce.inventory.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A running instance taking part in reservation expiry; instances whose heartbeat is older
+ * than the lease TTL no longer count towards the share of partitions each one owns.
+ */
+@Entity
+@Table(name = "expiry_members")
+public class ExpiryMember {
+
+    @Id
+    @Column(length = 100)
+    private String instanceId;
+
+    @Column(nullable = false)
+    private LocalDateTime heartbeatAt;
+
+    public ExpiryMember() {}
+
+    public ExpiryMember(String instanceId, LocalDateTime heartbeatAt) {
+        this.instanceId = instanceId;
+        this.heartbeatAt = heartbeatAt;
+    }
+
+    public String getInstanceId() { return instanceId; }
+    public LocalDateTime getHeartbeatAt() { return heartbeatAt; }
+}
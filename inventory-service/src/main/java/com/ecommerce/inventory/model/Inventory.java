@@ -1,5 +1,6 @@
 package com.ecommerce.inventory.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
@@ -51,9 +52,23 @@ public class Inventory {
     private LocalDateTime updatedAt;
     private LocalDateTime lastRestockedAt;
 
+    // Number of InventoryStripe rows holding this SKU's free stock while it is hot
+    private Integer stripes;
+
     @Version
     private Long version;
 
+    // Quantities as loaded, so a committed change can be published as a difference
+    @Transient
+    @JsonIgnore
+    private int loadedOnHand;
+    @Transient
+    @JsonIgnore
+    private int loadedReserved;
+    @Transient
+    @JsonIgnore
+    private InventoryStatus loadedStatus;
+
     // Constructors
     public Inventory() {
         this.createdAt = LocalDateTime.now();
@@ -67,6 +82,13 @@ public class Inventory {
         updateStatus();
     }
 
+    @PostLoad
+    protected void onLoad() {
+        this.loadedOnHand = quantityOnHand;
+        this.loadedReserved = quantityReserved;
+        this.loadedStatus = status;
+    }
+
     @PreUpdate
     protected void onUpdate() {
         this.updatedAt = LocalDateTime.now();
@@ -106,6 +128,16 @@ public class Inventory {
         updateStatus();
     }
 
+    /**
+     * Folds changes made on the SKU's stripes into its totals.
+     */
+    public void applyStripeChanges(int onHandDelta, int reservedDelta) {
+        this.quantityOnHand += onHandDelta;
+        this.quantityReserved = Math.max(0, this.quantityReserved + reservedDelta);
+        this.quantityAvailable = this.quantityOnHand - this.quantityReserved;
+        updateStatus();
+    }
+
     public void restock(int quantity) {
         this.quantityOnHand += quantity;
         this.quantityAvailable = this.quantityOnHand - this.quantityReserved;
@@ -150,6 +182,19 @@ public class Inventory {
     public LocalDateTime getCreatedAt() { return createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public LocalDateTime getLastRestockedAt() { return lastRestockedAt; }
+    public Long getVersion() { return version; }
+
+    public int getLoadedOnHand() { return loadedOnHand; }
+    public int getLoadedReserved() { return loadedReserved; }
+    // Null for a row that was created rather than loaded
+    public InventoryStatus getLoadedStatus() { return loadedStatus; }
+
+    public Integer getStripes() { return stripes; }
+    public void setStripes(Integer stripes) { this.stripes = stripes; }
+
+    public boolean hasStripes() {
+        return stripes != null && stripes > 0;
+    }
 
     public boolean needsReorder() {
         return quantityAvailable <= reorderPoint;
@@ -0,0 +1,117 @@
+package com.ecommerce.inventory.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+
+/**
+ * One sub-bucket of a hot SKU's stock. While a SKU is striped, reservations are taken from
+ * these rows instead of its {@link Inventory} row. The Inventory row keeps the SKU's totals;
+ * changes made here are recorded in {@code pendingOnHand} and {@code pendingReserved} until
+ * the next rebalance folds them into it.
+ */
+@Entity
+@Table(name = "inventory_stripes", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_inventory_stripe", columnNames = {"sku", "stripe"})
+})
+public class InventoryStripe {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank
+    @Column(nullable = false, length = 50)
+    private String sku;
+
+    @NotNull
+    @Column(nullable = false)
+    private Integer stripe;
+
+    @NotNull
+    @Min(0)
+    private Integer quantityOnHand = 0;
+
+    @NotNull
+    @Min(0)
+    private Integer quantityReserved = 0;
+
+    @NotNull
+    @Min(0)
+    private Integer quantityAvailable = 0;
+
+    @NotNull
+    private Integer pendingOnHand = 0;
+
+    @NotNull
+    private Integer pendingReserved = 0;
+
+    @Version
+    private Long version;
+
+    // Constructors
+    public InventoryStripe() {}
+
+    public InventoryStripe(String sku, int stripe, int quantityAvailable) {
+        this.sku = sku;
+        this.stripe = stripe;
+        this.quantityOnHand = quantityAvailable;
+        this.quantityAvailable = quantityAvailable;
+    }
+
+    public boolean reserve(int quantity) {
+        if (quantityAvailable >= quantity) {
+            this.quantityReserved += quantity;
+            this.pendingReserved += quantity;
+            this.quantityAvailable = this.quantityOnHand - this.quantityReserved;
+            return true;
+        }
+        return false;
+    }
+
+    public void releaseReservation(int quantity) {
+        int released = Math.min(quantity, this.quantityReserved);
+        this.quantityReserved -= released;
+        this.pendingReserved -= released;
+        this.quantityAvailable = this.quantityOnHand - this.quantityReserved;
+    }
+
+    public void confirmReservation(int quantity) {
+        this.quantityOnHand -= quantity;
+        this.quantityReserved -= quantity;
+        this.pendingOnHand -= quantity;
+        this.pendingReserved -= quantity;
+        this.quantityAvailable = this.quantityOnHand - this.quantityReserved;
+    }
+
+    /**
+     * Moves free stock into (or, if negative, out of) this stripe. The SKU's totals do not
+     * change, so nothing is pending.
+     */
+    public void transfer(int quantity) {
+        this.quantityOnHand += quantity;
+        this.quantityAvailable = this.quantityOnHand - this.quantityReserved;
+    }
+
+    public int takePendingOnHand() {
+        int pending = this.pendingOnHand;
+        this.pendingOnHand = 0;
+        return pending;
+    }
+
+    public int takePendingReserved() {
+        int pending = this.pendingReserved;
+        this.pendingReserved = 0;
+        return pending;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public String getSku() { return sku; }
+    public Integer getStripe() { return stripe; }
+    public Integer getQuantityOnHand() { return quantityOnHand; }
+    public Integer getQuantityReserved() { return quantityReserved; }
+    public Integer getQuantityAvailable() { return quantityAvailable; }
+    public Integer getPendingOnHand() { return pendingOnHand; }
+    public Integer getPendingReserved() { return pendingReserved; }
+    public Long getVersion() { return version; }
+}
@@ -19,6 +19,12 @@ public class ReservationItem {
     private String sku;
     private Integer quantity;
 
+    // Stripe the quantity was taken from, if the SKU was hot when it was reserved
+    private Integer stripe;
+
+    // Warehouse the quantity was reserved in, if the SKU is stocked per warehouse
+    private String warehouseId;
+
     // Constructors
     public ReservationItem() {}
 
@@ -35,4 +41,8 @@ public class ReservationItem {
     public void setSku(String sku) { this.sku = sku; }
     public Integer getQuantity() { return quantity; }
     public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    public Integer getStripe() { return stripe; }
+    public void setStripe(Integer stripe) { this.stripe = stripe; }
+    public String getWarehouseId() { return warehouseId; }
+    public void setWarehouseId(String warehouseId) { this.warehouseId = warehouseId; }
 }
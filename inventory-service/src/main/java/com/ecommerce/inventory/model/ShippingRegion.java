@@ -0,0 +1,53 @@
+package com.ecommerce.inventory.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+
+/**
+ * A shipping destination, e.g. {@code US-CA} (country and state of the shipping address),
+ * located by its centroid so warehouses can be ranked by distance to it.
+ */
+@Entity
+@Table(name = "shipping_regions", indexes = {
+    @Index(name = "idx_shipping_region_code", columnList = "code", unique = true)
+})
+public class ShippingRegion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank
+    @Column(unique = true, nullable = false, length = 50)
+    private String code;
+
+    @NotNull
+    @DecimalMin("-90") @DecimalMax("90")
+    private Double latitude;
+
+    @NotNull
+    @DecimalMin("-180") @DecimalMax("180")
+    private Double longitude;
+
+    // Constructors
+    public ShippingRegion() {}
+
+    public ShippingRegion(String code, double latitude, double longitude) {
+        this.code = code;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getCode() { return code; }
+    public void setCode(String code) { this.code = code; }
+
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+}
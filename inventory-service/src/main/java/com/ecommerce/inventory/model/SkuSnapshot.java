@@ -0,0 +1,58 @@
+package com.ecommerce.inventory.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A SKU's quantities as of movement {@code lastMovementId}, folded from the movement log.
+ * There is one row per SKU; each snapshot run moves it forward over the new movements.
+ */
+@Entity
+@Table(name = "stock_snapshots", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_stock_snapshot_sku", columnNames = "sku")
+})
+public class SkuSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String sku;
+
+    @Column(nullable = false)
+    private Integer quantityOnHand = 0;
+
+    @Column(nullable = false)
+    private Integer quantityReserved = 0;
+
+    @Column(nullable = false)
+    private Long lastMovementId = 0L;
+
+    private LocalDateTime takenAt;
+
+    @Version
+    private Long version;
+
+    public SkuSnapshot() {}
+
+    public SkuSnapshot(String sku) {
+        this.sku = sku;
+    }
+
+    public void apply(int onHandDelta, int reservedDelta, long movementId, LocalDateTime at) {
+        this.quantityOnHand += onHandDelta;
+        this.quantityReserved += reservedDelta;
+        this.lastMovementId = movementId;
+        this.takenAt = at;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public String getSku() { return sku; }
+    public Integer getQuantityOnHand() { return quantityOnHand; }
+    public Integer getQuantityReserved() { return quantityReserved; }
+    public Long getLastMovementId() { return lastMovementId; }
+    public LocalDateTime getTakenAt() { return takenAt; }
+    public Long getVersion() { return version; }
+}
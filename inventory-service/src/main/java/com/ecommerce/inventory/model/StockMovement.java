@@ -0,0 +1,67 @@
+package com.ecommerce.inventory.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One change to a SKU's quantities, appended in the same transaction as the change itself
+ * and never updated. A SKU's state is its latest {@link SkuSnapshot} plus the movements
+ * after it.
+ *
+ * <p>Rows are written with JDBC batches by {@code StockMovementLog}; this mapping is used for
+ * the schema and for reads. {@code movementDay} is the time partition key: audits and replays
+ * scan whole days in id order, and on PostgreSQL {@code scripts/partition-stock-movements.sql}
+ * turns the table into monthly {@code PARTITION BY RANGE (movement_day)} partitions, so old
+ * months are detached instead of deleted.
+ */
+@Entity
+@Table(name = "stock_movements", indexes = {
+    @Index(name = "idx_movement_sku", columnList = "sku, id"),
+    @Index(name = "idx_movement_day", columnList = "movementDay, id")
+})
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String sku;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private MovementType type;
+
+    @Column(nullable = false)
+    private Integer onHandDelta;
+
+    @Column(nullable = false)
+    private Integer reservedDelta;
+
+    // Reservation id for reservation movements
+    @Column(length = 64)
+    private String reference;
+
+    @Column(nullable = false)
+    private LocalDate movementDay;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    public StockMovement() {}
+
+    // Getters
+    public Long getId() { return id; }
+    public String getSku() { return sku; }
+    public MovementType getType() { return type; }
+    public Integer getOnHandDelta() { return onHandDelta; }
+    public Integer getReservedDelta() { return reservedDelta; }
+    public String getReference() { return reference; }
+    public LocalDate getMovementDay() { return movementDay; }
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+
+    public enum MovementType {
+        RESERVE, RELEASE, EXPIRE, CONFIRM, RESTOCK, ADJUST
+    }
+}
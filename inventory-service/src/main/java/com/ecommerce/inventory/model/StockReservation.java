@@ -1,6 +1,8 @@
 package com.ecommerce.inventory.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -10,6 +12,7 @@ import java.util.UUID;
 @Table(name = "stock_reservations", indexes = {
     @Index(name = "idx_reservation_id", columnList = "reservationId", unique = true),
     @Index(name = "idx_reservation_order", columnList = "orderId"),
+    @Index(name = "idx_reservation_holding_order", columnList = "holdingOrderId", unique = true),
     @Index(name = "idx_reservation_status", columnList = "status")
 })
 public class StockReservation {
@@ -25,11 +28,17 @@ public class StockReservation {
     private String orderId;
 
     @OneToMany(mappedBy = "reservation", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     private List<ReservationItem> items = new ArrayList<>();
 
     @Enumerated(EnumType.STRING)
     private ReservationStatus status = ReservationStatus.ACTIVE;
 
+    // The order id while the reservation holds stock (ACTIVE or CONFIRMED), null otherwise:
+    // its unique index lets an order hold at most one reservation across all instances
+    @JsonIgnore
+    private String holdingOrderId;
+
     @Column(updatable = false)
     private LocalDateTime createdAt;
 
@@ -49,6 +58,13 @@ public class StockReservation {
         this.orderId = orderId;
     }
 
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        this.holdingOrderId = status == ReservationStatus.ACTIVE || status == ReservationStatus.CONFIRMED
+                ? orderId : null;
+    }
+
     public void addItem(ReservationItem item) {
         items.add(item);
         item.setReservation(this);
@@ -0,0 +1,66 @@
+package com.ecommerce.inventory.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+
+/**
+ * A location stock can be held in and shipped from, see {@link WarehouseStock}.
+ */
+@Entity
+@Table(name = "warehouses", indexes = {
+    @Index(name = "idx_warehouse_code", columnList = "warehouseId", unique = true)
+})
+public class Warehouse {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank
+    @Column(unique = true, nullable = false, length = 50)
+    private String warehouseId;
+
+    private String name;
+
+    @NotNull
+    @DecimalMin("-90") @DecimalMax("90")
+    private Double latitude;
+
+    @NotNull
+    @DecimalMin("-180") @DecimalMax("180")
+    private Double longitude;
+
+    private Boolean active = true;
+
+    // Constructors
+    public Warehouse() {}
+
+    public Warehouse(String warehouseId, double latitude, double longitude) {
+        this.warehouseId = warehouseId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public boolean isActive() {
+        return active == null || active;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getWarehouseId() { return warehouseId; }
+    public void setWarehouseId(String warehouseId) { this.warehouseId = warehouseId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+
+    public Boolean getActive() { return active; }
+    public void setActive(Boolean active) { this.active = active; }
+}
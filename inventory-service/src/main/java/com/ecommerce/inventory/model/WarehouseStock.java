@@ -0,0 +1,84 @@
+package com.ecommerce.inventory.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+
+/**
+ * The part of a SKU's stock held in one warehouse. A SKU with these rows is reserved per
+ * warehouse; its {@link Inventory} row keeps the totals over all of them and is always
+ * locked before them.
+ */
+@Entity
+@Table(name = "warehouse_stock", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_warehouse_stock", columnNames = {"sku", "warehouseId"})
+})
+public class WarehouseStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank
+    @Column(nullable = false, length = 50)
+    private String sku;
+
+    @NotBlank
+    @Column(nullable = false, length = 50)
+    private String warehouseId;
+
+    @NotNull
+    @Min(0)
+    private Integer quantityOnHand = 0;
+
+    @NotNull
+    @Min(0)
+    private Integer quantityReserved = 0;
+
+    @NotNull
+    private Integer quantityAvailable = 0;
+
+    @Version
+    private Long version;
+
+    // Constructors
+    public WarehouseStock() {}
+
+    public WarehouseStock(String sku, String warehouseId) {
+        this.sku = sku;
+        this.warehouseId = warehouseId;
+    }
+
+    public boolean reserve(int quantity) {
+        if (quantityAvailable >= quantity) {
+            this.quantityReserved += quantity;
+            this.quantityAvailable = this.quantityOnHand - this.quantityReserved;
+            return true;
+        }
+        return false;
+    }
+
+    public void releaseReservation(int quantity) {
+        this.quantityReserved = Math.max(0, this.quantityReserved - quantity);
+        this.quantityAvailable = this.quantityOnHand - this.quantityReserved;
+    }
+
+    public void confirmReservation(int quantity) {
+        this.quantityOnHand -= quantity;
+        this.quantityReserved -= quantity;
+        this.quantityAvailable = this.quantityOnHand - this.quantityReserved;
+    }
+
+    public void setQuantityOnHand(int quantity) {
+        this.quantityOnHand = quantity;
+        this.quantityAvailable = this.quantityOnHand - this.quantityReserved;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public String getSku() { return sku; }
+    public String getWarehouseId() { return warehouseId; }
+    public Integer getQuantityOnHand() { return quantityOnHand; }
+    public Integer getQuantityReserved() { return quantityReserved; }
+    public Integer getQuantityAvailable() { return quantityAvailable; }
+    public Long getVersion() { return version; }
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.inventory.repository;
+
+import com.ecommerce.inventory.model.ExpiryLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Leases change hands only through the conditional updates below, so two instances never
+ * both succeed in claiming the same partition.
+ */
+@Repository
+public interface ExpiryLeaseRepository extends JpaRepository<ExpiryLease, Integer> {
+
+    @Query("SELECT l.partitionId FROM ExpiryLease l WHERE l.owner = :owner ORDER BY l.partitionId")
+    List<Integer> findPartitionsByOwner(@Param("owner") String owner);
+
+    @Query("SELECT l.partitionId FROM ExpiryLease l WHERE l.partitionId < :partitions " +
+           "AND (l.owner IS NULL OR l.expiresAt < :now) ORDER BY l.partitionId")
+    List<Integer> findClaimable(@Param("partitions") int partitions, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ExpiryLease l SET l.owner = :owner, l.expiresAt = :until " +
+           "WHERE l.partitionId = :partition AND (l.owner IS NULL OR l.expiresAt < :now)")
+    int claim(@Param("partition") int partition, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("UPDATE ExpiryLease l SET l.expiresAt = :until WHERE l.owner = :owner")
+    int renew(@Param("owner") String owner, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("UPDATE ExpiryLease l SET l.owner = NULL, l.expiresAt = NULL " +
+           "WHERE l.owner = :owner AND l.partitionId IN :partitions")
+    int release(@Param("owner") String owner, @Param("partitions") Collection<Integer> partitions);
+}
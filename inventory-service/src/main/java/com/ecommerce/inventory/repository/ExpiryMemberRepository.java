@@ -0,0 +1,24 @@
+package com.ecommerce.inventory.repository;
+
+import com.ecommerce.inventory.model.ExpiryMember;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ExpiryMemberRepository extends JpaRepository<ExpiryMember, String> {
+
+    @Modifying
+    @Query("UPDATE ExpiryMember m SET m.heartbeatAt = :now WHERE m.instanceId = :instanceId")
+    int heartbeat(@Param("instanceId") String instanceId, @Param("now") LocalDateTime now);
+
+    long countByHeartbeatAtAfter(LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM ExpiryMember m WHERE m.heartbeatAt < :cutoff")
+    int deleteStale(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -2,6 +2,7 @@ package com.ecommerce.inventory.repository;
 
 import com.ecommerce.inventory.model.Inventory;
 import com.ecommerce.inventory.model.Inventory.InventoryStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
@@ -9,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +23,14 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     @Query("SELECT i FROM Inventory i WHERE i.sku = :sku")
     Optional<Inventory> findBySkuWithLock(@Param("sku") String sku);
 
+    /**
+     * Locks all given rows in one statement, in SKU order, so concurrent multi-SKU
+     * transactions always acquire their locks in the same order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.sku IN :skus ORDER BY i.sku")
+    List<Inventory> findAllBySkuInWithLock(@Param("skus") Collection<String> skus);
+
     List<Inventory> findBySkuIn(List<String> skus);
 
     List<Inventory> findByStatus(InventoryStatus status);
@@ -41,4 +51,18 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     Long getTotalReserved();
 
     boolean existsBySku(String sku);
+
+    @Query("SELECT new com.ecommerce.inventory.repository.InventoryRepository$StripedSku(i.sku, i.stripes) " +
+           "FROM Inventory i WHERE i.stripes > 0")
+    List<StripedSku> findStriped();
+
+    record StripedSku(String sku, Integer stripes) {}
+
+    @Query("SELECT new com.ecommerce.inventory.repository.InventoryRepository$StockSnapshot(" +
+           "i.id, i.sku, i.quantityOnHand, i.quantityReserved, i.status, i.version) " +
+           "FROM Inventory i WHERE i.id > :id ORDER BY i.id")
+    List<StockSnapshot> findSnapshots(@Param("id") long id, Pageable pageable);
+
+    record StockSnapshot(Long id, String sku, Integer quantityOnHand, Integer quantityReserved,
+                         InventoryStatus status, Long version) {}
 }
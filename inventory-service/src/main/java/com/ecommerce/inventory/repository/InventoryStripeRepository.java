@@ -0,0 +1,44 @@
+package com.ecommerce.inventory.repository;
+
+import com.ecommerce.inventory.model.InventoryStripe;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stripes are always locked in stripe order, after any inventory rows of the same
+ * transaction.
+ */
+@Repository
+public interface InventoryStripeRepository extends JpaRepository<InventoryStripe, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM InventoryStripe s WHERE s.sku = :sku ORDER BY s.stripe")
+    List<InventoryStripe> findBySkuWithLock(@Param("sku") String sku);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM InventoryStripe s WHERE s.sku = :sku AND s.stripe IN :stripes ORDER BY s.stripe")
+    List<InventoryStripe> findBySkuAndStripeInWithLock(@Param("sku") String sku,
+                                                       @Param("stripes") Collection<Integer> stripes);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM InventoryStripe s WHERE s.sku = :sku AND s.stripe > :stripe ORDER BY s.stripe")
+    List<InventoryStripe> findBySkuAndStripeAboveWithLock(@Param("sku") String sku, @Param("stripe") int stripe);
+
+    @Query("SELECT COALESCE(SUM(s.quantityAvailable), 0) FROM InventoryStripe s WHERE s.sku = :sku")
+    long sumAvailable(@Param("sku") String sku);
+
+    /**
+     * Points the reservation items of a SKU back at its inventory row, when it stops being striped.
+     */
+    @Modifying
+    @Query("UPDATE ReservationItem i SET i.stripe = NULL WHERE i.sku = :sku AND i.stripe IS NOT NULL")
+    int unassignItems(@Param("sku") String sku);
+}
@@ -2,12 +2,17 @@ package com.ecommerce.inventory.repository;
 
 import com.ecommerce.inventory.model.StockReservation;
 import com.ecommerce.inventory.model.StockReservation.ReservationStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +23,56 @@ public interface ReservationRepository extends JpaRepository<StockReservation, L
 
     Optional<StockReservation> findByOrderId(String orderId);
 
+    @EntityGraph(attributePaths = "items")
+    Optional<StockReservation> findWithItemsByReservationId(String reservationId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.reservationId = :reservationId")
+    Optional<StockReservation> findByReservationIdWithLock(@Param("reservationId") String reservationId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.reservationId IN :reservationIds AND r.status = :status ORDER BY r.id")
+    List<StockReservation> findByReservationIdInWithLock(
+            @Param("reservationIds") Collection<String> reservationIds,
+            @Param("status") ReservationStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.orderId IN :orderIds AND r.status = :status ORDER BY r.id")
+    List<StockReservation> findByOrderIdInWithLock(
+            @Param("orderIds") Collection<String> orderIds,
+            @Param("status") ReservationStatus status);
+
+    @Query("SELECT new com.ecommerce.inventory.repository.ReservationRepository$OrderReservation(r.orderId, r.reservationId) " +
+           "FROM StockReservation r WHERE r.orderId IN :orderIds AND r.status = :status ORDER BY r.id")
+    List<OrderReservation> findReservationsByOrderIdIn(
+            @Param("orderIds") Collection<String> orderIds,
+            @Param("status") ReservationStatus status);
+
+    @Query("SELECT new com.ecommerce.inventory.repository.ReservationRepository$OrderReservation(r.orderId, r.reservationId) " +
+           "FROM StockReservation r WHERE r.orderId IN :orderIds AND r.status IN :statuses ORDER BY r.id")
+    List<OrderReservation> findReservationsByOrderIdInAndStatusIn(
+            @Param("orderIds") Collection<String> orderIds,
+            @Param("statuses") Collection<ReservationStatus> statuses);
+
+    // Expiry partitions are sets of reservation id prefixes (the first two hex digits)
+    @Query("SELECT new com.ecommerce.inventory.repository.ReservationRepository$ReservationDeadline(r.id, r.reservationId, r.expiresAt) " +
+           "FROM StockReservation r WHERE r.status = :status AND r.id > :id " +
+           "AND SUBSTRING(r.reservationId, 1, 2) IN :prefixes ORDER BY r.id")
+    List<ReservationDeadline> findDeadlines(
+            @Param("status") ReservationStatus status,
+            @Param("id") Long id,
+            @Param("prefixes") Collection<String> prefixes,
+            Pageable pageable);
+
+    @Query("SELECT new com.ecommerce.inventory.repository.ReservationRepository$ReservationDeadline(r.id, r.reservationId, r.expiresAt) " +
+           "FROM StockReservation r WHERE r.status = :status AND r.expiresAt < :now " +
+           "AND SUBSTRING(r.reservationId, 1, 2) IN :prefixes")
+    List<ReservationDeadline> findExpiredDeadlines(
+            @Param("status") ReservationStatus status,
+            @Param("now") LocalDateTime now,
+            @Param("prefixes") Collection<String> prefixes,
+            Pageable pageable);
+
     List<StockReservation> findByStatus(ReservationStatus status);
 
     @Query("SELECT r FROM StockReservation r WHERE r.status = :status AND r.expiresAt < :now")
@@ -27,4 +82,8 @@ public interface ReservationRepository extends JpaRepository<StockReservation, L
 
     @Query("SELECT COUNT(r) FROM StockReservation r WHERE r.status = :status")
     long countByStatus(@Param("status") ReservationStatus status);
+
+    record ReservationDeadline(Long id, String reservationId, LocalDateTime expiresAt) {}
+
+    record OrderReservation(String orderId, String reservationId) {}
 }
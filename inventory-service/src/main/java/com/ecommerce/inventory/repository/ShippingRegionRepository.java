@@ -0,0 +1,13 @@
+package com.ecommerce.inventory.repository;
+
+import com.ecommerce.inventory.model.ShippingRegion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ShippingRegionRepository extends JpaRepository<ShippingRegion, Long> {
+
+    Optional<ShippingRegion> findByCode(String code);
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.inventory.repository;
+
+import com.ecommerce.inventory.model.SkuSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SkuSnapshotRepository extends JpaRepository<SkuSnapshot, Long> {
+
+    Optional<SkuSnapshot> findBySku(String sku);
+
+    List<SkuSnapshot> findBySkuIn(Collection<String> skus);
+
+    /**
+     * The movement every snapshot is up to date with: snapshots are moved forward together.
+     */
+    @Query("SELECT MAX(s.lastMovementId) FROM SkuSnapshot s")
+    Long findWatermark();
+}
@@ -0,0 +1,45 @@
+package com.ecommerce.inventory.repository;
+
+import com.ecommerce.inventory.model.StockMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    List<StockMovement> findBySkuOrderByIdDesc(String sku, Pageable pageable);
+
+    @Query("SELECT m FROM StockMovement m WHERE m.movementDay = :day AND m.id > :id ORDER BY m.id")
+    List<StockMovement> findByDay(@Param("day") LocalDate day, @Param("id") long id, Pageable pageable);
+
+    @Query("SELECT MAX(m.id) FROM StockMovement m")
+    Long findMaxId();
+
+    @Query("SELECT new com.ecommerce.inventory.repository.StockMovementRepository$MovementDelta(" +
+           "m.id, m.sku, m.onHandDelta, m.reservedDelta) " +
+           "FROM StockMovement m WHERE m.id > :after AND m.id <= :upTo ORDER BY m.id")
+    List<MovementDelta> findDeltas(@Param("after") long after, @Param("upTo") long upTo, Pageable pageable);
+
+    @Query("SELECT new com.ecommerce.inventory.repository.StockMovementRepository$MovementTotal(" +
+           "COALESCE(SUM(m.onHandDelta), 0L), COALESCE(SUM(m.reservedDelta), 0L), COUNT(m)) " +
+           "FROM StockMovement m WHERE m.sku = :sku AND m.id > :after")
+    MovementTotal sumAfter(@Param("sku") String sku, @Param("after") long after);
+
+    @Query("SELECT new com.ecommerce.inventory.repository.StockMovementRepository$SkuTotal(" +
+           "m.sku, SUM(m.onHandDelta), SUM(m.reservedDelta)) " +
+           "FROM StockMovement m WHERE m.sku IN :skus GROUP BY m.sku")
+    List<SkuTotal> sumBySkuIn(@Param("skus") Collection<String> skus);
+
+    record MovementDelta(Long id, String sku, Integer onHandDelta, Integer reservedDelta) {}
+
+    record MovementTotal(Long onHandDelta, Long reservedDelta, Long movements) {}
+
+    record SkuTotal(String sku, Long onHandDelta, Long reservedDelta) {}
+}
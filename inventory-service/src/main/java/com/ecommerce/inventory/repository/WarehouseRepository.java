@@ -0,0 +1,13 @@
+package com.ecommerce.inventory.repository;
+
+import com.ecommerce.inventory.model.Warehouse;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface WarehouseRepository extends JpaRepository<Warehouse, Long> {
+
+    Optional<Warehouse> findByWarehouseId(String warehouseId);
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.inventory.repository;
+
+import com.ecommerce.inventory.model.WarehouseStock;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Warehouse stock is always locked in SKU and warehouse order, after the inventory rows of
+ * the same SKUs.
+ */
+@Repository
+public interface WarehouseStockRepository extends JpaRepository<WarehouseStock, Long> {
+
+    List<WarehouseStock> findBySkuOrderByWarehouseId(String sku);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM WarehouseStock w WHERE w.sku IN :skus ORDER BY w.sku, w.warehouseId")
+    List<WarehouseStock> findBySkuInWithLock(@Param("skus") Collection<String> skus);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM WarehouseStock w WHERE w.sku IN :skus AND w.warehouseId IN :warehouseIds " +
+           "ORDER BY w.sku, w.warehouseId")
+    List<WarehouseStock> findBySkuInAndWarehouseIdInWithLock(@Param("skus") Collection<String> skus,
+                                                             @Param("warehouseIds") Collection<String> warehouseIds);
+
+    @Query("SELECT new com.ecommerce.inventory.repository.WarehouseStockRepository$WarehouseLevel(" +
+           "w.id, w.sku, w.warehouseId, w.quantityAvailable) " +
+           "FROM WarehouseStock w WHERE w.id > :id ORDER BY w.id")
+    List<WarehouseLevel> findLevels(@Param("id") long id, Pageable pageable);
+
+    record WarehouseLevel(Long id, String sku, String warehouseId, Integer available) {}
+}
@@ -0,0 +1,308 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.event.StockChangedEvent;
+import com.ecommerce.inventory.event.StockChangedEvent.StockLevel;
+import com.ecommerce.inventory.model.Inventory;
+import com.ecommerce.inventory.model.Inventory.InventoryStatus;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import com.ecommerce.inventory.service.InventoryService.StockCheckResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Availability read model behind {@code /check}. Lookups go to an in-memory map first, then
+ * to a Redis hash shared by all instances, then to the database for cold SKUs; whatever a
+ * lower tier returns is cached in the tiers above it.
+ *
+ * <p>Committed stock changes ({@link StockChangedEvent}) update the local map immediately
+ * and reach Redis within {@code redis.flush-interval-ms}. Local entries expire after
+ * {@code near-cache-ttl} so changes made by other instances show up through Redis; Redis
+ * entries older than {@code redis.max-age} are ignored, which bounds staleness if an
+ * instance stops writing. Levels are versioned per SKU, so an older level never replaces a
+ * newer one, locally or in Redis, where the flush compares versions in a script.
+ */
+@Component
+public class AvailabilityReadModel {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityReadModel.class);
+    static final String REDIS_KEY = "inventory:availability";
+    private static final int DATABASE_CHUNK = 500;
+
+    /**
+     * Sets each field/value pair in ARGV[2..] unless Redis holds a higher version of the SKU
+     * observed after ARGV[1], the max-age cutoff: an expired entry is replaced regardless.
+     */
+    private static final RedisScript<Long> PUT_NEWER = RedisScript.of("""
+            local written = 0
+            for i = 2, #ARGV, 2 do
+                local current = redis.call('HGET', KEYS[1], ARGV[i])
+                local write = true
+                if current then
+                    local version, observed = string.match(current, '^[^:]*:[^:]*:(%d+):(%d+)$')
+                    local incoming = string.match(ARGV[i + 1], '^[^:]*:[^:]*:(%d+):')
+                    write = not version or tonumber(incoming) >= tonumber(version)
+                        or tonumber(observed) < tonumber(ARGV[1])
+                end
+                if write then
+                    redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+                    written = written + 1
+                end
+            end
+            return written
+            """, Long.class);
+
+    private final InventoryRepository inventoryRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final HashOperations<String, String, String> redisHash;
+    private final Map<String, Entry> local = new ConcurrentHashMap<>();
+    private final Map<String, Entry> pendingRemote = new ConcurrentHashMap<>();
+    private final long nearCacheTtlNanos;
+    private final boolean remoteEnabled;
+    private final long remoteMaxAgeMillis;
+    private final long remoteRetryAfterMillis;
+    private volatile long remoteDownUntil;
+
+    private final Counter localHits;
+    private final Counter remoteHits;
+    private final Counter databaseHits;
+    private final Counter unknownSkus;
+    private final Timer staleness;
+
+    public AvailabilityReadModel(InventoryRepository inventoryRepository,
+                                 StringRedisTemplate redisTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${inventory.availability.near-cache-ttl:1s}") Duration nearCacheTtl,
+                                 @Value("${inventory.availability.redis.enabled:true}") boolean remoteEnabled,
+                                 @Value("${inventory.availability.redis.max-age:60s}") Duration remoteMaxAge,
+                                 @Value("${inventory.availability.redis.retry-after:30s}") Duration remoteRetryAfter) {
+        this.inventoryRepository = inventoryRepository;
+        this.redisTemplate = redisTemplate;
+        this.redisHash = redisTemplate.opsForHash();
+        this.nearCacheTtlNanos = nearCacheTtl.toNanos();
+        this.remoteEnabled = remoteEnabled;
+        this.remoteMaxAgeMillis = remoteMaxAge.toMillis();
+        this.remoteRetryAfterMillis = remoteRetryAfter.toMillis();
+
+        this.localHits = lookups(meterRegistry, "local");
+        this.remoteHits = lookups(meterRegistry, "redis");
+        this.databaseHits = lookups(meterRegistry, "database");
+        this.unknownSkus = lookups(meterRegistry, "unknown");
+        this.staleness = Timer.builder("inventory.availability.staleness")
+                .description("Time since the oldest level served by a stock check was read from the database or changed")
+                .register(meterRegistry);
+        Gauge.builder("inventory.availability.entries", local, Map::size)
+                .description("SKUs held in the local availability map")
+                .register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("inventory.availability.lookups")
+                .description("SKU availability lookups by the tier that answered them")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        long now = System.currentTimeMillis();
+        for (StockLevel level : event.levels()) {
+            put(level.sku(), new Entry(level.available(), level.status(), level.version(), now, System.nanoTime()));
+        }
+    }
+
+    public List<StockCheckResponse> check(List<String> skus) {
+        Set<String> missing = new LinkedHashSet<>();
+        Map<String, Entry> found = new HashMap<>(skus.size() * 2);
+        long now = System.nanoTime();
+        for (String sku : skus) {
+            Entry entry = local.get(sku);
+            if (entry != null && !entry.expired(now, nearCacheTtlNanos)) {
+                found.put(sku, entry);
+            } else {
+                missing.add(sku);
+            }
+        }
+        localHits.increment(found.size());
+
+        if (!missing.isEmpty()) {
+            readRemote(missing, found);
+        }
+        if (!missing.isEmpty()) {
+            readDatabase(missing, found);
+        }
+        if (!missing.isEmpty()) {
+            unknownSkus.increment(missing.size());
+        }
+
+        long oldest = Long.MAX_VALUE;
+        List<StockCheckResponse> responses = new ArrayList<>(skus.size());
+        for (String sku : skus) {
+            Entry entry = found.get(sku);
+            if (entry == null) {
+                responses.add(new StockCheckResponse(sku, 0, false));
+            } else {
+                oldest = Math.min(oldest, entry.observedAt());
+                responses.add(new StockCheckResponse(sku, entry.available(), entry.available() > 0));
+            }
+        }
+        if (oldest != Long.MAX_VALUE) {
+            staleness.record(Math.max(0, System.currentTimeMillis() - oldest), TimeUnit.MILLISECONDS);
+        }
+        return responses;
+    }
+
+    /**
+     * Pushes levels changed since the last flush to Redis in one script call, skipping SKUs
+     * another instance has already written a newer level of.
+     */
+    @Scheduled(fixedDelayString = "${inventory.availability.redis.flush-interval-ms:50}")
+    public void flushRemote() {
+        if (pendingRemote.isEmpty() || !remoteAvailable()) {
+            return;
+        }
+        Map<String, Entry> batch = new HashMap<>(pendingRemote);
+        batch.forEach(pendingRemote::remove);
+
+        List<String> args = new ArrayList<>(batch.size() * 2 + 1);
+        args.add(Long.toString(System.currentTimeMillis() - remoteMaxAgeMillis));
+        batch.forEach((sku, entry) -> {
+            args.add(sku);
+            args.add(entry.encode());
+        });
+        try {
+            redisTemplate.execute(PUT_NEWER, List.of(REDIS_KEY), args.toArray());
+        } catch (RuntimeException e) {
+            batch.forEach(this::queueRemote);
+            remoteFailed("write", e);
+        }
+    }
+
+    private void readRemote(Set<String> missing, Map<String, Entry> found) {
+        if (!remoteAvailable()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(missing);
+        List<String> values;
+        try {
+            values = redisHash.multiGet(REDIS_KEY, keys);
+        } catch (RuntimeException e) {
+            remoteFailed("read", e);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        int hits = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            Entry entry = Entry.decode(values.get(i));
+            if (entry == null || now - entry.observedAt() > remoteMaxAgeMillis) {
+                continue;
+            }
+            String sku = keys.get(i);
+            local.merge(sku, entry, this::newer);
+            found.put(sku, entry);
+            missing.remove(sku);
+            hits++;
+        }
+        remoteHits.increment(hits);
+    }
+
+    private void readDatabase(Set<String> missing, Map<String, Entry> found) {
+        List<String> skus = new ArrayList<>(missing);
+        long now = System.currentTimeMillis();
+        int hits = 0;
+        for (int from = 0; from < skus.size(); from += DATABASE_CHUNK) {
+            List<String> chunk = skus.subList(from, Math.min(skus.size(), from + DATABASE_CHUNK));
+            for (Inventory inventory : inventoryRepository.findBySkuIn(chunk)) {
+                StockLevel level = StockLevel.of(inventory);
+                Entry entry = new Entry(level.available(), level.status(), level.version(), now, System.nanoTime());
+                put(level.sku(), entry);
+                found.put(level.sku(), entry);
+                missing.remove(level.sku());
+                hits++;
+            }
+        }
+        databaseHits.increment(hits);
+    }
+
+    private void put(String sku, Entry entry) {
+        if (local.merge(sku, entry, this::newer) == entry) {
+            queueRemote(sku, entry);
+        }
+    }
+
+    /**
+     * Keeps the higher version, unless the current entry has outlived the near-cache TTL.
+     */
+    private Entry newer(Entry current, Entry incoming) {
+        return incoming.version() >= current.version() || current.expired(System.nanoTime(), nearCacheTtlNanos)
+                ? incoming : current;
+    }
+
+    private void queueRemote(String sku, Entry entry) {
+        if (remoteEnabled) {
+            pendingRemote.merge(sku, entry, this::newer);
+        }
+    }
+
+    private boolean remoteAvailable() {
+        return remoteEnabled && System.currentTimeMillis() >= remoteDownUntil;
+    }
+
+    private void remoteFailed(String operation, RuntimeException e) {
+        remoteDownUntil = System.currentTimeMillis() + remoteRetryAfterMillis;
+        log.warn("Redis availability {} failed, using local map and database for {} ms: {}",
+                operation, remoteRetryAfterMillis, e.getMessage());
+    }
+
+    /**
+     * @param observedAt epoch millis when the level was read from or written to the database
+     * @param cachedAt   {@link System#nanoTime()} when this instance cached it
+     */
+    private record Entry(int available, InventoryStatus status, long version, long observedAt, long cachedAt) {
+
+        boolean expired(long now, long ttlNanos) {
+            return now - cachedAt > ttlNanos;
+        }
+
+        String encode() {
+            return available + ":" + status + ":" + version + ":" + observedAt;
+        }
+
+        static Entry decode(String value) {
+            if (value == null) {
+                return null;
+            }
+            String[] parts = value.split(":");
+            if (parts.length != 4) {
+                return null;
+            }
+            try {
+                return new Entry(Integer.parseInt(parts[0]), InventoryStatus.valueOf(parts[1]),
+                        Long.parseLong(parts[2]), Long.parseLong(parts[3]), System.nanoTime());
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.model.ExpiryLease;
+import com.ecommerce.inventory.model.ExpiryMember;
+import com.ecommerce.inventory.repository.ExpiryLeaseRepository;
+import com.ecommerce.inventory.repository.ExpiryMemberRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Splits reservation expiry across instances. Reservations fall into {@code partitions}
+ * partitions by the first two hex digits of their id, and each partition is leased to one
+ * instance at a time through the {@code expiry_leases} table. Every {@code renew} round an
+ * instance records its heartbeat, extends its leases by {@code ttl} and evens out its share:
+ * with n live instances each holds about partitions / n, claiming free or lapsed leases when
+ * it has fewer and releasing the surplus when one joins. An instance that stops renewing
+ * loses its partitions to the others once its leases lapse; on shutdown it releases them.
+ *
+ * <p>An instance only acts on a partition while its own last renewal is younger than
+ * {@code ttl}, so it stops before another one can claim the lease.
+ */
+@Component
+public class ExpiryLeases {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiryLeases.class);
+    private static final int PREFIXES = 256;
+
+    private final ExpiryLeaseRepository leaseRepository;
+    private final ExpiryMemberRepository memberRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String instanceId;
+    private final int partitions;
+    private final Duration ttl;
+    private volatile Set<Integer> owned = Set.of();
+    private volatile long ownedUntil;
+
+    public ExpiryLeases(ExpiryLeaseRepository leaseRepository,
+                        ExpiryMemberRepository memberRepository,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${inventory.expiry.partitions:64}") int partitions,
+                        @Value("${inventory.expiry.lease.ttl:15s}") Duration ttl) {
+        if (partitions < 1 || partitions > PREFIXES || Integer.bitCount(partitions) != 1) {
+            throw new IllegalArgumentException("inventory.expiry.partitions must be a power of two up to "
+                    + PREFIXES + ": " + partitions);
+        }
+        this.leaseRepository = leaseRepository;
+        this.memberRepository = memberRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.instanceId = ManagementFactory.getRuntimeMXBean().getName() + "-"
+                + UUID.randomUUID().toString().substring(0, 8);
+        this.partitions = partitions;
+        this.ttl = ttl;
+
+        Gauge.builder("inventory.expiry.partitions.owned", this, leases -> leases.owned.size())
+                .description("Reservation expiry partitions leased to this instance")
+                .register(meterRegistry);
+    }
+
+    int partitionOf(String reservationId) {
+        int high = Character.digit(reservationId.charAt(0), 16);
+        int low = Character.digit(reservationId.charAt(1), 16);
+        return ((high << 4) | low) % partitions;
+    }
+
+    /**
+     * Whether this instance may expire reservations of {@code partition} now.
+     */
+    boolean owns(int partition) {
+        return System.currentTimeMillis() < ownedUntil && owned.contains(partition);
+    }
+
+    Set<Integer> owned() {
+        return System.currentTimeMillis() < ownedUntil ? owned : Set.of();
+    }
+
+    /**
+     * Reservation id prefixes making up {@code partitionIds}, for queries.
+     */
+    List<String> prefixes(Collection<Integer> partitionIds) {
+        List<String> prefixes = new ArrayList<>();
+        for (int prefix = 0; prefix < PREFIXES; prefix++) {
+            if (partitionIds.contains(prefix % partitions)) {
+                prefixes.add(String.format("%02x", prefix));
+            }
+        }
+        return prefixes;
+    }
+
+    /**
+     * Renews this instance's leases and rebalances them against the live instances.
+     */
+    synchronized LeaseChange renew() {
+        long started = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        createMissing();
+        Set<Integer> current = transactionTemplate.execute(tx -> {
+            if (memberRepository.heartbeat(instanceId, now) == 0) {
+                memberRepository.save(new ExpiryMember(instanceId, now));
+            }
+            long members = Math.max(1, memberRepository.countByHeartbeatAtAfter(now.minus(ttl)));
+            int share = (int) ((partitions + members - 1) / members);
+
+            LocalDateTime until = now.plus(ttl);
+            leaseRepository.renew(instanceId, until);
+            TreeSet<Integer> mine = new TreeSet<>(leaseRepository.findPartitionsByOwner(instanceId));
+            mine.removeIf(partition -> partition >= partitions);
+            if (mine.size() > share) {
+                List<Integer> surplus = new ArrayList<>();
+                while (mine.size() > share) {
+                    surplus.add(mine.pollLast());
+                }
+                leaseRepository.release(instanceId, surplus);
+            } else if (mine.size() < share) {
+                for (Integer partition : leaseRepository.findClaimable(partitions, now)) {
+                    if (mine.size() >= share) {
+                        break;
+                    }
+                    if (leaseRepository.claim(partition, instanceId, now, until) == 1) {
+                        mine.add(partition);
+                    }
+                }
+            }
+            memberRepository.deleteStale(now.minus(ttl.multipliedBy(10)));
+            return mine;
+        });
+
+        Set<Integer> previous = owned();
+        Set<Integer> acquired = new HashSet<>(current);
+        acquired.removeAll(previous);
+        Set<Integer> lost = new HashSet<>(previous);
+        lost.removeAll(current);
+        owned = Set.copyOf(current);
+        ownedUntil = started + ttl.toMillis();
+        if (!acquired.isEmpty() || !lost.isEmpty()) {
+            log.info("Expiry partitions of {}: {} owned, {} acquired, {} released or lost",
+                    instanceId, current.size(), acquired.size(), lost.size());
+        }
+        return new LeaseChange(acquired, lost);
+    }
+
+    @PreDestroy
+    public synchronized void release() {
+        Set<Integer> current = owned;
+        owned = Set.of();
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                if (!current.isEmpty()) {
+                    leaseRepository.release(instanceId, current);
+                }
+                memberRepository.deleteById(instanceId);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not release expiry partitions of {}, they lapse after {}: {}",
+                    instanceId, ttl, e.getMessage());
+        }
+    }
+
+    private void createMissing() {
+        if (leaseRepository.count() >= partitions) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                for (int partition = 0; partition < partitions; partition++) {
+                    if (!leaseRepository.existsById(partition)) {
+                        leaseRepository.save(new ExpiryLease(partition));
+                    }
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created them first
+            log.debug("Expiry leases created concurrently: {}", e.getMessage());
+        }
+    }
+
+    record LeaseChange(Set<Integer> acquired, Set<Integer> lost) {}
+}
@@ -0,0 +1,526 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.event.StockChangedEvent;
+import com.ecommerce.inventory.model.Inventory;
+import com.ecommerce.inventory.model.InventoryStripe;
+import com.ecommerce.inventory.model.ReservationItem;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import com.ecommerce.inventory.repository.InventoryRepository.StripedSku;
+import com.ecommerce.inventory.repository.InventoryStripeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Hot-SKU mode for the JPA engine. A SKU whose row keeps being contended (as measured by
+ * {@link SkuContentionTracker}) gets its free stock split across {@code stripes}
+ * {@link InventoryStripe} rows; an order reserves from the stripe its id hashes to, borrowing
+ * from sibling stripes when that one runs dry, so concurrent orders lock different rows. The
+ * {@link Inventory} row keeps the SKU's totals: every {@code rebalance-interval-ms} the changes
+ * made on the stripes are folded into it (and published to the availability read model behind
+ * {@code /check}), and the free stock is spread evenly over the stripes again, including stock
+ * restocked on the row. A SKU goes back to its single row once this instance has seen fewer
+ * than {@code demote-below-rate} reservations per second for it for {@code demote-after}.
+ *
+ * <p>Lock order is reservation, inventory rows, then stripes in stripe order. Whether a SKU is
+ * striped is cached here and refreshed every rebalance; reservation paths check the row itself
+ * when they read it, and a transaction that finds the stripes gone fails with
+ * {@link StripesChanged} so it can be retried.
+ */
+@Component
+public class HotSkuStripes {
+
+    private static final Logger log = LoggerFactory.getLogger(HotSkuStripes.class);
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryStripeRepository stripeRepository;
+    private final SkuContentionTracker contentionTracker;
+    private final WarehouseAllocator warehouses;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int stripeCount;
+    private final double promoteAbove;
+    private final double demoteBelowRate;
+    private final long demoteAfterMillis;
+    private final Map<String, Integer> striped = new ConcurrentHashMap<>();
+    private final Map<String, Activity> activity = new ConcurrentHashMap<>();
+
+    private final Counter toStriped;
+    private final Counter toRow;
+    private final Counter borrows;
+
+    public HotSkuStripes(InventoryRepository inventoryRepository,
+                         InventoryStripeRepository stripeRepository,
+                         SkuContentionTracker contentionTracker,
+                         WarehouseAllocator warehouses,
+                         ApplicationEventPublisher eventPublisher,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${inventory.reservation.engine:jpa}") String engine,
+                         @Value("${inventory.reservation.hot-sku.enabled:false}") boolean enabled,
+                         @Value("${inventory.reservation.hot-sku.stripes:8}") int stripeCount,
+                         @Value("${inventory.reservation.hot-sku.promote-above:0.5}") double promoteAbove,
+                         @Value("${inventory.reservation.hot-sku.demote-below-rate:1}") double demoteBelowRate,
+                         @Value("${inventory.reservation.hot-sku.demote-after:5m}") Duration demoteAfter) {
+        this.inventoryRepository = inventoryRepository;
+        this.stripeRepository = stripeRepository;
+        this.contentionTracker = contentionTracker;
+        this.warehouses = warehouses;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled && "jpa".equalsIgnoreCase(engine);
+        this.stripeCount = stripeCount;
+        this.promoteAbove = promoteAbove;
+        this.demoteBelowRate = demoteBelowRate;
+        this.demoteAfterMillis = demoteAfter.toMillis();
+
+        this.toStriped = Counter.builder("inventory.hot_sku.switches")
+                .description("SKUs switched between striped and single-row stock")
+                .tag("to", "striped")
+                .register(meterRegistry);
+        this.toRow = Counter.builder("inventory.hot_sku.switches")
+                .description("SKUs switched between striped and single-row stock")
+                .tag("to", "row")
+                .register(meterRegistry);
+        this.borrows = Counter.builder("inventory.hot_sku.borrows")
+                .description("Reservations that borrowed stock from sibling stripes")
+                .register(meterRegistry);
+        Gauge.builder("inventory.hot_sku.count", striped, Map::size)
+                .description("SKUs currently striped")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stripes are only maintained by the JPA engine; otherwise existing ones are folded back
+     * into their rows.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            refresh();
+        } else {
+            demoteAll();
+        }
+    }
+
+    public boolean isStriped(String sku) {
+        return striped.containsKey(sku);
+    }
+
+    public boolean anyStriped(Collection<String> skus) {
+        if (striped.isEmpty()) {
+            return false;
+        }
+        for (String sku : skus) {
+            if (striped.containsKey(sku)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Updates the cached state of a SKU from a row read by a reservation.
+     */
+    void observe(Inventory inventory) {
+        if (inventory.hasStripes()) {
+            striped.put(inventory.getSku(), inventory.getStripes());
+        } else if (!striped.isEmpty()) {
+            striped.remove(inventory.getSku());
+        }
+    }
+
+    /**
+     * Reserves striped SKUs for one order inside the caller's transaction. Each SKU is taken
+     * from the stripe the order id hashes to, borrowing from the stripes after it when that one
+     * is short. If those are short too but the SKU as a whole is not, {@link StripeShortage}
+     * asks for a retry with {@code allStripes}, which locks every stripe of the SKU.
+     */
+    Allocation reserve(String orderId, Map<String, Integer> quantities, boolean allStripes) {
+        Map<String, List<InventoryStripe>> locked = new TreeMap<>();
+        for (Map.Entry<String, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+            String sku = entry.getKey();
+            int quantity = entry.getValue();
+            if (allStripes) {
+                locked.put(sku, lockAll(sku));
+                continue;
+            }
+
+            int preferred = preferredStripe(orderId, striped.getOrDefault(sku, stripeCount));
+            List<InventoryStripe> stripes = new ArrayList<>(
+                    stripeRepository.findBySkuAndStripeInWithLock(sku, List.of(preferred)));
+            if (stripes.isEmpty()) {
+                throw changed(sku);
+            }
+            if (available(stripes) < quantity) {
+                stripes.addAll(stripeRepository.findBySkuAndStripeAboveWithLock(sku, preferred));
+                if (available(stripes) < quantity) {
+                    long total = stripeRepository.sumAvailable(sku);
+                    if (total >= quantity) {
+                        throw new StripeShortage(sku);
+                    }
+                    return new Allocation(Map.of(), insufficientMessage(sku, total, quantity));
+                }
+            }
+            locked.put(sku, stripes);
+        }
+
+        String insufficient = insufficientStock(quantities, locked);
+        if (insufficient != null) {
+            return new Allocation(Map.of(), insufficient);
+        }
+        return new Allocation(allocate(orderId, quantities, locked), null);
+    }
+
+    /**
+     * Locks every stripe of the given SKUs, for transactions that reserve many orders.
+     */
+    Map<String, List<InventoryStripe>> lockAll(Collection<String> skus) {
+        Map<String, List<InventoryStripe>> locked = new TreeMap<>();
+        for (String sku : new TreeSet<>(skus)) {
+            locked.put(sku, lockAll(sku));
+        }
+        return locked;
+    }
+
+    /**
+     * Returns the failure message if the locked stripes cannot cover all quantities, or null.
+     */
+    static String insufficientStock(Map<String, Integer> quantities, Map<String, List<InventoryStripe>> locked) {
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            int available = available(locked.get(entry.getKey()));
+            if (available < entry.getValue()) {
+                return insufficientMessage(entry.getKey(), available, entry.getValue());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reserves each quantity from the order's preferred stripe, topped up from its siblings,
+     * and returns the stripe used per SKU. The caller checked that the stock is there.
+     */
+    Map<String, Integer> allocate(String orderId, Map<String, Integer> quantities,
+                                  Map<String, List<InventoryStripe>> locked) {
+        Map<String, Integer> allocated = new HashMap<>();
+        quantities.forEach((sku, quantity) -> {
+            List<InventoryStripe> stripes = locked.get(sku);
+            int preferred = preferredStripe(orderId, striped.getOrDefault(sku, stripeCount));
+            InventoryStripe target = stripes.stream()
+                    .filter(s -> s.getStripe() == preferred)
+                    .findFirst()
+                    .orElse(stripes.get(0));
+
+            int missing = quantity - target.getQuantityAvailable();
+            if (missing > 0) {
+                borrows.increment();
+                for (InventoryStripe sibling : stripes) {
+                    if (missing <= 0) {
+                        break;
+                    }
+                    if (sibling != target) {
+                        int moved = Math.min(missing, sibling.getQuantityAvailable());
+                        sibling.transfer(-moved);
+                        target.transfer(moved);
+                        missing -= moved;
+                    }
+                }
+            }
+            if (!target.reserve(quantity)) {
+                throw new IllegalStateException("Stripes of SKU " + sku + " cannot cover " + quantity);
+            }
+            allocated.put(sku, target.getStripe());
+            Activity a = activity.get(sku);
+            if (a != null) {
+                a.reservations.increment();
+            }
+        });
+        return allocated;
+    }
+
+    void release(Collection<ReservationItem> items) {
+        apply(items, InventoryStripe::releaseReservation);
+    }
+
+    void confirm(Collection<ReservationItem> items) {
+        apply(items, InventoryStripe::confirmReservation);
+    }
+
+    private void apply(Collection<ReservationItem> items, ObjIntConsumer<InventoryStripe> change) {
+        Map<String, Map<Integer, Integer>> bySku = new TreeMap<>();
+        for (ReservationItem item : items) {
+            bySku.computeIfAbsent(item.getSku(), sku -> new TreeMap<>())
+                    .merge(item.getStripe(), item.getQuantity(), Integer::sum);
+        }
+        bySku.forEach((sku, quantities) -> {
+            List<InventoryStripe> stripes = stripeRepository.findBySkuAndStripeInWithLock(sku, quantities.keySet());
+            if (stripes.size() != quantities.size()) {
+                throw changed(sku);
+            }
+            stripes.forEach(stripe -> change.accept(stripe, quantities.get(stripe.getStripe())));
+        });
+    }
+
+    /**
+     * Brings a locked, striped row's totals up to date before it is adjusted directly, and
+     * returns its stripes, locked. Pass them to {@link #respread} once the row is adjusted, in
+     * the same transaction: until then they still hold the free stock from before.
+     */
+    List<InventoryStripe> fold(Inventory inventory) {
+        List<InventoryStripe> stripes = lockAll(inventory.getSku());
+        fold(inventory, stripes);
+        return stripes;
+    }
+
+    /**
+     * Spreads an adjusted row's free stock over its stripes, as locked by {@link #fold(Inventory)}.
+     */
+    void respread(Inventory inventory, List<InventoryStripe> stripes) {
+        spread(inventory.getQuantityAvailable(), stripes);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.hot-sku.rebalance-interval-ms:500}")
+    public void rebalance() {
+        if (!enabled) {
+            return;
+        }
+        refresh();
+        long now = System.currentTimeMillis();
+        for (String sku : striped.keySet()) {
+            try {
+                if (idle(sku, now)) {
+                    demote(sku);
+                } else {
+                    transactionTemplate.executeWithoutResult(tx -> rebalance(sku));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to rebalance hot SKU {}: {}", sku, e.getMessage());
+            }
+        }
+
+        for (String sku : contentionTracker.contendedAbove(promoteAbove)) {
+            // Stock kept per warehouse is reserved on its row and warehouse rows, never striped
+            if (!striped.containsKey(sku) && !warehouses.isWarehoused(sku)) {
+                try {
+                    promote(sku);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to stripe hot SKU {}: {}", sku, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Folds all stripes back into their rows.
+     */
+    public void demoteAll() {
+        for (StripedSku sku : inventoryRepository.findStriped()) {
+            demote(sku.sku());
+        }
+    }
+
+    private void rebalance(String sku) {
+        Inventory inventory = inventoryRepository.findBySkuWithLock(sku).orElse(null);
+        if (inventory == null || !inventory.hasStripes()) {
+            striped.remove(sku);
+            return;
+        }
+        List<InventoryStripe> stripes = stripeRepository.findBySkuWithLock(sku);
+        boolean changed = fold(inventory, stripes);
+        spread(inventory.getQuantityAvailable(), stripes);
+        if (changed) {
+            eventPublisher.publishEvent(StockChangedEvent.of(inventory));
+        }
+    }
+
+    private void promote(String sku) {
+        boolean promoted = Boolean.TRUE.equals(transactionTemplate.execute(tx -> {
+            Inventory inventory = inventoryRepository.findBySkuWithLock(sku).orElse(null);
+            if (inventory == null || inventory.hasStripes()) {
+                return false;
+            }
+            inventory.setStripes(stripeCount);
+            List<InventoryStripe> stripes = new ArrayList<>(stripeCount);
+            for (int i = 0; i < stripeCount; i++) {
+                stripes.add(new InventoryStripe(sku, i, 0));
+            }
+            spread(inventory.getQuantityAvailable(), stripes);
+            stripeRepository.saveAll(stripes);
+            return true;
+        }));
+        if (promoted) {
+            striped.put(sku, stripeCount);
+            activity.put(sku, new Activity(System.currentTimeMillis()));
+            contentionTracker.forget(sku);
+            toStriped.increment();
+            log.info("SKU {} is hot, splitting its stock across {} stripes", sku, stripeCount);
+        }
+    }
+
+    private void demote(String sku) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            Inventory inventory = inventoryRepository.findBySkuWithLock(sku).orElse(null);
+            if (inventory == null || !inventory.hasStripes()) {
+                return;
+            }
+            List<InventoryStripe> stripes = stripeRepository.findBySkuWithLock(sku);
+            fold(inventory, stripes);
+            stripeRepository.unassignItems(sku);
+            stripeRepository.deleteAll(stripes);
+            inventory.setStripes(null);
+            eventPublisher.publishEvent(StockChangedEvent.of(inventory));
+        });
+        striped.remove(sku);
+        activity.remove(sku);
+        // Samples taken before it was striped would promote it again straight away
+        contentionTracker.forget(sku);
+        toRow.increment();
+        log.info("SKU {} is no longer hot, merging its stripes back into its row", sku);
+    }
+
+    /**
+     * Applies the stripes' pending changes to the row; returns true if there were any.
+     */
+    private static boolean fold(Inventory inventory, List<InventoryStripe> stripes) {
+        int onHand = 0;
+        int reserved = 0;
+        for (InventoryStripe stripe : stripes) {
+            onHand += stripe.takePendingOnHand();
+            reserved += stripe.takePendingReserved();
+        }
+        if (onHand == 0 && reserved == 0) {
+            return false;
+        }
+        inventory.applyStripeChanges(onHand, reserved);
+        return true;
+    }
+
+    /**
+     * Gives every stripe an even share of the SKU's free stock.
+     */
+    private static void spread(int free, List<InventoryStripe> stripes) {
+        int n = stripes.size();
+        for (int i = 0; i < n; i++) {
+            int share = free > 0 ? free / n + (i < free % n ? 1 : 0) : 0;
+            InventoryStripe stripe = stripes.get(i);
+            stripe.transfer(share - stripe.getQuantityAvailable());
+        }
+    }
+
+    private List<InventoryStripe> lockAll(String sku) {
+        List<InventoryStripe> stripes = stripeRepository.findBySkuWithLock(sku);
+        if (stripes.isEmpty()) {
+            throw changed(sku);
+        }
+        return stripes;
+    }
+
+    /**
+     * True once the SKU has been quiet on this instance for {@code demote-after}.
+     */
+    private boolean idle(String sku, long now) {
+        Activity a = activity.computeIfAbsent(sku, k -> new Activity(now));
+        long elapsed = now - a.lastTick;
+        if (elapsed <= 0) {
+            return false;
+        }
+        double rate = a.reservations.sumThenReset() * 1000.0 / elapsed;
+        a.lastTick = now;
+        if (rate >= demoteBelowRate) {
+            a.lastBusy = now;
+        }
+        return now - a.lastBusy >= demoteAfterMillis;
+    }
+
+    private void refresh() {
+        Map<String, Integer> current = new HashMap<>();
+        for (StripedSku sku : inventoryRepository.findStriped()) {
+            current.put(sku.sku(), sku.stripes());
+        }
+        striped.keySet().retainAll(current.keySet());
+        striped.putAll(current);
+        activity.keySet().retainAll(current.keySet());
+    }
+
+    private StripesChanged changed(String sku) {
+        inventoryRepository.findBySku(sku).ifPresent(this::observe);
+        return new StripesChanged(sku);
+    }
+
+    private static int preferredStripe(String orderId, int stripes) {
+        return Math.floorMod(Objects.hashCode(orderId), stripes);
+    }
+
+    private static int available(List<InventoryStripe> stripes) {
+        int available = 0;
+        for (InventoryStripe stripe : stripes) {
+            available += stripe.getQuantityAvailable();
+        }
+        return available;
+    }
+
+    private static String insufficientMessage(String sku, long available, int requested) {
+        return "Insufficient stock for SKU: " + sku +
+                " (available: " + available +
+                ", requested: " + requested + ")";
+    }
+
+    /**
+     * @param stripes      stripe each SKU was reserved from
+     * @param insufficient failure message if the stripes could not cover the order
+     */
+    record Allocation(Map<String, Integer> stripes, String insufficient) {}
+
+    /**
+     * A SKU was striped or merged back while the transaction ran; retry it.
+     */
+    static final class StripesChanged extends RuntimeException {
+        StripesChanged(String sku) {
+            super("Stripes of SKU " + sku + " changed", null, false, false);
+        }
+    }
+
+    /**
+     * The stripes reachable in stripe order were short; retry locking all of the SKU's stripes.
+     */
+    static final class StripeShortage extends RuntimeException {
+        StripeShortage(String sku) {
+            super("Stripes of SKU " + sku + " need rebalancing", null, false, false);
+        }
+    }
+
+    private static final class Activity {
+        final LongAdder reservations = new LongAdder();
+        volatile long lastTick;
+        volatile long lastBusy;
+
+        Activity(long now) {
+            this.lastTick = now;
+            this.lastBusy = now;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.event.ReservationChangedEvent;
+import com.ecommerce.inventory.event.StockChangedEvent;
+import com.ecommerce.inventory.event.StockChangedEvent.StockLevel;
+import com.ecommerce.inventory.model.Inventory.InventoryStatus;
+import com.ecommerce.inventory.model.StockReservation.ReservationStatus;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import com.ecommerce.inventory.repository.ReservationRepository;
+import com.ecommerce.inventory.service.InventoryService.InventoryStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Inventory totals behind {@code /stats} and the stock gauges, kept up to date from committed
+ * {@link StockChangedEvent}s and {@link ReservationChangedEvent}s instead of being counted on
+ * every request. Each stock level carries the change it made, which is added to the totals as
+ * it arrives; changes commute, so the order events arrive in does not matter.
+ *
+ * <p>Events only cover changes made by this instance, so every {@code reconcile-interval-ms}
+ * the totals are reset from SQL aggregates, keeping the changes applied while the queries ran.
+ */
+@Component
+public class InventoryAggregates {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryAggregates.class);
+
+    private final InventoryRepository inventoryRepository;
+    private final ReservationRepository reservationRepository;
+    private final long[] byStatus = new long[InventoryStatus.values().length];
+    private long totalOnHand;
+    private long totalReserved;
+    private long activeReservations;
+    private boolean loaded;
+    private final Timer reconcileTimer;
+
+    public InventoryAggregates(InventoryRepository inventoryRepository,
+                               ReservationRepository reservationRepository,
+                               MeterRegistry meterRegistry) {
+        this.inventoryRepository = inventoryRepository;
+        this.reservationRepository = reservationRepository;
+
+        this.reconcileTimer = Timer.builder("inventory.stats.reconcile")
+                .description("Time to reload inventory aggregates from the database")
+                .register(meterRegistry);
+
+        Gauge.builder("inventory.low_stock.count", this, a -> a.count(InventoryStatus.LOW_STOCK))
+                .description("Number of low stock items")
+                .register(meterRegistry);
+        for (InventoryStatus status : InventoryStatus.values()) {
+            Gauge.builder("inventory.items", this, a -> a.count(status))
+                    .description("SKUs by stock status")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("inventory.quantity.on_hand", this, InventoryAggregates::totalOnHand)
+                .description("Total quantity on hand")
+                .register(meterRegistry);
+        Gauge.builder("inventory.quantity.reserved", this, InventoryAggregates::totalReserved)
+                .description("Total quantity reserved")
+                .register(meterRegistry);
+        Gauge.builder("inventory.reservations.active", this, InventoryAggregates::activeReservations)
+                .description("Active reservations")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStockChanged(StockChangedEvent event) {
+        for (StockLevel level : event.levels()) {
+            if (level.previousStatus() != null) {
+                byStatus[level.previousStatus().ordinal()]--;
+            }
+            if (level.status() != null) {
+                byStatus[level.status().ordinal()]++;
+            }
+            totalOnHand += level.onHandChange();
+            totalReserved += level.reservedChange();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onReservationChanged(ReservationChangedEvent event) {
+        activeReservations += event.status() == ReservationStatus.ACTIVE ? 1 : -1;
+    }
+
+    public InventoryStats stats() {
+        synchronized (this) {
+            if (loaded) {
+                return current();
+            }
+        }
+        reconcile();
+        synchronized (this) {
+            return current();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.stats.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        Timer.Sample sample = Timer.start();
+        InventoryStats before;
+        synchronized (this) {
+            before = current();
+        }
+        long[] counts = new long[byStatus.length];
+        for (InventoryStatus status : InventoryStatus.values()) {
+            counts[status.ordinal()] = inventoryRepository.countByStatus(status);
+        }
+        long onHandTotal = orZero(inventoryRepository.getTotalQuantity());
+        long reservedTotal = orZero(inventoryRepository.getTotalReserved());
+        long active = reservationRepository.countByStatus(ReservationStatus.ACTIVE);
+
+        synchronized (this) {
+            // Changes applied while the queries ran are kept on top of their results
+            InventoryStats during = current();
+            long onHand = totalOnHand;
+            long reserved = totalReserved;
+            long reservations = activeReservations;
+            counts[InventoryStatus.IN_STOCK.ordinal()] += during.inStock() - before.inStock();
+            counts[InventoryStatus.LOW_STOCK.ordinal()] += during.lowStock() - before.lowStock();
+            counts[InventoryStatus.OUT_OF_STOCK.ordinal()] += during.outOfStock() - before.outOfStock();
+            System.arraycopy(counts, 0, byStatus, 0, counts.length);
+            totalOnHand = onHandTotal + during.totalQuantity() - before.totalQuantity();
+            totalReserved = reservedTotal + during.totalReserved() - before.totalReserved();
+            activeReservations = active + during.activeReservations() - before.activeReservations();
+            if (loaded && (onHand != totalOnHand || reserved != totalReserved || reservations != activeReservations)) {
+                log.info("Reconciled inventory aggregates: on hand {} -> {}, reserved {} -> {}, active reservations {} -> {}",
+                        onHand, totalOnHand, reserved, totalReserved, reservations, activeReservations);
+            }
+            loaded = true;
+        }
+        long elapsed = sample.stop(reconcileTimer);
+        log.debug("Reloaded inventory aggregates in {} ms", elapsed / 1_000_000);
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0;
+    }
+
+    private InventoryStats current() {
+        return new InventoryStats(
+                byStatus[InventoryStatus.IN_STOCK.ordinal()],
+                byStatus[InventoryStatus.LOW_STOCK.ordinal()],
+                byStatus[InventoryStatus.OUT_OF_STOCK.ordinal()],
+                totalOnHand, totalReserved, activeReservations);
+    }
+
+    private synchronized long count(InventoryStatus status) {
+        return byStatus[status.ordinal()];
+    }
+
+    private synchronized long totalOnHand() {
+        return totalOnHand;
+    }
+
+    private synchronized long totalReserved() {
+        return totalReserved;
+    }
+
+    private synchronized long activeReservations() {
+        return activeReservations;
+    }
+}
@@ -1,45 +1,141 @@
 package com.ecommerce.inventory.service;
 
+import com.ecommerce.inventory.event.LowStockAlert;
+import com.ecommerce.inventory.event.ReservationChangedEvent;
+import com.ecommerce.inventory.event.StockChangedEvent;
 import com.ecommerce.inventory.model.Inventory;
-import com.ecommerce.inventory.model.Inventory.InventoryStatus;
+import com.ecommerce.inventory.model.InventoryStripe;
 import com.ecommerce.inventory.model.ReservationItem;
+import com.ecommerce.inventory.model.StockMovement;
+import com.ecommerce.inventory.model.StockMovement.MovementType;
 import com.ecommerce.inventory.model.StockReservation;
 import com.ecommerce.inventory.model.StockReservation.ReservationStatus;
 import com.ecommerce.inventory.repository.InventoryRepository;
 import com.ecommerce.inventory.repository.ReservationRepository;
+import com.ecommerce.inventory.repository.ReservationRepository.OrderReservation;
 import io.micrometer.core.instrument.Counter;
-import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class InventoryService {
 
     private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
+    private static final int LOW_STOCK_CHUNK_SIZE = 1000;
 
     private final InventoryRepository inventoryRepository;
     private final ReservationRepository reservationRepository;
-    
+    private final StockLedger stockLedger;
+    private final SkuContentionTracker contentionTracker;
+    private final ReservationCoalescer coalescer;
+    private final HotSkuStripes hotSkus;
+    private final AvailabilityReadModel availability;
+    private final InventoryAggregates aggregates;
+    private final StockMovementLog movementLog;
+    private final WarehouseAllocator warehouses;
+    private final ReservationDedupe dedupe;
+    private final LowStockMonitor lowStock;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final int lockMaxAttempts;
+    private final Duration lockRetryBackoff;
+    private final int optimisticMaxAttempts;
+    private final long contendedLockWaitNanos;
+
     private final Counter reservationsCreated;
     private final Counter reservationsConfirmed;
     private final Counter reservationsReleased;
-    private final AtomicLong lowStockCount = new AtomicLong(0);
+    private final Timer lockWaitTimer;
+    private final Counter lockConflicts;
+    private final Counter lockRetries;
+    private final Counter optimisticReservations;
+    private final Counter pessimisticReservations;
+    private final Counter stripedReservations;
+    private final Counter optimisticConflicts;
+    private final Counter optimisticRetries;
+    private final Counter optimisticFallbacks;
+    private final DistributionSummary batchSize;
 
     public InventoryService(InventoryRepository inventoryRepository,
                            ReservationRepository reservationRepository,
-                           MeterRegistry meterRegistry) {
+                           StockLedger stockLedger,
+                           SkuContentionTracker contentionTracker,
+                           ReservationCoalescer coalescer,
+                           HotSkuStripes hotSkus,
+                           AvailabilityReadModel availability,
+                           InventoryAggregates aggregates,
+                           StockMovementLog movementLog,
+                           WarehouseAllocator warehouses,
+                           ReservationDedupe dedupe,
+                           LowStockMonitor lowStock,
+                           ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager,
+                           EntityManager entityManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${inventory.reservation.lock.max-attempts:3}") int lockMaxAttempts,
+                           @Value("${inventory.reservation.lock.retry-backoff:20ms}") Duration lockRetryBackoff,
+                           @Value("${inventory.reservation.adaptive.optimistic-max-attempts:3}") int optimisticMaxAttempts,
+                           @Value("${inventory.reservation.adaptive.contended-lock-wait:5ms}") Duration contendedLockWait) {
         this.inventoryRepository = inventoryRepository;
         this.reservationRepository = reservationRepository;
+        this.stockLedger = stockLedger;
+        this.contentionTracker = contentionTracker;
+        this.coalescer = coalescer;
+        this.hotSkus = hotSkus;
+        this.availability = availability;
+        this.aggregates = aggregates;
+        this.movementLog = movementLog;
+        this.warehouses = warehouses;
+        this.dedupe = dedupe;
+        this.lowStock = lowStock;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.lockMaxAttempts = lockMaxAttempts;
+        this.lockRetryBackoff = lockRetryBackoff;
+        this.optimisticMaxAttempts = optimisticMaxAttempts;
+        this.contendedLockWaitNanos = contendedLockWait.toNanos();
 
         this.reservationsCreated = Counter.builder("inventory.reservations.created")
                 .description("Total reservations created")
@@ -53,9 +149,50 @@ public class InventoryService {
                 .description("Total reservations released")
                 .register(meterRegistry);
 
-        Gauge.builder("inventory.low_stock.count", lowStockCount, AtomicLong::get)
-                .description("Number of low stock items")
+        this.lockWaitTimer = Timer.builder("inventory.lock.wait")
+                .description("Time spent acquiring inventory row locks")
+                .register(meterRegistry);
+
+        this.lockConflicts = Counter.builder("inventory.lock.deadlocks")
+                .description("Stock transactions aborted by a deadlock or lock timeout")
+                .register(meterRegistry);
+
+        this.lockRetries = Counter.builder("inventory.lock.retries")
+                .description("Stock transactions retried after a deadlock or lock timeout")
+                .register(meterRegistry);
+
+        this.optimisticReservations = Counter.builder("inventory.reservations.mode")
+                .description("JPA reservation attempts by locking mode")
+                .tag("mode", "optimistic")
+                .register(meterRegistry);
+
+        this.pessimisticReservations = Counter.builder("inventory.reservations.mode")
+                .description("JPA reservation attempts by locking mode")
+                .tag("mode", "pessimistic")
+                .register(meterRegistry);
+
+        this.stripedReservations = Counter.builder("inventory.reservations.mode")
+                .description("JPA reservation attempts by locking mode")
+                .tag("mode", "striped")
+                .register(meterRegistry);
+
+        this.optimisticConflicts = Counter.builder("inventory.reservations.optimistic.conflicts")
+                .description("Optimistic reservations that lost a version check")
+                .register(meterRegistry);
+
+        this.optimisticRetries = Counter.builder("inventory.reservations.optimistic.retries")
+                .description("Optimistic reservations retried after a conflict")
+                .register(meterRegistry);
+
+        this.optimisticFallbacks = Counter.builder("inventory.reservations.optimistic.fallbacks")
+                .description("Optimistic reservations that fell back to row locks after repeated conflicts")
                 .register(meterRegistry);
+
+        this.batchSize = DistributionSummary.builder("inventory.reservations.batch.size")
+                .description("Reservations committed per batch transaction")
+                .register(meterRegistry);
+
+        coalescer.setHandler(this::reserveBatchWithLocks);
     }
 
     @Transactional(readOnly = true)
@@ -63,185 +200,1023 @@ public class InventoryService {
         return inventoryRepository.findBySku(sku);
     }
 
-    @Transactional(readOnly = true)
+    // Served from the availability read model; only cold SKUs reach the database
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<StockCheckResponse> checkStock(List<String> skus) {
-        log.info("Checking stock for {} SKUs", skus.size());
-        List<Inventory> inventories = inventoryRepository.findBySkuIn(skus);
-
-        return skus.stream()
-                .map(sku -> {
-                    Optional<Inventory> inv = inventories.stream()
-                            .filter(i -> i.getSku().equals(sku))
-                            .findFirst();
-                    
-                    return inv.map(i -> new StockCheckResponse(
-                            sku, 
-                            i.getQuantityAvailable(), 
-                            i.getQuantityAvailable() > 0
-                    )).orElse(new StockCheckResponse(sku, 0, false));
-                })
-                .toList();
+        log.debug("Checking stock for {} SKUs", skus.size());
+        return availability.check(skus);
     }
 
+    // Stock mutations manage their own transactions: the ledger engine must not hold a
+    // connection while it waits for its group commit.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ReservationResponse reserveStock(String orderId, List<ReservationRequest> items) {
+        return reserveStock(orderId, items, null);
+    }
+
+    /**
+     * Idempotent on {@code orderId}: an order that already holds a reservation gets its
+     * original response back, see {@link ReservationDedupe}.
+     *
+     * @param region shipping region of the order (e.g. {@code US-CA}), used to choose the
+     *               warehouses of SKUs stocked per warehouse; may be null
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReservationResponse reserveStock(String orderId, List<ReservationRequest> items, String region) {
+        return dedupe.reserve(orderId, () -> createReservation(orderId, items, region));
+    }
+
+    private ReservationResponse createReservation(String orderId, List<ReservationRequest> items, String region) {
         log.info("Creating reservation for order: {}", orderId);
 
-        // Check if all items are available
+        ReservationResponse response;
+        if (stockLedger.isServing()) {
+            response = stockLedger.reserve(orderId, items);
+        } else if (isWarehoused(items)) {
+            response = reserveFromWarehouses(orderId, items, region);
+        } else if (coalescer.isEnabled()) {
+            response = coalescer.reserve(orderId, items);
+        } else {
+            response = reserveWithJpa(orderId, items);
+        }
+        if (response.success()) {
+            reservationsCreated.increment();
+            log.info("Reservation created: {} for order: {}", response.reservationId(), orderId);
+        }
+        return response;
+    }
+
+    /**
+     * Reserves stock for many orders at once. Each order is all-or-nothing and gets its own
+     * response, in request order; the JPA engine commits them all in one transaction. Orders
+     * that already hold a reservation get their original response, as in {@link #reserveStock}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ReservationResponse> reserveBatch(List<BatchReservation> requests) {
+        return dedupe.reserveAll(requests, this::createReservations);
+    }
+
+    private List<ReservationResponse> createReservations(List<BatchReservation> requests) {
+        log.info("Creating {} reservations as a batch", requests.size());
+
+        List<ReservationResponse> responses = new ArrayList<>(requests.size());
+        if (stockLedger.isServing()) {
+            List<CompletableFuture<ReservationResponse>> pending = requests.stream()
+                    .map(request -> stockLedger.reserveAsync(request.orderId(), request.items()))
+                    .toList();
+            DataIntegrityViolationException duplicate = null;
+            for (CompletableFuture<ReservationResponse> reservation : pending) {
+                try {
+                    responses.add(reservation.join());
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof DataIntegrityViolationException violation) {
+                        duplicate = violation;
+                    }
+                    responses.add(new ReservationResponse(null, false, e.getCause().getMessage()));
+                }
+            }
+            if (duplicate != null) {
+                // An order was reserved on another instance meanwhile; ReservationDedupe sorts it out
+                throw duplicate;
+            }
+        } else {
+            // Orders shipped from warehouses are allocated one by one, the rest share a transaction
+            List<BatchReservation> onRows = requests.stream()
+                    .filter(request -> !isWarehoused(request.items()))
+                    .toList();
+            Iterator<BatchOutcome> outcomes = onRows.isEmpty()
+                    ? Collections.emptyIterator() : reserveBatchWithLocks(onRows).iterator();
+            for (BatchReservation request : requests) {
+                if (isWarehoused(request.items())) {
+                    try {
+                        responses.add(reserveFromWarehouses(request.orderId(), request.items(), request.region()));
+                    } catch (IllegalArgumentException e) {
+                        responses.add(new ReservationResponse(null, false, e.getMessage()));
+                    }
+                    continue;
+                }
+                BatchOutcome outcome = outcomes.next();
+                responses.add(outcome.error() != null
+                        ? new ReservationResponse(null, false, outcome.error().getMessage())
+                        : outcome.response());
+            }
+        }
+
+        long created = responses.stream().filter(ReservationResponse::success).count();
+        reservationsCreated.increment(created);
+        log.info("Batch reserved {} of {} orders", created, requests.size());
+        return responses;
+    }
+
+    /**
+     * One transaction for the whole batch: the union of all SKUs is locked once, in SKU
+     * order (all stripes of hot SKUs), then the orders are applied one after another against
+     * the locked rows.
+     */
+    private List<BatchOutcome> reserveBatchWithLocks(List<BatchReservation> requests) {
+        batchSize.record(requests.size());
+        return withLockRetry(() -> {
+            Set<String> skus = new TreeSet<>();
+            for (BatchReservation request : requests) {
+                request.items().forEach(item -> skus.add(item.sku()));
+            }
+            Set<String> hot = skus.stream().filter(hotSkus::isStriped).collect(Collectors.toSet());
+            Map<String, Inventory> inventories = lockInventory(
+                    skus.stream().filter(sku -> !hot.contains(sku)).toList());
+            Map<String, List<InventoryStripe>> stripes = hotSkus.lockAll(
+                    skus.stream().filter(sku -> isStriped(sku, inventories, hot)).toList());
+
+            List<BatchOutcome> outcomes = new ArrayList<>(requests.size());
+            List<StockReservation> created = new ArrayList<>();
+            Map<String, Inventory> changed = new HashMap<>();
+            for (BatchReservation request : requests) {
+                Map<String, Integer> quantities = new TreeMap<>();
+                for (ReservationRequest item : request.items()) {
+                    quantities.merge(item.sku(), item.quantity(), Integer::sum);
+                }
+
+                Map<String, Integer> onStripes = takeStriped(quantities, stripes::containsKey);
+
+                String insufficient;
+                try {
+                    insufficient = insufficientStock(quantities, inventories);
+                } catch (IllegalArgumentException e) {
+                    outcomes.add(new BatchOutcome(null, e));
+                    continue;
+                }
+                if (insufficient == null && !onStripes.isEmpty()) {
+                    insufficient = HotSkuStripes.insufficientStock(onStripes, stripes);
+                }
+                if (insufficient != null) {
+                    outcomes.add(new BatchOutcome(new ReservationResponse(null, false, insufficient), null));
+                    continue;
+                }
+
+                Map<String, Integer> allocated = onStripes.isEmpty()
+                        ? Map.of() : hotSkus.allocate(request.orderId(), onStripes, stripes);
+                quantities.forEach((sku, quantity) -> {
+                    Inventory inventory = inventories.get(sku);
+                    inventory.reserve(quantity);
+                    changed.put(sku, inventory);
+                });
+                StockReservation reservation = newReservation(request.orderId(), request.items(), allocated);
+                created.add(reservation);
+                outcomes.add(new BatchOutcome(new ReservationResponse(reservation.getReservationId(), true,
+                        "Stock reserved successfully"), null));
+            }
+
+            reservationRepository.saveAll(created);
+            List<StockMovementLog.Movement> movements = new ArrayList<>();
+            for (StockReservation reservation : created) {
+                movements.addAll(StockMovementLog.of(MovementType.RESERVE, reservation));
+                eventPublisher.publishEvent(ReservationChangedEvent.of(reservation));
+            }
+            movementLog.append(movements);
+            if (!changed.isEmpty()) {
+                eventPublisher.publishEvent(StockChangedEvent.of(changed.values()));
+            }
+            return outcomes;
+        });
+    }
+
+    private ReservationResponse reserveWithJpa(String orderId, List<ReservationRequest> items) {
+        Map<String, Integer> quantities = new TreeMap<>();
         for (ReservationRequest item : items) {
-            Inventory inventory = inventoryRepository.findBySkuWithLock(item.sku())
-                    .orElseThrow(() -> new IllegalArgumentException("SKU not found: " + item.sku()));
+            quantities.merge(item.sku(), item.quantity(), Integer::sum);
+        }
 
-            if (inventory.getQuantityAvailable() < item.quantity()) {
-                return new ReservationResponse(null, false, 
-                        "Insufficient stock for SKU: " + item.sku() + 
-                        " (available: " + inventory.getQuantityAvailable() + 
-                        ", requested: " + item.quantity() + ")");
+        if (!hotSkus.anyStriped(quantities.keySet())) {
+            try {
+                return reserveOnRows(orderId, items, quantities);
+            } catch (HotSkuStripes.StripesChanged | HotSkuStripes.StripeShortage e) {
+                log.debug("Order {} includes a hot SKU, reserving from its stripes", orderId);
             }
         }
+        return reserveOnStripes(orderId, items, quantities);
+    }
 
-        // Create reservation
-        StockReservation reservation = new StockReservation(orderId);
+    /**
+     * Reserves with version-checked updates while the SKUs are uncontended, and with row
+     * locks once {@link SkuContentionTracker} has seen them conflict.
+     */
+    private ReservationResponse reserveOnRows(String orderId, List<ReservationRequest> items,
+                                              Map<String, Integer> quantities) {
+        if (contentionTracker.preferOptimistic(quantities.keySet())) {
+            for (int attempt = 1; attempt <= optimisticMaxAttempts; attempt++) {
+                optimisticReservations.increment();
+                try {
+                    ReservationResponse response = transactionTemplate.execute(tx -> {
+                        // Unbatched, so a lost version check surfaces as a plain conflict
+                        // instead of being logged as a failed JDBC batch
+                        entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+                        return applyReservation(orderId, items, quantities, index(
+                                inventoryRepository.findBySkuIn(new ArrayList<>(quantities.keySet()))),
+                                Set.of(), false, null);
+                    });
+                    contentionTracker.record(quantities.keySet(), false);
+                    return response;
+                } catch (OptimisticLockingFailureException e) {
+                    optimisticConflicts.increment();
+                    contentionTracker.record(quantities.keySet(), true);
+                    if (attempt < optimisticMaxAttempts) {
+                        optimisticRetries.increment();
+                    }
+                }
+            }
+            optimisticFallbacks.increment();
+            log.debug("Optimistic reservation for order {} kept conflicting, locking rows", orderId);
+        }
 
+        return withLockRetry(() -> {
+            pessimisticReservations.increment();
+            return applyReservation(orderId, items, quantities, lockInventory(quantities.keySet()),
+                    Set.of(), false, null);
+        });
+    }
+
+    /**
+     * Reserves an order that includes hot SKUs: those are taken from their stripes without
+     * touching their rows, the rest of the order is locked on its rows as usual.
+     */
+    private ReservationResponse reserveOnStripes(String orderId, List<ReservationRequest> items,
+                                                 Map<String, Integer> quantities) {
+        try {
+            return reserveOnStripes(orderId, items, quantities, false);
+        } catch (HotSkuStripes.StripeShortage e) {
+            return reserveOnStripes(orderId, items, quantities, true);
+        }
+    }
+
+    private ReservationResponse reserveOnStripes(String orderId, List<ReservationRequest> items,
+                                                 Map<String, Integer> quantities, boolean allStripes) {
+        return withLockRetry(() -> {
+            stripedReservations.increment();
+            Set<String> hot = quantities.keySet().stream().filter(hotSkus::isStriped).collect(Collectors.toSet());
+            Map<String, Inventory> inventories = lockInventory(
+                    quantities.keySet().stream().filter(sku -> !hot.contains(sku)).toList());
+            return applyReservation(orderId, items, quantities, inventories, hot, allStripes, null);
+        });
+    }
+
+    private boolean isWarehoused(List<ReservationRequest> items) {
+        return warehouses.anyWarehoused(items.stream().map(ReservationRequest::sku).toList());
+    }
+
+    /**
+     * Reserves an order that includes SKUs stocked per warehouse. {@link WarehouseAllocator}
+     * chooses the warehouses from its cache; the transaction locks the inventory rows (which
+     * keep each SKU's totals) and then the chosen warehouse rows, and allocates again if those
+     * turned out to have changed.
+     */
+    private ReservationResponse reserveFromWarehouses(String orderId, List<ReservationRequest> items, String region) {
+        Map<String, Integer> quantities = new TreeMap<>();
         for (ReservationRequest item : items) {
-            Inventory inventory = inventoryRepository.findBySkuWithLock(item.sku()).get();
-            inventory.reserve(item.quantity());
-            inventoryRepository.save(inventory);
+            quantities.merge(item.sku(), item.quantity(), Integer::sum);
+        }
+        Map<String, Integer> warehoused = new TreeMap<>(quantities);
+        warehoused.keySet().removeIf(sku -> !warehouses.isWarehoused(sku));
+
+        for (int attempt = 1; ; attempt++) {
+            WarehouseAllocator.Allocation allocation = warehouses.allocate(region, warehoused);
+            if (allocation.insufficient() != null) {
+                return new ReservationResponse(null, false, allocation.insufficient());
+            }
+            try {
+                try {
+                    return reserveFromWarehouses(orderId, items, quantities, allocation, false);
+                } catch (HotSkuStripes.StripeShortage e) {
+                    return reserveFromWarehouses(orderId, items, quantities, allocation, true);
+                }
+            } catch (WarehouseAllocator.AllocationStale e) {
+                if (attempt >= lockMaxAttempts) {
+                    return new ReservationResponse(null, false,
+                            "Warehouse stock changed while reserving, please retry");
+                }
+                log.debug("Allocation for order {} was stale (attempt {}/{}), allocating again: {}",
+                        orderId, attempt, lockMaxAttempts, e.getMessage());
+            }
+        }
+    }
+
+    private ReservationResponse reserveFromWarehouses(String orderId, List<ReservationRequest> items,
+                                                      Map<String, Integer> quantities,
+                                                      WarehouseAllocator.Allocation allocation,
+                                                      boolean allStripes) {
+        return withLockRetry(() -> {
+            pessimisticReservations.increment();
+            Set<String> hot = quantities.keySet().stream().filter(hotSkus::isStriped).collect(Collectors.toSet());
+            Map<String, Inventory> inventories = lockInventory(
+                    quantities.keySet().stream().filter(sku -> !hot.contains(sku)).toList());
+            return applyReservation(orderId, items, quantities, inventories, hot, allStripes, allocation);
+        });
+    }
+
+    /**
+     * @param hot SKUs whose rows were deliberately not read because they are striped
+     * @param warehoused warehouses chosen for the SKUs stocked per warehouse, or null
+     */
+    private ReservationResponse applyReservation(String orderId, List<ReservationRequest> items,
+                                                 Map<String, Integer> quantities,
+                                                 Map<String, Inventory> inventories,
+                                                 Set<String> hot, boolean allStripes,
+                                                 WarehouseAllocator.Allocation warehoused) {
+        Map<String, Integer> onRows = new TreeMap<>(quantities);
+        Map<String, Integer> onStripes = takeStriped(onRows, sku -> isStriped(sku, inventories, hot));
+
+        String insufficient = insufficientStock(onRows, inventories);
+        if (insufficient != null) {
+            return new ReservationResponse(null, false, insufficient);
+        }
+        Map<String, Integer> stripes = Map.of();
+        if (!onStripes.isEmpty()) {
+            HotSkuStripes.Allocation allocation = hotSkus.reserve(orderId, onStripes, allStripes);
+            if (allocation.insufficient() != null) {
+                return new ReservationResponse(null, false, allocation.insufficient());
+            }
+            stripes = allocation.stripes();
+        }
+        if (warehoused != null) {
+            warehouses.reserve(warehoused);
+        }
 
+        // Create reservation; the managed rows are flushed as one JDBC batch on commit
+        onRows.forEach((sku, quantity) -> inventories.get(sku).reserve(quantity));
+        if (!onRows.isEmpty()) {
+            eventPublisher.publishEvent(StockChangedEvent.of(onRows.keySet().stream().map(inventories::get).toList()));
+        }
+
+        StockReservation reservation = newReservation(orderId, items, stripes);
+        if (warehoused != null) {
+            splitByWarehouse(reservation, warehoused);
+        }
+        reservationRepository.save(reservation);
+        movementLog.append(StockMovementLog.of(MovementType.RESERVE, reservation));
+        eventPublisher.publishEvent(ReservationChangedEvent.of(reservation));
+        return new ReservationResponse(reservation.getReservationId(), true, "Stock reserved successfully");
+    }
+
+    private static StockReservation newReservation(String orderId, List<ReservationRequest> items,
+                                                   Map<String, Integer> stripes) {
+        StockReservation reservation = new StockReservation(orderId);
+        for (ReservationRequest item : items) {
             ReservationItem reservationItem = new ReservationItem(item.sku(), item.quantity());
+            reservationItem.setStripe(stripes.get(item.sku()));
             reservation.addItem(reservationItem);
         }
+        return reservation;
+    }
 
-        reservationRepository.save(reservation);
-        reservationsCreated.increment();
+    /**
+     * Replaces the items of SKUs stocked per warehouse by one item per chosen warehouse.
+     */
+    private static void splitByWarehouse(StockReservation reservation, WarehouseAllocator.Allocation allocation) {
+        Set<String> picked = new HashSet<>();
+        allocation.picks().forEach(pick -> picked.add(pick.sku()));
+        reservation.getItems().removeIf(item -> picked.contains(item.getSku()));
+        for (WarehouseAllocator.Pick pick : allocation.picks()) {
+            ReservationItem item = new ReservationItem(pick.sku(), pick.quantity());
+            item.setWarehouseId(pick.warehouseId());
+            reservation.addItem(item);
+        }
+    }
 
-        log.info("Reservation created: {} for order: {}", reservation.getReservationId(), orderId);
-        return new ReservationResponse(reservation.getReservationId(), true, "Stock reserved successfully");
+    private boolean isStriped(String sku, Map<String, Inventory> inventories, Set<String> hot) {
+        if (hot.contains(sku)) {
+            return true;
+        }
+        Inventory inventory = inventories.get(sku);
+        if (inventory != null && inventory.hasStripes()) {
+            hotSkus.observe(inventory);
+            return true;
+        }
+        return false;
     }
 
+    /**
+     * Moves the quantities of striped SKUs out of {@code quantities} and returns them.
+     */
+    private static Map<String, Integer> takeStriped(Map<String, Integer> quantities, Predicate<String> striped) {
+        Map<String, Integer> taken = new TreeMap<>();
+        quantities.entrySet().removeIf(entry -> {
+            if (striped.test(entry.getKey())) {
+                taken.put(entry.getKey(), entry.getValue());
+                return true;
+            }
+            return false;
+        });
+        return taken;
+    }
+
+    /**
+     * Checks if all items are available; returns the failure message, or null if they are.
+     */
+    private static String insufficientStock(Map<String, Integer> quantities, Map<String, Inventory> inventories) {
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            Inventory inventory = inventories.get(entry.getKey());
+            if (inventory == null) {
+                throw new IllegalArgumentException("SKU not found: " + entry.getKey());
+            }
+
+            if (inventory.getQuantityAvailable() < entry.getValue()) {
+                return "Insufficient stock for SKU: " + entry.getKey() +
+                        " (available: " + inventory.getQuantityAvailable() +
+                        ", requested: " + entry.getValue() + ")";
+            }
+        }
+        return null;
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void releaseReservation(String reservationId) {
         log.info("Releasing reservation: {}", reservationId);
 
-        StockReservation reservation = reservationRepository.findByReservationId(reservationId)
+        if (stockLedger.isServing()) {
+            stockLedger.release(reservationId);
+        } else {
+            withLockRetry(() -> releaseWithLocks(reservationId, ReservationStatus.RELEASED));
+        }
+        reservationsReleased.increment();
+
+        log.info("Reservation released: {}", reservationId);
+    }
+
+    private Void releaseWithLocks(String reservationId, ReservationStatus status) {
+        StockReservation reservation = reservationRepository.findByReservationIdWithLock(reservationId)
                 .orElseThrow(() -> new IllegalArgumentException("Reservation not found: " + reservationId));
 
         if (reservation.getStatus() != ReservationStatus.ACTIVE) {
             throw new IllegalStateException("Reservation is not active: " + reservationId);
         }
 
-        for (ReservationItem item : reservation.getItems()) {
-            Inventory inventory = inventoryRepository.findBySkuWithLock(item.getSku())
-                    .orElseThrow(() -> new IllegalStateException("SKU not found: " + item.getSku()));
-            
-            inventory.releaseReservation(item.getQuantity());
-            inventoryRepository.save(inventory);
+        Map<Inventory, Integer> locked = lockItems(reservation);
+        locked.forEach((inventory, quantity) -> inventory.releaseReservation(quantity));
+        List<ReservationItem> striped = stripedItems(reservation.getItems());
+        if (!striped.isEmpty()) {
+            hotSkus.release(striped);
+        }
+        List<ReservationItem> shipped = warehouseItems(reservation.getItems());
+        if (!shipped.isEmpty()) {
+            warehouses.release(shipped);
+        }
+        if (!locked.isEmpty()) {
+            eventPublisher.publishEvent(StockChangedEvent.of(locked.keySet()));
         }
 
-        reservation.setStatus(ReservationStatus.RELEASED);
+        reservation.setStatus(status);
         reservation.setReleasedAt(LocalDateTime.now());
         reservationRepository.save(reservation);
-        reservationsReleased.increment();
-
-        log.info("Reservation released: {}", reservationId);
+        movementLog.append(StockMovementLog.of(
+                status == ReservationStatus.EXPIRED ? MovementType.EXPIRE : MovementType.RELEASE, reservation));
+        eventPublisher.publishEvent(ReservationChangedEvent.of(reservation));
+        return null;
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void confirmReservation(String reservationId) {
         log.info("Confirming reservation: {}", reservationId);
 
-        StockReservation reservation = reservationRepository.findByReservationId(reservationId)
+        if (stockLedger.isServing()) {
+            stockLedger.confirm(reservationId);
+        } else {
+            withLockRetry(() -> confirmWithLocks(reservationId));
+        }
+        reservationsConfirmed.increment();
+
+        log.info("Reservation confirmed: {}", reservationId);
+    }
+
+    private Void confirmWithLocks(String reservationId) {
+        StockReservation reservation = reservationRepository.findByReservationIdWithLock(reservationId)
                 .orElseThrow(() -> new IllegalArgumentException("Reservation not found: " + reservationId));
 
         if (reservation.getStatus() != ReservationStatus.ACTIVE) {
             throw new IllegalStateException("Reservation is not active: " + reservationId);
         }
 
-        for (ReservationItem item : reservation.getItems()) {
-            Inventory inventory = inventoryRepository.findBySkuWithLock(item.getSku())
-                    .orElseThrow(() -> new IllegalStateException("SKU not found: " + item.getSku()));
-            
-            inventory.confirmReservation(item.getQuantity());
-            inventoryRepository.save(inventory);
+        Map<Inventory, Integer> locked = lockItems(reservation);
+        locked.forEach((inventory, quantity) -> inventory.confirmReservation(quantity));
+        List<ReservationItem> striped = stripedItems(reservation.getItems());
+        if (!striped.isEmpty()) {
+            hotSkus.confirm(striped);
+        }
+        List<ReservationItem> shipped = warehouseItems(reservation.getItems());
+        if (!shipped.isEmpty()) {
+            warehouses.confirm(shipped);
+        }
+        if (!locked.isEmpty()) {
+            eventPublisher.publishEvent(StockChangedEvent.of(locked.keySet()));
         }
 
         reservation.setStatus(ReservationStatus.CONFIRMED);
         reservation.setConfirmedAt(LocalDateTime.now());
         reservationRepository.save(reservation);
-        reservationsConfirmed.increment();
+        movementLog.append(StockMovementLog.of(MovementType.CONFIRM, reservation));
+        eventPublisher.publishEvent(ReservationChangedEvent.of(reservation));
+        return null;
+    }
 
-        log.info("Reservation confirmed: {}", reservationId);
+    /**
+     * Locks the inventory rows of a reservation and returns the quantity to apply to each.
+     * Items taken from stripes are left to {@link HotSkuStripes}; the rows of items reserved
+     * in a warehouse are locked here and their warehouse stock after them.
+     */
+    private Map<Inventory, Integer> lockItems(StockReservation reservation) {
+        Map<String, Integer> quantities = new TreeMap<>();
+        for (ReservationItem item : reservation.getItems()) {
+            if (item.getStripe() == null) {
+                quantities.merge(item.getSku(), item.getQuantity(), Integer::sum);
+            }
+        }
+        Map<String, Inventory> inventories = lockInventory(quantities.keySet());
+
+        Map<Inventory, Integer> locked = new HashMap<>();
+        quantities.forEach((sku, quantity) -> {
+            Inventory inventory = inventories.get(sku);
+            if (inventory == null) {
+                throw new IllegalStateException("SKU not found: " + sku);
+            }
+            locked.put(inventory, quantity);
+        });
+        return locked;
+    }
+
+    private static List<ReservationItem> stripedItems(Collection<ReservationItem> items) {
+        return items.stream().filter(item -> item.getStripe() != null).toList();
+    }
+
+    private static List<ReservationItem> warehouseItems(Collection<ReservationItem> items) {
+        return items.stream().filter(item -> item.getWarehouseId() != null).toList();
+    }
+
+    private Map<String, Inventory> lockInventory(Collection<String> skus) {
+        if (skus.isEmpty()) {
+            return new HashMap<>();
+        }
+        Timer.Sample sample = Timer.start();
+        List<Inventory> rows = inventoryRepository.findAllBySkuInWithLock(skus);
+        long waited = sample.stop(lockWaitTimer);
+        contentionTracker.record(skus, waited > contendedLockWaitNanos);
+        return index(rows);
+    }
+
+    private static Map<String, Inventory> index(List<Inventory> rows) {
+        Map<String, Inventory> bySku = new HashMap<>();
+        for (Inventory inventory : rows) {
+            bySku.put(inventory.getSku(), inventory);
+        }
+        return bySku;
+    }
+
+    /**
+     * Runs {@code work} in a transaction, retrying when the database aborts it with a
+     * deadlock or lock timeout.
+     */
+    private <T> T withLockRetry(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(tx -> work.get());
+            } catch (HotSkuStripes.StripesChanged e) {
+                if (attempt >= lockMaxAttempts) {
+                    throw e;
+                }
+                log.debug("Stock transaction raced a hot SKU switch (attempt {}/{}), retrying: {}",
+                        attempt, lockMaxAttempts, e.getMessage());
+            } catch (PessimisticLockingFailureException e) {
+                lockConflicts.increment();
+                if (attempt >= lockMaxAttempts) {
+                    throw e;
+                }
+                lockRetries.increment();
+                log.warn("Stock transaction aborted by lock conflict (attempt {}/{}), retrying: {}",
+                        attempt, lockMaxAttempts, e.getMessage());
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(1, lockRetryBackoff.toMillis() * attempt + 2));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Inventory addInventory(Inventory inventory) {
         log.info("Adding inventory for SKU: {}", inventory.getSku());
-        return inventoryRepository.save(inventory);
+        Inventory saved = transactionTemplate.execute(tx -> {
+            Inventory created = inventoryRepository.save(inventory);
+            movementLog.append(List.of(new StockMovementLog.Movement(created.getSku(), MovementType.ADJUST,
+                    created.getQuantityOnHand(), created.getQuantityReserved(), null)));
+            return created;
+        });
+        if (stockLedger.isServing()) {
+            stockLedger.track(saved);
+        }
+        eventPublisher.publishEvent(StockChangedEvent.of(saved));
+        return saved;
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Inventory updateStock(String sku, int quantity) {
         log.info("Updating stock for SKU: {} to {}", sku, quantity);
-        
-        Inventory inventory = inventoryRepository.findBySkuWithLock(sku)
-                .orElseThrow(() -> new IllegalArgumentException("SKU not found: " + sku));
-        
-        inventory.setQuantityOnHand(quantity);
-        return inventoryRepository.save(inventory);
+
+        if (stockLedger.isServing()) {
+            stockLedger.adjustOnHand(sku, quantity, true);
+            return inventoryRepository.findBySku(sku).orElseThrow();
+        }
+        requireNotWarehoused(sku);
+        return transactionTemplate.execute(tx -> {
+            Inventory inventory = inventoryRepository.findBySkuWithLock(sku)
+                    .orElseThrow(() -> new IllegalArgumentException("SKU not found: " + sku));
+
+            List<InventoryStripe> stripes = inventory.hasStripes() ? hotSkus.fold(inventory) : null;
+            int change = quantity - inventory.getQuantityOnHand();
+            inventory.setQuantityOnHand(quantity);
+            if (stripes != null) {
+                hotSkus.respread(inventory, stripes);
+            }
+            Inventory saved = inventoryRepository.save(inventory);
+            movementLog.append(List.of(new StockMovementLog.Movement(sku, MovementType.ADJUST, change, 0, null)));
+            eventPublisher.publishEvent(StockChangedEvent.of(saved));
+            return saved;
+        });
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Inventory restock(String sku, int quantity) {
         log.info("Restocking SKU: {} with {}", sku, quantity);
-        
-        Inventory inventory = inventoryRepository.findBySkuWithLock(sku)
-                .orElseThrow(() -> new IllegalArgumentException("SKU not found: " + sku));
-        
-        inventory.restock(quantity);
-        return inventoryRepository.save(inventory);
+
+        if (stockLedger.isServing()) {
+            stockLedger.adjustOnHand(sku, quantity, false);
+            return inventoryRepository.findBySku(sku).orElseThrow();
+        }
+        requireNotWarehoused(sku);
+        return transactionTemplate.execute(tx -> {
+            Inventory inventory = inventoryRepository.findBySkuWithLock(sku)
+                    .orElseThrow(() -> new IllegalArgumentException("SKU not found: " + sku));
+
+            inventory.restock(quantity);
+            Inventory saved = inventoryRepository.save(inventory);
+            movementLog.append(List.of(new StockMovementLog.Movement(sku, MovementType.RESTOCK, quantity, 0, null)));
+            eventPublisher.publishEvent(StockChangedEvent.of(saved));
+            return saved;
+        });
+    }
+
+    /**
+     * Sets the on-hand quantity of many SKUs, for {@link StockSync}: one transaction, rows
+     * locked in SKU order and flushed as JDBC batches. Reserved quantities are kept, so the
+     * available quantity is what the new count leaves after them; a count below the reserved
+     * quantity is raised to it (nothing left to sell) and reported. SKUs stocked per warehouse
+     * are skipped. With the ledger serving, the batch is applied in one group commit instead.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncOutcome syncStock(Map<String, Integer> quantities) {
+        if (stockLedger.isServing()) {
+            return stockLedger.syncOnHand(quantities);
+        }
+        return withLockRetry(() -> {
+            Map<String, Inventory> inventories = index(inventoryRepository.findAllBySkuInWithLock(quantities.keySet()));
+            List<Inventory> changed = new ArrayList<>();
+            List<StockMovementLog.Movement> movements = new ArrayList<>();
+            Map<Inventory, List<InventoryStripe>> folded = new HashMap<>();
+            int current = 0;
+            int belowReserved = 0;
+            int skipped = 0;
+            for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+                Inventory inventory = inventories.get(entry.getKey());
+                if (inventory == null || warehouses.isWarehoused(entry.getKey())) {
+                    skipped++;
+                    continue;
+                }
+                if (inventory.hasStripes()) {
+                    folded.put(inventory, hotSkus.fold(inventory));
+                }
+                int quantity = entry.getValue();
+                if (quantity < inventory.getQuantityReserved()) {
+                    quantity = inventory.getQuantityReserved();
+                    belowReserved++;
+                }
+                int change = quantity - inventory.getQuantityOnHand();
+                if (change == 0) {
+                    current++;
+                    continue;
+                }
+                inventory.setQuantityOnHand(quantity);
+                changed.add(inventory);
+                movements.add(new StockMovementLog.Movement(entry.getKey(), MovementType.ADJUST, change, 0, "stock-sync"));
+            }
+            folded.forEach(hotSkus::respread);
+            movementLog.append(movements);
+            if (!changed.isEmpty()) {
+                eventPublisher.publishEvent(StockChangedEvent.of(changed));
+            }
+            return new SyncOutcome(changed.size(), current, belowReserved, skipped);
+        });
     }
 
+    private void requireNotWarehoused(String sku) {
+        if (warehouses.isWarehoused(sku)) {
+            throw new IllegalStateException("Stock of SKU " + sku + " is kept per warehouse");
+        }
+    }
+
+    /**
+     * Sets the on-hand quantity of a SKU in one warehouse. The SKU's inventory row keeps the
+     * total over its warehouses and is updated in the same transaction.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Inventory setWarehouseStock(String sku, String warehouseId, int quantity) {
+        log.info("Setting stock for SKU: {} in warehouse {} to {}", sku, warehouseId, quantity);
+
+        if (!warehouses.isEnabled()) {
+            throw new IllegalStateException("Warehouse stock is only kept by the jpa reservation engine");
+        }
+        return transactionTemplate.execute(tx -> {
+            Inventory inventory = inventoryRepository.findBySkuWithLock(sku)
+                    .orElseThrow(() -> new IllegalArgumentException("SKU not found: " + sku));
+            if (inventory.hasStripes()) {
+                throw new IllegalStateException("SKU " + sku + " is striped as a hot SKU");
+            }
+
+            int total = warehouses.setStock(sku, warehouseId, quantity);
+            int change = total - inventory.getQuantityOnHand();
+            inventory.setQuantityOnHand(total);
+            Inventory saved = inventoryRepository.save(inventory);
+            movementLog.append(List.of(new StockMovementLog.Movement(sku, MovementType.ADJUST, change, 0, warehouseId)));
+            eventPublisher.publishEvent(StockChangedEvent.of(saved));
+            return saved;
+        });
+    }
+
+    // The low set is tracked by LowStockMonitor; only its rows are read, in SKU order
     @Transactional(readOnly = true)
     public List<Inventory> getLowStockItems() {
-        return inventoryRepository.findLowStockItems();
+        List<String> skus = lowStock.lowStock().stream().map(LowStockAlert::sku).toList();
+        List<Inventory> rows = new ArrayList<>(skus.size());
+        for (int from = 0; from < skus.size(); from += LOW_STOCK_CHUNK_SIZE) {
+            rows.addAll(inventoryRepository.findBySkuIn(
+                    skus.subList(from, Math.min(skus.size(), from + LOW_STOCK_CHUNK_SIZE))));
+        }
+        rows.sort(Comparator.comparing(Inventory::getSku));
+        return rows;
     }
 
-    @Transactional(readOnly = true)
+    // Maintained incrementally from stock and reservation events; no table scans per request
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public InventoryStats getStats() {
-        long inStock = inventoryRepository.countByStatus(InventoryStatus.IN_STOCK);
-        long lowStock = inventoryRepository.countByStatus(InventoryStatus.LOW_STOCK);
-        long outOfStock = inventoryRepository.countByStatus(InventoryStatus.OUT_OF_STOCK);
-        Long totalQuantity = inventoryRepository.getTotalQuantity();
-        Long totalReserved = inventoryRepository.getTotalReserved();
-        long activeReservations = reservationRepository.countByStatus(ReservationStatus.ACTIVE);
-
-        return new InventoryStats(
-                inStock, lowStock, outOfStock,
-                totalQuantity != null ? totalQuantity : 0,
-                totalReserved != null ? totalReserved : 0,
-                activeReservations
-        );
-    }
-
-    // Scheduled task to release expired reservations
-    @Scheduled(fixedRate = 60000) // Every minute
-    public void releaseExpiredReservations() {
-        List<StockReservation> expired = reservationRepository.findExpiredReservations(
-                ReservationStatus.ACTIVE, LocalDateTime.now());
-
-        for (StockReservation reservation : expired) {
+        return aggregates.stats();
+    }
+
+    @Transactional(readOnly = true)
+    public List<StockMovement> getMovements(String sku, int limit) {
+        return movementLog.history(sku, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public List<StockMovement> getMovementsOn(LocalDate day, long afterId, int limit) {
+        return movementLog.movementsOn(day, afterId, limit);
+    }
+
+    // Rebuilt from the movement log only; the inventory row is not read
+    @Transactional(readOnly = true)
+    public StockMovementLog.StockReplay replayStock(String sku) {
+        return movementLog.replay(sku);
+    }
+
+    /**
+     * Expires those of the given reservations that are still ACTIVE and returns their ids.
+     * Called by {@link ReservationExpiryWheel} as reservations come due.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Set<String> expireReservations(List<String> reservationIds) {
+        Set<String> expired = new HashSet<>();
+        if (stockLedger.isServing()) {
+            for (String reservationId : reservationIds) {
+                try {
+                    stockLedger.expire(reservationId);
+                    expired.add(reservationId);
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    log.debug("Reservation {} not expired: {}", reservationId, e.getMessage());
+                } catch (RuntimeException e) {
+                    log.error("Failed to release expired reservation: {}", reservationId, e);
+                }
+            }
+        } else {
             try {
-                log.info("Releasing expired reservation: {}", reservation.getReservationId());
-                releaseReservation(reservation.getReservationId());
-                reservation.setStatus(ReservationStatus.EXPIRED);
-                reservationRepository.save(reservation);
-            } catch (Exception e) {
-                log.error("Failed to release expired reservation: {}", reservation.getReservationId(), e);
+                expired.addAll(withLockRetry(() -> expireWithLocks(reservationIds)));
+            } catch (RuntimeException e) {
+                log.error("Failed to expire {} reservations as a batch, expiring them one by one",
+                        reservationIds.size(), e);
+                for (String reservationId : reservationIds) {
+                    try {
+                        expired.addAll(withLockRetry(() -> expireWithLocks(List.of(reservationId))));
+                    } catch (RuntimeException single) {
+                        log.error("Failed to release expired reservation: {}", reservationId, single);
+                    }
+                }
             }
         }
 
-        // Update low stock gauge
-        lowStockCount.set(inventoryRepository.countByStatus(InventoryStatus.LOW_STOCK));
+        if (!expired.isEmpty()) {
+            reservationsReleased.increment(expired.size());
+            log.info("Released {} expired reservations", expired.size());
+        }
+        return expired;
+    }
+
+    private Set<String> expireWithLocks(List<String> reservationIds) {
+        List<StockReservation> reservations = reservationRepository.findByReservationIdInWithLock(
+                reservationIds, ReservationStatus.ACTIVE);
+        if (reservations.isEmpty()) {
+            return Set.of();
+        }
+
+        // One release per SKU for the whole batch
+        Map<String, Integer> quantities = new TreeMap<>();
+        List<ReservationItem> striped = new ArrayList<>();
+        List<ReservationItem> shipped = new ArrayList<>();
+        for (StockReservation reservation : reservations) {
+            for (ReservationItem item : reservation.getItems()) {
+                if (item.getStripe() != null) {
+                    striped.add(item);
+                } else {
+                    quantities.merge(item.getSku(), item.getQuantity(), Integer::sum);
+                    if (item.getWarehouseId() != null) {
+                        shipped.add(item);
+                    }
+                }
+            }
+        }
+        Map<String, Inventory> inventories = lockInventory(quantities.keySet());
+        quantities.forEach((sku, quantity) -> {
+            Inventory inventory = inventories.get(sku);
+            if (inventory == null) {
+                throw new IllegalStateException("SKU not found: " + sku);
+            }
+            inventory.releaseReservation(quantity);
+        });
+        if (!striped.isEmpty()) {
+            hotSkus.release(striped);
+        }
+        if (!shipped.isEmpty()) {
+            warehouses.release(shipped);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> expired = new HashSet<>();
+        List<StockMovementLog.Movement> movements = new ArrayList<>();
+        for (StockReservation reservation : reservations) {
+            reservation.setStatus(ReservationStatus.EXPIRED);
+            reservation.setReleasedAt(now);
+            expired.add(reservation.getReservationId());
+            movements.addAll(StockMovementLog.of(MovementType.EXPIRE, reservation));
+            eventPublisher.publishEvent(ReservationChangedEvent.of(reservation));
+        }
+        movementLog.append(movements);
+        if (!inventories.isEmpty()) {
+            eventPublisher.publishEvent(StockChangedEvent.of(inventories.values()));
+        }
+        return expired;
+    }
+
+    /**
+     * Confirms or releases the ACTIVE reservations of the given orders, all in one transaction,
+     * and returns the orders that were settled. Orders without an ACTIVE reservation (already
+     * settled, expired or never reserved) are skipped, so replayed order events are harmless.
+     * Called by {@link com.ecommerce.inventory.event.OrderEventListener} per consumed batch.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Settlement> settleOrders(Map<String, Settlement> settlements) {
+        Map<String, Settlement> settled = new HashMap<>();
+        if (stockLedger.isServing()) {
+            for (OrderReservation reservation : reservationRepository.findReservationsByOrderIdIn(
+                    settlements.keySet(), ReservationStatus.ACTIVE)) {
+                Settlement settlement = settlements.get(reservation.orderId());
+                try {
+                    if (settlement == Settlement.CONFIRM) {
+                        stockLedger.confirm(reservation.reservationId());
+                    } else {
+                        stockLedger.release(reservation.reservationId());
+                    }
+                    settled.put(reservation.orderId(), settlement);
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    log.debug("Reservation {} of order {} not settled: {}",
+                            reservation.reservationId(), reservation.orderId(), e.getMessage());
+                }
+            }
+        } else {
+            try {
+                settled.putAll(withLockRetry(() -> settleWithLocks(settlements)));
+            } catch (TransientDataAccessException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                log.error("Failed to settle {} orders as a batch, settling them one by one",
+                        settlements.size(), e);
+                settlements.forEach((orderId, settlement) -> {
+                    try {
+                        settled.putAll(withLockRetry(() -> settleWithLocks(Map.of(orderId, settlement))));
+                    } catch (TransientDataAccessException single) {
+                        throw single;
+                    } catch (RuntimeException single) {
+                        log.error("Failed to settle reservation of order {}", orderId, single);
+                    }
+                });
+            }
+        }
+
+        long confirmed = settled.values().stream().filter(s -> s == Settlement.CONFIRM).count();
+        reservationsConfirmed.increment(confirmed);
+        reservationsReleased.increment(settled.size() - confirmed);
+        if (!settled.isEmpty()) {
+            log.info("Settled reservations of {} orders ({} confirmed, {} released)",
+                    settled.size(), confirmed, settled.size() - confirmed);
+        }
+        return settled;
+    }
+
+    private Map<String, Settlement> settleWithLocks(Map<String, Settlement> settlements) {
+        List<StockReservation> reservations = reservationRepository.findByOrderIdInWithLock(
+                settlements.keySet(), ReservationStatus.ACTIVE);
+        if (reservations.isEmpty()) {
+            return Map.of();
+        }
+
+        // One release and one confirm per SKU for the whole batch
+        Map<String, Integer> released = new TreeMap<>();
+        Map<String, Integer> confirmed = new TreeMap<>();
+        List<ReservationItem> stripedReleased = new ArrayList<>();
+        List<ReservationItem> stripedConfirmed = new ArrayList<>();
+        List<ReservationItem> shippedReleased = new ArrayList<>();
+        List<ReservationItem> shippedConfirmed = new ArrayList<>();
+        for (StockReservation reservation : reservations) {
+            boolean confirm = settlements.get(reservation.getOrderId()) == Settlement.CONFIRM;
+            for (ReservationItem item : reservation.getItems()) {
+                if (item.getStripe() != null) {
+                    (confirm ? stripedConfirmed : stripedReleased).add(item);
+                } else {
+                    (confirm ? confirmed : released).merge(item.getSku(), item.getQuantity(), Integer::sum);
+                    if (item.getWarehouseId() != null) {
+                        (confirm ? shippedConfirmed : shippedReleased).add(item);
+                    }
+                }
+            }
+        }
+        Set<String> skus = new TreeSet<>(released.keySet());
+        skus.addAll(confirmed.keySet());
+        Map<String, Inventory> inventories = lockInventory(skus);
+        for (String sku : skus) {
+            Inventory inventory = inventories.get(sku);
+            if (inventory == null) {
+                throw new IllegalStateException("SKU not found: " + sku);
+            }
+            inventory.releaseReservation(released.getOrDefault(sku, 0));
+            inventory.confirmReservation(confirmed.getOrDefault(sku, 0));
+        }
+        if (!stripedReleased.isEmpty()) {
+            hotSkus.release(stripedReleased);
+        }
+        if (!stripedConfirmed.isEmpty()) {
+            hotSkus.confirm(stripedConfirmed);
+        }
+        if (!shippedReleased.isEmpty()) {
+            warehouses.release(shippedReleased);
+        }
+        if (!shippedConfirmed.isEmpty()) {
+            warehouses.confirm(shippedConfirmed);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Settlement> settled = new HashMap<>();
+        List<StockMovementLog.Movement> movements = new ArrayList<>();
+        for (StockReservation reservation : reservations) {
+            Settlement settlement = settlements.get(reservation.getOrderId());
+            if (settlement == Settlement.CONFIRM) {
+                reservation.setStatus(ReservationStatus.CONFIRMED);
+                reservation.setConfirmedAt(now);
+                movements.addAll(StockMovementLog.of(MovementType.CONFIRM, reservation));
+            } else {
+                reservation.setStatus(ReservationStatus.RELEASED);
+                reservation.setReleasedAt(now);
+                movements.addAll(StockMovementLog.of(MovementType.RELEASE, reservation));
+            }
+            settled.put(reservation.getOrderId(), settlement);
+            eventPublisher.publishEvent(ReservationChangedEvent.of(reservation));
+        }
+        movementLog.append(movements);
+        if (!inventories.isEmpty()) {
+            eventPublisher.publishEvent(StockChangedEvent.of(inventories.values()));
+        }
+        return settled;
     }
 
     // DTOs
     public record StockCheckResponse(String sku, int available, boolean inStock) {}
     public record ReservationRequest(String sku, int quantity) {}
+    public record BatchReservation(String orderId, List<ReservationRequest> items, String region) {}
+    record BatchOutcome(ReservationResponse response, RuntimeException error) {}
+    record SyncOutcome(int applied, int current, int belowReserved, int skipped) {}
     public record ReservationResponse(String reservationId, boolean success, String message) {}
+    public enum Settlement { CONFIRM, RELEASE }
     public record InventoryStats(
             long inStock, long lowStock, long outOfStock,
             long totalQuantity, long totalReserved, long activeReservations
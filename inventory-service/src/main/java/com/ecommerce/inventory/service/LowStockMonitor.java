@@ -0,0 +1,296 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.event.LowStockAlert;
+import com.ecommerce.inventory.event.StockChangedEvent;
+import com.ecommerce.inventory.event.StockChangedEvent.StockLevel;
+import com.ecommerce.inventory.model.Inventory;
+import com.ecommerce.inventory.model.Inventory.InventoryStatus;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tracks which SKUs are low on stock (LOW_STOCK or OUT_OF_STOCK, as set by
+ * {@link Inventory#updateStatus()}) from committed {@link StockChangedEvent}s, so
+ * {@code /low-stock/alerts} is answered from memory and {@code /low-stock} only reads the rows
+ * of the low SKUs, instead of comparing every row with its reorder point. A status change
+ * into, within or out of the low set is a transition ({@link LowStockAlert}); transitions are streamed to {@code /low-stock/stream} subscribers and
+ * published to the compacted {@code topic}, keyed by SKU, every {@code publish-interval-ms}.
+ * Only the latest transition of a SKU is sent.
+ *
+ * <p>Events only cover changes made by this instance, so every {@code reconcile-interval-ms}
+ * the low SKUs are reloaded from the database. Differences found there were changed by other
+ * instances, which stream and publish their own transitions; they only update the low set.
+ * While the broker is unreachable the topic is retried after {@code topic.retry-after}.
+ */
+@Component
+public class LowStockMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockMonitor.class);
+
+    private final InventoryRepository inventoryRepository;
+    private final KafkaTemplate<String, LowStockAlert> kafkaTemplate;
+    private final String topic;
+    private final boolean topicEnabled;
+    private final long topicRetryAfterMillis;
+    private final long streamTimeoutMillis;
+    private volatile long topicDownUntil;
+
+    // Last status seen per SKU; guarded by this
+    private final Map<String, Tracked> tracked = new HashMap<>();
+    private final Map<String, LowStockAlert> low = new ConcurrentHashMap<>();
+    private final Map<String, LowStockAlert> pendingStream = new ConcurrentHashMap<>();
+    private final Map<String, LowStockAlert> pendingTopic = new ConcurrentHashMap<>();
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    private long changes;
+    private volatile boolean loaded;
+
+    private final Map<InventoryStatus, Counter> transitions = new EnumMap<>(InventoryStatus.class);
+
+    public LowStockMonitor(InventoryRepository inventoryRepository,
+                           KafkaTemplate<String, LowStockAlert> kafkaTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${inventory.low-stock.topic.name:inventory-low-stock}") String topic,
+                           @Value("${inventory.low-stock.topic.enabled:true}") boolean topicEnabled,
+                           @Value("${inventory.low-stock.topic.retry-after:30s}") Duration topicRetryAfter,
+                           @Value("${inventory.low-stock.stream-timeout:30m}") Duration streamTimeout) {
+        this.inventoryRepository = inventoryRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+        this.topicEnabled = topicEnabled;
+        this.topicRetryAfterMillis = topicRetryAfter.toMillis();
+        this.streamTimeoutMillis = streamTimeout.toMillis();
+
+        for (InventoryStatus status : InventoryStatus.values()) {
+            transitions.put(status, Counter.builder("inventory.low_stock.transitions")
+                    .description("SKUs whose stock status changed, by the status reached")
+                    .tag("status", status.name())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("inventory.low_stock.subscribers", subscribers, List::size)
+                .description("Open low-stock event streams")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStockChanged(StockChangedEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        for (StockLevel level : event.levels()) {
+            apply(level, now, true);
+        }
+    }
+
+    /**
+     * SKUs currently low on stock, by SKU.
+     */
+    public List<LowStockAlert> lowStock() {
+        if (!loaded) {
+            reconcile();
+        }
+        List<LowStockAlert> current = new ArrayList<>(low.values());
+        current.sort(Comparator.comparing(LowStockAlert::sku));
+        return current;
+    }
+
+    /**
+     * Opens a stream of transitions, starting with every SKU currently low.
+     */
+    public SseEmitter subscribe() {
+        List<LowStockAlert> current = lowStock();
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(emitter));
+        // Under the lock the stream uses, so no transition lands between the two
+        synchronized (subscribers) {
+            for (LowStockAlert alert : current) {
+                if (!send(emitter, alert)) {
+                    return emitter;
+                }
+            }
+            subscribers.add(emitter);
+        }
+        return emitter;
+    }
+
+    /**
+     * Sends the transitions since the last run to subscribers.
+     */
+    @Scheduled(fixedDelayString = "${inventory.low-stock.publish-interval-ms:200}")
+    public void publishStream() {
+        if (pendingStream.isEmpty()) {
+            return;
+        }
+        List<LowStockAlert> batch = take(pendingStream);
+        synchronized (subscribers) {
+            for (SseEmitter emitter : subscribers) {
+                for (LowStockAlert alert : batch) {
+                    if (!send(emitter, alert)) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the transitions since the last run to the topic. Scheduled apart from the stream,
+     * which a broker outage must not hold up.
+     */
+    @Scheduled(fixedDelayString = "${inventory.low-stock.publish-interval-ms:200}")
+    public void publishTopic() {
+        if (pendingTopic.isEmpty() || System.currentTimeMillis() < topicDownUntil) {
+            return;
+        }
+        List<LowStockAlert> batch = take(pendingTopic);
+        for (int i = 0; i < batch.size(); i++) {
+            LowStockAlert alert = batch.get(i);
+            CompletableFuture<SendResult<String, LowStockAlert>> sent;
+            try {
+                // Back in stock is a tombstone, so compaction leaves only SKUs that are low
+                sent = kafkaTemplate.send(topic, alert.sku(), alert.isLow() ? alert : null);
+            } catch (RuntimeException e) {
+                sent = CompletableFuture.failedFuture(e);
+            }
+            sent.whenComplete((result, e) -> {
+                if (e != null) {
+                    topicFailed(alert, e);
+                }
+            });
+            if (sent.isCompletedExceptionally()) {
+                // Broker unreachable: keep the rest for the next attempt
+                batch.subList(i + 1, batch.size()).forEach(this::queueTopic);
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.low-stock.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        long since;
+        synchronized (this) {
+            since = changes;
+        }
+        List<Inventory> rows = inventoryRepository.findLowStockItems();
+        synchronized (this) {
+            LocalDateTime now = LocalDateTime.now();
+            Set<String> found = new HashSet<>(rows.size() * 2);
+            for (Inventory row : rows) {
+                found.add(row.getSku());
+                apply(StockLevel.of(row), now, false);
+            }
+            // Back in stock, unless this instance changed the SKU after the query started
+            for (LowStockAlert alert : List.copyOf(low.values())) {
+                Tracked last = tracked.get(alert.sku());
+                if (!found.contains(alert.sku()) && last.change() <= since) {
+                    apply(new StockLevel(alert.sku(), alert.quantityOnHand(), alert.quantityReserved(),
+                            alert.quantityAvailable(), InventoryStatus.IN_STOCK, last.version()), now, false);
+                }
+            }
+            if (!loaded) {
+                log.info("Loaded {} low stock SKUs", low.size());
+            }
+            loaded = true;
+        }
+    }
+
+    private void apply(StockLevel level, LocalDateTime now, boolean notify) {
+        Tracked previous = tracked.get(level.sku());
+        if (previous != null && level.version() < previous.version()) {
+            return;
+        }
+        tracked.put(level.sku(), new Tracked(level.status(), level.version(), ++changes));
+        InventoryStatus before = previous != null ? previous.status() : InventoryStatus.IN_STOCK;
+        if (level.status() == before) {
+            // Still low: keep the quantities shown by /low-stock/alerts current
+            low.computeIfPresent(level.sku(), (sku, alert) -> new LowStockAlert(sku, alert.status(),
+                    alert.previousStatus(), level.onHand(), level.reserved(), level.available(),
+                    level.version(), alert.changedAt()));
+            return;
+        }
+
+        LowStockAlert alert = new LowStockAlert(level.sku(), level.status(), before,
+                level.onHand(), level.reserved(), level.available(), level.version(), now);
+        if (alert.isLow()) {
+            low.put(level.sku(), alert);
+        } else {
+            low.remove(level.sku());
+        }
+        if (notify) {
+            transitions.get(level.status()).increment();
+            pendingStream.merge(level.sku(), alert, LowStockMonitor::newer);
+            if (topicEnabled) {
+                pendingTopic.merge(level.sku(), alert, LowStockMonitor::newer);
+            }
+        }
+    }
+
+    private void topicFailed(LowStockAlert alert, Throwable e) {
+        queueTopic(alert);
+        if (System.currentTimeMillis() >= topicDownUntil) {
+            topicDownUntil = System.currentTimeMillis() + topicRetryAfterMillis;
+            log.warn("Publishing low stock transitions to {} failed, retrying in {} ms: {}",
+                    topic, topicRetryAfterMillis, e.getMessage());
+        }
+    }
+
+    private void queueTopic(LowStockAlert alert) {
+        pendingTopic.merge(alert.sku(), alert, LowStockMonitor::newer);
+    }
+
+    private boolean send(SseEmitter emitter, LowStockAlert alert) {
+        try {
+            emitter.send(SseEmitter.event().name("low-stock").id(alert.sku()).data(alert));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(emitter);
+            log.debug("Low stock stream closed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static List<LowStockAlert> take(Map<String, LowStockAlert> pending) {
+        List<LowStockAlert> batch = new ArrayList<>(pending.size());
+        for (String sku : List.copyOf(pending.keySet())) {
+            LowStockAlert alert = pending.remove(sku);
+            if (alert != null) {
+                batch.add(alert);
+            }
+        }
+        return batch;
+    }
+
+    private static LowStockAlert newer(LowStockAlert current, LowStockAlert incoming) {
+        return incoming.version() >= current.version() ? incoming : current;
+    }
+
+    /**
+     * @param change sequence number of the last update, to tell it from a reconcile's query
+     */
+    private record Tracked(InventoryStatus status, long version, long change) {}
+}
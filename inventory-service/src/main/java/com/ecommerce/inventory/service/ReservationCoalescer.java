@@ -0,0 +1,193 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.service.InventoryService.BatchOutcome;
+import com.ecommerce.inventory.service.InventoryService.BatchReservation;
+import com.ecommerce.inventory.service.InventoryService.ReservationRequest;
+import com.ecommerce.inventory.service.InventoryService.ReservationResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Turns concurrent single reservations into batch reservations. Requests queue up while
+ * the previous batch commits; the next batch takes up to {@code max-batch} of them. It only
+ * waits up to {@code max-delay} for more when the previous batch held more than one
+ * request, so an idle service adds no latency.
+ *
+ * <p>If a batch fails, its requests are retried one at a time so a single bad request only
+ * fails itself. A request still queued after {@code timeout} is withdrawn and fails; one
+ * already taken into a batch waits for that batch's outcome.
+ */
+@Component
+public class ReservationCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationCoalescer.class);
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final boolean enabled;
+    private final int maxBatch;
+    private final Duration maxDelay;
+    private final Duration timeout;
+    private volatile Function<List<BatchReservation>, List<BatchOutcome>> handler;
+    private volatile boolean running = true;
+    private Thread thread;
+
+    public ReservationCoalescer(@Value("${inventory.reservation.coalesce.enabled:false}") boolean enabled,
+                                @Value("${inventory.reservation.coalesce.max-batch:100}") int maxBatch,
+                                @Value("${inventory.reservation.coalesce.max-delay:2ms}") Duration maxDelay,
+                                @Value("${inventory.reservation.coalesce.timeout:5s}") Duration timeout) {
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        this.maxDelay = maxDelay;
+        this.timeout = timeout;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    void setHandler(Function<List<BatchReservation>, List<BatchOutcome>> handler) {
+        this.handler = handler;
+        synchronized (this) {
+            if (enabled && thread == null) {
+                thread = new Thread(this::run, "reservation-coalescer");
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        List<Pending> queued = new ArrayList<>();
+        queue.drainTo(queued);
+        fail(queued, new IllegalStateException("Reservation coalescer stopped"));
+    }
+
+    /**
+     * Reserves as part of the next batch; blocks until that batch is committed.
+     */
+    public ReservationResponse reserve(String orderId, List<ReservationRequest> items) {
+        if (!running) {
+            throw new IllegalStateException("Reservation coalescer stopped");
+        }
+        Pending pending = new Pending(new BatchReservation(orderId, items, null), new CompletableFuture<>());
+        queue.add(pending);
+        BatchOutcome outcome;
+        try {
+            outcome = pending.done().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Still queued: withdraw it. Otherwise it is being committed and that decides.
+            if (queue.remove(pending)) {
+                throw new IllegalStateException("Reservation for order " + orderId
+                        + " was not batched within " + timeout);
+            }
+            outcome = join(pending);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (queue.remove(pending)) {
+                throw new IllegalStateException("Interrupted waiting to reserve for order " + orderId);
+            }
+            outcome = join(pending);
+        }
+        if (outcome.error() != null) {
+            throw outcome.error();
+        }
+        return outcome.response();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        int lastBatchSize = 0;
+        while (running) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    lastBatchSize = 0;
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - batch.size());
+                if (lastBatchSize > 1) {
+                    long deadline = System.nanoTime() + maxDelay.toNanos();
+                    while (batch.size() < maxBatch) {
+                        Pending next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                        queue.drainTo(batch, maxBatch - batch.size());
+                    }
+                }
+                lastBatchSize = batch.size();
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(batch, new IllegalStateException("Reservation coalescer stopped"));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        try {
+            List<BatchOutcome> outcomes = handler.apply(batch.stream().map(Pending::request).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).done().complete(outcomes.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).done().completeExceptionally(e);
+                return;
+            }
+            log.warn("Coalesced reservation batch of {} failed, retrying individually", batch.size(), e);
+            for (Pending pending : batch) {
+                try {
+                    pending.done().complete(handler.apply(List.of(pending.request())).get(0));
+                } catch (RuntimeException single) {
+                    pending.done().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private static void fail(List<Pending> pending, RuntimeException e) {
+        pending.forEach(p -> p.done().completeExceptionally(e));
+    }
+
+    private static BatchOutcome join(Pending pending) {
+        try {
+            return pending.done().join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        return cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+    }
+
+    private record Pending(BatchReservation request, CompletableFuture<BatchOutcome> done) {}
+}
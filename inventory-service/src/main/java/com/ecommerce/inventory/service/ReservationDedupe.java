@@ -0,0 +1,313 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.event.ReservationChangedEvent;
+import com.ecommerce.inventory.model.StockReservation.ReservationStatus;
+import com.ecommerce.inventory.repository.ReservationRepository;
+import com.ecommerce.inventory.repository.ReservationRepository.OrderReservation;
+import com.ecommerce.inventory.service.InventoryService.BatchReservation;
+import com.ecommerce.inventory.service.InventoryService.ReservationResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Makes reservations idempotent on the order id: order-service retries {@code /reserve} on
+ * timeouts, and every retry used to hold the order's stock again until expiry.
+ *
+ * <p>The response of each order's reservation is remembered for {@code window} (at most
+ * {@code max-entries} orders, oldest dropped first). A repeated call gets the original response
+ * without touching the database, and waits for it if the first call is still in flight. An
+ * order not in memory (older, or reserved before a restart) is looked up once for an ACTIVE or
+ * CONFIRMED reservation before reserving, unless {@code check-store} is off. Failed reservations are not remembered, and an order
+ * whose reservation is released or expires may reserve again.
+ *
+ * <p>Memory and the lookup only see this instance's calls and committed reservations. Across
+ * instances the unique {@code holding_order_id} of {@code stock_reservations} rejects a second
+ * reservation of the same order; the loser rolls back and returns the winner's response.
+ */
+@Component
+public class ReservationDedupe {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationDedupe.class);
+    private static final List<ReservationStatus> HOLDING = List.of(ReservationStatus.ACTIVE, ReservationStatus.CONFIRMED);
+
+    private final ReservationRepository reservationRepository;
+    private final TransactionTemplate readOnly;
+    private final boolean enabled;
+    private final boolean checkStore;
+    private final long windowMillis;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final Counter memoryDuplicates;
+    private final Counter storeDuplicates;
+
+    public ReservationDedupe(ReservationRepository reservationRepository,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${inventory.reservation.dedupe.enabled:true}") boolean enabled,
+                             @Value("${inventory.reservation.dedupe.check-store:true}") boolean checkStore,
+                             @Value("${inventory.reservation.dedupe.window:10m}") Duration window,
+                             @Value("${inventory.reservation.dedupe.max-entries:100000}") int maxEntries) {
+        this.reservationRepository = reservationRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.enabled = enabled;
+        this.checkStore = checkStore;
+        this.windowMillis = window.toMillis();
+        this.maxEntries = maxEntries;
+
+        this.memoryDuplicates = Counter.builder("inventory.reservations.duplicates")
+                .description("Repeated reservation calls for an order answered with its first response")
+                .tag("source", "memory")
+                .register(meterRegistry);
+        this.storeDuplicates = Counter.builder("inventory.reservations.duplicates")
+                .description("Repeated reservation calls for an order answered with its first response")
+                .tag("source", "store")
+                .register(meterRegistry);
+        Gauge.builder("inventory.reservations.dedupe.entries", entries, Map::size)
+                .description("Orders whose reservation response is remembered")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserves with {@code reservation} unless the order already has a reservation.
+     */
+    ReservationResponse reserve(String orderId, Supplier<ReservationResponse> reservation) {
+        if (!enabled) {
+            return reservation.get();
+        }
+        Claim claim = claim(orderId);
+        if (!claim.owner()) {
+            return claim.entry().await();
+        }
+        try {
+            ReservationResponse response = stored(List.of(orderId)).get(orderId);
+            complete(claim.entry(), response != null ? response : reserveOnce(orderId, reservation));
+        } catch (RuntimeException e) {
+            fail(claim.entry(), e);
+        }
+        return claim.entry().await();
+    }
+
+    /**
+     * Batch form of {@link #reserve}: only orders without a reservation are passed on, and
+     * responses come back in request order. An order repeated within the batch is reserved
+     * once.
+     */
+    List<ReservationResponse> reserveAll(List<BatchReservation> requests,
+                                         Function<List<BatchReservation>, List<ReservationResponse>> reservation) {
+        if (!enabled) {
+            return reservation.apply(requests);
+        }
+        List<Claim> claims = new ArrayList<>(requests.size());
+        Map<String, BatchReservation> owned = new HashMap<>();
+        for (BatchReservation request : requests) {
+            Claim claim = claim(request.orderId());
+            claims.add(claim);
+            if (claim.owner()) {
+                owned.put(request.orderId(), request);
+            }
+        }
+
+        if (!owned.isEmpty()) {
+            Map<String, Entry> pending = new HashMap<>();
+            for (Claim claim : claims) {
+                if (claim.owner()) {
+                    pending.put(claim.entry().orderId, claim.entry());
+                }
+            }
+            try {
+                stored(owned.keySet()).forEach((orderId, response) -> {
+                    complete(pending.remove(orderId), response);
+                    owned.remove(orderId);
+                });
+                List<BatchReservation> toReserve = requests.stream()
+                        .filter(request -> owned.remove(request.orderId()) != null)
+                        .toList();
+                if (!toReserve.isEmpty()) {
+                    List<ReservationResponse> responses;
+                    try {
+                        responses = reservation.apply(toReserve);
+                    } catch (DataIntegrityViolationException e) {
+                        // Some order was reserved elsewhere meanwhile: answer the reserved ones, retry the rest
+                        Map<String, ReservationResponse> existing = lookup(toReserve.stream()
+                                .map(BatchReservation::orderId).toList());
+                        if (existing.isEmpty()) {
+                            throw e;
+                        }
+                        existing.forEach((orderId, response) -> complete(pending.remove(orderId), response));
+                        toReserve = toReserve.stream()
+                                .filter(request -> !existing.containsKey(request.orderId()))
+                                .toList();
+                        responses = toReserve.isEmpty() ? List.of() : reservation.apply(toReserve);
+                    }
+                    for (int i = 0; i < toReserve.size(); i++) {
+                        complete(pending.remove(toReserve.get(i).orderId()), responses.get(i));
+                    }
+                }
+            } catch (RuntimeException e) {
+                pending.values().forEach(entry -> fail(entry, e));
+            }
+        }
+
+        List<ReservationResponse> responses = new ArrayList<>(claims.size());
+        for (Claim claim : claims) {
+            try {
+                responses.add(claim.entry().await());
+            } catch (RuntimeException e) {
+                responses.add(new ReservationResponse(null, false, e.getMessage()));
+            }
+        }
+        return responses;
+    }
+
+    /**
+     * Forgets an order once its reservation no longer holds stock, so the order can reserve
+     * again.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        if (!enabled || event.orderId() == null
+                || event.status() == ReservationStatus.ACTIVE || event.status() == ReservationStatus.CONFIRMED) {
+            return;
+        }
+        Entry entry = entries.get(event.orderId());
+        if (entry != null && entry.response.isDone() && !entry.response.isCompletedExceptionally()
+                && event.reservationId().equals(entry.response.join().reservationId())) {
+            entries.remove(event.orderId(), entry);
+        }
+    }
+
+    private Claim claim(String orderId) {
+        long now = System.currentTimeMillis();
+        while (true) {
+            Entry existing = entries.get(orderId);
+            if (existing != null && now - existing.createdAt >= windowMillis) {
+                entries.remove(orderId, existing);
+                existing = null;
+            }
+            if (existing != null) {
+                memoryDuplicates.increment();
+                log.debug("Repeated reservation call for order {}", orderId);
+                return new Claim(existing, false);
+            }
+            Entry entry = new Entry(orderId, now);
+            if (entries.putIfAbsent(orderId, entry) == null) {
+                order.add(entry);
+                queued.incrementAndGet();
+                evict(now);
+                return new Claim(entry, true);
+            }
+        }
+    }
+
+    /**
+     * Runs {@code reservation}; if another instance reserved the order after the lookup, the
+     * unique holding order id rejects this one and the existing reservation is returned.
+     */
+    private ReservationResponse reserveOnce(String orderId, Supplier<ReservationResponse> reservation) {
+        try {
+            return reservation.get();
+        } catch (DataIntegrityViolationException e) {
+            ReservationResponse existing = lookup(List.of(orderId)).get(orderId);
+            if (existing == null) {
+                throw e;
+            }
+            log.debug("Order {} was reserved concurrently, returning its reservation", orderId);
+            return existing;
+        }
+    }
+
+    /**
+     * Existing reservations of orders that were not in memory, unless {@code check-store} is off.
+     */
+    private Map<String, ReservationResponse> stored(Collection<String> orderIds) {
+        return checkStore ? lookup(orderIds) : new HashMap<>();
+    }
+
+    /**
+     * Read in a transaction of its own so the connection is returned before the reservation
+     * takes one.
+     */
+    private Map<String, ReservationResponse> lookup(Collection<String> orderIds) {
+        Map<String, ReservationResponse> found = new HashMap<>();
+        List<OrderReservation> reservations = readOnly.execute(tx ->
+                reservationRepository.findReservationsByOrderIdInAndStatusIn(orderIds, HOLDING));
+        for (OrderReservation reservation : reservations) {
+            found.putIfAbsent(reservation.orderId(),
+                    new ReservationResponse(reservation.reservationId(), true, "Stock reserved successfully"));
+        }
+        storeDuplicates.increment(found.size());
+        return found;
+    }
+
+    private void complete(Entry entry, ReservationResponse response) {
+        if (!response.success()) {
+            entries.remove(entry.orderId, entry);
+        }
+        entry.response.complete(response);
+    }
+
+    private void fail(Entry entry, RuntimeException e) {
+        entries.remove(entry.orderId, entry);
+        entry.response.completeExceptionally(e);
+    }
+
+    private void evict(long now) {
+        Entry oldest;
+        while ((oldest = order.peek()) != null
+                && (queued.get() > maxEntries || now - oldest.createdAt >= windowMillis)) {
+            if (order.remove(oldest)) {
+                queued.decrementAndGet();
+                entries.remove(oldest.orderId, oldest);
+            }
+        }
+    }
+
+    private record Claim(Entry entry, boolean owner) {}
+
+    private static final class Entry {
+        final String orderId;
+        final long createdAt;
+        final CompletableFuture<ReservationResponse> response = new CompletableFuture<>();
+
+        Entry(String orderId, long createdAt) {
+            this.orderId = orderId;
+            this.createdAt = createdAt;
+        }
+
+        ReservationResponse await() {
+            try {
+                return response.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.event.ReservationChangedEvent;
+import com.ecommerce.inventory.model.StockReservation.ReservationStatus;
+import com.ecommerce.inventory.repository.ReservationRepository;
+import com.ecommerce.inventory.repository.ReservationRepository.ReservationDeadline;
+import com.ecommerce.inventory.service.ExpiryLeases.LeaseChange;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Expires reservations at their deadline instead of scanning the table. Every ACTIVE
+ * reservation sits in a hashed timing wheel ({@code slots} buckets of {@code tick-ms} each,
+ * deadlines further out than one revolution simply stay in their bucket until their tick
+ * comes round). Each tick hands due reservations to
+ * {@link InventoryService#expireReservations} in batches of {@code batch-size}, at most
+ * {@code max-batches-per-tick} per tick so a backlog drains without monopolising the
+ * scheduler.
+ *
+ * <p>The wheel only holds reservations of the partitions this instance leases (see
+ * {@link ExpiryLeases}), so with several instances each reservation is expired by one of
+ * them. A partition's ACTIVE reservations are loaded when its lease is acquired; after that,
+ * {@link ReservationChangedEvent}s keep the wheel current for reservations made here, and
+ * each lease round reads those created since by other instances. A slow sweep of the owned
+ * partitions picks up overdue reservations the wheel still missed.
+ */
+@Component
+public class ReservationExpiryWheel {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationExpiryWheel.class);
+    private static final int REBUILD_CHUNK_SIZE = 5000;
+
+    private final InventoryService inventoryService;
+    private final ReservationRepository reservationRepository;
+    private final ExpiryLeases leases;
+    private final long tickMillis;
+    private final int batchSize;
+    private final int maxBatchesPerTick;
+    private final List<List<Timeout>> slots;
+    private final Map<String, Timeout> pending = new HashMap<>();
+    private final Deque<Timeout> due = new ArrayDeque<>();
+    private final Timer lagTimer;
+    private long currentTick;
+    // Lease rounds read the database, so they hold a lock of their own rather than the wheel's
+    private final Object leaseRound = new Object();
+    // Highest reservation id read from the owned partitions
+    private long lastSeenId;
+
+    public ReservationExpiryWheel(InventoryService inventoryService,
+                                  ReservationRepository reservationRepository,
+                                  ExpiryLeases leases,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${inventory.expiry.tick-ms:1000}") long tickMillis,
+                                  @Value("${inventory.expiry.slots:512}") int slotCount,
+                                  @Value("${inventory.expiry.batch-size:200}") int batchSize,
+                                  @Value("${inventory.expiry.max-batches-per-tick:10}") int maxBatchesPerTick) {
+        this.inventoryService = inventoryService;
+        this.reservationRepository = reservationRepository;
+        this.leases = leases;
+        this.tickMillis = tickMillis;
+        this.batchSize = batchSize;
+        this.maxBatchesPerTick = maxBatchesPerTick;
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.currentTick = System.currentTimeMillis() / tickMillis;
+
+        this.lagTimer = Timer.builder("inventory.reservations.expiry.lag")
+                .description("Delay between a reservation's expiresAt and its release")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("inventory.reservations.expiry.pending", this, ReservationExpiryWheel::size)
+                .description("Active reservations waiting in the expiry wheel")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        renewLeases();
+    }
+
+    /**
+     * Renews the partition leases, drops reservations of partitions given up and loads those
+     * of partitions acquired, then reads reservations created since the last round.
+     */
+    @Scheduled(fixedDelayString = "${inventory.expiry.lease.renew-interval-ms:5000}",
+               initialDelayString = "${inventory.expiry.lease.renew-interval-ms:5000}")
+    public void renewLeases() {
+        synchronized (leaseRound) {
+            renewLeasesLocked();
+        }
+    }
+
+    private void renewLeasesLocked() {
+        LeaseChange change;
+        try {
+            change = leases.renew();
+        } catch (RuntimeException e) {
+            log.warn("Could not renew expiry partition leases: {}", e.getMessage());
+            return;
+        }
+        if (!change.lost().isEmpty()) {
+            drop(change.lost());
+        }
+        if (!change.acquired().isEmpty()) {
+            long start = System.currentTimeMillis();
+            boolean first = leases.owned().size() == change.acquired().size();
+            long maxId = load(change.acquired(), 0);
+            if (first) {
+                lastSeenId = Math.max(lastSeenId, maxId);
+            }
+            log.info("Reservation expiry wheel loaded {} partitions in {} ms",
+                    change.acquired().size(), System.currentTimeMillis() - start);
+        }
+        Set<Integer> owned = leases.owned();
+        if (!owned.isEmpty()) {
+            lastSeenId = Math.max(lastSeenId, load(owned, lastSeenId));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        if (event.status() == ReservationStatus.ACTIVE) {
+            // Other partitions are picked up by their owner's next lease round
+            if (leases.owns(leases.partitionOf(event.reservationId()))) {
+                schedule(event.reservationId(), event.expiresAt());
+            }
+        } else {
+            cancel(event.reservationId());
+        }
+    }
+
+    @Scheduled(fixedRateString = "${inventory.expiry.tick-ms:1000}")
+    public void tick() {
+        advance(System.currentTimeMillis());
+        for (int i = 0; i < maxBatchesPerTick; i++) {
+            List<Timeout> batch = nextBatch();
+            if (batch.isEmpty()) {
+                return;
+            }
+            expire(batch);
+        }
+    }
+
+    /**
+     * Safety net for reservations of the owned partitions the wheel never saw, e.g. committed
+     * after a lease round had read past their id.
+     */
+    @Scheduled(fixedDelayString = "${inventory.expiry.sweep-interval-ms:300000}",
+               initialDelayString = "${inventory.expiry.sweep-interval-ms:300000}")
+    public void sweep() {
+        Set<Integer> owned = leases.owned();
+        if (owned.isEmpty()) {
+            return;
+        }
+        List<ReservationDeadline> overdue = reservationRepository.findExpiredDeadlines(
+                ReservationStatus.ACTIVE, LocalDateTime.now().minus(Duration.ofMillis(tickMillis * 2)),
+                leases.prefixes(owned), PageRequest.of(0, batchSize * maxBatchesPerTick));
+        int added = 0;
+        synchronized (this) {
+            for (ReservationDeadline deadline : overdue) {
+                if (!pending.containsKey(deadline.reservationId())) {
+                    schedule(deadline.reservationId(), deadline.expiresAt());
+                    added++;
+                }
+            }
+        }
+        if (added > 0) {
+            log.warn("Expiry sweep found {} overdue reservations not in the wheel", added);
+        }
+    }
+
+    /**
+     * Loads the ACTIVE reservations of {@code partitionIds} with an id above {@code afterId}
+     * that are not in the wheel yet, returning the highest id read.
+     */
+    private long load(Collection<Integer> partitionIds, long afterId) {
+        List<String> prefixes = leases.prefixes(partitionIds);
+        long lastId = afterId;
+        List<ReservationDeadline> chunk;
+        do {
+            chunk = reservationRepository.findDeadlines(ReservationStatus.ACTIVE, lastId, prefixes,
+                    PageRequest.of(0, REBUILD_CHUNK_SIZE));
+            synchronized (this) {
+                for (ReservationDeadline deadline : chunk) {
+                    if (!pending.containsKey(deadline.reservationId())) {
+                        schedule(deadline.reservationId(), deadline.expiresAt());
+                    }
+                    lastId = deadline.id();
+                }
+            }
+        } while (chunk.size() == REBUILD_CHUNK_SIZE);
+        return lastId;
+    }
+
+    private synchronized void drop(Set<Integer> partitionIds) {
+        pending.values().removeIf(timeout -> {
+            if (partitionIds.contains(timeout.partition)) {
+                timeout.cancelled = true;
+                return true;
+            }
+            return false;
+        });
+    }
+
+    synchronized void schedule(String reservationId, LocalDateTime expiresAt) {
+        long deadline = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        // Round up so a reservation never fires before its deadline
+        long tick = Math.max(Math.floorDiv(deadline + tickMillis - 1, tickMillis), currentTick + 1);
+        Timeout timeout = new Timeout(reservationId, leases.partitionOf(reservationId), deadline, tick);
+        Timeout previous = pending.put(reservationId, timeout);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        slots.get((int) Math.floorMod(tick, (long) slots.size())).add(timeout);
+    }
+
+    synchronized void cancel(String reservationId) {
+        Timeout timeout = pending.remove(reservationId);
+        if (timeout != null) {
+            timeout.cancelled = true;
+        }
+    }
+
+    synchronized int size() {
+        return pending.size() + due.size();
+    }
+
+    private synchronized void advance(long now) {
+        long target = now / tickMillis;
+        // Visit each slot at most once, however long since the last tick
+        long ticks = Math.min(target - currentTick, slots.size());
+        for (long t = target - ticks + 1; t <= target; t++) {
+            Iterator<Timeout> it = slots.get((int) Math.floorMod(t, (long) slots.size())).iterator();
+            while (it.hasNext()) {
+                Timeout timeout = it.next();
+                if (timeout.cancelled) {
+                    it.remove();
+                } else if (timeout.tick <= target) {
+                    it.remove();
+                    pending.remove(timeout.reservationId, timeout);
+                    due.add(timeout);
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, target);
+    }
+
+    private synchronized List<Timeout> nextBatch() {
+        List<Timeout> batch = new ArrayList<>(Math.min(batchSize, due.size()));
+        while (batch.size() < batchSize && !due.isEmpty()) {
+            Timeout timeout = due.poll();
+            // Partition given up, or its lease not renewed in time: left to the new owner
+            if (leases.owns(timeout.partition)) {
+                batch.add(timeout);
+            }
+        }
+        return batch;
+    }
+
+    private void expire(List<Timeout> batch) {
+        List<String> reservationIds = batch.stream().map(Timeout::reservationId).toList();
+        Set<String> expired;
+        try {
+            expired = inventoryService.expireReservations(reservationIds);
+        } catch (Exception e) {
+            // Left to the sweep
+            log.error("Failed to expire {} reservations", batch.size(), e);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        for (Timeout timeout : batch) {
+            if (expired.contains(timeout.reservationId)) {
+                lagTimer.record(Duration.ofMillis(Math.max(0, now - timeout.deadline)));
+            }
+        }
+    }
+
+    private static final class Timeout {
+        final String reservationId;
+        final int partition;
+        final long deadline;
+        final long tick;
+        boolean cancelled;
+
+        Timeout(String reservationId, int partition, long deadline, long tick) {
+            this.reservationId = reservationId;
+            this.partition = partition;
+            this.deadline = deadline;
+            this.tick = tick;
+        }
+
+        String reservationId() {
+            return reservationId;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.ecommerce.inventory.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Chooses per SKU between optimistic (version-checked) and pessimistic (row-locked)
+ * reservations. Every reservation reports whether each of its SKUs was contended: an
+ * optimistic attempt that lost a version check, or a pessimistic one that waited longer
+ * than {@code contended-lock-wait} for its locks. These samples feed an exponentially
+ * weighted conflict rate; a SKU switches to pessimistic locking above
+ * {@code pessimistic-above} and back below {@code optimistic-below}.
+ *
+ * <p>Only SKUs that have seen contention are tracked; unknown SKUs are optimistic.
+ */
+@Component
+public class SkuContentionTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(SkuContentionTracker.class);
+
+    private final Map<String, Contention> contention = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final double weight;
+    private final double pessimisticAbove;
+    private final double optimisticBelow;
+
+    private final Counter toPessimistic;
+    private final Counter toOptimistic;
+
+    public SkuContentionTracker(MeterRegistry meterRegistry,
+                                @Value("${inventory.reservation.adaptive.enabled:true}") boolean enabled,
+                                @Value("${inventory.reservation.adaptive.weight:0.1}") double weight,
+                                @Value("${inventory.reservation.adaptive.pessimistic-above:0.2}") double pessimisticAbove,
+                                @Value("${inventory.reservation.adaptive.optimistic-below:0.05}") double optimisticBelow) {
+        this.enabled = enabled;
+        this.weight = weight;
+        this.pessimisticAbove = pessimisticAbove;
+        this.optimisticBelow = optimisticBelow;
+
+        this.toPessimistic = Counter.builder("inventory.reservation.mode.switches")
+                .description("SKUs switched between optimistic and pessimistic reservations")
+                .tag("to", "pessimistic")
+                .register(meterRegistry);
+        this.toOptimistic = Counter.builder("inventory.reservation.mode.switches")
+                .description("SKUs switched between optimistic and pessimistic reservations")
+                .tag("to", "optimistic")
+                .register(meterRegistry);
+        Gauge.builder("inventory.reservation.contended.skus", contention,
+                        map -> map.values().stream().filter(c -> c.pessimistic).count())
+                .description("SKUs currently reserved with pessimistic locks")
+                .register(meterRegistry);
+    }
+
+    /**
+     * True if all SKUs may be reserved optimistically.
+     */
+    public boolean preferOptimistic(Collection<String> skus) {
+        if (!enabled) {
+            return false;
+        }
+        for (String sku : skus) {
+            Contention c = contention.get(sku);
+            if (c != null && c.pessimistic) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void record(Collection<String> skus, boolean contended) {
+        if (!enabled) {
+            return;
+        }
+        for (String sku : skus) {
+            if (contended) {
+                contention.computeIfAbsent(sku, k -> new Contention()).sample(sku, true);
+            } else {
+                Contention c = contention.get(sku);
+                if (c != null && c.sample(sku, false)) {
+                    contention.remove(sku, c);
+                }
+            }
+        }
+    }
+
+    /**
+     * SKUs whose conflict rate is at least {@code rate}.
+     */
+    public Set<String> contendedAbove(double rate) {
+        return contention.entrySet().stream()
+                .filter(e -> e.getValue().rate() >= rate)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Drops what was measured for a SKU, e.g. once it is no longer reserved through its row.
+     */
+    public void forget(String sku) {
+        contention.remove(sku);
+    }
+
+    private final class Contention {
+        private double rate;
+        private boolean pessimistic;
+
+        synchronized double rate() {
+            return rate;
+        }
+
+        /**
+         * Returns true once the SKU is optimistic and quiet enough to stop tracking.
+         */
+        synchronized boolean sample(String sku, boolean contended) {
+            rate += weight * ((contended ? 1.0 : 0.0) - rate);
+            if (!pessimistic && rate > pessimisticAbove) {
+                pessimistic = true;
+                toPessimistic.increment();
+                log.info("SKU {} is contended (conflict rate {}), switching to pessimistic reservations",
+                        sku, String.format("%.2f", rate));
+            } else if (pessimistic && rate < optimisticBelow) {
+                pessimistic = false;
+                toOptimistic.increment();
+                log.info("SKU {} is no longer contended, switching to optimistic reservations", sku);
+            }
+            return !pessimistic && rate < optimisticBelow / 10;
+        }
+    }
+}
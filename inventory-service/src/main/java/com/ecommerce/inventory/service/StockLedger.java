@@ -0,0 +1,475 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.event.ReservationChangedEvent;
+import com.ecommerce.inventory.event.StockChangedEvent;
+import com.ecommerce.inventory.event.StockChangedEvent.StockLevel;
+import com.ecommerce.inventory.model.Inventory;
+import com.ecommerce.inventory.model.Inventory.InventoryStatus;
+import com.ecommerce.inventory.model.ReservationItem;
+import com.ecommerce.inventory.model.StockMovement.MovementType;
+import com.ecommerce.inventory.model.StockReservation;
+import com.ecommerce.inventory.model.StockReservation.ReservationStatus;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import com.ecommerce.inventory.repository.ReservationRepository;
+import com.ecommerce.inventory.service.InventoryService.ReservationRequest;
+import com.ecommerce.inventory.service.InventoryService.ReservationResponse;
+import com.ecommerce.inventory.service.InventoryService.SyncOutcome;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Single-writer reservation engine. Available quantities live in memory, partitioned by SKU
+ * hash across single-threaded shards; each shard applies reserve/release/confirm/restock
+ * commands strictly in sequence, so no locks are taken on the hot path. Every accepted command
+ * is handed to {@link StockLedgerWriter}, which persists quantity deltas and reservation rows in
+ * group commits, and the caller only gets its answer once that commit succeeded. A failed
+ * commit is compensated in memory. Committed levels are published as {@link StockChangedEvent}s.
+ *
+ * <p>The ledger must be the only writer of stock quantities: enable it on a single instance
+ * (or route SKUs to instances consistently) and keep all stock changes going through
+ * {@link InventoryService}.
+ */
+@Component
+public class StockLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedger.class);
+
+    private final InventoryRepository inventoryRepository;
+    private final ReservationRepository reservationRepository;
+    private final StockLedgerWriter writer;
+    private final HotSkuStripes hotSkus;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final Shard[] shards;
+    private final Set<String> transitions = ConcurrentHashMap.newKeySet();
+    private volatile boolean serving;
+
+    public StockLedger(InventoryRepository inventoryRepository,
+                       ReservationRepository reservationRepository,
+                       StockLedgerWriter writer,
+                       HotSkuStripes hotSkus,
+                       ApplicationEventPublisher eventPublisher,
+                       @Value("${inventory.reservation.engine:jpa}") String engine,
+                       @Value("${inventory.reservation.ledger.shards:8}") int shardCount) {
+        this.inventoryRepository = inventoryRepository;
+        this.reservationRepository = reservationRepository;
+        this.writer = writer;
+        this.hotSkus = hotSkus;
+        this.eventPublisher = eventPublisher;
+        this.enabled = "ledger".equalsIgnoreCase(engine);
+        this.shards = new Shard[enabled ? shardCount : 0];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i);
+        }
+    }
+
+    /**
+     * True once the ledger is enabled and loaded; until then the JPA path serves everything.
+     */
+    public boolean isServing() {
+        return serving;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        // Stripes are a JPA engine structure; load their totals from the rows
+        hotSkus.demoteAll();
+        List<Inventory> inventories = inventoryRepository.findAll();
+        for (Inventory inventory : inventories) {
+            shardFor(inventory.getSku()).positions.put(inventory.getSku(), Position.of(inventory));
+        }
+        writer.setCompensator(this::compensate);
+        serving = true;
+        log.info("Stock ledger loaded {} SKUs into {} shards in {} ms",
+                inventories.size(), shards.length, System.currentTimeMillis() - start);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+        }
+    }
+
+    /**
+     * Starts tracking a SKU created after the ledger was loaded.
+     */
+    public void track(Inventory inventory) {
+        Position position = Position.of(inventory);
+        join(shardFor(inventory.getSku()).submit(positions -> positions.putIfAbsent(inventory.getSku(), position)));
+    }
+
+    public ReservationResponse reserve(String orderId, List<ReservationRequest> items) {
+        return join(reserveAsync(orderId, items));
+    }
+
+    /**
+     * Non-blocking {@link #reserve}: completes once the reservation is committed, so many
+     * reservations can share one group commit.
+     */
+    public CompletableFuture<ReservationResponse> reserveAsync(String orderId, List<ReservationRequest> items) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (ReservationRequest item : items) {
+            quantities.merge(item.sku(), item.quantity(), Integer::sum);
+        }
+
+        Map<Shard, Map<String, Integer>> byShard = new LinkedHashMap<>();
+        quantities.forEach((sku, quantity) ->
+                byShard.computeIfAbsent(shardFor(sku), s -> new LinkedHashMap<>()).put(sku, quantity));
+
+        List<CompletableFuture<ReserveOutcome>> outcomes = new ArrayList<>(byShard.size());
+        byShard.forEach((shard, skus) -> outcomes.add(shard.submit(positions -> tryReserve(positions, skus))));
+
+        return CompletableFuture.allOf(outcomes.toArray(new CompletableFuture<?>[0])).thenCompose(done -> {
+            List<StockDelta> applied = new ArrayList<>();
+            List<StockLevel> levels = new ArrayList<>();
+            ReserveOutcome failure = null;
+            for (CompletableFuture<ReserveOutcome> outcome : outcomes) {
+                ReserveOutcome result = outcome.join();
+                if (result.failure() == null) {
+                    applied.addAll(result.deltas());
+                    levels.addAll(result.levels());
+                } else if (failure == null) {
+                    failure = result;
+                }
+            }
+
+            if (failure != null) {
+                compensate(applied);
+                if (failure.missingSku() != null) {
+                    return CompletableFuture.failedFuture(
+                            new IllegalArgumentException("SKU not found: " + failure.missingSku()));
+                }
+                return CompletableFuture.completedFuture(new ReservationResponse(null, false, failure.failure()));
+            }
+
+            StockReservation reservation = new StockReservation(orderId);
+            for (ReservationRequest item : items) {
+                reservation.addItem(new ReservationItem(item.sku(), item.quantity()));
+            }
+            return writer.submit(applied, write -> {
+                write.insertReservation(reservation);
+                write.recordMovements(MovementType.RESERVE, reservation.getReservationId(), applied);
+            }).thenApply(committed -> {
+                eventPublisher.publishEvent(new StockChangedEvent(levels));
+                eventPublisher.publishEvent(ReservationChangedEvent.of(reservation));
+                return new ReservationResponse(reservation.getReservationId(), true, "Stock reserved successfully");
+            });
+        });
+    }
+
+    public void release(String reservationId) {
+        transition(reservationId, ReservationStatus.RELEASED);
+    }
+
+    /**
+     * Marks an expired reservation EXPIRED and returns its stock.
+     */
+    public void expire(String reservationId) {
+        transition(reservationId, ReservationStatus.EXPIRED);
+    }
+
+    public void confirm(String reservationId) {
+        transition(reservationId, ReservationStatus.CONFIRMED);
+    }
+
+    /**
+     * Adds {@code quantity} to on-hand stock, or sets it when {@code absolute} is true.
+     */
+    public void adjustOnHand(String sku, int quantity, boolean absolute) {
+        Applied applied = join(shardFor(sku).submit(positions -> {
+            Position position = positions.get(sku);
+            if (position == null) {
+                return null;
+            }
+            StockLevel before = position.level(sku);
+            int change = absolute ? quantity - position.onHand : quantity;
+            position.onHand += change;
+            position.version++;
+            return new Applied(List.of(new StockDelta(sku, change, 0, !absolute)),
+                    List.of(position.level(sku).since(before)));
+        }));
+        if (applied == null) {
+            throw new IllegalArgumentException("SKU not found: " + sku);
+        }
+        join(writer.submit(applied.deltas(), write -> write.recordMovements(
+                absolute ? MovementType.ADJUST : MovementType.RESTOCK, null, applied.deltas())));
+        eventPublisher.publishEvent(new StockChangedEvent(applied.levels()));
+    }
+
+    /**
+     * Sets the on-hand quantity of many SKUs in one group commit, with the same rules as
+     * {@link InventoryService#syncStock}: a count below the reserved quantity is raised to it,
+     * and unknown SKUs are skipped.
+     */
+    SyncOutcome syncOnHand(Map<String, Integer> quantities) {
+        Map<Shard, Map<String, Integer>> byShard = new LinkedHashMap<>();
+        quantities.forEach((sku, quantity) ->
+                byShard.computeIfAbsent(shardFor(sku), s -> new LinkedHashMap<>()).put(sku, quantity));
+
+        List<CompletableFuture<ShardSync>> results = new ArrayList<>(byShard.size());
+        byShard.forEach((shard, skus) -> results.add(shard.submit(positions -> sync(positions, skus))));
+        List<StockDelta> applied = new ArrayList<>();
+        List<StockLevel> levels = new ArrayList<>();
+        int current = 0;
+        int belowReserved = 0;
+        int skipped = 0;
+        for (CompletableFuture<ShardSync> result : results) {
+            ShardSync shardSync = join(result);
+            applied.addAll(shardSync.deltas());
+            levels.addAll(shardSync.levels());
+            current += shardSync.current();
+            belowReserved += shardSync.belowReserved();
+            skipped += shardSync.skipped();
+        }
+
+        if (!applied.isEmpty()) {
+            join(writer.submit(applied, write -> write.recordMovements(MovementType.ADJUST, "stock-sync", applied)));
+            eventPublisher.publishEvent(new StockChangedEvent(levels));
+        }
+        return new SyncOutcome(applied.size(), current, belowReserved, skipped);
+    }
+
+    private void transition(String reservationId, ReservationStatus target) {
+        StockReservation reservation = reservationRepository.findWithItemsByReservationId(reservationId)
+                .orElseThrow(() -> new IllegalArgumentException("Reservation not found: " + reservationId));
+
+        if (reservation.getStatus() != ReservationStatus.ACTIVE || !transitions.add(reservationId)) {
+            throw new IllegalStateException("Reservation is not active: " + reservationId);
+        }
+        try {
+            Map<Shard, Map<String, Integer>> byShard = new LinkedHashMap<>();
+            for (ReservationItem item : reservation.getItems()) {
+                byShard.computeIfAbsent(shardFor(item.getSku()), s -> new LinkedHashMap<>())
+                        .merge(item.getSku(), item.getQuantity(), Integer::sum);
+            }
+
+            boolean confirm = target == ReservationStatus.CONFIRMED;
+            List<CompletableFuture<Applied>> results = new ArrayList<>();
+            byShard.forEach((shard, skus) -> results.add(shard.submit(positions -> settle(positions, skus, confirm))));
+            List<StockDelta> applied = new ArrayList<>();
+            List<StockLevel> levels = new ArrayList<>();
+            for (CompletableFuture<Applied> result : results) {
+                Applied shardApplied = join(result);
+                applied.addAll(shardApplied.deltas());
+                levels.addAll(shardApplied.levels());
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            MovementType type = confirm ? MovementType.CONFIRM
+                    : target == ReservationStatus.EXPIRED ? MovementType.EXPIRE : MovementType.RELEASE;
+            join(writer.submit(applied, write -> {
+                write.updateReservationStatus(reservationId, target, now);
+                write.recordMovements(type, reservationId, applied);
+            }));
+            eventPublisher.publishEvent(new StockChangedEvent(levels));
+            eventPublisher.publishEvent(new ReservationChangedEvent(reservationId, reservation.getOrderId(), target,
+                    reservation.getExpiresAt()));
+        } finally {
+            transitions.remove(reservationId);
+        }
+    }
+
+    private static ReserveOutcome tryReserve(Map<String, Position> positions, Map<String, Integer> skus) {
+        for (Map.Entry<String, Integer> entry : skus.entrySet()) {
+            Position position = positions.get(entry.getKey());
+            if (position == null) {
+                return new ReserveOutcome(List.of(), List.of(), "SKU not found: " + entry.getKey(), entry.getKey());
+            }
+            if (position.available() < entry.getValue()) {
+                return new ReserveOutcome(List.of(), List.of(), "Insufficient stock for SKU: " + entry.getKey() +
+                        " (available: " + position.available() + ", requested: " + entry.getValue() + ")", null);
+            }
+        }
+        List<StockDelta> deltas = new ArrayList<>(skus.size());
+        List<StockLevel> levels = new ArrayList<>(skus.size());
+        skus.forEach((sku, quantity) -> {
+            Position position = positions.get(sku);
+            StockLevel before = position.level(sku);
+            position.reserved += quantity;
+            position.version++;
+            deltas.add(new StockDelta(sku, 0, quantity, false));
+            levels.add(position.level(sku).since(before));
+        });
+        return new ReserveOutcome(deltas, levels, null, null);
+    }
+
+    private static Applied settle(Map<String, Position> positions, Map<String, Integer> skus, boolean confirm) {
+        List<StockDelta> deltas = new ArrayList<>(skus.size());
+        List<StockLevel> levels = new ArrayList<>(skus.size());
+        skus.forEach((sku, quantity) -> {
+            Position position = positions.get(sku);
+            if (position == null) {
+                throw new IllegalStateException("SKU not found: " + sku);
+            }
+            StockLevel before = position.level(sku);
+            if (confirm) {
+                position.onHand -= quantity;
+                position.reserved -= quantity;
+                deltas.add(new StockDelta(sku, -quantity, -quantity, false));
+            } else {
+                // Same clamping as Inventory.releaseReservation
+                int released = Math.min(position.reserved, quantity);
+                position.reserved -= released;
+                deltas.add(new StockDelta(sku, 0, -released, false));
+            }
+            position.version++;
+            levels.add(position.level(sku).since(before));
+        });
+        return new Applied(deltas, levels);
+    }
+
+    private static ShardSync sync(Map<String, Position> positions, Map<String, Integer> skus) {
+        List<StockDelta> deltas = new ArrayList<>(skus.size());
+        List<StockLevel> levels = new ArrayList<>(skus.size());
+        int current = 0;
+        int belowReserved = 0;
+        int skipped = 0;
+        for (Map.Entry<String, Integer> entry : skus.entrySet()) {
+            Position position = positions.get(entry.getKey());
+            if (position == null) {
+                skipped++;
+                continue;
+            }
+            int quantity = entry.getValue();
+            if (quantity < position.reserved) {
+                quantity = position.reserved;
+                belowReserved++;
+            }
+            int change = quantity - position.onHand;
+            if (change == 0) {
+                current++;
+                continue;
+            }
+            StockLevel before = position.level(entry.getKey());
+            position.onHand = quantity;
+            position.version++;
+            deltas.add(new StockDelta(entry.getKey(), change, 0, false));
+            levels.add(position.level(entry.getKey()).since(before));
+        }
+        return new ShardSync(deltas, levels, current, belowReserved, skipped);
+    }
+
+    /**
+     * Reverts deltas whose commit failed (or that belong to a rejected multi-shard reservation).
+     */
+    void compensate(List<StockDelta> deltas) {
+        Map<Shard, List<StockDelta>> byShard = new HashMap<>();
+        for (StockDelta delta : deltas) {
+            byShard.computeIfAbsent(shardFor(delta.sku()), s -> new ArrayList<>()).add(delta);
+        }
+        byShard.forEach((shard, shardDeltas) -> shard.submit(positions -> {
+            List<StockLevel> levels = new ArrayList<>(shardDeltas.size());
+            for (StockDelta delta : shardDeltas) {
+                Position position = positions.get(delta.sku());
+                if (position != null) {
+                    position.onHand -= delta.onHand();
+                    position.reserved -= delta.reserved();
+                    position.version++;
+                    levels.add(position.level(delta.sku()));
+                }
+            }
+            // Other commands may have published levels that included the reverted deltas. The
+            // reverted change itself was never published, so these levels carry no change
+            eventPublisher.publishEvent(new StockChangedEvent(levels));
+            return null;
+        }));
+    }
+
+    private Shard shardFor(String sku) {
+        return shards[Math.floorMod(sku.hashCode(), shards.length)];
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Shard {
+        final Map<String, Position> positions = new HashMap<>();
+        final ExecutorService executor;
+
+        Shard(int index) {
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "stock-ledger-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        <T> CompletableFuture<T> submit(Function<Map<String, Position>, T> command) {
+            return CompletableFuture.supplyAsync(() -> command.apply(positions), executor);
+        }
+    }
+
+    private static final class Position {
+        int onHand;
+        int reserved;
+        int reorderPoint;
+        long version;
+
+        static Position of(Inventory inventory) {
+            Position position = new Position();
+            position.onHand = inventory.getQuantityOnHand();
+            position.reserved = inventory.getQuantityReserved();
+            position.reorderPoint = inventory.getReorderPoint() != null ? inventory.getReorderPoint() : 0;
+            position.version = inventory.getVersion() != null ? inventory.getVersion() : 0;
+            return position;
+        }
+
+        int available() {
+            return onHand - reserved;
+        }
+
+        // Same thresholds as Inventory.updateStatus
+        StockLevel level(String sku) {
+            int available = available();
+            InventoryStatus status = available <= 0 ? InventoryStatus.OUT_OF_STOCK
+                    : available <= reorderPoint ? InventoryStatus.LOW_STOCK
+                    : InventoryStatus.IN_STOCK;
+            return new StockLevel(sku, onHand, reserved, available, status, version);
+        }
+    }
+
+    private record ReserveOutcome(List<StockDelta> deltas, List<StockLevel> levels, String failure, String missingSku) {}
+
+    private record Applied(List<StockDelta> deltas, List<StockLevel> levels) {}
+
+    private record ShardSync(List<StockDelta> deltas, List<StockLevel> levels,
+                             int current, int belowReserved, int skipped) {}
+
+    /**
+     * Change to one SKU's quantities; {@code restock} also stamps last_restocked_at.
+     */
+    record StockDelta(String sku, int onHand, int reserved, boolean restock) {}
+}
@@ -0,0 +1,241 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.model.StockMovement.MovementType;
+import com.ecommerce.inventory.model.StockReservation;
+import com.ecommerce.inventory.model.StockReservation.ReservationStatus;
+import com.ecommerce.inventory.repository.ReservationRepository;
+import com.ecommerce.inventory.service.StockLedger.StockDelta;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Group-commit persistence for {@link StockLedger}. Writes queue up while the previous commit
+ * runs; each commit takes up to {@code max-batch} of them (waiting at most {@code max-delay}
+ * for stragglers), sums their quantity deltas per SKU, applies them as one sorted JDBC batch
+ * and writes the reservation rows and stock movements, all in one transaction. If a group fails, its writes are
+ * retried one by one so that one bad write does not fail the others.
+ */
+@Component
+public class StockLedgerWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedgerWriter.class);
+
+    private static final String APPLY_DELTA =
+            "UPDATE inventory SET quantity_on_hand = quantity_on_hand + ?, " +
+            "quantity_reserved = quantity_reserved + ?, quantity_available = quantity_available + ?, " +
+            "status = CASE WHEN quantity_available + ? <= 0 THEN 'OUT_OF_STOCK' " +
+            "WHEN quantity_available + ? <= reorder_point THEN 'LOW_STOCK' ELSE 'IN_STOCK' END, " +
+            "last_restocked_at = CASE WHEN ? THEN ? ELSE last_restocked_at END, " +
+            "updated_at = ?, version = version + 1 WHERE sku = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReservationRepository reservationRepository;
+    private final StockMovementLog movementLog;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final int maxBatch;
+    private final Duration maxDelay;
+    private final DistributionSummary commitSize;
+    private final Timer commitTimer;
+    private volatile Consumer<List<StockDelta>> compensator = deltas -> { };
+    private volatile boolean running = true;
+    private Thread thread;
+
+    public StockLedgerWriter(JdbcTemplate jdbcTemplate,
+                             ReservationRepository reservationRepository,
+                             StockMovementLog movementLog,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${inventory.reservation.ledger.max-batch:256}") int maxBatch,
+                             @Value("${inventory.reservation.ledger.max-delay:2ms}") Duration maxDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.reservationRepository = reservationRepository;
+        this.movementLog = movementLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatch = maxBatch;
+        this.maxDelay = maxDelay;
+
+        this.commitSize = DistributionSummary.builder("inventory.ledger.commit.size")
+                .description("Ledger writes persisted per group commit")
+                .register(meterRegistry);
+        this.commitTimer = Timer.builder("inventory.ledger.commit.duration")
+                .description("Duration of a ledger group commit")
+                .register(meterRegistry);
+        Gauge.builder("inventory.ledger.queue.depth", queue, BlockingQueue::size)
+                .description("Ledger writes waiting for a group commit")
+                .register(meterRegistry);
+    }
+
+    void setCompensator(Consumer<List<StockDelta>> compensator) {
+        this.compensator = compensator;
+        synchronized (this) {
+            if (thread == null) {
+                thread = new Thread(this::run, "stock-ledger-writer");
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Queues deltas plus any row writes; completes once they are committed.
+     */
+    CompletableFuture<Void> submit(List<StockDelta> deltas, Consumer<Write> rows) {
+        PendingWrite write = new PendingWrite(deltas, rows, new CompletableFuture<>());
+        queue.add(write);
+        return write.done();
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelay.toNanos();
+                while (batch.size() < maxBatch) {
+                    PendingWrite next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        commitSize.record(batch.size());
+        try {
+            commitTimer.record(() -> transactionTemplate.executeWithoutResult(tx -> apply(batch)));
+            batch.forEach(write -> write.done().complete(null));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+                return;
+            }
+            log.warn("Ledger group commit of {} writes failed, retrying individually", batch.size(), e);
+            for (PendingWrite write : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(tx -> apply(List.of(write)));
+                    write.done().complete(null);
+                } catch (RuntimeException single) {
+                    fail(write, single);
+                }
+            }
+        }
+    }
+
+    private void fail(PendingWrite write, RuntimeException e) {
+        log.error("Ledger write failed, compensating {} deltas", write.deltas().size(), e);
+        compensator.accept(write.deltas());
+        write.done().completeExceptionally(e);
+    }
+
+    private void apply(List<PendingWrite> batch) {
+        // Sum per SKU and update in SKU order so concurrent writers lock rows in the same order
+        Map<String, int[]> totals = new TreeMap<>();
+        for (PendingWrite write : batch) {
+            for (StockDelta delta : write.deltas()) {
+                int[] total = totals.computeIfAbsent(delta.sku(), sku -> new int[3]);
+                total[0] += delta.onHand();
+                total[1] += delta.reserved();
+                total[2] |= delta.restock() ? 1 : 0;
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(totals.size());
+        totals.forEach((sku, total) -> {
+            int available = total[0] - total[1];
+            args.add(new Object[]{total[0], total[1], available, available, available,
+                    total[2] == 1, now, now, sku});
+        });
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(APPLY_DELTA, args);
+        }
+
+        Write rows = new Write();
+        for (PendingWrite write : batch) {
+            write.rows().accept(rows);
+        }
+        if (!rows.reservations.isEmpty()) {
+            reservationRepository.saveAll(rows.reservations);
+        }
+        movementLog.append(rows.movements);
+    }
+
+    /**
+     * Row writes that ride along with a group commit.
+     */
+    final class Write {
+        private final List<StockReservation> reservations = new ArrayList<>();
+        private final List<StockMovementLog.Movement> movements = new ArrayList<>();
+
+        void insertReservation(StockReservation reservation) {
+            reservations.add(reservation);
+        }
+
+        void recordMovements(MovementType type, String reference, List<StockDelta> deltas) {
+            for (StockDelta delta : deltas) {
+                movements.add(new StockMovementLog.Movement(delta.sku(), type, delta.onHand(), delta.reserved(), reference));
+            }
+        }
+
+        void updateReservationStatus(String reservationId, ReservationStatus status, LocalDateTime at) {
+            // Same as StockReservation.onWrite: only a confirmed reservation keeps holding the order
+            String column = status == ReservationStatus.CONFIRMED ? "confirmed_at" : "released_at";
+            String holding = status == ReservationStatus.CONFIRMED ? "" : ", holding_order_id = NULL";
+            int updated = jdbcTemplate.update(
+                    "UPDATE stock_reservations SET status = ?, " + column + " = ?" + holding + " " +
+                    "WHERE reservation_id = ? AND status = 'ACTIVE'",
+                    status.name(), Timestamp.valueOf(at), reservationId);
+            if (updated != 1) {
+                throw new IllegalStateException("Reservation is not active: " + reservationId);
+            }
+        }
+    }
+
+    private record PendingWrite(List<StockDelta> deltas, Consumer<Write> rows, CompletableFuture<Void> done) {}
+}
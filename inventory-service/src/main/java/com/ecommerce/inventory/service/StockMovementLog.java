@@ -0,0 +1,297 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.model.Inventory;
+import com.ecommerce.inventory.model.ReservationItem;
+import com.ecommerce.inventory.model.SkuSnapshot;
+import com.ecommerce.inventory.model.StockMovement;
+import com.ecommerce.inventory.model.StockMovement.MovementType;
+import com.ecommerce.inventory.model.StockReservation;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import com.ecommerce.inventory.repository.InventoryRepository.StockSnapshot;
+import com.ecommerce.inventory.repository.SkuSnapshotRepository;
+import com.ecommerce.inventory.repository.StockMovementRepository;
+import com.ecommerce.inventory.repository.StockMovementRepository.MovementDelta;
+import com.ecommerce.inventory.repository.StockMovementRepository.MovementTotal;
+import com.ecommerce.inventory.repository.StockMovementRepository.SkuTotal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Append-only log of stock movements. Every change to a SKU's quantities is appended, as one
+ * JDBC batch, in the transaction that makes it: by {@link InventoryService} for the JPA
+ * engine and by {@link StockLedgerWriter} for the ledger engine.
+ *
+ * <p>Every {@code snapshot-interval-ms} the movements since the last run are folded, in id
+ * order, into one {@link SkuSnapshot} per SKU. A run only folds up to the newest movement seen
+ * by the previous run, so transactions that were still open then have committed and no lower
+ * id can appear behind the snapshots. A SKU's state is its snapshot plus the movements after
+ * it, so replays and audits never read the {@code inventory} table.
+ *
+ * <p>Stock that predates the log has no movements. On startup every SKU without a snapshot
+ * gets an opening ADJUST movement for whatever its row holds beyond its movements, with the
+ * row locked so no change to it commits in between; SKUs created since only get one if their
+ * row and movements disagree.
+ */
+@Component
+public class StockMovementLog {
+
+    private static final Logger log = LoggerFactory.getLogger(StockMovementLog.class);
+    private static final int FOLD_CHUNK_SIZE = 5000;
+    private static final int SNAPSHOT_LOOKUP_SIZE = 1000;
+    private static final int OPENING_CHUNK_SIZE = 500;
+    static final String OPENING_REFERENCE = "opening";
+
+    private static final String INSERT =
+            "INSERT INTO stock_movements (sku, type, on_hand_delta, reserved_delta, reference, movement_day, occurred_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InventoryRepository inventoryRepository;
+    private final StockMovementRepository movementRepository;
+    private final SkuSnapshotRepository snapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private long horizon;
+
+    private final Counter appended;
+    private final Counter folded;
+    private final Timer snapshotTimer;
+
+    public StockMovementLog(JdbcTemplate jdbcTemplate,
+                            InventoryRepository inventoryRepository,
+                            StockMovementRepository movementRepository,
+                            SkuSnapshotRepository snapshotRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${inventory.movements.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.inventoryRepository = inventoryRepository;
+        this.movementRepository = movementRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+
+        this.appended = Counter.builder("inventory.movements.appended")
+                .description("Stock movements appended to the log")
+                .register(meterRegistry);
+        this.folded = Counter.builder("inventory.movements.folded")
+                .description("Stock movements folded into snapshots")
+                .register(meterRegistry);
+        this.snapshotTimer = Timer.builder("inventory.movements.snapshot")
+                .description("Time to fold new stock movements into snapshots")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOpenings() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long lastId = 0;
+        int seeded = 0;
+        List<StockSnapshot> page;
+        do {
+            page = inventoryRepository.findSnapshots(lastId, PageRequest.of(0, OPENING_CHUNK_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            lastId = page.get(page.size() - 1).id();
+            List<String> skus = page.stream().map(StockSnapshot::sku).toList();
+            seeded += transactionTemplate.execute(tx -> seedOpenings(skus));
+        } while (page.size() == OPENING_CHUNK_SIZE);
+        if (seeded > 0) {
+            log.info("Seeded opening stock movements for {} SKUs in {} ms",
+                    seeded, System.currentTimeMillis() - start);
+        }
+    }
+
+    private int seedOpenings(List<String> skus) {
+        Set<String> open = new HashSet<>(skus);
+        for (SkuSnapshot snapshot : snapshotRepository.findBySkuIn(skus)) {
+            open.remove(snapshot.getSku());
+        }
+        if (open.isEmpty()) {
+            return 0;
+        }
+        List<Inventory> rows = inventoryRepository.findAllBySkuInWithLock(open);
+        Map<String, SkuTotal> logged = new HashMap<>();
+        for (SkuTotal total : movementRepository.sumBySkuIn(open)) {
+            logged.put(total.sku(), total);
+        }
+        List<Movement> openings = new ArrayList<>();
+        for (Inventory row : rows) {
+            // Reservations on stripes are logged before they are folded into the row
+            if (row.hasStripes()) {
+                continue;
+            }
+            SkuTotal total = logged.get(row.getSku());
+            long onHand = row.getQuantityOnHand() - (total != null ? total.onHandDelta() : 0);
+            long reserved = row.getQuantityReserved() - (total != null ? total.reservedDelta() : 0);
+            if (onHand != 0 || reserved != 0) {
+                openings.add(new Movement(row.getSku(), MovementType.ADJUST,
+                        Math.toIntExact(onHand), Math.toIntExact(reserved), OPENING_REFERENCE));
+            }
+        }
+        append(openings);
+        return openings.size();
+    }
+
+    /**
+     * Appends movements within the caller's transaction.
+     */
+    void append(List<Movement> movements) {
+        if (!enabled || movements.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Date day = Date.valueOf(now.toLocalDate());
+        Timestamp at = Timestamp.valueOf(now);
+        List<Object[]> args = new ArrayList<>(movements.size());
+        for (Movement movement : movements) {
+            args.add(new Object[]{movement.sku(), movement.type().name(), movement.onHandDelta(),
+                    movement.reservedDelta(), movement.reference(), day, at});
+        }
+        jdbcTemplate.batchUpdate(INSERT, args);
+        appended.increment(movements.size());
+    }
+
+    /**
+     * The movements of settling or creating {@code reservation}, one per item.
+     */
+    static List<Movement> of(MovementType type, StockReservation reservation) {
+        List<Movement> movements = new ArrayList<>(reservation.getItems().size());
+        for (ReservationItem item : reservation.getItems()) {
+            int quantity = item.getQuantity();
+            movements.add(switch (type) {
+                case RESERVE -> new Movement(item.getSku(), type, 0, quantity, reservation.getReservationId());
+                case CONFIRM -> new Movement(item.getSku(), type, -quantity, -quantity, reservation.getReservationId());
+                case RELEASE, EXPIRE -> new Movement(item.getSku(), type, 0, -quantity, reservation.getReservationId());
+                default -> throw new IllegalArgumentException("Not a reservation movement: " + type);
+            });
+        }
+        return movements;
+    }
+
+    public List<StockMovement> history(String sku, int limit) {
+        return movementRepository.findBySkuOrderByIdDesc(sku, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Movements of one day in log order, after movement {@code afterId}.
+     */
+    public List<StockMovement> movementsOn(LocalDate day, long afterId, int limit) {
+        return movementRepository.findByDay(day, afterId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Rebuilds a SKU's quantities from its snapshot and the movements after it.
+     */
+    public StockReplay replay(String sku) {
+        SkuSnapshot snapshot = snapshotRepository.findBySku(sku).orElse(null);
+        long after = snapshot != null ? snapshot.getLastMovementId() : 0;
+        MovementTotal tail = movementRepository.sumAfter(sku, after);
+        long onHand = tail.onHandDelta() + (snapshot != null ? snapshot.getQuantityOnHand() : 0);
+        long reserved = tail.reservedDelta() + (snapshot != null ? snapshot.getQuantityReserved() : 0);
+        return new StockReplay(sku, onHand, reserved, onHand - reserved, after, tail.movements());
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.movements.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        if (!enabled) {
+            return;
+        }
+        Long newest = movementRepository.findMaxId();
+        long upTo = horizon;
+        horizon = newest != null ? newest : 0;
+        Long watermark = snapshotRepository.findWatermark();
+        long after = watermark != null ? watermark : 0;
+        if (upTo <= after) {
+            return;
+        }
+
+        Timer.Sample sample = Timer.start();
+        Map<String, long[]> totals = new TreeMap<>();
+        long last = after;
+        int movements = 0;
+        List<MovementDelta> chunk;
+        do {
+            chunk = movementRepository.findDeltas(last, upTo, PageRequest.of(0, FOLD_CHUNK_SIZE));
+            for (MovementDelta delta : chunk) {
+                long[] total = totals.computeIfAbsent(delta.sku(), sku -> new long[2]);
+                total[0] += delta.onHandDelta();
+                total[1] += delta.reservedDelta();
+            }
+            if (!chunk.isEmpty()) {
+                last = chunk.get(chunk.size() - 1).id();
+            }
+            movements += chunk.size();
+        } while (chunk.size() == FOLD_CHUNK_SIZE);
+
+        try {
+            transactionTemplate.executeWithoutResult(tx -> apply(totals, after, upTo));
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+            // Another instance folded the same movements first
+            log.debug("Snapshot up to movement {} lost to a concurrent run: {}", upTo, e.getMessage());
+            return;
+        }
+        folded.increment(movements);
+        long elapsed = sample.stop(snapshotTimer);
+        log.info("Folded {} stock movements of {} SKUs into snapshots up to movement {} in {} ms",
+                movements, totals.size(), upTo, elapsed / 1_000_000);
+    }
+
+    private void apply(Map<String, long[]> totals, long after, long upTo) {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> skus = new ArrayList<>(totals.keySet());
+        for (int from = 0; from < skus.size(); from += SNAPSHOT_LOOKUP_SIZE) {
+            List<String> batch = skus.subList(from, Math.min(skus.size(), from + SNAPSHOT_LOOKUP_SIZE));
+            Map<String, SkuSnapshot> snapshots = new HashMap<>();
+            for (SkuSnapshot snapshot : snapshotRepository.findBySkuIn(batch)) {
+                snapshots.put(snapshot.getSku(), snapshot);
+            }
+            List<SkuSnapshot> changed = new ArrayList<>(batch.size());
+            for (String sku : batch) {
+                SkuSnapshot snapshot = snapshots.getOrDefault(sku, new SkuSnapshot(sku));
+                if (snapshot.getLastMovementId() > after) {
+                    throw new OptimisticLockingFailureException("Snapshot of " + sku + " is already past movement " + after);
+                }
+                long[] total = totals.get(sku);
+                snapshot.apply(Math.toIntExact(total[0]), Math.toIntExact(total[1]), upTo, now);
+                changed.add(snapshot);
+            }
+            snapshotRepository.saveAll(changed);
+        }
+    }
+
+    record Movement(String sku, MovementType type, int onHandDelta, int reservedDelta, String reference) {}
+
+    public record StockReplay(String sku, long onHand, long reserved, long available,
+                              long snapshotMovementId, long tailMovements) {}
+}
@@ -0,0 +1,231 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.repository.InventoryRepository;
+import com.ecommerce.inventory.repository.InventoryRepository.StockSnapshot;
+import com.ecommerce.inventory.service.InventoryService.SyncOutcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bulk stock sync from a warehouse snapshot file (see {@link StockSyncFile}) in the
+ * {@code directory}. The file is diffed against the on-hand quantities of all inventory rows,
+ * read in id order, and only changed SKUs are written: in SKU order, {@code batch-size} per
+ * transaction, through {@link InventoryService#syncStock}, which keeps reserved quantities.
+ * SKUs the file does not list are left alone and reported.
+ *
+ * <p>One sync runs at a time, on its own thread; its progress is served by the
+ * {@code stocksync} actuator endpoint.
+ */
+@Component
+public class StockSync {
+
+    private static final Logger log = LoggerFactory.getLogger(StockSync.class);
+    private static final int DIFF_CHUNK_SIZE = 5000;
+
+    private final InventoryService inventoryService;
+    private final InventoryRepository inventoryRepository;
+    private final Path directory;
+    private final int batchSize;
+    private volatile Progress progress;
+    private Thread thread;
+
+    private final Counter appliedCounter;
+    private final Timer syncTimer;
+
+    public StockSync(InventoryService inventoryService,
+                     InventoryRepository inventoryRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${inventory.stock-sync.directory:/var/lib/inventory/stock-sync}") String directory,
+                     @Value("${inventory.stock-sync.batch-size:500}") int batchSize) {
+        this.inventoryService = inventoryService;
+        this.inventoryRepository = inventoryRepository;
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.batchSize = batchSize;
+
+        this.appliedCounter = Counter.builder("inventory.stock_sync.applied")
+                .description("On-hand quantities changed by bulk stock sync")
+                .register(meterRegistry);
+        this.syncTimer = Timer.builder("inventory.stock_sync.duration")
+                .description("Time to sync stock from a snapshot file")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts syncing from {@code fileName}, a file in the sync directory.
+     */
+    public synchronized SyncStatus start(String fileName) {
+        if (thread != null && thread.isAlive()) {
+            throw new IllegalStateException("A stock sync is already running: " + progress.file);
+        }
+        Path file = directory.resolve(fileName).normalize();
+        if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("No snapshot file " + fileName + " in " + directory);
+        }
+        progress = new Progress(file.getFileName().toString());
+        Progress run = progress;
+        thread = new Thread(() -> run(file, run), "stock-sync");
+        thread.setDaemon(true);
+        thread.start();
+        return run.status();
+    }
+
+    public SyncStatus status() {
+        Progress current = progress;
+        return current != null ? current.status() : null;
+    }
+
+    private void run(Path file, Progress run) {
+        Timer.Sample sample = Timer.start();
+        try {
+            log.info("Stock sync from {} started", file);
+            run.phase = Phase.PARSING;
+            StockSyncFile snapshot = StockSyncFile.map(file);
+            run.fileSkus = snapshot.size();
+            run.invalidLines = snapshot.invalid();
+            run.duplicateLines = snapshot.duplicates();
+
+            run.phase = Phase.DIFFING;
+            run.diffStartedNanos = System.nanoTime();
+            List<Change> changes = diff(snapshot, run);
+            changes.sort(Comparator.comparing(Change::sku));
+            run.changed = changes.size();
+
+            run.phase = Phase.APPLYING;
+            run.applyStartedNanos = System.nanoTime();
+            for (int from = 0; from < changes.size(); from += batchSize) {
+                Map<String, Integer> batch = new TreeMap<>();
+                for (Change change : changes.subList(from, Math.min(changes.size(), from + batchSize))) {
+                    batch.put(change.sku(), change.quantity());
+                }
+                SyncOutcome outcome = inventoryService.syncStock(batch);
+                run.add(outcome);
+                appliedCounter.increment(outcome.applied());
+            }
+
+            run.phase = Phase.COMPLETED;
+            log.info("Stock sync from {} completed: {}", file, run.status());
+        } catch (Exception e) {
+            run.error = e.getMessage();
+            run.phase = Phase.FAILED;
+            log.error("Stock sync from {} failed", file, e);
+        } finally {
+            run.finishedAt = LocalDateTime.now();
+            sample.stop(syncTimer);
+        }
+    }
+
+    private List<Change> diff(StockSyncFile snapshot, Progress run) {
+        BitSet listed = new BitSet(snapshot.size());
+        List<Change> changes = new ArrayList<>();
+        long lastId = 0;
+        List<StockSnapshot> chunk;
+        do {
+            chunk = inventoryRepository.findSnapshots(lastId, PageRequest.of(0, DIFF_CHUNK_SIZE));
+            for (StockSnapshot row : chunk) {
+                int entry = snapshot.find(row.sku().getBytes(StandardCharsets.UTF_8));
+                if (entry < 0) {
+                    run.notInFile++;
+                    continue;
+                }
+                listed.set(entry);
+                int quantity = snapshot.quantity(entry);
+                if (quantity != row.quantityOnHand()) {
+                    changes.add(new Change(row.sku(), quantity));
+                }
+            }
+            if (!chunk.isEmpty()) {
+                lastId = chunk.get(chunk.size() - 1).id();
+            }
+            run.compared += chunk.size();
+            run.diffNanos = System.nanoTime() - run.diffStartedNanos;
+        } while (chunk.size() == DIFF_CHUNK_SIZE);
+        run.unknownSkus = snapshot.size() - listed.cardinality();
+        return changes;
+    }
+
+    private record Change(String sku, int quantity) {}
+
+    public enum Phase { PARSING, DIFFING, APPLYING, COMPLETED, FAILED }
+
+    /**
+     * @param fileSkus       distinct SKUs listed in the file
+     * @param compared       inventory rows compared with the file
+     * @param changed        SKUs whose on-hand quantity differs from the file
+     * @param unknownSkus    SKUs in the file without an inventory row
+     * @param notInFile      inventory rows the file does not list (left unchanged)
+     * @param applied        SKUs whose on-hand quantity was set
+     * @param current        changed SKUs found already up to date when applied
+     * @param belowReserved  SKUs counted below their reserved quantity, set to that instead
+     * @param skipped        changed SKUs not applied: stocked per warehouse, or deleted since
+     */
+    public record SyncStatus(String file, Phase phase, LocalDateTime startedAt, LocalDateTime finishedAt,
+                             long fileSkus, long invalidLines, long duplicateLines,
+                             long compared, long changed, long unknownSkus, long notInFile,
+                             long applied, long current, long belowReserved, long skipped,
+                             double comparedPerSecond, double appliedPerSecond, String error) {}
+
+    /**
+     * Written by the sync thread only, read by the endpoint.
+     */
+    private static final class Progress {
+        final String file;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        volatile Phase phase = Phase.PARSING;
+        volatile LocalDateTime finishedAt;
+        volatile long fileSkus;
+        volatile long invalidLines;
+        volatile long duplicateLines;
+        volatile long compared;
+        volatile long changed;
+        volatile long unknownSkus;
+        volatile long notInFile;
+        volatile long applied;
+        volatile long current;
+        volatile long belowReserved;
+        volatile long skipped;
+        volatile long diffStartedNanos;
+        volatile long diffNanos;
+        volatile long applyStartedNanos;
+        volatile long applyNanos;
+        volatile String error;
+
+        Progress(String file) {
+            this.file = file;
+        }
+
+        void add(SyncOutcome outcome) {
+            applied += outcome.applied();
+            current += outcome.current();
+            belowReserved += outcome.belowReserved();
+            skipped += outcome.skipped();
+            applyNanos = System.nanoTime() - applyStartedNanos;
+        }
+
+        SyncStatus status() {
+            return new SyncStatus(file, phase, startedAt, finishedAt, fileSkus, invalidLines, duplicateLines,
+                    compared, changed, unknownSkus, notInFile, applied, current, belowReserved, skipped,
+                    perSecond(compared, diffNanos), perSecond(applied, applyNanos), error);
+        }
+
+        private static double perSecond(long rows, long nanos) {
+            return nanos > 0 ? Math.round(rows * 1e10 / nanos) / 10.0 : 0;
+        }
+    }
+}
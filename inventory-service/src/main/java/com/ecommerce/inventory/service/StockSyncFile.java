@@ -0,0 +1,240 @@
+package com.ecommerce.inventory.service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A warehouse stock snapshot, one {@code sku,quantity} line per SKU, parsed in place from a
+ * memory-mapped file. SKUs are never copied out of the mapping: each line is kept as its
+ * position and quantity, and found again through an open-addressing hash table over the
+ * mapped bytes. Blank lines, {@code #} comments and a header line are skipped; further
+ * columns are ignored; the last line of a SKU repeated in the file wins.
+ */
+final class StockSyncFile {
+
+    private static final long MAX_WINDOW = 1L << 30;
+
+    private final List<MappedByteBuffer> windows = new ArrayList<>();
+    private int size;
+    private int[] window = new int[1024];
+    private int[] offset = new int[1024];
+    private int[] length = new int[1024];
+    private int[] quantity = new int[1024];
+    private int[] hash = new int[1024];
+    private int[] table = new int[2048];
+    private long lines;
+    private long invalid;
+    private long duplicates;
+
+    private StockSyncFile() {}
+
+    static StockSyncFile map(Path path) throws IOException {
+        return map(path, MAX_WINDOW);
+    }
+
+    /**
+     * Maps the file in windows of at most {@code maxWindow} bytes.
+     */
+    static StockSyncFile map(Path path, long maxWindow) throws IOException {
+        StockSyncFile file = new StockSyncFile();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long start = 0;
+            // Windows end on a line break, so no line spans two of them
+            while (start < fileSize) {
+                long mapped = Math.min(maxWindow, fileSize - start);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, mapped);
+                int end = start + mapped == fileSize ? (int) mapped : lastLineEnd(buffer, (int) mapped);
+                if (end == 0) {
+                    throw new IOException("Line longer than " + maxWindow + " bytes at offset " + start);
+                }
+                file.windows.add(buffer);
+                file.parse(file.windows.size() - 1, buffer, end, start == 0);
+                start += end;
+            }
+        }
+        return file;
+    }
+
+    private static int lastLineEnd(MappedByteBuffer buffer, int limit) {
+        for (int i = limit - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private void parse(int windowIndex, MappedByteBuffer buffer, int limit, boolean first) {
+        int pos = 0;
+        while (pos < limit) {
+            int lineStart = pos;
+            int comma = -1;
+            while (pos < limit && buffer.get(pos) != '\n') {
+                if (comma < 0 && buffer.get(pos) == ',') {
+                    comma = pos;
+                }
+                pos++;
+            }
+            int lineEnd = pos > lineStart && buffer.get(pos - 1) == '\r' ? pos - 1 : pos;
+            pos++;
+            boolean header = first && lines == 0;
+            if (lineEnd == lineStart || buffer.get(lineStart) == '#') {
+                continue;
+            }
+            lines++;
+
+            long value = -1;
+            if (comma > lineStart) {
+                value = 0;
+                int digits = 0;
+                for (int i = comma + 1; i < lineEnd && buffer.get(i) != ','; i++) {
+                    byte b = buffer.get(i);
+                    if (b < '0' || b > '9' || ++digits > 10) {
+                        value = -1;
+                        break;
+                    }
+                    value = value * 10 + (b - '0');
+                }
+                if (digits == 0 || value > Integer.MAX_VALUE) {
+                    value = -1;
+                }
+            }
+            if (value < 0) {
+                if (!header) {
+                    invalid++;
+                }
+                continue;
+            }
+            add(windowIndex, lineStart, comma - lineStart, (int) value);
+        }
+    }
+
+    private void add(int windowIndex, int start, int len, int value) {
+        int h = hash(windows.get(windowIndex), start, len);
+        int slot = h & (table.length - 1);
+        while (table[slot] != 0) {
+            int existing = table[slot] - 1;
+            if (hash[existing] == h && equals(existing, windows.get(windowIndex), start, len)) {
+                quantity[existing] = value;
+                duplicates++;
+                return;
+            }
+            slot = (slot + 1) & (table.length - 1);
+        }
+        if (size == window.length) {
+            int capacity = size * 2;
+            window = Arrays.copyOf(window, capacity);
+            offset = Arrays.copyOf(offset, capacity);
+            length = Arrays.copyOf(length, capacity);
+            quantity = Arrays.copyOf(quantity, capacity);
+            hash = Arrays.copyOf(hash, capacity);
+        }
+        window[size] = windowIndex;
+        offset[size] = start;
+        length[size] = len;
+        quantity[size] = value;
+        hash[size] = h;
+        table[slot] = ++size;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        int[] grown = new int[table.length * 2];
+        for (int i = 0; i < size; i++) {
+            int slot = hash[i] & (grown.length - 1);
+            while (grown[slot] != 0) {
+                slot = (slot + 1) & (grown.length - 1);
+            }
+            grown[slot] = i + 1;
+        }
+        table = grown;
+    }
+
+    /**
+     * Index of the SKU's entry, or -1 if the file does not list it.
+     */
+    int find(byte[] sku) {
+        int h = hash(sku);
+        int slot = h & (table.length - 1);
+        while (table[slot] != 0) {
+            int entry = table[slot] - 1;
+            if (hash[entry] == h && length[entry] == sku.length && equals(entry, sku)) {
+                return entry;
+            }
+            slot = (slot + 1) & (table.length - 1);
+        }
+        return -1;
+    }
+
+    int quantity(int entry) {
+        return quantity[entry];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long lines() {
+        return lines;
+    }
+
+    long invalid() {
+        return invalid;
+    }
+
+    long duplicates() {
+        return duplicates;
+    }
+
+    private boolean equals(int entry, MappedByteBuffer buffer, int start, int len) {
+        if (length[entry] != len) {
+            return false;
+        }
+        MappedByteBuffer other = windows.get(window[entry]);
+        for (int i = 0; i < len; i++) {
+            if (other.get(offset[entry] + i) != buffer.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean equals(int entry, byte[] sku) {
+        MappedByteBuffer buffer = windows.get(window[entry]);
+        for (int i = 0; i < sku.length; i++) {
+            if (buffer.get(offset[entry] + i) != sku[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(MappedByteBuffer buffer, int start, int len) {
+        int h = 1;
+        for (int i = 0; i < len; i++) {
+            h = 31 * h + buffer.get(start + i);
+        }
+        return spread(h);
+    }
+
+    private static int hash(byte[] sku) {
+        int h = 1;
+        for (byte b : sku) {
+            h = 31 * h + b;
+        }
+        return spread(h);
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+}
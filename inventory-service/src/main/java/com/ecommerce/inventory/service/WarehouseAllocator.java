@@ -0,0 +1,610 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.event.WarehouseStockChangedEvent;
+import com.ecommerce.inventory.event.WarehouseStockChangedEvent.WarehouseLevel;
+import com.ecommerce.inventory.model.ReservationItem;
+import com.ecommerce.inventory.model.ShippingRegion;
+import com.ecommerce.inventory.model.Warehouse;
+import com.ecommerce.inventory.model.WarehouseStock;
+import com.ecommerce.inventory.repository.ShippingRegionRepository;
+import com.ecommerce.inventory.repository.WarehouseRepository;
+import com.ecommerce.inventory.repository.WarehouseStockRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Chooses the warehouses an order's SKUs are reserved in, for SKUs stocked per warehouse
+ * ({@link WarehouseStock}). Decisions are made in memory against a cache of the available
+ * quantity per SKU and warehouse, and of each shipping region's distance to every warehouse:
+ * <ol>
+ *   <li>the nearest warehouse that can ship the whole order, if there is one;</li>
+ *   <li>otherwise, repeatedly the warehouse that can ship the most remaining lines in full
+ *       (the nearer one on ties);</li>
+ *   <li>lines no single warehouse can ship are split, taking from warehouses already shipping
+ *       first and then from the nearest others.</li>
+ * </ol>
+ * The reservation transaction then locks the chosen rows and checks them; if the cache was
+ * stale, it is corrected from the locked rows and the order is allocated again.
+ *
+ * <p>The cache follows committed changes of this instance and is reloaded from the database
+ * every {@code refresh-interval-ms}. Per-warehouse reservations are made by the JPA engine only.
+ */
+@Component
+public class WarehouseAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(WarehouseAllocator.class);
+    private static final int LOAD_CHUNK_SIZE = 5000;
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final float[] NO_DISTANCES = new float[0];
+
+    private final WarehouseRepository warehouseRepository;
+    private final ShippingRegionRepository regionRepository;
+    private final WarehouseStockRepository stockRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final Map<String, SkuStock> stock = new ConcurrentHashMap<>();
+    private volatile Topology topology = Topology.EMPTY;
+
+    private final Timer allocationTimer;
+    private final DistributionSummary shipments;
+    private final Counter staleAllocations;
+
+    public WarehouseAllocator(WarehouseRepository warehouseRepository,
+                              ShippingRegionRepository regionRepository,
+                              WarehouseStockRepository stockRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              MeterRegistry meterRegistry,
+                              @Value("${inventory.reservation.engine:jpa}") String engine,
+                              @Value("${inventory.allocation.enabled:true}") boolean enabled) {
+        this.warehouseRepository = warehouseRepository;
+        this.regionRepository = regionRepository;
+        this.stockRepository = stockRepository;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled && "jpa".equalsIgnoreCase(engine);
+
+        this.allocationTimer = Timer.builder("inventory.allocation.duration")
+                .description("Time to choose warehouses for an order")
+                .register(meterRegistry);
+        this.shipments = DistributionSummary.builder("inventory.allocation.shipments")
+                .description("Warehouses an order is shipped from")
+                .register(meterRegistry);
+        this.staleAllocations = Counter.builder("inventory.allocation.stale")
+                .description("Allocations retried because cached warehouse stock was stale")
+                .register(meterRegistry);
+        Gauge.builder("inventory.allocation.skus", stock, Map::size)
+                .description("SKUs stocked per warehouse")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        refresh();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isWarehoused(String sku) {
+        return enabled && stock.containsKey(sku);
+    }
+
+    public boolean anyWarehoused(Collection<String> skus) {
+        if (!enabled || stock.isEmpty()) {
+            return false;
+        }
+        for (String sku : skus) {
+            if (stock.containsKey(sku)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<Warehouse> findWarehouses() {
+        return warehouseRepository.findAll();
+    }
+
+    public List<WarehouseStock> findStock(String sku) {
+        return stockRepository.findBySkuOrderByWarehouseId(sku);
+    }
+
+    /**
+     * Creates or updates a warehouse; an inactive one is no longer allocated from.
+     */
+    public Warehouse saveWarehouse(Warehouse warehouse) {
+        warehouseRepository.findByWarehouseId(warehouse.getWarehouseId())
+                .ifPresent(existing -> warehouse.setId(existing.getId()));
+        Warehouse saved = warehouseRepository.save(warehouse);
+        refresh();
+        return saved;
+    }
+
+    public ShippingRegion saveRegion(String code, double latitude, double longitude) {
+        ShippingRegion region = regionRepository.findByCode(code)
+                .orElseGet(() -> new ShippingRegion(code, latitude, longitude));
+        region.setLatitude(latitude);
+        region.setLongitude(longitude);
+        ShippingRegion saved = regionRepository.save(region);
+        refresh();
+        return saved;
+    }
+
+    /**
+     * Chooses warehouses for {@code quantities} (per SKU, all stocked per warehouse) shipped to
+     * {@code region}; without a known region only the number of shipments is minimized.
+     */
+    public Allocation allocate(String region, Map<String, Integer> quantities) {
+        long start = System.nanoTime();
+        Allocation allocation = allocate(topology, region, quantities);
+        allocationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (allocation.insufficient() == null) {
+            shipments.record(allocation.shipments());
+        }
+        return allocation;
+    }
+
+    private Allocation allocate(Topology topology, String region, Map<String, Integer> quantities) {
+        int lines = quantities.size();
+        String[] skus = new String[lines];
+        int[] remaining = new int[lines];
+        SkuStock[] stocks = new SkuStock[lines];
+        int line = 0;
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            skus[line] = entry.getKey();
+            remaining[line] = entry.getValue();
+            stocks[line] = stock.get(entry.getKey());
+            if (stocks[line] == null) {
+                return Allocation.insufficient(entry.getKey(), 0, entry.getValue());
+            }
+            line++;
+        }
+
+        // Only warehouses holding some of the order are candidates: one column each
+        int[] column = new int[topology.size()];
+        Arrays.fill(column, -1);
+        int[] warehouseOf = new int[topology.size()];
+        int candidates = 0;
+        for (SkuStock skuStock : stocks) {
+            for (int k = 0; k < skuStock.warehouses().length; k++) {
+                int warehouse = skuStock.warehouses()[k];
+                if (skuStock.available()[k] > 0 && column[warehouse] < 0) {
+                    column[warehouse] = candidates;
+                    warehouseOf[candidates++] = warehouse;
+                }
+            }
+        }
+        int[][] available = new int[candidates][lines];
+        for (int i = 0; i < lines; i++) {
+            long total = 0;
+            for (int k = 0; k < stocks[i].warehouses().length; k++) {
+                int units = stocks[i].available()[k];
+                if (units > 0) {
+                    available[column[stocks[i].warehouses()[k]]][i] = units;
+                    total += units;
+                }
+            }
+            if (total < remaining[i]) {
+                return Allocation.insufficient(skus[i], total, remaining[i]);
+            }
+        }
+
+        int[] byDistance = byDistance(topology.distances(region), warehouseOf, candidates);
+        List<Pick> picks = new ArrayList<>(lines);
+
+        // 1-2. Greedily, the warehouse shipping the most remaining lines in full; the first round
+        // finds the nearest warehouse shipping everything, if there is one
+        int[] covered = new int[candidates];
+        for (int c = 0; c < candidates; c++) {
+            for (int i = 0; i < lines; i++) {
+                if (available[c][i] >= remaining[i]) {
+                    covered[c]++;
+                }
+            }
+        }
+        boolean[] chosen = new boolean[candidates];
+        while (true) {
+            int best = -1;
+            for (int c : byDistance) {
+                if (covered[c] > 0 && (best < 0 || covered[c] > covered[best])) {
+                    best = c;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            chosen[best] = true;
+            for (int i = 0; i < lines; i++) {
+                if (remaining[i] > 0 && available[best][i] >= remaining[i]) {
+                    picks.add(new Pick(skus[i], topology.ids()[warehouseOf[best]], remaining[i]));
+                    // The line is shipped: it no longer counts for any warehouse
+                    for (int c = 0; c < candidates; c++) {
+                        if (available[c][i] >= remaining[i]) {
+                            covered[c]--;
+                        }
+                    }
+                    available[best][i] -= remaining[i];
+                    remaining[i] = 0;
+                }
+            }
+        }
+
+        // 3. Split the rest, preferring warehouses that already ship
+        for (int i = 0; i < lines; i++) {
+            for (int pass = 0; pass < 2 && remaining[i] > 0; pass++) {
+                for (int c : byDistance) {
+                    if (remaining[i] == 0) {
+                        break;
+                    }
+                    if (chosen[c] == (pass == 0) && available[c][i] > 0) {
+                        int taken = Math.min(available[c][i], remaining[i]);
+                        picks.add(new Pick(skus[i], topology.ids()[warehouseOf[c]], taken));
+                        available[c][i] -= taken;
+                        remaining[i] -= taken;
+                        chosen[c] = true;
+                    }
+                }
+            }
+        }
+
+        int used = 0;
+        for (boolean c : chosen) {
+            used += c ? 1 : 0;
+        }
+        return new Allocation(picks, used, null);
+    }
+
+    /**
+     * Candidate columns, nearest first (in column order when distances are unknown).
+     */
+    private static int[] byDistance(float[] distances, int[] warehouseOf, int candidates) {
+        int[] order = new int[candidates];
+        if (distances.length == 0) {
+            for (int c = 0; c < candidates; c++) {
+                order[c] = c;
+            }
+            return order;
+        }
+        // Non-negative floats sort like their bit patterns; the low half carries the column
+        long[] keys = new long[candidates];
+        for (int c = 0; c < candidates; c++) {
+            keys[c] = ((long) Float.floatToIntBits(distances[warehouseOf[c]]) << 32) | c;
+        }
+        Arrays.sort(keys);
+        for (int c = 0; c < candidates; c++) {
+            order[c] = (int) keys[c];
+        }
+        return order;
+    }
+
+    /**
+     * Reserves the picks of an allocation inside the caller's transaction, which holds the
+     * inventory rows of their SKUs. Throws {@link AllocationStale} if a chosen warehouse no
+     * longer has the quantity, after correcting the cache for the SKUs concerned.
+     */
+    void reserve(Allocation allocation) {
+        Set<String> skus = new TreeSet<>();
+        Set<String> warehouseIds = new TreeSet<>();
+        for (Pick pick : allocation.picks()) {
+            skus.add(pick.sku());
+            warehouseIds.add(pick.warehouseId());
+        }
+        Map<String, WarehouseStock> rows = index(stockRepository.findBySkuInAndWarehouseIdInWithLock(skus, warehouseIds));
+
+        Map<String, Integer> needed = new HashMap<>();
+        for (Pick pick : allocation.picks()) {
+            needed.merge(key(pick.sku(), pick.warehouseId()), pick.quantity(), Integer::sum);
+        }
+        Set<String> stale = new TreeSet<>();
+        needed.forEach((key, quantity) -> {
+            WarehouseStock row = rows.get(key);
+            if (row == null || row.getQuantityAvailable() < quantity) {
+                stale.add(key.substring(0, key.indexOf('\n')));
+            }
+        });
+        if (!stale.isEmpty()) {
+            staleAllocations.increment();
+            load(stockRepository.findBySkuInWithLock(stale), stale);
+            throw new AllocationStale(stale);
+        }
+
+        List<WarehouseStock> changed = new ArrayList<>(allocation.picks().size());
+        for (Pick pick : allocation.picks()) {
+            WarehouseStock row = rows.get(key(pick.sku(), pick.warehouseId()));
+            row.reserve(pick.quantity());
+            changed.add(row);
+        }
+        eventPublisher.publishEvent(WarehouseStockChangedEvent.of(changed));
+    }
+
+    void release(Collection<ReservationItem> items) {
+        apply(items, WarehouseStock::releaseReservation);
+    }
+
+    void confirm(Collection<ReservationItem> items) {
+        apply(items, WarehouseStock::confirmReservation);
+    }
+
+    private void apply(Collection<ReservationItem> items, ObjIntConsumer<WarehouseStock> change) {
+        Map<String, Integer> quantities = new TreeMap<>();
+        Set<String> skus = new TreeSet<>();
+        Set<String> warehouseIds = new TreeSet<>();
+        for (ReservationItem item : items) {
+            quantities.merge(key(item.getSku(), item.getWarehouseId()), item.getQuantity(), Integer::sum);
+            skus.add(item.getSku());
+            warehouseIds.add(item.getWarehouseId());
+        }
+        Map<String, WarehouseStock> rows = index(stockRepository.findBySkuInAndWarehouseIdInWithLock(skus, warehouseIds));
+        List<WarehouseStock> changed = new ArrayList<>(quantities.size());
+        quantities.forEach((key, quantity) -> {
+            WarehouseStock row = rows.get(key);
+            if (row == null) {
+                throw new IllegalStateException("Warehouse stock not found: " + key.replace('\n', '@'));
+            }
+            change.accept(row, quantity);
+            changed.add(row);
+        });
+        eventPublisher.publishEvent(WarehouseStockChangedEvent.of(changed));
+    }
+
+    /**
+     * Sets the on-hand quantity of a SKU in one warehouse, inside the caller's transaction
+     * (which holds the SKU's inventory row), and returns the SKU's on-hand total over all
+     * its warehouses.
+     */
+    int setStock(String sku, String warehouseId, int quantity) {
+        if (warehouseRepository.findByWarehouseId(warehouseId).isEmpty()) {
+            throw new IllegalArgumentException("Warehouse not found: " + warehouseId);
+        }
+        List<WarehouseStock> rows = new ArrayList<>(stockRepository.findBySkuInWithLock(List.of(sku)));
+        WarehouseStock target = rows.stream()
+                .filter(row -> row.getWarehouseId().equals(warehouseId))
+                .findFirst()
+                .orElse(null);
+        if (target == null) {
+            target = new WarehouseStock(sku, warehouseId);
+            rows.add(target);
+        }
+        if (quantity < target.getQuantityReserved()) {
+            throw new IllegalArgumentException("Warehouse " + warehouseId + " has " + target.getQuantityReserved() +
+                    " units of " + sku + " reserved");
+        }
+        target.setQuantityOnHand(quantity);
+        stockRepository.save(target);
+        eventPublisher.publishEvent(WarehouseStockChangedEvent.of(List.of(target)));
+
+        int total = 0;
+        for (WarehouseStock row : rows) {
+            total += row.getQuantityOnHand();
+        }
+        return total;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWarehouseStockChanged(WarehouseStockChangedEvent event) {
+        Topology current = topology;
+        for (WarehouseLevel level : event.levels()) {
+            Integer warehouse = current.index().get(level.warehouseId());
+            if (warehouse != null) {
+                stock.compute(level.sku(), (sku, old) -> SkuStock.with(old, warehouse, level.available()));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.allocation.refresh-interval-ms:30000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        Topology loaded = Topology.of(warehouseRepository.findAll(), regionRepository.findAll());
+        topology = loaded;
+
+        Map<String, List<int[]>> levels = new HashMap<>();
+        long lastId = 0;
+        List<WarehouseStockRepository.WarehouseLevel> chunk;
+        do {
+            chunk = stockRepository.findLevels(lastId, PageRequest.of(0, LOAD_CHUNK_SIZE));
+            for (WarehouseStockRepository.WarehouseLevel level : chunk) {
+                Integer warehouse = loaded.index().get(level.warehouseId());
+                if (warehouse != null) {
+                    levels.computeIfAbsent(level.sku(), sku -> new ArrayList<>())
+                            .add(new int[]{warehouse, level.available()});
+                }
+            }
+            if (!chunk.isEmpty()) {
+                lastId = chunk.get(chunk.size() - 1).id();
+            }
+        } while (chunk.size() == LOAD_CHUNK_SIZE);
+
+        Map<String, SkuStock> fresh = new HashMap<>();
+        levels.forEach((sku, rows) -> fresh.put(sku, SkuStock.of(rows)));
+        stock.keySet().retainAll(fresh.keySet());
+        stock.putAll(fresh);
+        log.debug("Loaded stock of {} SKUs in {} warehouses", fresh.size(), loaded.size());
+    }
+
+    private void load(List<WarehouseStock> rows, Set<String> skus) {
+        Topology current = topology;
+        Map<String, List<int[]>> levels = new HashMap<>();
+        for (WarehouseStock row : rows) {
+            Integer warehouse = current.index().get(row.getWarehouseId());
+            if (warehouse != null) {
+                levels.computeIfAbsent(row.getSku(), sku -> new ArrayList<>())
+                        .add(new int[]{warehouse, row.getQuantityAvailable()});
+            }
+        }
+        for (String sku : skus) {
+            List<int[]> skuLevels = levels.get(sku);
+            if (skuLevels == null) {
+                stock.remove(sku);
+            } else {
+                stock.put(sku, SkuStock.of(skuLevels));
+            }
+        }
+    }
+
+    private static Map<String, WarehouseStock> index(List<WarehouseStock> rows) {
+        Map<String, WarehouseStock> byKey = new HashMap<>();
+        for (WarehouseStock row : rows) {
+            byKey.put(key(row.getSku(), row.getWarehouseId()), row);
+        }
+        return byKey;
+    }
+
+    private static String key(String sku, String warehouseId) {
+        return sku + '\n' + warehouseId;
+    }
+
+    public record Pick(String sku, String warehouseId, int quantity) {}
+
+    public record Allocation(List<Pick> picks, int shipments, String insufficient) {
+
+        static Allocation insufficient(String sku, long available, int requested) {
+            return new Allocation(List.of(), 0, "Insufficient stock for SKU: " + sku +
+                    " (available: " + available + ", requested: " + requested + ")");
+        }
+    }
+
+    /**
+     * Thrown inside a reservation transaction when the cache chose a warehouse that turned out
+     * to be short.
+     */
+    static final class AllocationStale extends RuntimeException {
+        AllocationStale(Set<String> skus) {
+            super("Cached warehouse stock was stale for " + skus, null, false, false);
+        }
+    }
+
+    /**
+     * Available quantity of one SKU per warehouse index, sorted by index. Never modified;
+     * changes replace it.
+     */
+    private record SkuStock(int[] warehouses, int[] available) {
+
+        static SkuStock of(List<int[]> levels) {
+            levels.sort((a, b) -> Integer.compare(a[0], b[0]));
+            int[] warehouses = new int[levels.size()];
+            int[] available = new int[levels.size()];
+            for (int i = 0; i < levels.size(); i++) {
+                warehouses[i] = levels.get(i)[0];
+                available[i] = levels.get(i)[1];
+            }
+            return new SkuStock(warehouses, available);
+        }
+
+        static SkuStock with(SkuStock old, int warehouse, int units) {
+            if (old == null) {
+                return new SkuStock(new int[]{warehouse}, new int[]{units});
+            }
+            int at = Arrays.binarySearch(old.warehouses, warehouse);
+            if (at >= 0) {
+                int[] available = old.available.clone();
+                available[at] = units;
+                return new SkuStock(old.warehouses, available);
+            }
+            int insert = -at - 1;
+            int[] warehouses = new int[old.warehouses.length + 1];
+            int[] available = new int[old.available.length + 1];
+            System.arraycopy(old.warehouses, 0, warehouses, 0, insert);
+            System.arraycopy(old.available, 0, available, 0, insert);
+            warehouses[insert] = warehouse;
+            available[insert] = units;
+            System.arraycopy(old.warehouses, insert, warehouses, insert + 1, old.warehouses.length - insert);
+            System.arraycopy(old.available, insert, available, insert + 1, old.available.length - insert);
+            return new SkuStock(warehouses, available);
+        }
+    }
+
+    /**
+     * Active warehouses by index, and region centroids. Distances from a region to every
+     * warehouse are computed on first use and kept until the next reload.
+     */
+    private record Topology(String[] ids, double[] latitudes, double[] longitudes, Map<String, Integer> index,
+                            Map<String, double[]> regions, Map<String, float[]> distanceCache) {
+
+        static final Topology EMPTY = new Topology(new String[0], new double[0], new double[0], Map.of(), Map.of(),
+                new ConcurrentHashMap<>());
+
+        static Topology of(List<Warehouse> warehouses, List<ShippingRegion> regions) {
+            List<Warehouse> active = warehouses.stream()
+                    .filter(Warehouse::isActive)
+                    .sorted((a, b) -> a.getWarehouseId().compareTo(b.getWarehouseId()))
+                    .toList();
+            String[] ids = new String[active.size()];
+            double[] latitudes = new double[active.size()];
+            double[] longitudes = new double[active.size()];
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < active.size(); i++) {
+                Warehouse warehouse = active.get(i);
+                ids[i] = warehouse.getWarehouseId();
+                latitudes[i] = warehouse.getLatitude();
+                longitudes[i] = warehouse.getLongitude();
+                index.put(ids[i], i);
+            }
+            Map<String, double[]> centroids = new HashMap<>();
+            for (ShippingRegion region : regions) {
+                centroids.put(region.getCode(), new double[]{region.getLatitude(), region.getLongitude()});
+            }
+            return new Topology(ids, latitudes, longitudes, index, centroids, new ConcurrentHashMap<>());
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        /**
+         * Great-circle distance in km from the region to each warehouse; empty if the region
+         * is unknown.
+         */
+        float[] distances(String region) {
+            if (region == null) {
+                return NO_DISTANCES;
+            }
+            return distanceCache.computeIfAbsent(region, code -> {
+                double[] centroid = regions.get(code);
+                if (centroid == null) {
+                    log.debug("Unknown shipping region {}, allocating by shipments only", code);
+                    return NO_DISTANCES;
+                }
+                double lat = Math.toRadians(centroid[0]);
+                double lon = Math.toRadians(centroid[1]);
+                float[] distances = new float[ids.length];
+                for (int i = 0; i < ids.length; i++) {
+                    double wLat = Math.toRadians(latitudes[i]);
+                    double dLat = wLat - lat;
+                    double dLon = Math.toRadians(longitudes[i]) - lon;
+                    double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                            + Math.cos(lat) * Math.cos(wLat) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+                    distances[i] = (float) (2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a))));
+                }
+                return distances;
+            });
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.inventory.benchmark;
+
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.test.context.TestPropertySource;
+
+@EnabledIfEnvironmentVariable(named = "INVENTORY_BENCHMARKS", matches = "true")
+@TestPropertySource(properties = {
+        "inventory.reservation.engine=ledger",
+        "spring.datasource.url=jdbc:h2:mem:benchmark-ledger;DB_CLOSE_DELAY=-1"
+})
+class LedgerReservationThroughputBenchmark extends ReservationThroughputBenchmark {
+
+    @Override
+    String engine() {
+        return "ledger";
+    }
+}
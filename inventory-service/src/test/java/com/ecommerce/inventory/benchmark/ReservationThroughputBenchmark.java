@@ -0,0 +1,98 @@
+package com.ecommerce.inventory.benchmark;
+
+import com.ecommerce.inventory.model.Inventory;
+import com.ecommerce.inventory.service.InventoryService;
+import com.ecommerce.inventory.service.InventoryService.ReservationRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reservation throughput of one engine: {@link #THREADS} callers reserving one unit per order,
+ * against a single hot SKU and spread over 100 SKUs, in process against an H2 database. The
+ * engine subclasses are skipped unless {@code INVENTORY_BENCHMARKS=true}; each run lasts
+ * {@code INVENTORY_BENCHMARK_SECONDS} (20 by default) after a 3 second warm-up.
+ *
+ * <pre>
+ * INVENTORY_BENCHMARKS=true gradle :inventory-service:test --tests '*ThroughputBenchmark' -i
+ * </pre>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "eureka.client.enabled=false",
+        "inventory.order-events.enabled=false",
+        "inventory.low-stock.topic.enabled=false",
+        "inventory.availability.redis.enabled=false",
+        "logging.level.com.ecommerce.inventory=WARN"
+})
+abstract class ReservationThroughputBenchmark {
+
+    static final int THREADS = 64;
+    private static final long WARM_UP_MILLIS = 3000;
+
+    @Autowired
+    InventoryService inventoryService;
+
+    abstract String engine();
+
+    @Test
+    void singleHotSku() throws Exception {
+        measure("hot", 1);
+    }
+
+    @Test
+    void hundredSkus() throws Exception {
+        measure("spread", 100);
+    }
+
+    private void measure(String prefix, int skus) throws Exception {
+        for (int i = 0; i < skus; i++) {
+            inventoryService.addInventory(new Inventory(prefix + "-" + i, 100_000_000));
+        }
+        long seconds = Long.parseLong(System.getenv().getOrDefault("INVENTORY_BENCHMARK_SECONDS", "20"));
+        long start = System.currentTimeMillis();
+        long measureFrom = start + WARM_UP_MILLIS;
+        long end = measureFrom + seconds * 1000;
+        AtomicLong reserved = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> callers = new ArrayList<>(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int caller = t;
+            callers.add(pool.submit(() -> {
+                long order = 0;
+                while (System.currentTimeMillis() < end) {
+                    String sku = prefix + "-" + ThreadLocalRandom.current().nextInt(skus);
+                    boolean success;
+                    try {
+                        success = inventoryService.reserveStock(engine() + "-" + prefix + "-" + caller + "-" + order++,
+                                List.of(new ReservationRequest(sku, 1))).success();
+                    } catch (RuntimeException e) {
+                        success = false;
+                    }
+                    if (System.currentTimeMillis() >= measureFrom) {
+                        (success ? reserved : failed).incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> caller : callers) {
+            caller.get();
+        }
+        pool.shutdown();
+
+        System.out.printf("%s engine, %d SKU(s), %d callers: %.0f reservations/s (%d failed)%n",
+                engine(), skus, THREADS, reserved.get() / (double) seconds, failed.get());
+        assertThat(reserved.get()).isPositive();
+    }
+}
@@ -0,0 +1,107 @@
+package com.ecommerce.inventory.benchmark;
+
+import com.ecommerce.inventory.model.Inventory;
+import com.ecommerce.inventory.service.InventoryService;
+import com.ecommerce.inventory.service.InventoryService.BatchReservation;
+import com.ecommerce.inventory.service.InventoryService.ReservationRequest;
+import com.ecommerce.inventory.service.StockMovementLog;
+import com.ecommerce.inventory.service.StockMovementLog.StockReplay;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reading a SKU's quantities from its inventory row against replaying them from the movement
+ * log, with every movement still in the tail and again once they are folded into snapshots.
+ * {@link #SKUS} SKUs get {@link #MOVEMENTS} reserve movements through batch reservations
+ * first; every replay is checked against the row. Skipped unless
+ * {@code INVENTORY_BENCHMARKS=true}.
+ *
+ * <pre>
+ * INVENTORY_BENCHMARKS=true gradle :inventory-service:test --tests '*StockReplayBenchmark' -i
+ * </pre>
+ */
+@EnabledIfEnvironmentVariable(named = "INVENTORY_BENCHMARKS", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "eureka.client.enabled=false",
+        "inventory.order-events.enabled=false",
+        "inventory.low-stock.topic.enabled=false",
+        "inventory.availability.redis.enabled=false",
+        "inventory.movements.snapshot-interval-ms=3600000",
+        "spring.datasource.url=jdbc:h2:mem:benchmark-replay;DB_CLOSE_DELAY=-1",
+        "logging.level.com.ecommerce.inventory=WARN"
+})
+class StockReplayBenchmark {
+
+    private static final int SKUS = 100;
+    private static final int MOVEMENTS = 50_000;
+    private static final int BATCH = 100;
+    private static final int READS = 20;
+
+    @Autowired
+    InventoryService inventoryService;
+
+    @Autowired
+    StockMovementLog movementLog;
+
+    @Test
+    void replayAgainstRowReads() {
+        List<String> skus = new ArrayList<>(SKUS);
+        for (int i = 0; i < SKUS; i++) {
+            skus.add("replay-" + i);
+            inventoryService.addInventory(new Inventory(skus.get(i), 100_000_000));
+        }
+        long start = System.nanoTime();
+        for (int order = 0; order < MOVEMENTS; order += BATCH) {
+            List<BatchReservation> batch = new ArrayList<>(BATCH);
+            for (int i = order; i < order + BATCH; i++) {
+                batch.add(new BatchReservation("replay-order-" + i,
+                        List.of(new ReservationRequest(skus.get(i % SKUS), 1)), null));
+            }
+            inventoryService.reserveBatch(batch);
+        }
+        System.out.printf("%d reservations with movements: %.0f/s%n",
+                MOVEMENTS, MOVEMENTS / seconds(start));
+
+        measure("row", skus, sku -> inventoryService.findBySku(sku).orElseThrow());
+        measure("replay, unfolded", skus, movementLog::replay);
+        skus.forEach(this::checkReplay);
+
+        start = System.nanoTime();
+        // The first run only records the horizon the second one folds up to
+        movementLog.snapshot();
+        movementLog.snapshot();
+        System.out.printf("folding %d movements: %.2f s%n", MOVEMENTS, seconds(start));
+
+        measure("replay, folded", skus, movementLog::replay);
+        skus.forEach(this::checkReplay);
+    }
+
+    private void checkReplay(String sku) {
+        StockReplay replay = movementLog.replay(sku);
+        Inventory row = inventoryService.findBySku(sku).orElseThrow();
+        assertThat(replay.onHand()).isEqualTo(row.getQuantityOnHand().longValue());
+        assertThat(replay.reserved()).isEqualTo(row.getQuantityReserved().longValue());
+    }
+
+    private static void measure(String path, List<String> skus, Consumer<String> read) {
+        // One warm-up round
+        skus.forEach(read);
+        long start = System.nanoTime();
+        for (int round = 0; round < READS; round++) {
+            skus.forEach(read);
+        }
+        System.out.printf("%s: %.1f us per SKU%n", path, (System.nanoTime() - start) / 1000.0 / (READS * skus.size()));
+    }
+
+    private static double seconds(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+}
@@ -0,0 +1,143 @@
+package com.ecommerce.inventory.benchmark;
+
+import com.ecommerce.inventory.model.ShippingRegion;
+import com.ecommerce.inventory.model.Warehouse;
+import com.ecommerce.inventory.repository.ShippingRegionRepository;
+import com.ecommerce.inventory.repository.WarehouseRepository;
+import com.ecommerce.inventory.repository.WarehouseStockRepository;
+import com.ecommerce.inventory.repository.WarehouseStockRepository.WarehouseLevel;
+import com.ecommerce.inventory.service.WarehouseAllocator;
+import com.ecommerce.inventory.service.WarehouseAllocator.Allocation;
+import com.ecommerce.inventory.service.WarehouseAllocator.Pick;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Time per {@link WarehouseAllocator#allocate} call against its in-memory cache: 2,000 SKUs,
+ * each stocked in about a quarter of the warehouses, orders of 5 or 20 lines shipped to 50
+ * regions across the US. Every allocation of the order set is checked first: the picks add
+ * up to the order and {@code shipments} counts their warehouses. Skipped unless
+ * {@code INVENTORY_BENCHMARKS=true}.
+ *
+ * <pre>
+ * INVENTORY_BENCHMARKS=true gradle :inventory-service:test --tests '*WarehouseAllocationBenchmark' -i
+ * </pre>
+ */
+@EnabledIfEnvironmentVariable(named = "INVENTORY_BENCHMARKS", matches = "true")
+class WarehouseAllocationBenchmark {
+
+    private static final int SKUS = 2000;
+    private static final int REGIONS = 50;
+    private static final int ORDERS = 1000;
+    private static final long ROUND_NANOS = 2_000_000_000L;
+
+    @ParameterizedTest(name = "{0} warehouses, {1} lines")
+    @CsvSource({"10, 5", "50, 5", "50, 20", "200, 20"})
+    void allocate(int warehouseCount, int lines) {
+        Random random = new Random(1);
+        List<Warehouse> warehouses = new ArrayList<>();
+        for (int i = 0; i < warehouseCount; i++) {
+            warehouses.add(new Warehouse(String.format("W%03d", i), latitude(random), longitude(random)));
+        }
+        List<ShippingRegion> regions = new ArrayList<>();
+        for (int i = 0; i < REGIONS; i++) {
+            regions.add(new ShippingRegion("US-" + i, latitude(random), longitude(random)));
+        }
+        List<WarehouseLevel> levels = new ArrayList<>();
+        for (int sku = 0; sku < SKUS; sku++) {
+            for (Warehouse warehouse : warehouses) {
+                if (random.nextInt(4) == 0) {
+                    levels.add(new WarehouseLevel((long) levels.size() + 1, "S" + sku,
+                            warehouse.getWarehouseId(), random.nextInt(20)));
+                }
+            }
+        }
+        WarehouseAllocator allocator = allocator(warehouses, regions, levels);
+        allocator.refresh();
+
+        List<Map<String, Integer>> orders = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            Map<String, Integer> order = new TreeMap<>();
+            while (order.size() < lines) {
+                order.put("S" + random.nextInt(SKUS), 1 + random.nextInt(3));
+            }
+            orders.add(order);
+        }
+        for (int i = 0; i < ORDERS; i++) {
+            check(orders.get(i), allocator.allocate("US-" + (i % REGIONS), orders.get(i)));
+        }
+
+        long start = System.nanoTime();
+        int allocations = 0;
+        int shipments = 0;
+        int insufficient = 0;
+        while (System.nanoTime() - start < ROUND_NANOS) {
+            Allocation allocation = allocator.allocate("US-" + (allocations % REGIONS),
+                    orders.get(allocations % ORDERS));
+            if (allocation.insufficient() != null) {
+                insufficient++;
+            } else {
+                shipments += allocation.shipments();
+            }
+            allocations++;
+        }
+        System.out.printf("%d warehouses, %d lines: %.1f us per allocation, %.2f shipments per order, "
+                        + "%d of %d insufficient%n",
+                warehouseCount, lines, (System.nanoTime() - start) / 1000.0 / allocations,
+                shipments / (double) Math.max(1, allocations - insufficient), insufficient, allocations);
+    }
+
+    private static void check(Map<String, Integer> order, Allocation allocation) {
+        if (allocation.insufficient() != null) {
+            return;
+        }
+        Map<String, Integer> picked = new TreeMap<>();
+        Set<String> shippedFrom = new HashSet<>();
+        for (Pick pick : allocation.picks()) {
+            picked.merge(pick.sku(), pick.quantity(), Integer::sum);
+            shippedFrom.add(pick.warehouseId());
+        }
+        assertThat(picked).isEqualTo(order);
+        assertThat(allocation.shipments()).isEqualTo(shippedFrom.size());
+    }
+
+    private static WarehouseAllocator allocator(List<Warehouse> warehouses, List<ShippingRegion> regions,
+                                                List<WarehouseLevel> levels) {
+        WarehouseRepository warehouseRepository = mock(WarehouseRepository.class);
+        ShippingRegionRepository regionRepository = mock(ShippingRegionRepository.class);
+        WarehouseStockRepository stockRepository = mock(WarehouseStockRepository.class);
+        when(warehouseRepository.findAll()).thenReturn(warehouses);
+        when(regionRepository.findAll()).thenReturn(regions);
+        when(stockRepository.findLevels(anyLong(), any())).thenAnswer(call -> {
+            long after = call.getArgument(0);
+            return levels.stream().filter(level -> level.id() > after).limit(5000).toList();
+        });
+        return new WarehouseAllocator(warehouseRepository, regionRepository, stockRepository,
+                mock(ApplicationEventPublisher.class), new SimpleMeterRegistry(), "jpa", true);
+    }
+
+    private static double latitude(Random random) {
+        return 25 + random.nextDouble() * 23;
+    }
+
+    private static double longitude(Random random) {
+        return -124 + random.nextDouble() * 57;
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecommerce.inventory.event;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Decodes records as order-service's encoder writes them; the fixtures match its
+ * OrderEventCodecTest.
+ */
+class OrderEventCodecTest {
+
+    private static final String ORDER_CREATED_HEX = "b801010f054f52442d3154019e1f04";
+
+    @Test
+    void decodesWhatOrderServiceWrites() {
+        OrderEvent event = OrderEventCodec.decode(HexFormat.of().parseHex(ORDER_CREATED_HEX));
+
+        assertThat(event).isEqualTo(new OrderEvent("ORDER_CREATED", "ORD-1", 42L, "PENDING", new BigDecimal("19.99")));
+    }
+
+    @Test
+    void decodesLiteralTypesAndNulls() {
+        // magic, version, literal type "X", no fields
+        OrderEvent literal = OrderEventCodec.decode(HexFormat.of().parseHex("b801000158" + "00"));
+        // magic, version, empty literal type, no fields
+        OrderEvent empty = OrderEventCodec.decode(HexFormat.of().parseHex("b8010000" + "00"));
+
+        assertThat(literal).isEqualTo(new OrderEvent("X", null, null, null, null));
+        assertThat(empty).isEqualTo(new OrderEvent(null, null, null, null, null));
+    }
+
+    @Test
+    void rejectsUnknownCodesAndBadHeaders() {
+        byte[] type = HexFormat.of().parseHex(ORDER_CREATED_HEX);
+        type[2] = 99;
+        byte[] version = HexFormat.of().parseHex(ORDER_CREATED_HEX);
+        version[1] = 2;
+        byte[] truncated = HexFormat.of().parseHex(ORDER_CREATED_HEX.substring(0, 20));
+
+        assertThatThrownBy(() -> OrderEventCodec.decode(type)).isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> OrderEventCodec.decode(version)).isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> OrderEventCodec.decode(truncated)).isInstanceOf(SerializationException.class);
+        assertThat(OrderEventCodec.isBinary("{}".getBytes())).isFalse();
+    }
+}
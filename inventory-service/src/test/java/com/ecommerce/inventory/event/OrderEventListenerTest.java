@@ -0,0 +1,102 @@
+package com.ecommerce.inventory.event;
+
+import com.ecommerce.inventory.service.InventoryService;
+import com.ecommerce.inventory.service.InventoryService.Settlement;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderEventListenerTest {
+
+    private final InventoryService inventoryService = mock(InventoryService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderEventListener listener = new OrderEventListener(inventoryService, meterRegistry);
+    private final List<ConsumerRecord<String, OrderEvent>> records = new ArrayList<>();
+
+    @Test
+    void mapsEventTypesToSettlements() {
+        event("PAYMENT_PAID", "o1", "CONFIRMED");
+        event("ORDER_CANCELLED", "o2", "CANCELLED");
+        event("ORDER_STATUS_CHANGED", "o3", "CANCELLED");
+        event("ORDER_STATUS_CHANGED", "o4", "SHIPPED");
+        event("ORDER_CREATED", "o5", "PENDING");
+        event(null, "o6", null);
+        event("PAYMENT_PAID", null, "CONFIRMED");
+
+        assertThat(settle()).containsExactly(
+                Map.entry("o1", Settlement.CONFIRM),
+                Map.entry("o2", Settlement.RELEASE),
+                Map.entry("o3", Settlement.RELEASE));
+    }
+
+    @Test
+    void firstSettlingEventPerOrderWins() {
+        event("ORDER_CREATED", "o1", "PENDING");
+        event("PAYMENT_PAID", "o1", "CONFIRMED");
+        event("ORDER_CANCELLED", "o1", "CANCELLED");
+        event("ORDER_CANCELLED", "o2", "CANCELLED");
+        event("PAYMENT_PAID", "o2", "CONFIRMED");
+
+        assertThat(settle()).containsExactly(
+                Map.entry("o1", Settlement.CONFIRM),
+                Map.entry("o2", Settlement.RELEASE));
+    }
+
+    @Test
+    void skipsUndecodableRecords() {
+        records.add(new ConsumerRecord<>("order-events", 0, 0, "o1", null));
+        event("PAYMENT_PAID", "o2", "CONFIRMED");
+
+        assertThat(settle()).containsExactly(Map.entry("o2", Settlement.CONFIRM));
+        assertThat(meterRegistry.get("inventory.order_events.undecodable").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotCallTheServiceWithoutSettlements() {
+        records.add(new ConsumerRecord<>("order-events", 0, 0, "o1", null));
+        event("ORDER_CREATED", "o2", "PENDING");
+
+        listener.onOrderEvents(records);
+
+        verify(inventoryService, never()).settleOrders(any());
+    }
+
+    @Test
+    void countsOrdersWithoutAnActiveReservation() {
+        event("PAYMENT_PAID", "o1", "CONFIRMED");
+        event("PAYMENT_PAID", "o2", "CONFIRMED");
+        event("ORDER_CANCELLED", "o3", "CANCELLED");
+        when(inventoryService.settleOrders(any())).thenReturn(Map.of("o1", Settlement.CONFIRM));
+
+        listener.onOrderEvents(records);
+
+        assertThat(meterRegistry.get("inventory.order_events.unmatched").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("inventory.order_events.batch.size").summary().totalAmount()).isEqualTo(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Settlement> settle() {
+        when(inventoryService.settleOrders(any())).thenAnswer(call -> call.getArgument(0));
+        listener.onOrderEvents(records);
+        ArgumentCaptor<Map<String, Settlement>> settlements = ArgumentCaptor.forClass(Map.class);
+        verify(inventoryService).settleOrders(settlements.capture());
+        return settlements.getValue();
+    }
+
+    private void event(String type, String orderNumber, String status) {
+        records.add(new ConsumerRecord<>("order-events", 0, records.size(), orderNumber,
+                new OrderEvent(type, orderNumber, 1L, status, null)));
+    }
+}
@@ -0,0 +1,218 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.model.ExpiryLease;
+import com.ecommerce.inventory.model.ExpiryMember;
+import com.ecommerce.inventory.repository.ExpiryLeaseRepository;
+import com.ecommerce.inventory.repository.ExpiryMemberRepository;
+import com.ecommerce.inventory.service.ExpiryLeases.LeaseChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExpiryLeasesTest {
+
+    private static final Duration TTL = Duration.ofSeconds(15);
+
+    // The expiry_leases and expiry_members tables, shared by every instance of a test
+    private final Map<Integer, Lease> leaseTable = new TreeMap<>();
+    private final Map<String, LocalDateTime> memberTable = new HashMap<>();
+    private final ExpiryLeaseRepository leaseRepository = mock(ExpiryLeaseRepository.class);
+    private final ExpiryMemberRepository memberRepository = mock(ExpiryMemberRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        when(leaseRepository.count()).thenAnswer(call -> (long) leaseTable.size());
+        when(leaseRepository.existsById(anyInt())).thenAnswer(call -> leaseTable.containsKey(call.<Integer>getArgument(0)));
+        when(leaseRepository.save(any(ExpiryLease.class))).thenAnswer(call -> {
+            leaseTable.put(call.<ExpiryLease>getArgument(0).getPartitionId(), new Lease());
+            return call.getArgument(0);
+        });
+        when(leaseRepository.findPartitionsByOwner(anyString())).thenAnswer(call -> leaseTable.entrySet().stream()
+                .filter(entry -> call.getArgument(0).equals(entry.getValue().owner))
+                .map(Map.Entry::getKey)
+                .toList());
+        when(leaseRepository.findClaimable(anyInt(), any())).thenAnswer(call -> leaseTable.entrySet().stream()
+                .filter(entry -> entry.getKey() < call.<Integer>getArgument(0)
+                        && entry.getValue().claimable(call.getArgument(1)))
+                .map(Map.Entry::getKey)
+                .toList());
+        when(leaseRepository.claim(anyInt(), anyString(), any(), any())).thenAnswer(call -> {
+            Lease lease = leaseTable.get(call.<Integer>getArgument(0));
+            if (!lease.claimable(call.getArgument(2))) {
+                return 0;
+            }
+            lease.owner = call.getArgument(1);
+            lease.expiresAt = call.getArgument(3);
+            return 1;
+        });
+        when(leaseRepository.renew(anyString(), any())).thenAnswer(call -> {
+            int renewed = 0;
+            for (Lease lease : leaseTable.values()) {
+                if (call.getArgument(0).equals(lease.owner)) {
+                    lease.expiresAt = call.getArgument(1);
+                    renewed++;
+                }
+            }
+            return renewed;
+        });
+        when(leaseRepository.release(anyString(), any())).thenAnswer(call -> {
+            int released = 0;
+            for (Integer partition : call.<Collection<Integer>>getArgument(1)) {
+                Lease lease = leaseTable.get(partition);
+                if (call.getArgument(0).equals(lease.owner)) {
+                    lease.owner = null;
+                    lease.expiresAt = null;
+                    released++;
+                }
+            }
+            return released;
+        });
+
+        when(memberRepository.heartbeat(anyString(), any())).thenAnswer(call ->
+                memberTable.replace(call.getArgument(0), call.getArgument(1)) != null ? 1 : 0);
+        when(memberRepository.save(any(ExpiryMember.class))).thenAnswer(call -> {
+            ExpiryMember member = call.getArgument(0);
+            memberTable.put(member.getInstanceId(), member.getHeartbeatAt());
+            return member;
+        });
+        when(memberRepository.countByHeartbeatAtAfter(any())).thenAnswer(call -> memberTable.values().stream()
+                .filter(heartbeat -> heartbeat.isAfter(call.getArgument(0)))
+                .count());
+        when(memberRepository.deleteStale(any())).thenAnswer(call -> {
+            int before = memberTable.size();
+            memberTable.values().removeIf(heartbeat -> heartbeat.isBefore(call.getArgument(0)));
+            return before - memberTable.size();
+        });
+        doAnswer(call -> memberTable.remove(call.<String>getArgument(0)))
+                .when(memberRepository).deleteById(anyString());
+    }
+
+    @Test
+    void mapsReservationIdsToPartitionsByTheirFirstTwoHexDigits() {
+        ExpiryLeases leases = leases(4, TTL);
+
+        assertThat(leases.partitionOf("0a1b")).isEqualTo(2);
+        assertThat(leases.partitionOf("FF00")).isEqualTo(3);
+        assertThat(leases.prefixes(List.of(1))).hasSize(64).startsWith("01", "05").contains("fd")
+                .doesNotContain("ff");
+        assertThat(leases.prefixes(List.of(0, 1, 2, 3))).hasSize(256);
+        assertThatThrownBy(() -> leases(6, TTL)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> leases(512, TTL)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void aSingleInstanceClaimsEveryPartition() {
+        ExpiryLeases leases = leases(8, TTL);
+
+        LeaseChange change = leases.renew();
+
+        assertThat(change.acquired()).containsExactlyInAnyOrder(0, 1, 2, 3, 4, 5, 6, 7);
+        assertThat(change.lost()).isEmpty();
+        assertThat(leaseTable).hasSize(8);
+        assertThat(leases.owns(5)).isTrue();
+        assertThat(meterRegistry.get("inventory.expiry.partitions.owned").gauge().value()).isEqualTo(8);
+        // Renewing again changes nothing
+        assertThat(leases.renew().acquired()).isEmpty();
+    }
+
+    @Test
+    void stopsActingOnceItsLastRenewalIsOlderThanTheTtl() throws Exception {
+        ExpiryLeases leases = leases(8, Duration.ofMillis(50));
+        leases.renew();
+        assertThat(leases.owns(0)).isTrue();
+
+        Thread.sleep(100);
+
+        assertThat(leases.owns(0)).isFalse();
+        assertThat(leases.owned()).isEmpty();
+        // Nothing was lost, so the next round reports every partition acquired again
+        assertThat(leases.renew().acquired()).hasSize(8);
+    }
+
+    @Test
+    void releasesTheSurplusWhenAnInstanceJoinsAndClaimsItBackWhenItLeaves() {
+        ExpiryLeases first = leases(8, TTL);
+        ExpiryLeases second = leases(8, TTL);
+        first.renew();
+
+        // Everything is still leased to the first instance
+        assertThat(second.renew().acquired()).isEmpty();
+        assertThat(first.renew().lost()).containsExactlyInAnyOrder(4, 5, 6, 7);
+        assertThat(second.renew().acquired()).containsExactlyInAnyOrder(4, 5, 6, 7);
+        assertThat(first.owned()).containsExactlyInAnyOrder(0, 1, 2, 3);
+
+        second.release();
+
+        assertThat(second.owned()).isEmpty();
+        assertThat(memberTable).hasSize(1);
+        assertThat(first.renew().acquired()).containsExactlyInAnyOrder(4, 5, 6, 7);
+    }
+
+    @Test
+    void splitsAnUnevenShareRoundingUp() {
+        ExpiryLeases first = leases(8, TTL);
+        ExpiryLeases second = leases(8, TTL);
+        ExpiryLeases third = leases(8, TTL);
+        first.renew();
+        second.renew();
+        third.renew();
+
+        // Three instances: ceil(8 / 3) = 3 each, the last one gets the remaining 2
+        assertThat(first.renew().lost()).containsExactlyInAnyOrder(3, 4, 5, 6, 7);
+        assertThat(second.renew().acquired()).containsExactlyInAnyOrder(3, 4, 5);
+        assertThat(third.renew().acquired()).containsExactlyInAnyOrder(6, 7);
+    }
+
+    @Test
+    void takesOverTheLeasesOfAnInstanceThatStoppedRenewing() {
+        ExpiryLeases first = leases(8, TTL);
+        ExpiryLeases second = leases(8, TTL);
+        first.renew();
+        second.renew();
+        first.renew();
+        second.renew();
+
+        String stalled = leaseTable.get(4).owner;
+        LocalDateTime lapsed = LocalDateTime.now().minus(TTL.multipliedBy(2));
+        leaseTable.values().stream().filter(lease -> stalled.equals(lease.owner))
+                .forEach(lease -> lease.expiresAt = lapsed);
+        memberTable.put(stalled, lapsed);
+
+        assertThat(first.renew().acquired()).containsExactlyInAnyOrder(4, 5, 6, 7);
+        assertThat(leaseTable.values()).allSatisfy(lease -> assertThat(lease.owner).isNotEqualTo(stalled));
+    }
+
+    private ExpiryLeases leases(int partitions, Duration ttl) {
+        return new ExpiryLeases(leaseRepository, memberRepository, transactionManager, meterRegistry,
+                partitions, ttl);
+    }
+
+    private static final class Lease {
+        String owner;
+        LocalDateTime expiresAt;
+
+        boolean claimable(LocalDateTime now) {
+            return owner == null || expiresAt.isBefore(now);
+        }
+    }
+}
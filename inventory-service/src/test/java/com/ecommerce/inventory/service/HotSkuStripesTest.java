@@ -0,0 +1,88 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.model.Inventory;
+import com.ecommerce.inventory.model.InventoryStripe;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import com.ecommerce.inventory.repository.InventoryStripeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HotSkuStripesTest {
+
+    private final InventoryStripeRepository stripeRepository = mock(InventoryStripeRepository.class);
+    private final HotSkuStripes hotSkus = new HotSkuStripes(mock(InventoryRepository.class), stripeRepository,
+            mock(SkuContentionTracker.class), mock(WarehouseAllocator.class), mock(ApplicationEventPublisher.class),
+            mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), "jpa", true, 4, 0.5, 1,
+            Duration.ofMinutes(5));
+
+    @Test
+    void foldsStripeReservationsIntoTheRow() {
+        Inventory inventory = striped(100);
+        List<InventoryStripe> stripes = stripes(100);
+        stripes.get(0).reserve(10);
+
+        hotSkus.fold(inventory);
+
+        assertThat(inventory.getQuantityReserved()).isEqualTo(10);
+        assertThat(inventory.getQuantityAvailable()).isEqualTo(90);
+        assertThat(stripes).allSatisfy(stripe -> assertThat(stripe.getPendingReserved()).isZero());
+    }
+
+    @Test
+    void respreadsTheAdjustedFreeStockSoStripesCannotOversell() {
+        Inventory inventory = striped(100);
+        List<InventoryStripe> stripes = stripes(100);
+        stripes.get(0).reserve(10);
+
+        List<InventoryStripe> locked = hotSkus.fold(inventory);
+        inventory.setQuantityOnHand(20);
+        hotSkus.respread(inventory, locked);
+
+        assertThat(inventory.getQuantityAvailable()).isEqualTo(10);
+        assertThat(available(stripes)).isEqualTo(10);
+        // The reserved units stay on the stripe that holds them
+        assertThat(stripes.get(0).getQuantityReserved()).isEqualTo(10);
+    }
+
+    @Test
+    void respreadLeavesStripesEmptyWhenNothingIsFree() {
+        Inventory inventory = striped(100);
+        List<InventoryStripe> stripes = stripes(100);
+        stripes.get(2).reserve(20);
+
+        List<InventoryStripe> locked = hotSkus.fold(inventory);
+        inventory.setQuantityOnHand(20);
+        hotSkus.respread(inventory, locked);
+
+        assertThat(available(stripes)).isZero();
+    }
+
+    private static Inventory striped(int onHand) {
+        Inventory inventory = new Inventory("HOT", onHand);
+        inventory.setStripes(4);
+        return inventory;
+    }
+
+    private List<InventoryStripe> stripes(int free) {
+        List<InventoryStripe> stripes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            stripes.add(new InventoryStripe("HOT", i, free / 4));
+        }
+        when(stripeRepository.findBySkuWithLock("HOT")).thenReturn(stripes);
+        return stripes;
+    }
+
+    private static int available(List<InventoryStripe> stripes) {
+        return stripes.stream().mapToInt(InventoryStripe::getQuantityAvailable).sum();
+    }
+}
@@ -0,0 +1,104 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.event.StockChangedEvent;
+import com.ecommerce.inventory.event.StockChangedEvent.StockLevel;
+import com.ecommerce.inventory.model.Inventory;
+import com.ecommerce.inventory.model.Inventory.InventoryStatus;
+import com.ecommerce.inventory.model.StockReservation.ReservationStatus;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import com.ecommerce.inventory.repository.ReservationRepository;
+import com.ecommerce.inventory.service.InventoryService.InventoryStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InventoryAggregatesTest {
+
+    private final InventoryRepository inventoryRepository = mock(InventoryRepository.class);
+    private final ReservationRepository reservationRepository = mock(ReservationRepository.class);
+    private final InventoryAggregates aggregates =
+            new InventoryAggregates(inventoryRepository, reservationRepository, new SimpleMeterRegistry());
+
+    @BeforeEach
+    void setUp() {
+        when(inventoryRepository.countByStatus(InventoryStatus.IN_STOCK)).thenReturn(8L);
+        when(inventoryRepository.countByStatus(InventoryStatus.LOW_STOCK)).thenReturn(1L);
+        when(inventoryRepository.countByStatus(InventoryStatus.OUT_OF_STOCK)).thenReturn(1L);
+        when(inventoryRepository.getTotalQuantity()).thenReturn(1000L);
+        when(inventoryRepository.getTotalReserved()).thenReturn(100L);
+        when(reservationRepository.countByStatus(ReservationStatus.ACTIVE)).thenReturn(5L);
+    }
+
+    @Test
+    void loadsTotalsFromSqlAggregatesWithoutReadingRows() {
+        InventoryStats stats = aggregates.stats();
+
+        assertThat(stats).isEqualTo(new InventoryStats(8, 1, 1, 1000, 100, 5));
+        verify(inventoryRepository, never()).findSnapshots(any(Long.class), any());
+    }
+
+    @Test
+    void appliesEveryChangeAsItArrives() {
+        aggregates.reconcile();
+        change(level("A", 45, 5, InventoryStatus.IN_STOCK, 2).since(level("A", 50, 0, InventoryStatus.IN_STOCK, 1)));
+        assertThat(aggregates.stats().totalQuantity()).isEqualTo(995);
+        assertThat(aggregates.stats().totalReserved()).isEqualTo(105);
+
+        // Out of order: the later change arrives first
+        change(level("B", 0, 0, InventoryStatus.OUT_OF_STOCK, 4).since(level("B", 8, 0, InventoryStatus.LOW_STOCK, 3)));
+        change(level("B", 8, 0, InventoryStatus.LOW_STOCK, 3).since(level("B", 20, 0, InventoryStatus.IN_STOCK, 2)));
+
+        InventoryStats stats = aggregates.stats();
+        assertThat(stats.totalQuantity()).isEqualTo(975);
+        assertThat(stats.totalReserved()).isEqualTo(105);
+        assertThat(stats.inStock()).isEqualTo(7);
+        assertThat(stats.lowStock()).isEqualTo(1);
+        assertThat(stats.outOfStock()).isEqualTo(2);
+    }
+
+    @Test
+    void countsCreatedSkusAndIgnoresLevelsWithoutAChange() {
+        aggregates.reconcile();
+        Inventory created = new Inventory("NEW", 30);
+        change(StockLevel.of(created));
+        change(level("A", 45, 5, InventoryStatus.IN_STOCK, 2));
+
+        InventoryStats stats = aggregates.stats();
+        assertThat(stats.totalQuantity()).isEqualTo(1030);
+        assertThat(stats.totalReserved()).isEqualTo(100);
+        assertThat(stats.inStock()).isEqualTo(9);
+    }
+
+    @Test
+    void keepsChangesAppliedWhileReconcileQueriesRun() {
+        aggregates.reconcile();
+        change(level("A", 45, 0, InventoryStatus.IN_STOCK, 2).since(level("A", 50, 0, InventoryStatus.IN_STOCK, 1)));
+        // 20 added on another instance; the change below commits after the total was read
+        when(inventoryRepository.getTotalQuantity()).thenReturn(1015L);
+        when(inventoryRepository.getTotalReserved()).thenAnswer(call -> {
+            change(level("A", 40, 0, InventoryStatus.IN_STOCK, 3).since(level("A", 45, 0, InventoryStatus.IN_STOCK, 2)));
+            return 100L;
+        });
+
+        aggregates.reconcile();
+
+        assertThat(aggregates.stats().totalQuantity()).isEqualTo(1010);
+    }
+
+    private void change(StockLevel level) {
+        aggregates.onStockChanged(new StockChangedEvent(List.of(level)));
+    }
+
+    private static StockLevel level(String sku, int onHand, int reserved, InventoryStatus status, long version) {
+        return new StockLevel(sku, onHand, reserved, onHand - reserved, status, version);
+    }
+}
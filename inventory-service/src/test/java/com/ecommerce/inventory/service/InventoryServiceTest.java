@@ -0,0 +1,137 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.event.LowStockAlert;
+import com.ecommerce.inventory.model.Inventory;
+import com.ecommerce.inventory.model.Inventory.InventoryStatus;
+import com.ecommerce.inventory.model.ReservationItem;
+import com.ecommerce.inventory.model.StockReservation;
+import com.ecommerce.inventory.model.StockReservation.ReservationStatus;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import com.ecommerce.inventory.repository.ReservationRepository;
+import com.ecommerce.inventory.repository.ReservationRepository.OrderReservation;
+import com.ecommerce.inventory.service.InventoryService.Settlement;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InventoryServiceTest {
+
+    private final InventoryRepository inventoryRepository = mock(InventoryRepository.class);
+    private final ReservationRepository reservationRepository = mock(ReservationRepository.class);
+    private final StockLedger stockLedger = mock(StockLedger.class);
+    private final LowStockMonitor lowStock = mock(LowStockMonitor.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InventoryService inventoryService = new InventoryService(inventoryRepository, reservationRepository,
+            stockLedger, mock(SkuContentionTracker.class), mock(ReservationCoalescer.class),
+            mock(HotSkuStripes.class), mock(AvailabilityReadModel.class), mock(InventoryAggregates.class),
+            mock(StockMovementLog.class), mock(WarehouseAllocator.class), mock(ReservationDedupe.class), lowStock,
+            mock(ApplicationEventPublisher.class), mock(PlatformTransactionManager.class),
+            mock(EntityManager.class), meterRegistry, 1, Duration.ofMillis(1), 3, Duration.ofMillis(5));
+
+    @Test
+    void settlesABatchInOneTransaction() {
+        Inventory a = reserved("A", 10, 4);
+        Inventory b = reserved("B", 10, 3);
+        when(reservationRepository.findByOrderIdInWithLock(anyCollection(), eq(ReservationStatus.ACTIVE)))
+                .thenReturn(List.of(reservation("o1", "A", 4), reservation("o2", "B", 3)));
+        when(inventoryRepository.findAllBySkuInWithLock(anyCollection())).thenReturn(List.of(a, b));
+
+        Map<String, Settlement> settled = inventoryService.settleOrders(
+                Map.of("o1", Settlement.CONFIRM, "o2", Settlement.RELEASE, "o3", Settlement.CONFIRM));
+
+        assertThat(settled).containsOnly(Map.entry("o1", Settlement.CONFIRM), Map.entry("o2", Settlement.RELEASE));
+        assertThat(a.getQuantityOnHand()).isEqualTo(6);
+        assertThat(a.getQuantityReserved()).isZero();
+        assertThat(b.getQuantityOnHand()).isEqualTo(10);
+        assertThat(b.getQuantityReserved()).isZero();
+        assertThat(meterRegistry.get("inventory.reservations.confirmed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("inventory.reservations.released").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void settlesOrdersOneByOneWhenTheBatchFails() {
+        Inventory a = reserved("A", 10, 4);
+        when(reservationRepository.findByOrderIdInWithLock(eq(Set.of("o1", "o2")), eq(ReservationStatus.ACTIVE)))
+                .thenThrow(new IllegalStateException("SKU not found: GONE"));
+        when(reservationRepository.findByOrderIdInWithLock(eq(Set.of("o1")), eq(ReservationStatus.ACTIVE)))
+                .thenReturn(List.of(reservation("o1", "A", 4)));
+        when(reservationRepository.findByOrderIdInWithLock(eq(Set.of("o2")), eq(ReservationStatus.ACTIVE)))
+                .thenReturn(List.of(reservation("o2", "GONE", 1)));
+        when(inventoryRepository.findAllBySkuInWithLock(anyCollection())).thenReturn(List.of(a));
+
+        Map<String, Settlement> settled = inventoryService.settleOrders(
+                Map.of("o1", Settlement.CONFIRM, "o2", Settlement.RELEASE));
+
+        // o2 fails on its own too and is left for expiry
+        assertThat(settled).containsOnly(Map.entry("o1", Settlement.CONFIRM));
+        assertThat(a.getQuantityOnHand()).isEqualTo(6);
+    }
+
+    @Test
+    void rethrowsTransientFailuresSoTheBatchIsRedelivered() {
+        when(reservationRepository.findByOrderIdInWithLock(anyCollection(), eq(ReservationStatus.ACTIVE)))
+                .thenThrow(new CannotAcquireLockException("lock wait timeout"));
+
+        assertThatThrownBy(() -> inventoryService.settleOrders(Map.of("o1", Settlement.CONFIRM)))
+                .isInstanceOf(CannotAcquireLockException.class);
+    }
+
+    @Test
+    void skipsReservationsTheLedgerCannotSettle() {
+        when(stockLedger.isServing()).thenReturn(true);
+        when(reservationRepository.findReservationsByOrderIdIn(anyCollection(), eq(ReservationStatus.ACTIVE)))
+                .thenReturn(List.of(new OrderReservation("o1", "r1"), new OrderReservation("o2", "r2")));
+        doThrow(new IllegalStateException("Reservation is not active: r2")).when(stockLedger).release("r2");
+
+        Map<String, Settlement> settled = inventoryService.settleOrders(
+                Map.of("o1", Settlement.CONFIRM, "o2", Settlement.RELEASE));
+
+        assertThat(settled).containsOnly(Map.entry("o1", Settlement.CONFIRM));
+        verify(stockLedger).confirm("r1");
+    }
+
+    @Test
+    void readsOnlyTheRowsOfTheLowSkus() {
+        when(lowStock.lowStock()).thenReturn(List.of(alert("A"), alert("B")));
+        when(inventoryRepository.findBySkuIn(List.of("A", "B")))
+                .thenReturn(List.of(new Inventory("B", 0), new Inventory("A", 3)));
+
+        assertThat(inventoryService.getLowStockItems()).extracting(Inventory::getSku).containsExactly("A", "B");
+        verify(inventoryRepository, never()).findLowStockItems();
+    }
+
+    private static LowStockAlert alert(String sku) {
+        return new LowStockAlert(sku, InventoryStatus.LOW_STOCK, InventoryStatus.IN_STOCK, 3, 0, 3, 1, null);
+    }
+
+    private static Inventory reserved(String sku, int onHand, int reserved) {
+        Inventory inventory = new Inventory(sku, onHand);
+        inventory.reserve(reserved);
+        return inventory;
+    }
+
+    private static StockReservation reservation(String orderId, String sku, int quantity) {
+        StockReservation reservation = new StockReservation(orderId);
+        reservation.addItem(new ReservationItem(sku, quantity));
+        return reservation;
+    }
+}
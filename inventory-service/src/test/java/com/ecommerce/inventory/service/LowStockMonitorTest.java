@@ -0,0 +1,139 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.event.LowStockAlert;
+import com.ecommerce.inventory.event.StockChangedEvent;
+import com.ecommerce.inventory.event.StockChangedEvent.StockLevel;
+import com.ecommerce.inventory.model.Inventory;
+import com.ecommerce.inventory.model.Inventory.InventoryStatus;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LowStockMonitorTest {
+
+    private static final String TOPIC = "inventory-low-stock";
+
+    private final InventoryRepository inventoryRepository = mock(InventoryRepository.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, LowStockAlert> kafkaTemplate = mock(KafkaTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LowStockMonitor monitor = new LowStockMonitor(inventoryRepository, kafkaTemplate, meterRegistry,
+            TOPIC, true, Duration.ofSeconds(30), Duration.ofMinutes(30));
+
+    @BeforeEach
+    void setUp() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void tracksTransitionsAndIgnoresOlderLevels() {
+        monitor.reconcile();
+
+        change("A", 5, InventoryStatus.LOW_STOCK, 2);
+        change("A", 0, InventoryStatus.OUT_OF_STOCK, 4);
+        // Older than the level held
+        change("A", 50, InventoryStatus.IN_STOCK, 3);
+        change("B", 50, InventoryStatus.IN_STOCK, 1);
+
+        assertThat(monitor.lowStock()).singleElement().satisfies(alert -> {
+            assertThat(alert.sku()).isEqualTo("A");
+            assertThat(alert.status()).isEqualTo(InventoryStatus.OUT_OF_STOCK);
+            assertThat(alert.previousStatus()).isEqualTo(InventoryStatus.LOW_STOCK);
+            assertThat(alert.version()).isEqualTo(4);
+        });
+        assertThat(transitions(InventoryStatus.LOW_STOCK)).isEqualTo(1);
+        assertThat(transitions(InventoryStatus.OUT_OF_STOCK)).isEqualTo(1);
+        assertThat(transitions(InventoryStatus.IN_STOCK)).isZero();
+    }
+
+    @Test
+    void keepsQuantitiesCurrentWhileTheStatusStays() {
+        monitor.reconcile();
+        change("A", 5, InventoryStatus.LOW_STOCK, 1);
+        change("A", 4, InventoryStatus.LOW_STOCK, 2);
+
+        assertThat(monitor.lowStock()).singleElement().satisfies(alert -> {
+            assertThat(alert.quantityAvailable()).isEqualTo(4);
+            assertThat(alert.version()).isEqualTo(2);
+        });
+        assertThat(transitions(InventoryStatus.LOW_STOCK)).isEqualTo(1);
+    }
+
+    @Test
+    void publishesTheLatestTransitionPerSkuAndBackInStockAsATombstone() {
+        monitor.reconcile();
+        change("A", 5, InventoryStatus.LOW_STOCK, 1);
+        change("B", 5, InventoryStatus.LOW_STOCK, 1);
+        change("B", 50, InventoryStatus.IN_STOCK, 2);
+
+        monitor.publishTopic();
+
+        verify(kafkaTemplate).send(TOPIC, "A", monitor.lowStock().get(0));
+        verify(kafkaTemplate).send(TOPIC, "B", null);
+        verify(kafkaTemplate, never()).send(eq(TOPIC), eq("B"), any(LowStockAlert.class));
+    }
+
+    @Test
+    void reconcileKeepsSkusChangedAfterTheQueryStarted() {
+        monitor.reconcile();
+        change("A", 5, InventoryStatus.LOW_STOCK, 1);
+        change("B", 5, InventoryStatus.LOW_STOCK, 1);
+        monitor.publishTopic();
+
+        when(inventoryRepository.findLowStockItems()).thenAnswer(call -> {
+            // B goes back to low after the rows were read: neither row shows A or B
+            change("B", 50, InventoryStatus.IN_STOCK, 2);
+            change("B", 6, InventoryStatus.LOW_STOCK, 3);
+            return List.of(low("C"));
+        });
+        monitor.reconcile();
+
+        // A was restocked elsewhere, C ran low elsewhere; B changed here since the query started
+        assertThat(monitor.lowStock()).extracting(LowStockAlert::sku).containsExactly("B", "C");
+    }
+
+    @Test
+    void reconcileDoesNotPublishChangesMadeByOtherInstances() {
+        monitor.reconcile();
+        change("A", 5, InventoryStatus.LOW_STOCK, 1);
+        monitor.publishTopic();
+        when(inventoryRepository.findLowStockItems()).thenReturn(List.of(low("C")));
+
+        monitor.reconcile();
+        monitor.publishTopic();
+
+        assertThat(monitor.lowStock()).extracting(LowStockAlert::sku).containsExactly("C");
+        // Only A's own transition to low
+        verify(kafkaTemplate, times(1)).send(anyString(), anyString(), any());
+        assertThat(transitions(InventoryStatus.IN_STOCK)).isZero();
+    }
+
+    private void change(String sku, int available, InventoryStatus status, long version) {
+        monitor.onStockChanged(new StockChangedEvent(List.of(
+                new StockLevel(sku, available, 0, available, status, version))));
+    }
+
+    private static Inventory low(String sku) {
+        return new Inventory(sku, 3);
+    }
+
+    private double transitions(InventoryStatus status) {
+        return meterRegistry.get("inventory.low_stock.transitions").tag("status", status.name()).counter().count();
+    }
+}
@@ -0,0 +1,97 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.service.InventoryService.BatchOutcome;
+import com.ecommerce.inventory.service.InventoryService.BatchReservation;
+import com.ecommerce.inventory.service.InventoryService.ReservationRequest;
+import com.ecommerce.inventory.service.InventoryService.ReservationResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReservationCoalescerTest {
+
+    private static final List<ReservationRequest> ITEMS = List.of(new ReservationRequest("A", 1));
+
+    private ReservationCoalescer coalescer =
+            new ReservationCoalescer(true, 100, Duration.ofMillis(2), Duration.ofSeconds(5));
+
+    @AfterEach
+    void tearDown() {
+        coalescer.shutdown();
+    }
+
+    @Test
+    void retriesAFailedBatchOneRequestAtATime() throws Exception {
+        CountDownLatch firstBatch = new CountDownLatch(1);
+        coalescer.setHandler(requests -> {
+            if (requests.get(0).orderId().equals("first")) {
+                await(firstBatch);
+            }
+            if (requests.stream().anyMatch(request -> request.orderId().equals("bad"))) {
+                throw new IllegalArgumentException("SKU not found: A");
+            }
+            return requests.stream().map(ReservationCoalescerTest::reserved).toList();
+        });
+
+        CompletableFuture<ReservationResponse> first = reserveAsync("first");
+        Thread.sleep(50);
+        CompletableFuture<ReservationResponse> bad = reserveAsync("bad");
+        CompletableFuture<ReservationResponse> good = reserveAsync("good");
+        Thread.sleep(50);
+        firstBatch.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).reservationId()).isEqualTo("first");
+        assertThat(good.get(5, TimeUnit.SECONDS).reservationId()).isEqualTo("good");
+        assertThatThrownBy(() -> bad.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void failsRequestsQueuedAtShutdown() throws Exception {
+        // No handler, so nothing is ever taken from the queue
+        CompletableFuture<ReservationResponse> queued = reserveAsync("o1");
+        Thread.sleep(50);
+
+        coalescer.shutdown();
+
+        assertThatThrownBy(() -> queued.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("stopped");
+        assertThatThrownBy(() -> coalescer.reserve("o2", ITEMS)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void withdrawsRequestsNotBatchedInTime() {
+        coalescer = new ReservationCoalescer(true, 100, Duration.ofMillis(2), Duration.ofMillis(50));
+
+        assertThatThrownBy(() -> coalescer.reserve("o1", ITEMS))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not batched within");
+    }
+
+    private CompletableFuture<ReservationResponse> reserveAsync(String orderId) {
+        return CompletableFuture.supplyAsync(() -> coalescer.reserve(orderId, ITEMS));
+    }
+
+    private static BatchOutcome reserved(BatchReservation request) {
+        return new BatchOutcome(new ReservationResponse(request.orderId(), true, "Stock reserved successfully"), null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
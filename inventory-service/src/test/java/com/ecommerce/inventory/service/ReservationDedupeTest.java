@@ -0,0 +1,230 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.event.ReservationChangedEvent;
+import com.ecommerce.inventory.model.StockReservation.ReservationStatus;
+import com.ecommerce.inventory.repository.ReservationRepository;
+import com.ecommerce.inventory.repository.ReservationRepository.OrderReservation;
+import com.ecommerce.inventory.service.InventoryService.BatchReservation;
+import com.ecommerce.inventory.service.InventoryService.ReservationRequest;
+import com.ecommerce.inventory.service.InventoryService.ReservationResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReservationDedupeTest {
+
+    private static final List<ReservationRequest> ITEMS = List.of(new ReservationRequest("A", 1));
+
+    private final ReservationRepository reservationRepository = mock(ReservationRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger reserved = new AtomicInteger();
+
+    @Test
+    void answersARepeatedCallWithTheFirstResponse() {
+        ReservationDedupe dedupe = dedupe(Duration.ofMinutes(10), 100);
+
+        ReservationResponse first = dedupe.reserve("o1", this::reserve);
+        ReservationResponse repeated = dedupe.reserve("o1", this::reserve);
+
+        assertThat(repeated).isEqualTo(first);
+        assertThat(reserved).hasValue(1);
+        assertThat(duplicates("memory")).isEqualTo(1);
+    }
+
+    @Test
+    void repeatedCallWaitsForTheFirstOneInFlight() throws Exception {
+        ReservationDedupe dedupe = dedupe(Duration.ofMinutes(10), 100);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ReservationResponse> first = CompletableFuture.supplyAsync(() ->
+                dedupe.reserve("o1", () -> {
+                    started.countDown();
+                    await(release);
+                    return reserve();
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<ReservationResponse> repeated =
+                CompletableFuture.supplyAsync(() -> dedupe.reserve("o1", this::reserve));
+        assertThat(repeated).isNotDone();
+        release.countDown();
+
+        assertThat(repeated.get(5, TimeUnit.SECONDS)).isEqualTo(first.get(5, TimeUnit.SECONDS));
+        assertThat(reserved).hasValue(1);
+    }
+
+    @Test
+    void answersOrdersHoldingAStoredReservationWithoutReserving() {
+        when(reservationRepository.findReservationsByOrderIdInAndStatusIn(any(), any()))
+                .thenReturn(List.of(new OrderReservation("o1", "r-stored")));
+        ReservationDedupe dedupe = dedupe(Duration.ofMinutes(10), 100);
+
+        assertThat(dedupe.reserve("o1", this::reserve).reservationId()).isEqualTo("r-stored");
+        assertThat(reserved).hasValue(0);
+        assertThat(duplicates("store")).isEqualTo(1);
+    }
+
+    @Test
+    void forgetsFailedReservations() {
+        ReservationDedupe dedupe = dedupe(Duration.ofMinutes(10), 100);
+
+        assertThat(dedupe.reserve("o1", () -> new ReservationResponse(null, false, "Insufficient stock")).success())
+                .isFalse();
+        assertThatThrownBy(() -> dedupe.reserve("o1", () -> {
+            throw new IllegalArgumentException("SKU not found: A");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(dedupe.reserve("o1", this::reserve).success()).isTrue();
+        assertThat(reserved).hasValue(1);
+    }
+
+    @Test
+    void letsAnOrderReserveAgainOnceItsReservationIsReleased() {
+        ReservationDedupe dedupe = dedupe(Duration.ofMinutes(10), 100);
+        ReservationResponse first = dedupe.reserve("o1", this::reserve);
+
+        dedupe.onReservationChanged(new ReservationChangedEvent("other", "o1", ReservationStatus.RELEASED, null));
+        assertThat(dedupe.reserve("o1", this::reserve)).isEqualTo(first);
+
+        dedupe.onReservationChanged(new ReservationChangedEvent(first.reservationId(), "o1",
+                ReservationStatus.RELEASED, null));
+        assertThat(dedupe.reserve("o1", this::reserve)).isNotEqualTo(first);
+        assertThat(reserved).hasValue(2);
+    }
+
+    @Test
+    void dropsOrdersOutsideTheWindowOrBeyondMaxEntries() {
+        ReservationDedupe expiring = dedupe(Duration.ZERO, 100);
+        expiring.reserve("o1", this::reserve);
+        expiring.reserve("o1", this::reserve);
+        assertThat(reserved).hasValue(2);
+
+        ReservationDedupe bounded = dedupe(Duration.ofMinutes(10), 1);
+        bounded.reserve("o2", this::reserve);
+        bounded.reserve("o3", this::reserve);
+        bounded.reserve("o3", this::reserve);
+        bounded.reserve("o2", this::reserve);
+        assertThat(reserved).hasValue(5);
+    }
+
+    @Test
+    void batchReservesOnlyNewOrdersOnceAndAnswersInRequestOrder() {
+        when(reservationRepository.findReservationsByOrderIdInAndStatusIn(any(), any()))
+                .thenReturn(List.of(new OrderReservation("stored", "r-stored")));
+        ReservationDedupe dedupe = dedupe(Duration.ofMinutes(10), 100);
+        ReservationResponse remembered = dedupe.reserve("remembered", this::reserve);
+        List<List<String>> passedOn = new ArrayList<>();
+
+        List<ReservationResponse> responses = dedupe.reserveAll(List.of(
+                request("new"), request("stored"), request("remembered"), request("new")), requests -> {
+            passedOn.add(requests.stream().map(BatchReservation::orderId).toList());
+            return requests.stream().map(request -> reserve()).toList();
+        });
+
+        assertThat(passedOn).containsExactly(List.of("new"));
+        assertThat(responses).hasSize(4);
+        assertThat(responses.get(0)).isEqualTo(responses.get(3));
+        assertThat(responses.get(1).reservationId()).isEqualTo("r-stored");
+        assertThat(responses.get(2)).isEqualTo(remembered);
+    }
+
+    @Test
+    void batchFailureAnswersEachOrderAndIsNotRemembered() {
+        ReservationDedupe dedupe = dedupe(Duration.ofMinutes(10), 100);
+
+        List<ReservationResponse> responses = dedupe.reserveAll(List.of(request("o1"), request("o2")), requests -> {
+            throw new IllegalStateException("Could not reserve stock, please retry");
+        });
+
+        assertThat(responses).extracting(ReservationResponse::success).containsExactly(false, false);
+        assertThat(responses).extracting(ReservationResponse::message)
+                .containsOnly("Could not reserve stock, please retry");
+        assertThat(dedupe.reserve("o1", this::reserve).success()).isTrue();
+    }
+
+    @Test
+    void returnsTheReservationThatWonTheUniqueOrderClaim() {
+        // Reserved on another instance between the lookup and the insert
+        when(reservationRepository.findReservationsByOrderIdInAndStatusIn(any(), any()))
+                .thenReturn(List.of(new OrderReservation("o1", "r-other")));
+        ReservationDedupe dedupe = new ReservationDedupe(reservationRepository, mock(PlatformTransactionManager.class),
+                meterRegistry, true, false, Duration.ofMinutes(10), 100);
+
+        ReservationResponse response = dedupe.reserve("o1", () -> {
+            throw new DataIntegrityViolationException("duplicate key value violates idx_reservation_holding_order");
+        });
+
+        assertThat(response.reservationId()).isEqualTo("r-other");
+        assertThat(dedupe.reserve("o1", this::reserve)).isEqualTo(response);
+        assertThat(reserved).hasValue(0);
+    }
+
+    @Test
+    void rethrowsAViolationWithoutAReservationToReturn() {
+        ReservationDedupe dedupe = dedupe(Duration.ofMinutes(10), 100);
+
+        assertThatThrownBy(() -> dedupe.reserve("o1", () -> {
+            throw new DataIntegrityViolationException("value too long");
+        })).isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(dedupe.reserve("o1", this::reserve).success()).isTrue();
+    }
+
+    @Test
+    void batchAnswersOrdersReservedElsewhereAndRetriesTheRest() {
+        when(reservationRepository.findReservationsByOrderIdInAndStatusIn(any(), any()))
+                .thenReturn(List.of(), List.of(new OrderReservation("o2", "r-other")));
+        ReservationDedupe dedupe = dedupe(Duration.ofMinutes(10), 100);
+        List<List<String>> passedOn = new ArrayList<>();
+
+        List<ReservationResponse> responses = dedupe.reserveAll(List.of(request("o1"), request("o2")), requests -> {
+            passedOn.add(requests.stream().map(BatchReservation::orderId).toList());
+            if (passedOn.size() == 1) {
+                throw new DataIntegrityViolationException("duplicate key value violates idx_reservation_holding_order");
+            }
+            return requests.stream().map(request -> reserve()).toList();
+        });
+
+        assertThat(passedOn).containsExactly(List.of("o1", "o2"), List.of("o1"));
+        assertThat(responses).extracting(ReservationResponse::reservationId).containsExactly("r1", "r-other");
+    }
+
+    private ReservationDedupe dedupe(Duration window, int maxEntries) {
+        return new ReservationDedupe(reservationRepository, mock(PlatformTransactionManager.class),
+                meterRegistry, true, true, window, maxEntries);
+    }
+
+    private ReservationResponse reserve() {
+        return new ReservationResponse("r" + reserved.incrementAndGet(), true, "Stock reserved successfully");
+    }
+
+    private double duplicates(String source) {
+        return meterRegistry.get("inventory.reservations.duplicates").tag("source", source).counter().count();
+    }
+
+    private static BatchReservation request(String orderId) {
+        return new BatchReservation(orderId, ITEMS, null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.event.ReservationChangedEvent;
+import com.ecommerce.inventory.model.StockReservation.ReservationStatus;
+import com.ecommerce.inventory.repository.ReservationRepository;
+import com.ecommerce.inventory.repository.ReservationRepository.ReservationDeadline;
+import com.ecommerce.inventory.service.ExpiryLeases.LeaseChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReservationExpiryWheelTest {
+
+    private static final long TICK_MS = 10;
+
+    private final InventoryService inventoryService = mock(InventoryService.class);
+    private final ReservationRepository reservationRepository = mock(ReservationRepository.class);
+    private final ExpiryLeases leases = mock(ExpiryLeases.class);
+
+    @BeforeEach
+    void setUp() {
+        when(leases.partitionOf(anyString())).thenAnswer(call -> call.<String>getArgument(0).startsWith("b") ? 1 : 0);
+        when(leases.owns(anyInt())).thenAnswer(call -> call.<Integer>getArgument(0) == 0);
+        when(inventoryService.expireReservations(any())).thenAnswer(call -> new HashSet<>(call.<List<String>>getArgument(0)));
+    }
+
+    @Test
+    void expiresDueReservationsInBatches() throws Exception {
+        ReservationExpiryWheel wheel = wheel(2, 10);
+        for (int i = 0; i < 5; i++) {
+            wheel.schedule("a" + i, LocalDateTime.now().minusSeconds(1));
+        }
+
+        nextTick();
+        wheel.tick();
+
+        assertThat(expired(3)).containsExactlyInAnyOrder("a0", "a1", "a2", "a3", "a4");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void drainsABacklogOverSeveralTicks() throws Exception {
+        ReservationExpiryWheel wheel = wheel(2, 1);
+        for (int i = 0; i < 5; i++) {
+            wheel.schedule("a" + i, LocalDateTime.now().minusSeconds(1));
+        }
+
+        nextTick();
+        wheel.tick();
+        assertThat(wheel.size()).isEqualTo(3);
+        wheel.tick();
+        wheel.tick();
+
+        assertThat(expired(3)).hasSize(5);
+    }
+
+    @Test
+    void keepsReservationsUntilTheirDeadline() throws Exception {
+        ReservationExpiryWheel wheel = wheel(200, 10);
+        wheel.schedule("a1", LocalDateTime.now().plusHours(1));
+
+        nextTick();
+        wheel.tick();
+
+        verify(inventoryService, never()).expireReservations(any());
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void skipsCancelledAndRescheduledReservations() throws Exception {
+        ReservationExpiryWheel wheel = wheel(200, 10);
+        wheel.schedule("a1", LocalDateTime.now().minusSeconds(1));
+        wheel.schedule("a2", LocalDateTime.now().minusSeconds(1));
+        wheel.schedule("a3", LocalDateTime.now().minusSeconds(1));
+        wheel.cancel("a1");
+        wheel.schedule("a2", LocalDateTime.now().plusHours(1));
+
+        nextTick();
+        wheel.tick();
+
+        assertThat(expired(1)).containsExactly("a3");
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void leavesReservationsOfPartitionsNoLongerOwnedToTheirOwner() throws Exception {
+        ReservationExpiryWheel wheel = wheel(200, 10);
+        wheel.schedule("a1", LocalDateTime.now().minusSeconds(1));
+        wheel.schedule("b1", LocalDateTime.now().minusSeconds(1));
+
+        nextTick();
+        wheel.tick();
+
+        assertThat(expired(1)).containsExactly("a1");
+    }
+
+    @Test
+    void followsReservationChangesOfOwnedPartitions() throws Exception {
+        ReservationExpiryWheel wheel = wheel(200, 10);
+        LocalDateTime past = LocalDateTime.now().minusSeconds(1);
+        wheel.onReservationChanged(new ReservationChangedEvent("a1", "o1", ReservationStatus.ACTIVE, past));
+        wheel.onReservationChanged(new ReservationChangedEvent("a2", "o2", ReservationStatus.ACTIVE, past));
+        wheel.onReservationChanged(new ReservationChangedEvent("b1", "o3", ReservationStatus.ACTIVE, past));
+        wheel.onReservationChanged(new ReservationChangedEvent("a2", "o2", ReservationStatus.CONFIRMED, past));
+        assertThat(wheel.size()).isEqualTo(1);
+
+        nextTick();
+        wheel.tick();
+
+        assertThat(expired(1)).containsExactly("a1");
+    }
+
+    @Test
+    void dropsReservationsWhoseLeaseLapsedBeforeTheirTick() throws Exception {
+        ReservationExpiryWheel wheel = wheel(200, 10);
+        wheel.schedule("a1", LocalDateTime.now().minusSeconds(1));
+        wheel.schedule("a2", LocalDateTime.now().minusSeconds(1));
+        // Not renewed in time: another instance may own partition 0 by now
+        when(leases.owns(0)).thenReturn(false);
+
+        nextTick();
+        wheel.tick();
+
+        verify(inventoryService, never()).expireReservations(any());
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void loadsAcquiredPartitionsThenNewReservationsAndDropsLostOnes() {
+        ReservationExpiryWheel wheel = wheel(200, 10);
+        LocalDateTime later = LocalDateTime.now().plusHours(1);
+        when(leases.owned()).thenReturn(Set.of(0));
+        when(leases.prefixes(any())).thenReturn(List.of("a0"));
+        when(reservationRepository.findDeadlines(eq(ReservationStatus.ACTIVE), eq(0L), any(), any()))
+                .thenReturn(List.of(new ReservationDeadline(7L, "a1", later), new ReservationDeadline(9L, "a2", later)));
+
+        when(leases.renew()).thenReturn(new LeaseChange(Set.of(0), Set.of()));
+        wheel.renewLeases();
+        assertThat(wheel.size()).isEqualTo(2);
+
+        // Created by another instance since the last round
+        when(reservationRepository.findDeadlines(eq(ReservationStatus.ACTIVE), eq(9L), any(), any()))
+                .thenReturn(List.of(new ReservationDeadline(12L, "a3", later)));
+        when(leases.renew()).thenReturn(new LeaseChange(Set.of(), Set.of()));
+        wheel.renewLeases();
+        assertThat(wheel.size()).isEqualTo(3);
+        // Each round reads on from the highest id seen
+        wheel.renewLeases();
+        verify(reservationRepository).findDeadlines(eq(ReservationStatus.ACTIVE), eq(12L), any(), any());
+
+        when(leases.renew()).thenReturn(new LeaseChange(Set.of(), Set.of(0)));
+        when(leases.owned()).thenReturn(Set.of());
+        wheel.renewLeases();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void keepsTheWheelWhenTheLeasesCannotBeRenewed() {
+        ReservationExpiryWheel wheel = wheel(200, 10);
+        wheel.schedule("a1", LocalDateTime.now().plusHours(1));
+        when(leases.renew()).thenThrow(new IllegalStateException("Connection refused"));
+
+        wheel.renewLeases();
+
+        assertThat(wheel.size()).isEqualTo(1);
+        verify(reservationRepository, never()).findDeadlines(any(), any(), any(), any());
+    }
+
+    private ReservationExpiryWheel wheel(int batchSize, int maxBatchesPerTick) {
+        return new ReservationExpiryWheel(inventoryService, reservationRepository, leases,
+                new SimpleMeterRegistry(), TICK_MS, 64, batchSize, maxBatchesPerTick);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> expired(int batches) {
+        ArgumentCaptor<List<String>> captor = ArgumentCaptor.forClass(List.class);
+        verify(inventoryService, times(batches)).expireReservations(captor.capture());
+        List<String> expired = new ArrayList<>();
+        captor.getAllValues().forEach(expired::addAll);
+        return expired;
+    }
+
+    private static void nextTick() throws InterruptedException {
+        Thread.sleep(TICK_MS * 3);
+    }
+}
@@ -0,0 +1,99 @@
+package com.ecommerce.inventory.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SkuContentionTrackerTest {
+
+    // A sample moves the rate half way: 0.5, 0.75 contended; then 0.375, 0.1875, ... quiet
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SkuContentionTracker tracker = new SkuContentionTracker(meterRegistry, true, 0.5, 0.6, 0.2);
+
+    @Test
+    void switchesToPessimisticOnlyAboveTheUpperThreshold() {
+        tracker.record(List.of("A"), true);
+        assertThat(tracker.preferOptimistic(List.of("A"))).isTrue();
+
+        tracker.record(List.of("A"), true);
+
+        assertThat(tracker.preferOptimistic(List.of("A"))).isFalse();
+        assertThat(tracker.preferOptimistic(List.of("B"))).isTrue();
+        assertThat(tracker.preferOptimistic(List.of("B", "A"))).isFalse();
+        assertThat(switches("pessimistic")).isEqualTo(1);
+        assertThat(meterRegistry.get("inventory.reservation.contended.skus").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void staysPessimisticBetweenTheThresholds() {
+        contend("A", 2);
+
+        // 0.375: below the upper threshold but not below the lower one
+        tracker.record(List.of("A"), false);
+        assertThat(tracker.preferOptimistic(List.of("A"))).isFalse();
+        // One conflict puts it back to 0.6875 without a second switch
+        tracker.record(List.of("A"), true);
+        assertThat(switches("pessimistic")).isEqualTo(1);
+
+        // 0.34375
+        quiet("A", 1);
+        assertThat(tracker.preferOptimistic(List.of("A"))).isFalse();
+        // 0.171875
+        quiet("A", 1);
+        assertThat(tracker.preferOptimistic(List.of("A"))).isTrue();
+        assertThat(switches("optimistic")).isEqualTo(1);
+    }
+
+    @Test
+    void dropsASkuOnceItIsQuietAndOptimistic() {
+        contend("A", 2);
+        quiet("A", 3);
+        assertThat(tracker.contendedAbove(0)).containsExactly("A");
+
+        // 0.0117 is below a tenth of the lower threshold
+        quiet("A", 3);
+
+        assertThat(tracker.contendedAbove(0)).isEmpty();
+        assertThat(tracker.preferOptimistic(List.of("A"))).isTrue();
+    }
+
+    @Test
+    void onlyTracksSkusThatSawContention() {
+        tracker.record(List.of("A", "B"), false);
+        tracker.record(List.of("C"), true);
+
+        assertThat(tracker.contendedAbove(0)).containsExactly("C");
+        assertThat(tracker.contendedAbove(0.6)).isEmpty();
+        tracker.forget("C");
+        assertThat(tracker.contendedAbove(0)).isEmpty();
+    }
+
+    @Test
+    void alwaysPessimisticWhenDisabled() {
+        SkuContentionTracker disabled = new SkuContentionTracker(new SimpleMeterRegistry(), false, 0.5, 0.6, 0.2);
+
+        disabled.record(List.of("A"), true);
+
+        assertThat(disabled.preferOptimistic(List.of("A"))).isFalse();
+        assertThat(disabled.contendedAbove(0)).isEmpty();
+    }
+
+    private void contend(String sku, int samples) {
+        for (int i = 0; i < samples; i++) {
+            tracker.record(List.of(sku), true);
+        }
+    }
+
+    private void quiet(String sku, int samples) {
+        for (int i = 0; i < samples; i++) {
+            tracker.record(List.of(sku), false);
+        }
+    }
+
+    private double switches(String to) {
+        return meterRegistry.get("inventory.reservation.mode.switches").tag("to", to).counter().count();
+    }
+}
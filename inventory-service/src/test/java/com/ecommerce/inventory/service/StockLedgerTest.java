@@ -0,0 +1,224 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.event.StockChangedEvent;
+import com.ecommerce.inventory.event.StockChangedEvent.StockLevel;
+import com.ecommerce.inventory.model.Inventory;
+import com.ecommerce.inventory.model.Inventory.InventoryStatus;
+import com.ecommerce.inventory.model.ReservationItem;
+import com.ecommerce.inventory.model.StockReservation;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import com.ecommerce.inventory.repository.ReservationRepository;
+import com.ecommerce.inventory.service.InventoryService.ReservationRequest;
+import com.ecommerce.inventory.service.InventoryService.ReservationResponse;
+import com.ecommerce.inventory.service.InventoryService.SyncOutcome;
+import com.ecommerce.inventory.service.StockLedger.StockDelta;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StockLedgerTest {
+
+    private static final int SHARDS = 4;
+
+    private final InventoryRepository inventoryRepository = mock(InventoryRepository.class);
+    private final ReservationRepository reservationRepository = mock(ReservationRepository.class);
+    private final StockLedgerWriter writer = mock(StockLedgerWriter.class);
+    private final Map<String, StockLevel> levels = new ConcurrentHashMap<>();
+    private final AtomicInteger committedReserved = new AtomicInteger();
+    // Sums of the changes carried by published levels
+    private final AtomicInteger publishedOnHand = new AtomicInteger();
+    private final AtomicInteger publishedReserved = new AtomicInteger();
+    private StockLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        when(writer.submit(any(), any())).thenAnswer(call -> {
+            List<StockDelta> deltas = call.getArgument(0);
+            deltas.forEach(delta -> committedReserved.addAndGet(delta.reserved()));
+            return CompletableFuture.completedFuture(null);
+        });
+        ledger = new StockLedger(inventoryRepository, reservationRepository, writer, mock(HotSkuStripes.class),
+                this::onEvent, "ledger", SHARDS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledger.shutdown();
+    }
+
+    @Test
+    void reservesUntilStockRunsOut() {
+        load(inventory("A", 3));
+
+        assertThat(reserve("o1", "A", 2).success()).isTrue();
+        ReservationResponse refused = reserve("o2", "A", 2);
+        assertThat(reserve("o3", "A", 1).success()).isTrue();
+
+        assertThat(refused.success()).isFalse();
+        assertThat(refused.message()).contains("Insufficient stock for SKU: A (available: 1, requested: 2)");
+        assertThat(levels.get("A").reserved()).isEqualTo(3);
+        assertThat(levels.get("A").available()).isZero();
+        assertThat(levels.get("A").status()).isEqualTo(InventoryStatus.OUT_OF_STOCK);
+    }
+
+    @Test
+    void rejectsTheWholeOrderWhenOneShardIsShortAndReturnsTheOthersStock() {
+        String[] skus = onDifferentShards();
+        load(inventory(skus[0], 1), inventory(skus[1], 2));
+
+        ReservationResponse refused = ledger.reserve("o1", List.of(
+                new ReservationRequest(skus[0], 1), new ReservationRequest(skus[1], 5)));
+
+        assertThat(refused.success()).isFalse();
+        // The first SKU's unit was taken on its shard, then given back
+        assertThat(reserve("o2", skus[0], 1).success()).isTrue();
+        assertThat(committedReserved).hasValue(1);
+        assertThat(publishedReserved).hasValue(1);
+    }
+
+    @Test
+    void rejectsUnknownSkus() {
+        load(inventory("A", 3));
+
+        assertThatThrownBy(() -> reserve("o1", "NOPE", 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("SKU not found: NOPE");
+    }
+
+    @Test
+    void neverOversellsAHotSkuUnderConcurrentReservations() throws Exception {
+        load(inventory("HOT", 500));
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            int thread = t;
+            results.add(pool.submit(() -> {
+                int reserved = 0;
+                for (int i = 0; i < 100; i++) {
+                    if (reserve("o-" + thread + "-" + i, "HOT", 1).success()) {
+                        reserved++;
+                    }
+                }
+                return reserved;
+            }));
+        }
+        int reserved = 0;
+        for (Future<Integer> result : results) {
+            reserved += result.get();
+        }
+        pool.shutdown();
+
+        assertThat(reserved).isEqualTo(500);
+        assertThat(committedReserved).hasValue(500);
+        assertThat(levels.get("HOT").available()).isZero();
+    }
+
+    @Test
+    void releaseReturnsStockAndConfirmTakesItOffHand() {
+        load(inventory("A", 10), inventory("B", 10));
+        StockReservation released = reservation("o1", "A", 4);
+        StockReservation confirmed = reservation("o2", "B", 3);
+        reserve("o1", "A", 4);
+        reserve("o2", "B", 3);
+
+        ledger.release(released.getReservationId());
+        ledger.confirm(confirmed.getReservationId());
+
+        assertThat(levels.get("A").onHand()).isEqualTo(10);
+        assertThat(levels.get("A").reserved()).isZero();
+        assertThat(levels.get("B").onHand()).isEqualTo(7);
+        assertThat(levels.get("B").reserved()).isZero();
+        assertThat(publishedOnHand).hasValue(-3);
+        assertThat(publishedReserved).hasValue(0);
+        assertThat(levels.get("B").previousStatus()).isEqualTo(InventoryStatus.IN_STOCK);
+    }
+
+    @Test
+    void adjustsOnHandAbsolutelyOrByADelta() {
+        load(inventory("A", 10));
+
+        ledger.adjustOnHand("A", 4, true);
+        ledger.adjustOnHand("A", 3, false);
+
+        assertThat(levels.get("A").onHand()).isEqualTo(7);
+        assertThatThrownBy(() -> ledger.adjustOnHand("NOPE", 1, false)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void syncsManySkusInOneCommitWithoutGoingBelowReservedStock() {
+        String[] skus = onDifferentShards();
+        load(inventory(skus[0], 10), inventory(skus[1], 10), inventory("C", 5));
+        reserve("o1", skus[0], 6);
+
+        SyncOutcome outcome = ledger.syncOnHand(Map.of(skus[0], 2, skus[1], 20, "C", 5, "NOPE", 1));
+
+        assertThat(outcome).isEqualTo(new SyncOutcome(2, 1, 1, 1));
+        assertThat(levels.get(skus[0]).onHand()).isEqualTo(6);
+        assertThat(levels.get(skus[0]).available()).isZero();
+        assertThat(levels.get(skus[1]).onHand()).isEqualTo(20);
+        // One commit for the reservation, one for the whole sync
+        verify(writer, times(2)).submit(any(), any());
+    }
+
+    private void load(Inventory... inventories) {
+        when(inventoryRepository.findAll()).thenReturn(List.of(inventories));
+        ledger.load();
+    }
+
+    private ReservationResponse reserve(String orderId, String sku, int quantity) {
+        return ledger.reserve(orderId, List.of(new ReservationRequest(sku, quantity)));
+    }
+
+    private StockReservation reservation(String orderId, String sku, int quantity) {
+        StockReservation reservation = new StockReservation(orderId);
+        reservation.addItem(new ReservationItem(sku, quantity));
+        when(reservationRepository.findWithItemsByReservationId(reservation.getReservationId()))
+                .thenReturn(Optional.of(reservation));
+        return reservation;
+    }
+
+    private void onEvent(Object event) {
+        if (event instanceof StockChangedEvent changed) {
+            for (StockLevel level : changed.levels()) {
+                publishedOnHand.addAndGet(level.onHandChange());
+                publishedReserved.addAndGet(level.reservedChange());
+                levels.merge(level.sku(), level, (old, incoming) -> incoming.version() >= old.version() ? incoming : old);
+            }
+        }
+    }
+
+    private static Inventory inventory(String sku, int onHand) {
+        Inventory inventory = new Inventory(sku, onHand);
+        inventory.setReorderPoint(0);
+        return inventory;
+    }
+
+    private static String[] onDifferentShards() {
+        String first = "SKU-0";
+        for (int i = 1; ; i++) {
+            String candidate = "SKU-" + i;
+            if (Math.floorMod(candidate.hashCode(), SHARDS) != Math.floorMod(first.hashCode(), SHARDS)) {
+                return new String[]{first, candidate};
+            }
+        }
+    }
+}
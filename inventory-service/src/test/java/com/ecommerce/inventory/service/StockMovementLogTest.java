@@ -0,0 +1,99 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.model.Inventory;
+import com.ecommerce.inventory.model.SkuSnapshot;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import com.ecommerce.inventory.repository.InventoryRepository.StockSnapshot;
+import com.ecommerce.inventory.repository.SkuSnapshotRepository;
+import com.ecommerce.inventory.repository.StockMovementRepository;
+import com.ecommerce.inventory.repository.StockMovementRepository.SkuTotal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StockMovementLogTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final InventoryRepository inventoryRepository = mock(InventoryRepository.class);
+    private final StockMovementRepository movementRepository = mock(StockMovementRepository.class);
+    private final SkuSnapshotRepository snapshotRepository = mock(SkuSnapshotRepository.class);
+    private final StockMovementLog movementLog = new StockMovementLog(jdbcTemplate, inventoryRepository,
+            movementRepository, snapshotRepository, mock(PlatformTransactionManager.class),
+            new SimpleMeterRegistry(), true);
+
+    @Test
+    void seedsTheStockRowsHoldBeyondTheirMovements() {
+        Inventory predates = inventory("OLD", 50, 5);
+        // Created through the service: its ADJUST movement covers the row
+        Inventory created = inventory("NEW", 10, 0);
+        // Changed once since the log was deployed, on top of 40 units it never logged
+        Inventory changed = inventory("MIXED", 45, 3);
+        Inventory striped = inventory("HOT", 80, 0);
+        striped.setStripes(4);
+        rows(predates, created, changed, striped, inventory("FOLDED", 7, 0));
+        when(snapshotRepository.findBySkuIn(any())).thenReturn(List.of(new SkuSnapshot("FOLDED")));
+        when(inventoryRepository.findAllBySkuInWithLock(Set.of("OLD", "NEW", "MIXED", "HOT")))
+                .thenReturn(List.of(predates, created, changed, striped));
+        when(movementRepository.sumBySkuIn(any())).thenReturn(List.of(
+                new SkuTotal("NEW", 10L, 0L), new SkuTotal("MIXED", 5L, 3L), new SkuTotal("HOT", 0L, 6L)));
+
+        movementLog.seedOpenings();
+
+        assertThat(appended()).containsExactlyInAnyOrder(
+                new Object[]{"OLD", "ADJUST", 50, 5, "opening"},
+                new Object[]{"MIXED", "ADJUST", 40, 0, "opening"});
+    }
+
+    @Test
+    void appendsNothingWhenEverySkuIsCovered() {
+        Inventory created = inventory("NEW", 10, 0);
+        rows(created);
+        when(inventoryRepository.findAllBySkuInWithLock(Set.of("NEW"))).thenReturn(List.of(created));
+        when(movementRepository.sumBySkuIn(any())).thenReturn(List.of(new SkuTotal("NEW", 10L, 0L)));
+
+        movementLog.seedOpenings();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    private void rows(Inventory... inventories) {
+        List<StockSnapshot> page = new ArrayList<>();
+        long id = 1;
+        for (Inventory inventory : inventories) {
+            page.add(new StockSnapshot(id++, inventory.getSku(), inventory.getQuantityOnHand(),
+                    inventory.getQuantityReserved(), inventory.getStatus(), 0L));
+        }
+        when(inventoryRepository.findSnapshots(anyLong(), any())).thenReturn(page);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> appended() {
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), args.capture());
+        return args.getValue().stream()
+                .map(row -> new Object[]{row[0], row[1], row[2], row[3], row[4]})
+                .toList();
+    }
+
+    private static Inventory inventory(String sku, int onHand, int reserved) {
+        Inventory inventory = new Inventory(sku, onHand);
+        inventory.reserve(reserved);
+        return inventory;
+    }
+}
@@ -0,0 +1,115 @@
+package com.ecommerce.inventory.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StockSyncFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void parsesSkuQuantityLinesWithCrlfAndExtraColumns() throws IOException {
+        StockSyncFile file = map("A,1\r\nB,20,warehouse-east\r\n\r\nC,0");
+
+        assertThat(file.size()).isEqualTo(3);
+        assertThat(quantity(file, "A")).isEqualTo(1);
+        assertThat(quantity(file, "B")).isEqualTo(20);
+        assertThat(quantity(file, "C")).isZero();
+        assertThat(quantity(file, "D")).isNull();
+        assertThat(file.invalid()).isZero();
+    }
+
+    @Test
+    void skipsAHeaderAndCommentsWithoutCountingThemInvalid() throws IOException {
+        StockSyncFile file = map("# warehouse snapshot\nsku,quantity\nA,5\n# end\n");
+
+        assertThat(file.size()).isEqualTo(1);
+        assertThat(quantity(file, "A")).isEqualTo(5);
+        assertThat(quantity(file, "sku")).isNull();
+        assertThat(file.invalid()).isZero();
+    }
+
+    @Test
+    void onlyTheFirstLineCanBeAHeader() throws IOException {
+        StockSyncFile file = map("A,5\nsku,quantity\n");
+
+        assertThat(file.size()).isEqualTo(1);
+        assertThat(file.invalid()).isEqualTo(1);
+    }
+
+    @Test
+    void countsInvalidLines() throws IOException {
+        StockSyncFile file = map("A,1\nB,abc\nC,\n,5\nnocomma\nD,-1\nE,2147483648\nF,2147483647\nG, 3\n");
+
+        assertThat(file.size()).isEqualTo(2);
+        assertThat(quantity(file, "F")).isEqualTo(Integer.MAX_VALUE);
+        assertThat(file.invalid()).isEqualTo(7);
+        assertThat(file.lines()).isEqualTo(9);
+    }
+
+    @Test
+    void lastLineOfARepeatedSkuWins() throws IOException {
+        StockSyncFile file = map("A,1\nB,2\nA,3\nA,4\n");
+
+        assertThat(file.size()).isEqualTo(2);
+        assertThat(quantity(file, "A")).isEqualTo(4);
+        assertThat(file.duplicates()).isEqualTo(2);
+    }
+
+    @Test
+    void keepsLinesWholeAcrossWindows() throws IOException {
+        // Windows of 8 bytes: "A,1\n" | "BB,22\n" | "CCC,333\n" ends on the boundary | "A,4\r\nD,5"
+        StockSyncFile file = map("A,1\nBB,22\nCCC,333\nA,4\r\nD,5", 8);
+
+        assertThat(file.size()).isEqualTo(4);
+        assertThat(quantity(file, "A")).isEqualTo(4);
+        assertThat(quantity(file, "BB")).isEqualTo(22);
+        assertThat(quantity(file, "CCC")).isEqualTo(333);
+        assertThat(quantity(file, "D")).isEqualTo(5);
+        assertThat(file.duplicates()).isEqualTo(1);
+        assertThat(file.invalid()).isZero();
+    }
+
+    @Test
+    void aHeaderIsOnlySkippedInTheFirstWindow() throws IOException {
+        StockSyncFile file = map("sku,qty\nA,1\nsku,qty\n", 8);
+
+        assertThat(file.size()).isEqualTo(1);
+        assertThat(file.invalid()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsALineLongerThanAWindow() throws IOException {
+        Path path = write("A,1\nLONG-SKU-NAME,1\n");
+
+        assertThatThrownBy(() -> StockSyncFile.map(path, 8))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Line longer than 8 bytes at offset 4");
+    }
+
+    private StockSyncFile map(String content) throws IOException {
+        return StockSyncFile.map(write(content));
+    }
+
+    private StockSyncFile map(String content, long maxWindow) throws IOException {
+        return StockSyncFile.map(write(content), maxWindow);
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(dir.resolve("stock.csv"), content, StandardCharsets.UTF_8);
+    }
+
+    private static Integer quantity(StockSyncFile file, String sku) {
+        int entry = file.find(sku.getBytes(StandardCharsets.UTF_8));
+        return entry < 0 ? null : file.quantity(entry);
+    }
+}
@@ -0,0 +1,146 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.event.WarehouseStockChangedEvent;
+import com.ecommerce.inventory.model.ShippingRegion;
+import com.ecommerce.inventory.model.Warehouse;
+import com.ecommerce.inventory.repository.ShippingRegionRepository;
+import com.ecommerce.inventory.repository.WarehouseRepository;
+import com.ecommerce.inventory.repository.WarehouseStockRepository;
+import com.ecommerce.inventory.repository.WarehouseStockRepository.WarehouseLevel;
+import com.ecommerce.inventory.service.WarehouseAllocator.Allocation;
+import com.ecommerce.inventory.service.WarehouseAllocator.Pick;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WarehouseAllocatorTest {
+
+    private final WarehouseRepository warehouseRepository = mock(WarehouseRepository.class);
+    private final ShippingRegionRepository regionRepository = mock(ShippingRegionRepository.class);
+    private final WarehouseStockRepository stockRepository = mock(WarehouseStockRepository.class);
+    private final List<WarehouseLevel> levels = new ArrayList<>();
+    private final WarehouseAllocator allocator = new WarehouseAllocator(warehouseRepository, regionRepository,
+            stockRepository, mock(ApplicationEventPublisher.class), new SimpleMeterRegistry(), "jpa", true);
+
+    WarehouseAllocatorTest() {
+        when(warehouseRepository.findAll()).thenReturn(List.of(
+                new Warehouse("EAST", 40.0, -75.0),
+                new Warehouse("CENTRAL", 41.8, -87.6),
+                new Warehouse("WEST", 34.0, -118.2)));
+        when(regionRepository.findAll()).thenReturn(List.of(new ShippingRegion("US-NY", 40.7, -74.0)));
+        when(stockRepository.findLevels(anyLong(), any())).thenAnswer(call -> {
+            long after = call.getArgument(0);
+            return levels.stream().filter(level -> level.id() > after).toList();
+        });
+    }
+
+    @Test
+    void shipsWholeOrdersFromTheNearestWarehouseHoldingEverything() {
+        stock("A", "EAST", 5);
+        stock("A", "CENTRAL", 5);
+        stock("A", "WEST", 5);
+        stock("B", "CENTRAL", 5);
+        stock("B", "WEST", 5);
+        allocator.refresh();
+
+        Allocation allocation = allocator.allocate("US-NY", Map.of("A", 2, "B", 1));
+
+        assertThat(allocation.shipments()).isEqualTo(1);
+        assertThat(allocation.picks()).containsExactlyInAnyOrder(
+                new Pick("A", "CENTRAL", 2), new Pick("B", "CENTRAL", 1));
+    }
+
+    @Test
+    void prefersTheWarehouseShippingMostLinesInFull() {
+        stock("A", "EAST", 5);
+        stock("A", "WEST", 5);
+        stock("B", "WEST", 5);
+        stock("C", "EAST", 5);
+        allocator.refresh();
+
+        Allocation allocation = allocator.allocate("US-NY", Map.of("A", 1, "B", 1, "C", 1));
+
+        assertThat(allocation.shipments()).isEqualTo(2);
+        assertThat(allocation.picks()).containsExactlyInAnyOrder(
+                new Pick("A", "EAST", 1), new Pick("C", "EAST", 1), new Pick("B", "WEST", 1));
+    }
+
+    @Test
+    void splitsLinesNoWarehouseCanShipAloneStartingWithWarehousesAlreadyShipping() {
+        stock("A", "EAST", 3);
+        stock("A", "CENTRAL", 3);
+        stock("A", "WEST", 3);
+        stock("B", "WEST", 5);
+        allocator.refresh();
+
+        Allocation allocation = allocator.allocate("US-NY", Map.of("A", 5, "B", 1));
+
+        assertThat(allocation.shipments()).isEqualTo(2);
+        assertThat(allocation.picks()).containsExactlyInAnyOrder(
+                new Pick("B", "WEST", 1), new Pick("A", "WEST", 3), new Pick("A", "EAST", 2));
+        assertThat(total(allocation)).containsEntry("A", 5).containsEntry("B", 1);
+    }
+
+    @Test
+    void minimizesShipmentsWithoutAKnownRegion() {
+        stock("A", "EAST", 5);
+        stock("B", "EAST", 5);
+        stock("A", "WEST", 5);
+        allocator.refresh();
+
+        Allocation allocation = allocator.allocate("MARS", Map.of("A", 1, "B", 1));
+
+        assertThat(allocation.shipments()).isEqualTo(1);
+        assertThat(allocation.picks()).extracting(Pick::warehouseId).containsOnly("EAST");
+    }
+
+    @Test
+    void reportsShortAndUnknownSkus() {
+        stock("A", "EAST", 2);
+        stock("A", "WEST", 1);
+        allocator.refresh();
+
+        assertThat(allocator.allocate("US-NY", Map.of("A", 4)).insufficient())
+                .isEqualTo("Insufficient stock for SKU: A (available: 3, requested: 4)");
+        assertThat(allocator.allocate("US-NY", Map.of("Z", 1)).insufficient())
+                .isEqualTo("Insufficient stock for SKU: Z (available: 0, requested: 1)");
+    }
+
+    @Test
+    void followsCommittedStockChangesBetweenRefreshes() {
+        stock("A", "EAST", 5);
+        stock("A", "WEST", 5);
+        allocator.refresh();
+
+        allocator.onWarehouseStockChanged(new WarehouseStockChangedEvent(List.of(
+                new WarehouseStockChangedEvent.WarehouseLevel("A", "EAST", 0))));
+
+        assertThat(allocator.allocate("US-NY", Map.of("A", 1)).picks())
+                .containsExactly(new Pick("A", "WEST", 1));
+        assertThat(allocator.isWarehoused("A")).isTrue();
+        levels.clear();
+        allocator.refresh();
+        assertThat(allocator.isWarehoused("A")).isFalse();
+    }
+
+    private void stock(String sku, String warehouseId, int available) {
+        levels.add(new WarehouseLevel((long) levels.size() + 1, sku, warehouseId, available));
+    }
+
+    private static Map<String, Integer> total(Allocation allocation) {
+        Map<String, Integer> total = new TreeMap<>();
+        allocation.picks().forEach(pick -> total.merge(pick.sku(), pick.quantity(), Integer::sum));
+        return total;
+    }
+}
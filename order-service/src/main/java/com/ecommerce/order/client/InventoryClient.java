@@ -13,9 +13,9 @@ import java.util.List;
 @FeignClient(name = "inventory-service", fallback = InventoryClient.InventoryFallback.class)
 public interface InventoryClient {
 
-    @GetMapping("/api/v1/inventory/check")
+    @PostMapping("/api/v1/inventory/check")
     @CircuitBreaker(name = "inventory", fallbackMethod = "checkStockFallback")
-    List<StockResponse> checkStock(@RequestParam List<String> skus);
+    List<StockResponse> checkStock(@RequestBody StockCheckRequest request);
 
     @PostMapping("/api/v1/inventory/reserve")
     @CircuitBreaker(name = "inventory", fallbackMethod = "reserveStockFallback")
@@ -30,9 +30,10 @@ public interface InventoryClient {
     void confirmReservation(@RequestBody ConfirmRequest request);
 
     // DTOs
+    record StockCheckRequest(List<String> skus) {}
     record StockResponse(String sku, int available, boolean inStock) {}
     
-    record ReservationRequest(String orderId, List<ReservationItem> items) {}
+    record ReservationRequest(String orderId, List<ReservationItem> items, String region) {}
     record ReservationItem(String sku, int quantity) {}
     record ReservationResponse(String reservationId, boolean success, String message) {}
     
@@ -45,10 +46,10 @@ public interface InventoryClient {
         private static final Logger log = LoggerFactory.getLogger(InventoryFallback.class);
 
         @Override
-        public List<StockResponse> checkStock(List<String> skus) {
-            log.warn("Fallback: checkStock called for SKUs: {}", skus);
+        public List<StockResponse> checkStock(StockCheckRequest request) {
+            log.warn("Fallback: checkStock called for SKUs: {}", request.skus());
             // Return optimistic response - assume in stock
-            return skus.stream()
+            return request.skus().stream()
                     .map(sku -> new StockResponse(sku, 100, true))
                     .toList();
         }
@@ -3,6 +3,7 @@ package com.ecommerce.order.controller;
 import com.ecommerce.order.model.Order;
 import com.ecommerce.order.model.Order.OrderStatus;
 import com.ecommerce.order.model.Order.PaymentStatus;
+import com.ecommerce.order.service.CursorPage;
 import com.ecommerce.order.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -44,6 +45,17 @@ public class OrderController {
         return ResponseEntity.ok(orderService.findAll(pageable));
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Scroll all orders", description = "Keyset-paginated list of orders, newest first")
+    public ResponseEntity<CursorPage<Order>> scrollOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        log.info("GET /api/v1/orders/scroll - size={}", size);
+        return ResponseEntity.ok(orderService.scrollAll(cursor, size, includeTotal));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get order by ID")
     public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
@@ -86,6 +98,18 @@ public class OrderController {
         return ResponseEntity.ok(orderService.findByStatus(status, pageable));
     }
 
+    @GetMapping("/status/{status}/scroll")
+    @Operation(summary = "Scroll orders by status", description = "Keyset-paginated, newest first")
+    public ResponseEntity<CursorPage<Order>> scrollOrdersByStatus(
+            @PathVariable OrderStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        log.info("GET /api/v1/orders/status/{}/scroll", status);
+        return ResponseEntity.ok(orderService.scrollByStatus(status, cursor, size, includeTotal));
+    }
+
     @PostMapping
     @Operation(summary = "Create a new order")
     public ResponseEntity<Order> createOrder(@Valid @RequestBody Order order) {
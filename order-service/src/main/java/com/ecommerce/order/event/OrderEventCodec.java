@@ -0,0 +1,226 @@
+package com.ecommerce.order.event;
+
+import com.ecommerce.order.service.OrderService.OrderEvent;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Compact binary encoding of {@link OrderEvent}.
+ *
+ * <pre>
+ * magic(1) version(1) type(1)[literal type] flags(1)
+ * [orderNumber] [customerId: zigzag varlong] [status(1)[literal status]] [total]
+ * </pre>
+ *
+ * Strings are varint length + UTF-8, decimals are zigzag varlong unscaled value + zigzag
+ * varint scale. Well-known event types and statuses are a one-byte code; anything else is
+ * written as a literal string after a zero code. The magic byte can never start a JSON
+ * document, so consumers can accept both formats on the same topic.
+ */
+public final class OrderEventCodec {
+
+    public static final byte MAGIC = (byte) 0xB8;
+    static final byte VERSION = 1;
+
+    private static final String[] EVENT_TYPES = {
+            "ORDER_CREATED", "ORDER_STATUS_CHANGED", "ORDER_CANCELLED",
+            "PAYMENT_PENDING", "PAYMENT_PAID", "PAYMENT_FAILED", "PAYMENT_REFUNDED"
+    };
+
+    private static final String[] STATUSES = {
+            "PENDING", "CONFIRMED", "PROCESSING", "SHIPPED", "DELIVERED", "CANCELLED", "REFUNDED"
+    };
+
+    private static final int ORDER_NUMBER = 1;
+    private static final int CUSTOMER_ID = 1 << 1;
+    private static final int STATUS = 1 << 2;
+    private static final int TOTAL = 1 << 3;
+
+    private OrderEventCodec() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == MAGIC;
+    }
+
+    /**
+     * @throws ArithmeticException if the total does not fit the binary layout
+     */
+    public static byte[] encode(OrderEvent event) {
+        Writer out = new Writer(48);
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        writeCode(out, EVENT_TYPES, event.eventType());
+
+        int flags = (event.orderNumber() != null ? ORDER_NUMBER : 0)
+                | (event.customerId() != null ? CUSTOMER_ID : 0)
+                | (event.status() != null ? STATUS : 0)
+                | (event.total() != null ? TOTAL : 0);
+        out.writeByte(flags);
+        if (event.orderNumber() != null) {
+            out.writeString(event.orderNumber());
+        }
+        if (event.customerId() != null) {
+            out.writeZigZagLong(event.customerId());
+        }
+        if (event.status() != null) {
+            writeCode(out, STATUSES, event.status());
+        }
+        if (event.total() != null) {
+            out.writeDecimal(event.total());
+        }
+        return out.toByteArray();
+    }
+
+    public static OrderEvent decode(byte[] data) {
+        Reader in = new Reader(data);
+        if (in.readByte() != (MAGIC & 0xFF)) {
+            throw new SerializationException("Not a binary order event");
+        }
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new SerializationException("Unsupported order event version: " + version);
+        }
+
+        String eventType = readCode(in, EVENT_TYPES);
+        int flags = in.readByte();
+        String orderNumber = (flags & ORDER_NUMBER) != 0 ? in.readString() : null;
+        Long customerId = (flags & CUSTOMER_ID) != 0 ? in.readZigZagLong() : null;
+        String status = (flags & STATUS) != 0 ? readCode(in, STATUSES) : null;
+        BigDecimal total = (flags & TOTAL) != 0 ? in.readDecimal() : null;
+        return new OrderEvent(eventType, orderNumber, customerId, status, total);
+    }
+
+    private static void writeCode(Writer out, String[] known, String value) {
+        for (int i = 0; i < known.length; i++) {
+            if (known[i].equals(value)) {
+                out.writeByte(i + 1);
+                return;
+            }
+        }
+        out.writeByte(0);
+        out.writeString(value != null ? value : "");
+    }
+
+    private static String readCode(Reader in, String[] known) {
+        int code = in.readByte();
+        if (code == 0) {
+            String value = in.readString();
+            return value.isEmpty() ? null : value;
+        }
+        if (code > known.length) {
+            throw new SerializationException("Unknown order event code: " + code);
+        }
+        return known[code - 1];
+    }
+
+    private static final class Writer {
+        private byte[] buffer;
+        private int position;
+
+        Writer(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeZigZagLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeDecimal(BigDecimal value) {
+            BigInteger unscaled = value.unscaledValue();
+            if (unscaled.bitLength() > 63) {
+                throw new ArithmeticException("Decimal out of range for binary encoding: " + value);
+            }
+            writeZigZagLong(unscaled.longValue());
+            writeZigZagLong(value.scale());
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        int readByte() {
+            require(1);
+            return buffer[position++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint in order event");
+        }
+
+        long readZigZagLong() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String readString() {
+            long length = readVarLong();
+            if (length < 0 || length > buffer.length - position) {
+                throw new SerializationException("Truncated string in order event");
+            }
+            String value = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return value;
+        }
+
+        BigDecimal readDecimal() {
+            long unscaled = readZigZagLong();
+            return BigDecimal.valueOf(unscaled, (int) readZigZagLong());
+        }
+
+        private void require(int bytes) {
+            if (position + bytes > buffer.length) {
+                throw new SerializationException("Truncated order event");
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.ecommerce.order.event;
+
+import com.ecommerce.order.service.OrderService.OrderEvent;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Value serializer for order-events. {@link OrderEvent}s are written with
+ * {@link OrderEventCodec} when the producer property {@value #FORMAT_CONFIG} is
+ * {@code binary}; everything else, and events the binary layout cannot represent, is JSON.
+ */
+public class OrderEventSerializer implements Serializer<Object> {
+
+    public static final String FORMAT_CONFIG = "order.events.format";
+
+    private static final Logger log = LoggerFactory.getLogger(OrderEventSerializer.class);
+
+    private final JsonSerializer<Object> json = new JsonSerializer<>();
+    private boolean binary;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object format = configs.get(FORMAT_CONFIG);
+        this.binary = format != null && "binary".equals(format.toString().toLowerCase(Locale.ROOT));
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (binary && data instanceof OrderEvent event) {
+            try {
+                return OrderEventCodec.encode(event);
+            } catch (ArithmeticException e) {
+                log.debug("Falling back to JSON for order {}: {}", event.orderNumber(), e.getMessage());
+            }
+        }
+        return headers != null ? json.serialize(topic, headers, data) : json.serialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -12,7 +12,9 @@ import java.util.UUID;
 @Table(name = "orders", indexes = {
     @Index(name = "idx_order_number", columnList = "orderNumber", unique = true),
     @Index(name = "idx_order_status", columnList = "status"),
-    @Index(name = "idx_order_customer", columnList = "customerId")
+    @Index(name = "idx_order_customer", columnList = "customerId"),
+    @Index(name = "idx_order_created", columnList = "createdAt, id"),
+    @Index(name = "idx_order_status_created", columnList = "status, createdAt, id")
 })
 public class Order {
 
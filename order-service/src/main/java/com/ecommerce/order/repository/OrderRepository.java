@@ -47,5 +47,27 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
            "FROM Order o WHERE o.createdAt >= :since GROUP BY CAST(o.createdAt AS LocalDate) ORDER BY CAST(o.createdAt AS LocalDate)")
     List<DailyStats> getDailyStats(@Param("since") LocalDateTime since);
 
+    // Keyset (seek) listings: callers pass PageRequest.of(0, limit) so no OFFSET or COUNT is issued
+
+    List<Order> findAllByOrderByCreatedAtDescIdDesc(Pageable pageable);
+
+    @Query("SELECT o FROM Order o WHERE o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findAllAfter(
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    List<Order> findByStatusOrderByCreatedAtDescIdDesc(OrderStatus status, Pageable pageable);
+
+    @Query("SELECT o FROM Order o WHERE o.status = :status " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findByStatusAfter(
+            @Param("status") OrderStatus status,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
     record DailyStats(java.time.LocalDate date, Long orderCount, BigDecimal revenue) {}
 }
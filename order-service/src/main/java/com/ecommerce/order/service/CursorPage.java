@@ -0,0 +1,96 @@
+package com.ecommerce.order.service;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset (seek) listing. {@code nextCursor} is an opaque token encoding the
+ * (sort key, id) of the last item; passing it back continues after that item without an OFFSET.
+ * {@code total} is only populated when explicitly requested. Page sizes run from 1 to
+ * {@link #MAX_SIZE}.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor, boolean hasNext, Long total) {
+
+    public static final int MAX_SIZE = 200;
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * First {@code size} + 1 rows, the extra one telling whether there is a next page.
+     */
+    public static Pageable limit(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new InvalidSizeException(size);
+        }
+        return PageRequest.of(0, size + 1);
+    }
+
+    public static <T> CursorPage<T> of(List<T> fetched, int size, Cursor.Extractor<T> extractor, Long total) {
+        boolean hasNext = fetched.size() > size;
+        List<T> items = hasNext ? fetched.subList(0, size) : fetched;
+        String next = hasNext ? extractor.cursorOf(items.get(items.size() - 1)).encode() : null;
+        return new CursorPage<>(items, next, hasNext, total);
+    }
+
+    public record Cursor(String sortKey, long id) {
+
+        public String encode() {
+            String raw = sortKey + SEPARATOR + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int split = raw.lastIndexOf(SEPARATOR);
+                return new Cursor(raw.substring(0, split), Long.parseLong(raw.substring(split + 1)));
+            } catch (RuntimeException e) {
+                throw new InvalidCursorException(token, e);
+            }
+        }
+
+        /**
+         * Decodes a token and parses its sort key, so a tampered key is rejected like any
+         * other malformed cursor.
+         */
+        public static <K> Position<K> decode(String token, Function<String, K> sortKeyParser) {
+            Cursor cursor = decode(token);
+            try {
+                return new Position<>(sortKeyParser.apply(cursor.sortKey()), cursor.id());
+            } catch (RuntimeException e) {
+                throw new InvalidCursorException(token, e);
+            }
+        }
+
+        @FunctionalInterface
+        public interface Extractor<T> {
+            Cursor cursorOf(T item);
+        }
+    }
+
+    /**
+     * A decoded cursor with its sort key parsed.
+     */
+    public record Position<K>(K sortKey, long id) {}
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public static class InvalidCursorException extends IllegalArgumentException {
+        InvalidCursorException(String token, Throwable cause) {
+            super("Invalid cursor: " + token, cause);
+        }
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public static class InvalidSizeException extends IllegalArgumentException {
+        InvalidSizeException(int size) {
+            super("Page size must be between 1 and " + MAX_SIZE + ": " + size);
+        }
+    }
+}
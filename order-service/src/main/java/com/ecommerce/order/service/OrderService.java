@@ -5,6 +5,7 @@ import com.ecommerce.order.model.Order;
 import com.ecommerce.order.model.Order.OrderStatus;
 import com.ecommerce.order.model.Order.PaymentStatus;
 import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.ShippingAddress;
 import com.ecommerce.order.repository.OrderRepository;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -83,6 +84,38 @@ public class OrderService {
         return orderRepository.findAll(pageable);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<Order> scrollAll(String cursor, int size, boolean includeTotal) {
+        Pageable limit = CursorPage.limit(size);
+        List<Order> fetched;
+        if (cursor == null) {
+            fetched = orderRepository.findAllByOrderByCreatedAtDescIdDesc(limit);
+        } else {
+            CursorPage.Position<LocalDateTime> after = CursorPage.Cursor.decode(cursor, LocalDateTime::parse);
+            fetched = orderRepository.findAllAfter(after.sortKey(), after.id(), limit);
+        }
+        return CursorPage.of(fetched, size, OrderService::createdAtCursor,
+                includeTotal ? orderRepository.count() : null);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Order> scrollByStatus(OrderStatus status, String cursor, int size, boolean includeTotal) {
+        Pageable limit = CursorPage.limit(size);
+        List<Order> fetched;
+        if (cursor == null) {
+            fetched = orderRepository.findByStatusOrderByCreatedAtDescIdDesc(status, limit);
+        } else {
+            CursorPage.Position<LocalDateTime> after = CursorPage.Cursor.decode(cursor, LocalDateTime::parse);
+            fetched = orderRepository.findByStatusAfter(status, after.sortKey(), after.id(), limit);
+        }
+        return CursorPage.of(fetched, size, OrderService::createdAtCursor,
+                includeTotal ? orderRepository.countByStatus(status) : null);
+    }
+
+    private static CursorPage.Cursor createdAtCursor(Order order) {
+        return new CursorPage.Cursor(order.getCreatedAt().toString(), order.getId());
+    }
+
     public Order createOrder(Order order) {
         return orderProcessingTimer.record(() -> {
             log.info("Creating order for customer: {}", order.getCustomerId());
@@ -92,7 +125,7 @@ public class OrderService {
                     .map(OrderItem::getProductSku)
                     .toList();
 
-            List<InventoryClient.StockResponse> stockResponses = inventoryClient.checkStock(skus);
+            List<InventoryClient.StockResponse> stockResponses = inventoryClient.checkStock(new InventoryClient.StockCheckRequest(skus));
 
             // Validate stock
             for (OrderItem item : order.getItems()) {
@@ -112,8 +145,13 @@ public class OrderService {
                     .map(item -> new InventoryClient.ReservationItem(item.getProductSku(), item.getQuantity()))
                     .toList();
 
+            // Region of the shipping address, e.g. US-CA: stock kept per warehouse ships from the nearest
+            ShippingAddress address = order.getShippingAddress();
+            String region = address != null && address.getCountry() != null
+                    ? address.getState() != null ? address.getCountry() + "-" + address.getState() : address.getCountry()
+                    : null;
             InventoryClient.ReservationResponse reservation = inventoryClient.reserveStock(
-                    new InventoryClient.ReservationRequest(order.getOrderNumber(), reservationItems)
+                    new InventoryClient.ReservationRequest(order.getOrderNumber(), reservationItems, region)
             );
 
             if (!reservation.success()) {
@@ -151,8 +189,7 @@ public class OrderService {
             case CANCELLED -> {
                 order.setCancelledAt(LocalDateTime.now());
                 ordersCancelledCounter.increment();
-                // Release inventory
-                // inventoryClient.releaseStock(...)
+                // inventory-service releases the reservation on ORDER_STATUS_CHANGED (CANCELLED)
             }
         }
 
@@ -196,8 +233,7 @@ public class OrderService {
         order.setCancelledAt(LocalDateTime.now());
         order.setNotes(reason);
 
-        // Release inventory reservation
-        // inventoryClient.releaseStock(...)
+        // inventory-service releases the reservation on ORDER_CANCELLED
 
         Order saved = orderRepository.save(order);
         ordersCancelledCounter.increment();
@@ -0,0 +1,103 @@
+package com.ecommerce.order.benchmark;
+
+import com.ecommerce.order.event.OrderEventCodec;
+import com.ecommerce.order.event.OrderEventSerializer;
+import com.ecommerce.order.service.OrderService.OrderEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes and time per order event through {@link OrderEventSerializer} in each wire format:
+ * {@link OrderEventCodec} binary against the {@code JsonSerializer} path, read back with the
+ * codec and with {@code JsonDeserializer} as inventory-service does. The event mix follows an
+ * order's life: created, status changes and payment events. Every event is round-tripped and
+ * checked in both formats first. Skipped unless {@code ORDER_BENCHMARKS=true}.
+ *
+ * <pre>
+ * ORDER_BENCHMARKS=true gradle :order-service:test --tests '*OrderEventCodecBenchmark' -i
+ * </pre>
+ */
+@EnabledIfEnvironmentVariable(named = "ORDER_BENCHMARKS", matches = "true")
+class OrderEventCodecBenchmark {
+
+    private static final String TOPIC = "order-events";
+    private static final int EVENTS = 1000;
+    private static final long ROUND_NANOS = 2_000_000_000L;
+
+    @Test
+    void binaryAgainstJson() {
+        List<OrderEvent> events = events();
+        JsonDeserializer<OrderEvent> json = new JsonDeserializer<>(OrderEvent.class, false);
+        run("json", events, json::deserialize);
+        run("binary", events, (topic, data) -> OrderEventCodec.decode(data));
+        json.close();
+    }
+
+    private static void run(String format, List<OrderEvent> events, Decoder decoder) {
+        OrderEventSerializer serializer = new OrderEventSerializer();
+        serializer.configure(Map.of(OrderEventSerializer.FORMAT_CONFIG, format), false);
+
+        long bytes = 0;
+        List<byte[]> encoded = new ArrayList<>(EVENTS);
+        for (OrderEvent event : events) {
+            byte[] data = serializer.serialize(TOPIC, event);
+            assertThat(decoder.decode(TOPIC, data)).isEqualTo(event);
+            bytes += data.length;
+            encoded.add(data);
+        }
+        double encodeNanos = measure(i -> serializer.serialize(TOPIC, events.get(i % EVENTS)).length);
+        double decodeNanos = measure(i -> decoder.decode(TOPIC, encoded.get(i % EVENTS)).orderNumber().length());
+        System.out.printf("%s: %.1f bytes/event, encode %.0f ns/event, decode %.0f ns/event%n",
+                format, bytes / (double) EVENTS, encodeNanos, decodeNanos);
+        serializer.close();
+    }
+
+    private static double measure(Function<Integer, Integer> operation) {
+        long sink = 0;
+        // Warm-up
+        for (int i = 0; i < 100 * EVENTS; i++) {
+            sink += operation.apply(i);
+        }
+        long start = System.nanoTime();
+        int runs = 0;
+        while (System.nanoTime() - start < ROUND_NANOS) {
+            for (int i = 0; i < EVENTS; i++) {
+                sink += operation.apply(runs++);
+            }
+        }
+        double nanos = (System.nanoTime() - start) / (double) runs;
+        assertThat(sink).isPositive();
+        return nanos;
+    }
+
+    private static List<OrderEvent> events() {
+        Random random = new Random(1);
+        String[][] lifecycle = {
+                {"ORDER_CREATED", "PENDING"}, {"PAYMENT_PAID", "CONFIRMED"},
+                {"ORDER_STATUS_CHANGED", "SHIPPED"}, {"ORDER_STATUS_CHANGED", "DELIVERED"},
+                {"ORDER_CANCELLED", "CANCELLED"}
+        };
+        List<OrderEvent> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            String[] step = lifecycle[i % lifecycle.length];
+            events.add(new OrderEvent(step[0], String.format("ORD-%08X", random.nextInt()),
+                    (long) 1 + random.nextInt(100_000), step[1], BigDecimal.valueOf(500 + random.nextInt(500_000), 2)));
+        }
+        return events;
+    }
+
+    @FunctionalInterface
+    private interface Decoder {
+        OrderEvent decode(String topic, byte[] data);
+    }
+}
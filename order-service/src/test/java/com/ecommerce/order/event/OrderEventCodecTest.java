@@ -0,0 +1,69 @@
+package com.ecommerce.order.event;
+
+import com.ecommerce.order.service.OrderService.OrderEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderEventCodecTest {
+
+    // Also decoded by inventory-service's OrderEventCodecTest, which keeps the two copies in step
+    static final String ORDER_CREATED_HEX = "b801010f054f52442d3154019e1f04";
+
+    @Test
+    void roundTripsEveryField() {
+        OrderEvent event = new OrderEvent("PAYMENT_REFUNDED", "ORD-ünï", -7L, "REFUNDED", new BigDecimal("-12.345"));
+
+        assertThat(roundTrip(event)).isEqualTo(event);
+    }
+
+    @Test
+    void encodesTheSharedLayout() {
+        OrderEvent event = new OrderEvent("ORDER_CREATED", "ORD-1", 42L, "PENDING", new BigDecimal("19.99"));
+
+        assertThat(HexFormat.of().formatHex(OrderEventCodec.encode(event))).isEqualTo(ORDER_CREATED_HEX);
+    }
+
+    @Test
+    void roundTripsNulls() {
+        OrderEvent event = new OrderEvent(null, null, null, null, null);
+
+        assertThat(roundTrip(event)).isEqualTo(event);
+    }
+
+    @Test
+    void writesUnknownTypesAndStatusesLiterally() {
+        OrderEvent event = new OrderEvent("ORDER_SPLIT", "ORD-2", 1L, "ON_HOLD", BigDecimal.ZERO);
+
+        assertThat(roundTrip(event)).isEqualTo(event);
+    }
+
+    @Test
+    void rejectsUnknownCodes() {
+        byte[] type = HexFormat.of().parseHex(ORDER_CREATED_HEX);
+        type[2] = 99;
+        byte[] status = HexFormat.of().parseHex(ORDER_CREATED_HEX);
+        status[11] = 99;
+
+        assertThatThrownBy(() -> OrderEventCodec.decode(type)).isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> OrderEventCodec.decode(status)).isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void rejectsTotalsTheLayoutCannotHold() {
+        OrderEvent event = new OrderEvent("ORDER_CREATED", "ORD-3", 1L, "PENDING", new BigDecimal("1e30").setScale(2));
+
+        assertThatThrownBy(() -> OrderEventCodec.encode(event)).isInstanceOf(ArithmeticException.class);
+    }
+
+    private static OrderEvent roundTrip(OrderEvent event) {
+        byte[] data = OrderEventCodec.encode(event);
+        assertThat(OrderEventCodec.isBinary(data)).isTrue();
+        return OrderEventCodec.decode(data);
+    }
+}
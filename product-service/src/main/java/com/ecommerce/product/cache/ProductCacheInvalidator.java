@@ -0,0 +1,59 @@
+package com.ecommerce.product.cache;
+
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.event.ProductEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Per-key invalidation of the "products" cache. Local writes evict both tiers once the
+ * transaction commits; product-events seen by {@link com.ecommerce.product.event.ProductEventListener}
+ * drop the affected keys from this instance's L1.
+ */
+@Component
+public class ProductCacheInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCacheInvalidator.class);
+    public static final String CACHE_NAME = "products";
+
+    private final CacheManager cacheManager;
+
+    public ProductCacheInvalidator(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public static String skuKey(String sku) {
+        return "sku-" + sku;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (event.before() != null) {
+            cache.evict(event.before().id());
+            cache.evict(skuKey(event.before().sku()));
+        }
+        if (event.after() != null) {
+            cache.evict(event.after().id());
+            cache.evict(skuKey(event.after().sku()));
+        }
+    }
+
+    /**
+     * Drops the L1 entries of a product changed on any instance.
+     */
+    public void evictLocal(ProductEvent event) {
+        if (event.getPayload() == null || !(cacheManager.getCache(CACHE_NAME) instanceof TwoLevelCache cache)) {
+            return;
+        }
+        log.debug("Invalidating local cache for product: {}", event.getPayload().getSku());
+        if (event.getPayload().getProductId() != null) {
+            cache.evictLocal(event.getPayload().getProductId());
+        }
+        cache.evictLocal(skuKey(event.getPayload().getSku()));
+    }
+}
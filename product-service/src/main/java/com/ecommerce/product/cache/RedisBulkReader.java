@@ -0,0 +1,71 @@
+package com.ecommerce.product.cache;
+
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Issues a single MGET for keys laid out the way {@link org.springframework.data.redis.cache.RedisCache}
+ * writes them (configured prefix plus the key's string form), decoding values with the same serializer.
+ */
+public class RedisBulkReader implements RemoteBulkReader {
+
+    private final RedisConnectionFactory connectionFactory;
+    private final RedisCacheConfiguration cacheConfiguration;
+
+    public RedisBulkReader(RedisConnectionFactory connectionFactory, RedisCacheConfiguration cacheConfiguration) {
+        this.connectionFactory = connectionFactory;
+        this.cacheConfiguration = cacheConfiguration;
+    }
+
+    @Override
+    public Map<Object, ValueWrapper> getAll(String cacheName, Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        List<Object> orderedKeys = new ArrayList<>(keys);
+        byte[][] rawKeys = new byte[orderedKeys.size()][];
+        String prefix = cacheConfiguration.getKeyPrefixFor(cacheName);
+        for (int i = 0; i < orderedKeys.size(); i++) {
+            rawKeys[i] = toBytes(cacheConfiguration.getKeySerializationPair(), prefix + orderedKeys.get(i));
+        }
+
+        List<byte[]> rawValues;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            rawValues = connection.stringCommands().mGet(rawKeys);
+        }
+
+        Map<Object, ValueWrapper> found = new HashMap<>();
+        if (rawValues == null) {
+            return found;
+        }
+        SerializationPair<Object> valuePair = cacheConfiguration.getValueSerializationPair();
+        for (int i = 0; i < rawValues.size(); i++) {
+            byte[] raw = rawValues.get(i);
+            if (raw == null) {
+                continue;
+            }
+            Object value = valuePair.read(ByteBuffer.wrap(raw));
+            found.put(orderedKeys.get(i), new SimpleValueWrapper(value instanceof NullValue ? null : value));
+        }
+        return found;
+    }
+
+    private static byte[] toBytes(SerializationPair<String> pair, String value) {
+        ByteBuffer buffer = pair.write(value);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
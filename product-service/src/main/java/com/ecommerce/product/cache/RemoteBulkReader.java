@@ -0,0 +1,15 @@
+package com.ecommerce.product.cache;
+
+import org.springframework.cache.Cache.ValueWrapper;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Reads many keys of a remote cache in one round trip. Keys missing from the result were not cached.
+ */
+@FunctionalInterface
+public interface RemoteBulkReader {
+
+    Map<Object, ValueWrapper> getAll(String cacheName, Collection<?> keys);
+}
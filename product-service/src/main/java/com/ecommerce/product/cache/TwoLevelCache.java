@@ -0,0 +1,169 @@
+package com.ecommerce.product.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Cache that reads through a bounded in-process L1 before falling back to the shared L2.
+ * Writes and evictions go to both tiers; {@link #evictLocal(Object)} drops only the L1 copy
+ * and is used when another instance reports a change.
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final Cache local;
+    private final Cache remote;
+    private final RemoteBulkReader remoteBulkReader;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+    private final Counter remoteEvictions;
+
+    public TwoLevelCache(String name, Cache local, Cache remote, RemoteBulkReader remoteBulkReader,
+                         MeterRegistry meterRegistry) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.remoteBulkReader = remoteBulkReader;
+
+        this.remoteHits = Counter.builder("cache.gets")
+                .tags("cache", name, "tier", "l2", "result", "hit")
+                .description("L2 cache lookups")
+                .register(meterRegistry);
+        this.remoteMisses = Counter.builder("cache.gets")
+                .tags("cache", name, "tier", "l2", "result", "miss")
+                .description("L2 cache lookups")
+                .register(meterRegistry);
+        this.remoteEvictions = Counter.builder("cache.evictions")
+                .tags("cache", name, "tier", "l2")
+                .description("L2 cache evictions")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = local.get(key);
+        if (value != null) {
+            return value;
+        }
+
+        value = remote.get(key);
+        if (value == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        local.put(key, value.get());
+        return value;
+    }
+
+    public ValueWrapper getLocal(Object key) {
+        return local.get(key);
+    }
+
+    /**
+     * Looks up many keys at once: L1 first, then a single bulk read of the L2 for the rest.
+     * Keys absent from the returned map are not cached in either tier.
+     */
+    public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+        Map<Object, ValueWrapper> found = new HashMap<>();
+        List<Object> missing = new ArrayList<>();
+        for (Object key : keys) {
+            ValueWrapper value = local.get(key);
+            if (value != null) {
+                found.put(key, value);
+            } else {
+                missing.add(key);
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        Map<Object, ValueWrapper> remoteValues = remoteBulkReader.getAll(name, missing);
+        remoteHits.increment(remoteValues.size());
+        remoteMisses.increment(missing.size() - remoteValues.size());
+        remoteValues.forEach((key, value) -> local.put(key, value.get()));
+        found.putAll(remoteValues);
+        return found;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        if (value == null) {
+            return null;
+        }
+        Object stored = value.get();
+        if (stored != null && type != null && !type.isInstance(stored)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + stored);
+        }
+        return (T) stored;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper value = get(key);
+        if (value != null) {
+            return (T) value.get();
+        }
+        try {
+            T loaded = valueLoader.call();
+            put(key, loaded);
+            return loaded;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        Object effective = existing != null ? existing.get() : value;
+        local.put(key, effective);
+        return existing != null ? new SimpleValueWrapper(effective) : null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        remoteEvictions.increment();
+        local.evict(key);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.clear();
+    }
+
+    public void evictLocal(Object key) {
+        local.evict(key);
+    }
+}
@@ -0,0 +1,65 @@
+package com.ecommerce.product.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Builds a {@link TwoLevelCache} per cache name: a Caffeine L1 sized and expired per instance,
+ * in front of whatever the remote manager (Redis) returns for the same name.
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final CacheManager remoteCacheManager;
+    private final RemoteBulkReader remoteBulkReader;
+    private final MeterRegistry meterRegistry;
+    private final long localMaximumSize;
+    private final Duration localTimeToLive;
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager,
+                                RemoteBulkReader remoteBulkReader,
+                                MeterRegistry meterRegistry,
+                                long localMaximumSize,
+                                Duration localTimeToLive) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.remoteBulkReader = remoteBulkReader;
+        this.meterRegistry = meterRegistry;
+        this.localMaximumSize = localMaximumSize;
+        this.localTimeToLive = localTimeToLive;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    private TwoLevelCache createCache(String name) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeLocal = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localTimeToLive)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, nativeLocal, name, "tier", "l1");
+
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            throw new IllegalStateException("No remote cache available for: " + name);
+        }
+        return new TwoLevelCache(name, new CaffeineCache(name, nativeLocal), remote, remoteBulkReader, meterRegistry);
+    }
+}
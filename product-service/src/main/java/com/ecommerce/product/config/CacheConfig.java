@@ -0,0 +1,42 @@
+package com.ecommerce.product.config;
+
+import com.ecommerce.product.cache.RedisBulkReader;
+import com.ecommerce.product.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     CacheProperties cacheProperties,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${products.cache.local.maximum-size:10000}") long localMaximumSize,
+                                     @Value("${products.cache.local.time-to-live:60s}") Duration localTimeToLive) {
+        RedisCacheConfiguration redisConfig = RedisCacheConfiguration.defaultCacheConfig();
+        Duration redisTtl = cacheProperties.getRedis().getTimeToLive();
+        if (redisTtl != null) {
+            redisConfig = redisConfig.entryTtl(redisTtl);
+        }
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(redisConfig)
+                .build();
+        redisCacheManager.afterPropertiesSet();
+
+        return new TwoLevelCacheManager(redisCacheManager, new RedisBulkReader(connectionFactory, redisConfig),
+                meterRegistry, localMaximumSize, localTimeToLive);
+    }
+}
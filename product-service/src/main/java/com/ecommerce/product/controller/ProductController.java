@@ -2,10 +2,16 @@ package com.ecommerce.product.controller;
 
 import com.ecommerce.product.model.Product;
 import com.ecommerce.product.model.Product.ProductStatus;
+import com.ecommerce.product.service.CursorPage;
+import com.ecommerce.product.service.ProductFacets;
+import com.ecommerce.product.service.ProductImportService;
+import com.ecommerce.product.service.ProductPriceIndex;
 import com.ecommerce.product.service.ProductService;
+import com.ecommerce.product.service.ProductSummary;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,9 +20,11 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -28,14 +36,16 @@ public class ProductController {
 
     private static final Logger log = LoggerFactory.getLogger(ProductController.class);
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductImportService productImportService) {
         this.productService = productService;
+        this.productImportService = productImportService;
     }
 
     @GetMapping
     @Operation(summary = "Get all products", description = "Retrieve paginated list of products")
-    public ResponseEntity<Page<Product>> getAllProducts(
+    public ResponseEntity<Page<ProductSummary>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
@@ -47,6 +57,17 @@ public class ProductController {
         return ResponseEntity.ok(productService.findAll(pageable));
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Scroll all products", description = "Keyset-paginated list of products, newest first")
+    public ResponseEntity<CursorPage<Product>> scrollProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        log.info("GET /api/v1/products/scroll - size={}", size);
+        return ResponseEntity.ok(productService.scrollAll(cursor, size, includeTotal));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get product by ID")
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
@@ -67,7 +88,7 @@ public class ProductController {
 
     @GetMapping("/search")
     @Operation(summary = "Search products", description = "Search products by keyword")
-    public ResponseEntity<Page<Product>> searchProducts(
+    public ResponseEntity<Page<ProductSummary>> searchProducts(
             @RequestParam String q,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
@@ -79,7 +100,7 @@ public class ProductController {
 
     @GetMapping("/category/{category}")
     @Operation(summary = "Get products by category")
-    public ResponseEntity<Page<Product>> getProductsByCategory(
+    public ResponseEntity<Page<ProductSummary>> getProductsByCategory(
             @PathVariable String category,
             @RequestParam(defaultValue = "ACTIVE") ProductStatus status,
             @RequestParam(defaultValue = "0") int page,
@@ -90,17 +111,54 @@ public class ProductController {
         return ResponseEntity.ok(productService.findByCategory(status, category, pageable));
     }
 
+    @GetMapping("/category/{category}/scroll")
+    @Operation(summary = "Scroll products by category", description = "Keyset-paginated, newest first")
+    public ResponseEntity<CursorPage<Product>> scrollProductsByCategory(
+            @PathVariable String category,
+            @RequestParam(defaultValue = "ACTIVE") ProductStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        log.info("GET /api/v1/products/category/{}/scroll", category);
+        return ResponseEntity.ok(productService.scrollByCategory(status, category, cursor, size, includeTotal));
+    }
+
     @GetMapping("/price-range")
-    @Operation(summary = "Get products by price range")
+    @Operation(summary = "Get products by price range", description = "Active products in the range, cheapest first")
     public ResponseEntity<Page<Product>> getProductsByPriceRange(
             @RequestParam BigDecimal min,
             @RequestParam BigDecimal max,
+            @RequestParam(required = false) String category,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
 
         log.info("GET /api/v1/products/price-range?min={}&max={}", min, max);
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(productService.findByPriceRange(min, max, pageable));
+        return ResponseEntity.ok(productService.findByPriceRange(category, min, max, pageable));
+    }
+
+    @GetMapping("/price-histogram")
+    @Operation(summary = "Get price histogram", description = "Active product counts in equal-width price buckets")
+    public ResponseEntity<ProductPriceIndex.Histogram> getPriceHistogram(
+            @RequestParam BigDecimal min,
+            @RequestParam BigDecimal max,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "10") int buckets) {
+        return ResponseEntity.ok(productService.getPriceHistogram(category, min, max, buckets));
+    }
+
+    @GetMapping("/price-range/scroll")
+    @Operation(summary = "Scroll products by price range", description = "Keyset-paginated, cheapest first")
+    public ResponseEntity<CursorPage<Product>> scrollProductsByPriceRange(
+            @RequestParam BigDecimal min,
+            @RequestParam BigDecimal max,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        log.info("GET /api/v1/products/price-range/scroll?min={}&max={}", min, max);
+        return ResponseEntity.ok(productService.scrollByPriceRange(min, max, cursor, size, includeTotal));
     }
 
     @PostMapping
@@ -111,6 +169,19 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    @Operation(summary = "Bulk import products",
+            description = "Stream products as NDJSON (one product per line) or CSV with a header row")
+    public ResponseEntity<ProductImportService.ImportReport> importProducts(HttpServletRequest request)
+            throws IOException {
+        log.info("POST /api/v1/products/import - content type: {}", request.getContentType());
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        ProductImportService.ImportReport report = contentType.isCompatibleWith(MediaType.valueOf("text/csv"))
+                ? productImportService.importCsv(request.getInputStream())
+                : productImportService.importNdjson(request.getInputStream());
+        return ResponseEntity.ok(report);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update a product")
     public ResponseEntity<Product> updateProduct(
@@ -148,9 +219,19 @@ public class ProductController {
         return ResponseEntity.ok(productService.getStats());
     }
 
+    @GetMapping("/facets")
+    @Operation(summary = "Get faceted product counts",
+            description = "Counts per category, brand and status for products matching the optional filters")
+    public ResponseEntity<ProductFacets.FacetCounts> getFacetCounts(
+            @RequestParam(required = false) ProductStatus status,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String brand) {
+        return ResponseEntity.ok(productService.getFacetCounts(status, category, brand));
+    }
+
     @PostMapping("/batch")
     @Operation(summary = "Get products by IDs", description = "Retrieve multiple products by their IDs")
-    public ResponseEntity<List<Product>> getProductsByIds(@RequestBody List<Long> ids) {
+    public ResponseEntity<List<ProductSummary>> getProductsByIds(@RequestBody List<Long> ids) {
         log.info("POST /api/v1/products/batch - ids count: {}", ids.size());
         return ResponseEntity.ok(productService.findByIds(ids));
     }
@@ -0,0 +1,9 @@
+package com.ecommerce.product.event;
+
+/**
+ * Value format used when publishing product events. Consumers accept both.
+ */
+public enum EventWireFormat {
+    JSON,
+    BINARY
+}
@@ -0,0 +1,41 @@
+package com.ecommerce.product.event;
+
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.model.Product.ProductStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * In-process notification of a committed product write. {@code before} is null for
+ * creates and {@code after} is null for deletes.
+ */
+public record ProductChangedEvent(Snapshot before, Snapshot after) {
+
+    public static ProductChangedEvent created(Product product) {
+        return new ProductChangedEvent(null, Snapshot.of(product));
+    }
+
+    public static ProductChangedEvent updated(Snapshot before, Product product) {
+        return new ProductChangedEvent(before, Snapshot.of(product));
+    }
+
+    public static ProductChangedEvent deleted(Product product) {
+        return new ProductChangedEvent(Snapshot.of(product), null);
+    }
+
+    public record Snapshot(
+            Long id,
+            String sku,
+            String name,
+            String description,
+            BigDecimal price,
+            String category,
+            String brand,
+            ProductStatus status
+    ) {
+        public static Snapshot of(Product product) {
+            return new Snapshot(product.getId(), product.getSku(), product.getName(), product.getDescription(),
+                    product.getPrice(), product.getCategory(), product.getBrand(), product.getStatus());
+        }
+    }
+}
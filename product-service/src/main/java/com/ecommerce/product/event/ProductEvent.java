@@ -22,6 +22,13 @@ public class ProductEvent implements Serializable {
         this.payload = payload;
     }
 
+    public ProductEvent(String eventId, String eventType, Instant timestamp, ProductPayload payload) {
+        this.eventId = eventId;
+        this.eventType = eventType;
+        this.timestamp = timestamp;
+        this.payload = payload;
+    }
+
     // Static factory methods
     public static ProductEvent created(Long productId, String sku, String name, BigDecimal price) {
         return new ProductEvent("PRODUCT_CREATED", new ProductPayload(productId, sku, name, price));
@@ -0,0 +1,303 @@
+package com.ecommerce.product.event;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of {@link ProductEvent}.
+ *
+ * <pre>
+ * magic(1) version(1) type(1)[literal type] flags(1)
+ * [eventId: uuid(16) | string] [timestamp: zigzag varlong epoch millis]
+ * payloadFlags(1) [productId: zigzag varlong] [sku] [name] [price] [oldPrice]
+ * </pre>
+ *
+ * Strings are varint length + UTF-8, decimals are zigzag varlong unscaled value + zigzag
+ * varint scale. Well-known event types are a one-byte code; any other type is written as a
+ * literal string after a zero code. The magic byte can never start a JSON document, which is
+ * how {@link ProductEventDeserializer} tells the two formats apart.
+ */
+public final class ProductEventCodec {
+
+    public static final byte MAGIC = (byte) 0xB7;
+    static final byte VERSION = 1;
+
+    private static final String[] EVENT_TYPES = {
+            "PRODUCT_CREATED", "PRODUCT_UPDATED", "PRODUCT_DELETED", "PRICE_CHANGED"
+    };
+
+    private static final int UUID_EVENT_ID = 1;
+    private static final int STRING_EVENT_ID = 1 << 1;
+    private static final int TIMESTAMP = 1 << 2;
+    private static final int PAYLOAD = 1 << 3;
+
+    private static final int PRODUCT_ID = 1;
+    private static final int SKU = 1 << 1;
+    private static final int NAME = 1 << 2;
+    private static final int PRICE = 1 << 3;
+    private static final int OLD_PRICE = 1 << 4;
+
+    private ProductEventCodec() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == MAGIC;
+    }
+
+    /**
+     * @throws ArithmeticException if a price does not fit the binary layout
+     */
+    public static byte[] encode(ProductEvent event) {
+        Writer out = new Writer(64);
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        writeType(out, event.getEventType());
+
+        UUID uuid = parseUuid(event.getEventId());
+        int flags = (uuid != null ? UUID_EVENT_ID : event.getEventId() != null ? STRING_EVENT_ID : 0)
+                | (event.getTimestamp() != null ? TIMESTAMP : 0)
+                | (event.getPayload() != null ? PAYLOAD : 0);
+        out.writeByte(flags);
+        if (uuid != null) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else if (event.getEventId() != null) {
+            out.writeString(event.getEventId());
+        }
+        if (event.getTimestamp() != null) {
+            out.writeZigZagLong(event.getTimestamp().toEpochMilli());
+        }
+
+        ProductEvent.ProductPayload payload = event.getPayload();
+        if (payload != null) {
+            int fields = (payload.getProductId() != null ? PRODUCT_ID : 0)
+                    | (payload.getSku() != null ? SKU : 0)
+                    | (payload.getName() != null ? NAME : 0)
+                    | (payload.getPrice() != null ? PRICE : 0)
+                    | (payload.getOldPrice() != null ? OLD_PRICE : 0);
+            out.writeByte(fields);
+            if (payload.getProductId() != null) {
+                out.writeZigZagLong(payload.getProductId());
+            }
+            if (payload.getSku() != null) {
+                out.writeString(payload.getSku());
+            }
+            if (payload.getName() != null) {
+                out.writeString(payload.getName());
+            }
+            if (payload.getPrice() != null) {
+                out.writeDecimal(payload.getPrice());
+            }
+            if (payload.getOldPrice() != null) {
+                out.writeDecimal(payload.getOldPrice());
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public static ProductEvent decode(byte[] data) {
+        Reader in = new Reader(data);
+        if (in.readByte() != (MAGIC & 0xFF)) {
+            throw new SerializationException("Not a binary product event");
+        }
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new SerializationException("Unsupported product event version: " + version);
+        }
+
+        String eventType = readType(in);
+        int flags = in.readByte();
+        String eventId = null;
+        if ((flags & UUID_EVENT_ID) != 0) {
+            eventId = new UUID(in.readLong(), in.readLong()).toString();
+        } else if ((flags & STRING_EVENT_ID) != 0) {
+            eventId = in.readString();
+        }
+        Instant timestamp = (flags & TIMESTAMP) != 0 ? Instant.ofEpochMilli(in.readZigZagLong()) : null;
+
+        ProductEvent.ProductPayload payload = null;
+        if ((flags & PAYLOAD) != 0) {
+            int fields = in.readByte();
+            payload = new ProductEvent.ProductPayload();
+            if ((fields & PRODUCT_ID) != 0) {
+                payload.setProductId(in.readZigZagLong());
+            }
+            if ((fields & SKU) != 0) {
+                payload.setSku(in.readString());
+            }
+            if ((fields & NAME) != 0) {
+                payload.setName(in.readString());
+            }
+            if ((fields & PRICE) != 0) {
+                payload.setPrice(in.readDecimal());
+            }
+            if ((fields & OLD_PRICE) != 0) {
+                payload.setOldPrice(in.readDecimal());
+            }
+        }
+        return new ProductEvent(eventId, eventType, timestamp, payload);
+    }
+
+    private static void writeType(Writer out, String type) {
+        for (int i = 0; i < EVENT_TYPES.length; i++) {
+            if (EVENT_TYPES[i].equals(type)) {
+                out.writeByte(i + 1);
+                return;
+            }
+        }
+        out.writeByte(0);
+        out.writeString(type != null ? type : "");
+    }
+
+    private static String readType(Reader in) {
+        int code = in.readByte();
+        if (code == 0) {
+            String type = in.readString();
+            return type.isEmpty() ? null : type;
+        }
+        if (code > EVENT_TYPES.length) {
+            throw new SerializationException("Unknown product event type code: " + code);
+        }
+        return EVENT_TYPES[code - 1];
+    }
+
+    private static UUID parseUuid(String value) {
+        if (value == null || value.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(value);
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static final class Writer {
+        private byte[] buffer;
+        private int position;
+
+        Writer(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeZigZagLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeDecimal(BigDecimal value) {
+            BigInteger unscaled = value.unscaledValue();
+            if (unscaled.bitLength() > 63) {
+                throw new ArithmeticException("Decimal out of range for binary encoding: " + value);
+            }
+            writeZigZagLong(unscaled.longValue());
+            writeZigZagLong(value.scale());
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        int readByte() {
+            require(1);
+            return buffer[position++] & 0xFF;
+        }
+
+        long readLong() {
+            require(8);
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (buffer[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint in product event");
+        }
+
+        long readZigZagLong() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String readString() {
+            long length = readVarLong();
+            if (length < 0 || length > buffer.length - position) {
+                throw new SerializationException("Truncated string in product event");
+            }
+            String value = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return value;
+        }
+
+        BigDecimal readDecimal() {
+            long unscaled = readZigZagLong();
+            return BigDecimal.valueOf(unscaled, (int) readZigZagLong());
+        }
+
+        private void require(int bytes) {
+            if (position + bytes > buffer.length) {
+                throw new SerializationException("Truncated product event");
+            }
+        }
+    }
+}
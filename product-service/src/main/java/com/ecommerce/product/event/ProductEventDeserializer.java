@@ -0,0 +1,47 @@
+package com.ecommerce.product.event;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Reads product events in either wire format: records starting with
+ * {@link ProductEventCodec#MAGIC} are decoded as binary, anything else as JSON.
+ */
+public class ProductEventDeserializer implements Deserializer<ProductEvent> {
+
+    private final JsonDeserializer<ProductEvent> json;
+
+    public ProductEventDeserializer() {
+        this.json = new JsonDeserializer<>(ProductEvent.class, false);
+        this.json.addTrustedPackages("com.ecommerce.product.event");
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public ProductEvent deserialize(String topic, byte[] data) {
+        if (ProductEventCodec.isBinary(data)) {
+            return ProductEventCodec.decode(data);
+        }
+        return json.deserialize(topic, data);
+    }
+
+    @Override
+    public ProductEvent deserialize(String topic, Headers headers, byte[] data) {
+        if (ProductEventCodec.isBinary(data)) {
+            return ProductEventCodec.decode(data);
+        }
+        return json.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -0,0 +1,52 @@
+package com.ecommerce.product.event;
+
+import com.ecommerce.product.cache.ProductCacheInvalidator;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.service.ProductFacets;
+import com.ecommerce.product.service.ProductPriceIndex;
+import com.ecommerce.product.service.ProductSearchIndex;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumes product-events on every instance (one consumer group per instance) so that
+ * per-instance state follows writes made anywhere in the cluster. Event payloads only carry
+ * a few fields, so the in-memory indexes are updated from the product reloaded by id.
+ */
+@Component
+public class ProductEventListener {
+
+    private final ProductCacheInvalidator cacheInvalidator;
+    private final ProductRepository productRepository;
+    private final ProductPriceIndex priceIndex;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacets facets;
+
+    public ProductEventListener(ProductCacheInvalidator cacheInvalidator, ProductRepository productRepository,
+                                ProductPriceIndex priceIndex, ProductSearchIndex searchIndex,
+                                ProductFacets facets) {
+        this.cacheInvalidator = cacheInvalidator;
+        this.productRepository = productRepository;
+        this.priceIndex = priceIndex;
+        this.searchIndex = searchIndex;
+        this.facets = facets;
+    }
+
+    @KafkaListener(topics = "product-events", groupId = "product-instance-${random.uuid}",
+            containerFactory = "productEventListenerFactory")
+    public void onProductEvent(ProductEvent event) {
+        cacheInvalidator.evictLocal(event);
+
+        if (event.getPayload() == null || event.getPayload().getProductId() == null) {
+            return;
+        }
+        Long productId = event.getPayload().getProductId();
+        Product product = "PRODUCT_DELETED".equals(event.getEventType())
+                ? null
+                : productRepository.findById(productId).orElse(null);
+        priceIndex.onProductReloaded(productId, product);
+        searchIndex.onProductReloaded(productId, product);
+        facets.onProductReloaded(productId, product);
+    }
+}
@@ -0,0 +1,52 @@
+package com.ecommerce.product.event;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/**
+ * Writes product events as {@link ProductEventCodec} binary or as JSON. Events that the binary
+ * layout cannot represent are written as JSON, which every consumer still understands.
+ */
+public class ProductEventSerializer implements Serializer<ProductEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductEventSerializer.class);
+
+    private final EventWireFormat format;
+    private final JsonSerializer<ProductEvent> json = new JsonSerializer<>();
+
+    public ProductEventSerializer(EventWireFormat format) {
+        this.format = format;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, ProductEvent data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, ProductEvent data) {
+        if (data != null && format == EventWireFormat.BINARY) {
+            try {
+                return ProductEventCodec.encode(data);
+            } catch (ArithmeticException e) {
+                log.debug("Falling back to JSON for event {}: {}", data.getEventId(), e.getMessage());
+            }
+        }
+        return headers != null ? json.serialize(topic, headers, data) : json.serialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
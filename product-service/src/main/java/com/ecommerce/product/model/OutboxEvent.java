@@ -0,0 +1,69 @@
+package com.ecommerce.product.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A product event waiting to be relayed to Kafka. Rows are written in the same transaction
+ * as the product change and deleted once the broker has acknowledged them.
+ *
+ * <p>Ids come straight from the sequence (no pooled blocks per instance) and are taken after
+ * the product is read, and product writes are versioned, so for any one product id order is
+ * commit order; the relay sends in id order.
+ */
+@Entity
+@Table(name = "product_outbox")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_outbox_seq")
+    @SequenceGenerator(name = "product_outbox_seq", sequenceName = "product_outbox_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String topic;
+
+    @Column(name = "message_key", nullable = false, length = 50)
+    private String messageKey;
+
+    @Column(nullable = false, length = 50)
+    private String eventType;
+
+    @Column(nullable = false, length = 4000)
+    private String payload;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    // Constructors
+    public OutboxEvent() {
+        this.createdAt = Instant.now();
+    }
+
+    public OutboxEvent(String topic, String messageKey, String eventType, String payload) {
+        this();
+        this.topic = topic;
+        this.messageKey = messageKey;
+        this.eventType = eventType;
+        this.payload = payload;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTopic() { return topic; }
+    public void setTopic(String topic) { this.topic = topic; }
+
+    public String getMessageKey() { return messageKey; }
+    public void setMessageKey(String messageKey) { this.messageKey = messageKey; }
+
+    public String getEventType() { return eventType; }
+    public void setEventType(String eventType) { this.eventType = eventType; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
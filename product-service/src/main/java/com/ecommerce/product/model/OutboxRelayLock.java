@@ -0,0 +1,26 @@
+package com.ecommerce.product.model;
+
+import jakarta.persistence.*;
+
+/**
+ * The single row a relay locks for the duration of a batch, so only one instance publishes
+ * the outbox at a time and events for a key are never sent by two relays in parallel.
+ */
+@Entity
+@Table(name = "product_outbox_relay")
+public class OutboxRelayLock {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    // Constructors
+    public OutboxRelayLock() {
+        this.id = ID;
+    }
+
+    // Getters and Setters
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+}
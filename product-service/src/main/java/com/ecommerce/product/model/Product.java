@@ -2,6 +2,8 @@ package com.ecommerce.product.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.BatchSize;
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -11,12 +13,17 @@ import java.util.List;
 @Table(name = "products", indexes = {
     @Index(name = "idx_product_sku", columnList = "sku", unique = true),
     @Index(name = "idx_product_category", columnList = "category"),
-    @Index(name = "idx_product_status", columnList = "status")
+    @Index(name = "idx_product_status", columnList = "status"),
+    @Index(name = "idx_product_created", columnList = "createdAt, id"),
+    @Index(name = "idx_product_status_category_created", columnList = "status, category, createdAt, id"),
+    @Index(name = "idx_product_status_price", columnList = "status, price, id")
 })
-public class Product {
+public class Product implements Serializable {
 
+    // Pooled sequence ids let Hibernate batch inserts (IDENTITY disables JDBC batching)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "SKU is required")
@@ -46,12 +53,15 @@ public class Product {
     @Size(max = 100)
     private String brand;
 
+    // Lazy collections of a page of products are loaded with one IN query instead of one per product
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "product_tags", joinColumns = @JoinColumn(name = "product_id"))
     @Column(name = "tag")
     private List<String> tags = new ArrayList<>();
 
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "product_images", joinColumns = @JoinColumn(name = "product_id"))
     @Column(name = "image_url")
     private List<String> imageUrls = new ArrayList<>();
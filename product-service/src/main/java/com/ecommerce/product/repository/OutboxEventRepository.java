@@ -0,0 +1,17 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Oldest pending events first; callers hold the relay lock, so no other relay reads them
+    @Query("SELECT o FROM OutboxEvent o ORDER BY o.id")
+    List<OutboxEvent> findPending(Pageable pageable);
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.model.OutboxRelayLock;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OutboxRelayLockRepository extends JpaRepository<OutboxRelayLock, Integer> {
+
+    // Empty while another relay holds the lock (-2 = SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT l FROM OutboxRelayLock l WHERE l.id = " + OutboxRelayLock.ID)
+    Optional<OutboxRelayLock> tryLock();
+}
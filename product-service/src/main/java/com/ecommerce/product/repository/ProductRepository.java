@@ -10,16 +10,24 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
     Optional<Product> findBySku(String sku);
 
+    List<Product> findBySkuIn(List<String> skus);
+
     boolean existsBySku(String sku);
 
+    @Query("SELECT p.sku FROM Product p WHERE p.sku IN :skus")
+    Set<String> findExistingSkus(@Param("skus") Collection<String> skus);
+
     List<Product> findByCategory(String category);
 
     List<Product> findByStatus(ProductStatus status);
@@ -33,6 +41,18 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             @Param("maxPrice") BigDecimal maxPrice,
             Pageable pageable);
 
+    Page<Product> findByStatusAndCategoryAndPriceBetween(
+            ProductStatus status, String category, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
+
+    @Query("SELECT new com.ecommerce.product.repository.ProductRepository$PriceCount(p.price, COUNT(p)) " +
+           "FROM Product p WHERE p.status = :status AND (:category IS NULL OR p.category = :category) " +
+           "AND p.price BETWEEN :minPrice AND :maxPrice GROUP BY p.price")
+    List<PriceCount> countByPrice(
+            @Param("status") ProductStatus status,
+            @Param("category") String category,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice);
+
     @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
            "OR LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     Page<Product> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
@@ -47,4 +67,63 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     long countByStatus(@Param("status") ProductStatus status);
 
     List<Product> findByIdIn(List<Long> ids);
+
+    @Query("SELECT new com.ecommerce.product.repository.ProductRepository$PriceRow(p.id, p.price, p.category, p.status) " +
+           "FROM Product p WHERE p.id > :id ORDER BY p.id")
+    List<PriceRow> findPriceRows(@Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT new com.ecommerce.product.repository.ProductRepository$FacetRow(p.id, p.status, p.category, p.brand) " +
+           "FROM Product p WHERE p.id > :id ORDER BY p.id")
+    List<FacetRow> findFacetRows(@Param("id") Long id, Pageable pageable);
+
+    List<Product> findByIdGreaterThan(Long id, Pageable pageable);
+
+    // Keyset (seek) listings: callers pass PageRequest.of(0, limit) so no OFFSET or COUNT is issued
+
+    List<Product> findAllByOrderByCreatedAtDescIdDesc(Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findAllAfter(
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    List<Product> findByStatusAndCategoryOrderByCreatedAtDescIdDesc(
+            ProductStatus status, String category, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.status = :status AND p.category = :category " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findByStatusAndCategoryAfter(
+            @Param("status") ProductStatus status,
+            @Param("category") String category,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.status = :status AND p.price BETWEEN :minPrice AND :maxPrice " +
+           "AND (p.price > :price OR (p.price = :price AND p.id > :id)) " +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<Product> findByStatusAndPriceRangeAfter(
+            @Param("status") ProductStatus status,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("price") BigDecimal price,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    long countByStatusAndCategory(ProductStatus status, String category);
+
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.status = :status AND p.price BETWEEN :minPrice AND :maxPrice")
+    long countByStatusAndPriceRange(
+            @Param("status") ProductStatus status,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice);
+
+    record PriceRow(Long id, BigDecimal price, String category, ProductStatus status) {}
+
+    record PriceCount(BigDecimal price, long count) {}
+
+    record FacetRow(Long id, ProductStatus status, String category, String brand) {}
 }
@@ -0,0 +1,132 @@
+package com.ecommerce.product.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces single-key lookups into batched calls, DataLoader style. Keys requested within
+ * {@code maxWait} of the first pending key, or until {@code maxBatchSize} keys are pending, are
+ * resolved by one call to the batch function. Concurrent requests for a key that is already
+ * pending or being loaded share the same future.
+ */
+public class BatchLoader<K, V> {
+
+    private final Function<Set<K>, Map<K, V>> batchFunction;
+    private final ScheduledExecutorService executor;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+    private long pendingSince;
+    private ScheduledFuture<?> scheduledDispatch;
+
+    private final DistributionSummary batchSize;
+    private final Timer batchWait;
+    private final Counter coalesced;
+
+    public BatchLoader(String name,
+                       Function<Set<K>, Map<K, V>> batchFunction,
+                       ScheduledExecutorService executor,
+                       int maxBatchSize,
+                       Duration maxWait,
+                       MeterRegistry meterRegistry) {
+        this.batchFunction = batchFunction;
+        this.executor = executor;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+
+        this.batchSize = DistributionSummary.builder("products.loader.batch.size")
+                .tag("loader", name)
+                .description("Keys resolved per batched lookup")
+                .register(meterRegistry);
+        this.batchWait = Timer.builder("products.loader.batch.wait")
+                .tag("loader", name)
+                .description("Time the first key of a batch waited before dispatch")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("products.loader.coalesced")
+                .tag("loader", name)
+                .description("Lookups served by an already pending or in-flight request")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<V> load(K key) {
+        CompletableFuture<V> existing = inFlight.get(key);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+
+        Map<K, CompletableFuture<V>> ready = null;
+        CompletableFuture<V> future;
+        synchronized (lock) {
+            existing = inFlight.get(key);
+            if (existing != null) {
+                coalesced.increment();
+                return existing;
+            }
+            future = new CompletableFuture<>();
+            inFlight.put(key, future);
+            pending.put(key, future);
+
+            if (pending.size() == 1) {
+                pendingSince = System.nanoTime();
+                scheduledDispatch = executor.schedule(this::dispatchPending, maxWaitNanos, TimeUnit.NANOSECONDS);
+            }
+            if (pending.size() >= maxBatchSize) {
+                scheduledDispatch.cancel(false);
+                ready = takePending();
+            }
+        }
+
+        if (ready != null) {
+            Map<K, CompletableFuture<V>> batch = ready;
+            executor.execute(() -> dispatch(batch));
+        }
+        return future;
+    }
+
+    private void dispatchPending() {
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = takePending();
+        }
+        dispatch(batch);
+    }
+
+    private Map<K, CompletableFuture<V>> takePending() {
+        Map<K, CompletableFuture<V>> batch = pending;
+        pending = new LinkedHashMap<>();
+        batchWait.record(System.nanoTime() - pendingSince, TimeUnit.NANOSECONDS);
+        return batch;
+    }
+
+    private void dispatch(Map<K, CompletableFuture<V>> batch) {
+        batchSize.record(batch.size());
+        try {
+            Map<K, V> results = batchFunction.apply(batch.keySet());
+            batch.forEach((key, future) -> future.complete(results.get(key)));
+        } catch (RuntimeException e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        } finally {
+            batch.forEach(inFlight::remove);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.event.ProductEvent;
+import com.ecommerce.product.model.OutboxEvent;
+import com.ecommerce.product.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records product events in the outbox table. Must be called inside the transaction that
+ * changes the product, so an event exists if and only if the change commits.
+ * {@link ProductEventRelay} publishes the rows afterwards.
+ */
+@Component
+public class ProductEventOutbox {
+
+    static final String PRODUCT_TOPIC = "product-events";
+
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public ProductEventOutbox(OutboxEventRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(ProductEvent event) {
+        outboxRepository.save(toRow(event));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(List<ProductEvent> events) {
+        List<OutboxEvent> rows = new ArrayList<>(events.size());
+        for (ProductEvent event : events) {
+            rows.add(toRow(event));
+        }
+        outboxRepository.saveAll(rows);
+    }
+
+    private OutboxEvent toRow(ProductEvent event) {
+        try {
+            return new OutboxEvent(PRODUCT_TOPIC, event.getPayload().getSku(), event.getEventType(),
+                    objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize event: " + event.getEventType(), e);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.event.ProductEvent;
+import com.ecommerce.product.model.OutboxEvent;
+import com.ecommerce.product.model.OutboxRelayLock;
+import com.ecommerce.product.repository.OutboxEventRepository;
+import com.ecommerce.product.repository.OutboxRelayLockRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the product outbox to Kafka. Each batch runs in one transaction holding the relay
+ * lock row, so a single instance publishes at a time: it reads the oldest pending rows, sends
+ * them keyed by SKU, waits up to {@code products.outbox.send-timeout} for the broker and
+ * deletes what was acknowledged. Different SKUs are sent concurrently, but events of one SKU
+ * are sent one after another, each only once the previous one was acknowledged, so per-product
+ * order holds and nothing is sent behind a failure. Delivery is at-least-once: after a failed
+ * send, later events for the same SKU stay in the outbox too and are re-sent in order.
+ * Broker outages back off exponentially up to {@code products.outbox.max-backoff}.
+ */
+@Component
+public class ProductEventRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductEventRelay.class);
+
+    private final OutboxEventRepository outboxRepository;
+    private final OutboxRelayLockRepository lockRepository;
+    private final KafkaTemplate<String, ProductEvent> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerPoll;
+    private final Duration sendTimeout;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer lagTimer;
+    private final AtomicLong oldestPendingMillis = new AtomicLong();
+
+    private boolean lockCreated;
+    private Duration backoff = Duration.ZERO;
+    private Instant nextAttempt = Instant.MIN;
+
+    public ProductEventRelay(OutboxEventRepository outboxRepository,
+                             OutboxRelayLockRepository lockRepository,
+                             KafkaTemplate<String, ProductEvent> kafkaTemplate,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${products.outbox.batch-size:500}") int batchSize,
+                             @Value("${products.outbox.max-batches-per-poll:20}") int maxBatchesPerPoll,
+                             @Value("${products.outbox.send-timeout:10s}") Duration sendTimeout,
+                             @Value("${products.outbox.initial-backoff:500ms}") Duration initialBackoff,
+                             @Value("${products.outbox.max-backoff:30s}") Duration maxBackoff) {
+        this.outboxRepository = outboxRepository;
+        this.lockRepository = lockRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatchesPerPoll = maxBatchesPerPoll;
+        this.sendTimeout = sendTimeout;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+
+        this.publishedCounter = Counter.builder("products.outbox.published")
+                .description("Outbox events acknowledged by Kafka")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("products.outbox.failed")
+                .description("Outbox events that failed to publish and will be retried")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("products.outbox.batch.size")
+                .description("Outbox events per relay batch")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("products.outbox.lag")
+                .description("Time from outbox write to Kafka acknowledgement")
+                .register(meterRegistry);
+        Gauge.builder("products.outbox.oldest.age", oldestPendingMillis, AtomicLong::get)
+                .description("Age in milliseconds of the oldest event still in the outbox")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${products.outbox.poll-interval-ms:100}")
+    public void poll() {
+        if (Instant.now().isBefore(nextAttempt)) {
+            return;
+        }
+        try {
+            if (!lockCreated) {
+                createLock();
+            }
+            for (int i = 0; i < maxBatchesPerPoll; i++) {
+                Batch batch = transactionTemplate.execute(tx -> relayBatch());
+                if (batch.failed() > 0) {
+                    backOff(batch.failed());
+                    return;
+                }
+                backoff = Duration.ZERO;
+                if (batch.size() < batchSize) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Product outbox relay failed", e);
+            backOff(0);
+        }
+    }
+
+    private Batch relayBatch() {
+        if (lockRepository.tryLock().isEmpty()) {
+            // Another instance is relaying
+            return new Batch(0, 0);
+        }
+        List<OutboxEvent> rows = outboxRepository.findPending(PageRequest.of(0, batchSize));
+        if (rows.isEmpty()) {
+            oldestPendingMillis.set(0);
+            return new Batch(0, 0);
+        }
+        Instant now = Instant.now();
+        oldestPendingMillis.set(Duration.between(rows.get(0).getCreatedAt(), now).toMillis());
+        batchSizeSummary.record(rows.size());
+
+        // Chained per SKU: a send starts once the previous one for its SKU was acknowledged
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        Map<String, CompletableFuture<?>> lastByKey = new HashMap<>();
+        List<CompletableFuture<?>> sends = new ArrayList<>(rows.size());
+        for (OutboxEvent row : rows) {
+            CompletableFuture<?> previous = lastByKey.get(row.getMessageKey());
+            CompletableFuture<?> sent = previous == null
+                    ? send(row, deadline)
+                    : previous.thenCompose(result -> send(row, deadline));
+            lastByKey.put(row.getMessageKey(), sent);
+            sends.add(sent);
+        }
+
+        List<Long> acknowledged = new ArrayList<>(rows.size());
+        int failed = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            OutboxEvent row = rows.get(i);
+            if (await(sends.get(i), row, deadline)) {
+                acknowledged.add(row.getId());
+                lagTimer.record(Duration.between(row.getCreatedAt(), Instant.now()));
+            } else {
+                failed++;
+            }
+        }
+        outboxRepository.deleteAllByIdInBatch(acknowledged);
+        publishedCounter.increment(acknowledged.size());
+        failedCounter.increment(failed);
+        if (rows.size() < batchSize && failed == 0) {
+            oldestPendingMillis.set(0);
+        }
+        return new Batch(rows.size(), failed);
+    }
+
+    private CompletableFuture<SendResult<String, ProductEvent>> send(OutboxEvent row, long deadline) {
+        if (System.nanoTime() - deadline > 0) {
+            // The batch has given up on this row; sending it now could overtake its re-send
+            return CompletableFuture.failedFuture(new IllegalStateException("Send timeout elapsed"));
+        }
+        try {
+            ProductEvent event = objectMapper.readValue(row.getPayload(), ProductEvent.class);
+            return kafkaTemplate.send(row.getTopic(), row.getMessageKey(), event);
+        } catch (JsonProcessingException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void createLock() {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                if (!lockRepository.existsById(OutboxRelayLock.ID)) {
+                    lockRepository.save(new OutboxRelayLock());
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created it first
+            log.debug("Outbox relay lock created concurrently: {}", e.getMessage());
+        }
+        lockCreated = true;
+    }
+
+    private boolean await(CompletableFuture<?> send, OutboxEvent row, long deadline) {
+        try {
+            send.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.warn("Failed to publish outbox event {} ({}) for product: {}",
+                    row.getId(), row.getEventType(), row.getMessageKey(), e);
+            return false;
+        }
+    }
+
+    private void backOff(int failed) {
+        backoff = backoff.isZero() ? initialBackoff : backoff.multipliedBy(2);
+        if (backoff.compareTo(maxBackoff) > 0) {
+            backoff = maxBackoff;
+        }
+        nextAttempt = Instant.now().plus(backoff);
+        log.warn("Product outbox relay backing off for {} ms ({} events not published)", backoff.toMillis(), failed);
+    }
+
+    private record Batch(int size, int failed) {}
+}
@@ -0,0 +1,249 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.model.Product.ProductStatus;
+import com.ecommerce.product.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Product counts per (status, category, brand), kept in memory and adjusted on every product
+ * write, whether made by this instance or, through {@code product-events}, by another one.
+ * Each product's combination is held by id, so a change is an idempotent upsert: the echo of
+ * this instance's own write, or a replayed event, moves no count. Category, brand and status
+ * totals are adjusted by the same deltas, and the listings derived from them are republished
+ * after each change, so reads never touch the database and a write never rescans the
+ * combinations. A rebuild scans the products in chunks without blocking writes and replays
+ * the changes that arrived meanwhile.
+ */
+@Component
+public class ProductFacets {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductFacets.class);
+    private static final int REBUILD_CHUNK_SIZE = 5000;
+
+    private final ProductRepository productRepository;
+    private Map<Long, FacetKey> products = new HashMap<>();
+    // One instance per combination, shared by all its products
+    private Map<FacetKey, FacetKey> keys = new HashMap<>();
+    // Changes applied while a rebuild scans, by product id; a null entry is a removal
+    private Map<Long, FacetKey> changedDuringRebuild;
+    private final Map<FacetKey, Long> counts = new HashMap<>();
+    private final Map<String, Long> activeCategories = new TreeMap<>();
+    private final Map<String, Long> activeBrands = new TreeMap<>();
+    private final Map<ProductStatus, Long> statuses = new EnumMap<>(ProductStatus.class);
+    private long total;
+    private volatile Views views;
+
+    public ProductFacets(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    public boolean isReady() {
+        return views != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            changedDuringRebuild = new HashMap<>();
+        }
+
+        Map<Long, FacetKey> fresh = new HashMap<>();
+        Map<FacetKey, FacetKey> freshKeys = new HashMap<>();
+        long lastId = 0;
+        List<ProductRepository.FacetRow> chunk;
+        do {
+            chunk = productRepository.findFacetRows(lastId, PageRequest.of(0, REBUILD_CHUNK_SIZE));
+            for (ProductRepository.FacetRow row : chunk) {
+                FacetKey key = new FacetKey(row.status(), row.category(), row.brand());
+                fresh.put(row.id(), freshKeys.computeIfAbsent(key, k -> k));
+                lastId = row.id();
+            }
+        } while (chunk.size() == REBUILD_CHUNK_SIZE);
+
+        synchronized (this) {
+            products = fresh;
+            keys = freshKeys;
+            changedDuringRebuild.forEach(this::put);
+            changedDuringRebuild = null;
+            counts.clear();
+            activeCategories.clear();
+            activeBrands.clear();
+            statuses.clear();
+            total = 0;
+            products.values().forEach(key -> adjust(key, 1));
+            refreshViews(true);
+        }
+        log.info("Product facets built: {} combinations, {} products", counts.size(), views.total());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.after() == null) {
+            apply(event.before().id(), null);
+        } else {
+            apply(event.after().id(), new FacetKey(event.after().status(), event.after().category(),
+                    event.after().brand()));
+        }
+    }
+
+    /**
+     * Applies a product as reloaded after a change reported by any instance; null when it no
+     * longer exists.
+     */
+    public void onProductReloaded(Long productId, Product product) {
+        apply(productId, product == null ? null
+                : new FacetKey(product.getStatus(), product.getCategory(), product.getBrand()));
+    }
+
+    public List<String> activeCategories() {
+        return views.activeCategories();
+    }
+
+    public List<String> activeBrands() {
+        return views.activeBrands();
+    }
+
+    public long countByStatus(ProductStatus status) {
+        return views.statuses().getOrDefault(status, 0L);
+    }
+
+    public long total() {
+        return views.total();
+    }
+
+    /**
+     * Counts per category, brand and status for products matching the filter. Each dimension is
+     * counted with the filters on the other two dimensions applied but not its own, so the
+     * alternatives to the current selection stay visible.
+     */
+    public synchronized FacetCounts count(ProductStatus status, String category, String brand) {
+        Map<String, Long> categories = new TreeMap<>();
+        Map<String, Long> brands = new TreeMap<>();
+        Map<ProductStatus, Long> statuses = new EnumMap<>(ProductStatus.class);
+        long total = 0;
+
+        for (Map.Entry<FacetKey, Long> entry : counts.entrySet()) {
+            FacetKey key = entry.getKey();
+            long count = entry.getValue();
+            boolean statusMatches = status == null || status == key.status();
+            boolean categoryMatches = category == null || category.equals(key.category());
+            boolean brandMatches = brand == null || brand.equals(key.brand());
+
+            if (statusMatches && brandMatches) {
+                categories.merge(key.category(), count, Long::sum);
+            }
+            if (statusMatches && categoryMatches && key.brand() != null) {
+                brands.merge(key.brand(), count, Long::sum);
+            }
+            if (categoryMatches && brandMatches && key.status() != null) {
+                statuses.merge(key.status(), count, Long::sum);
+            }
+            if (statusMatches && categoryMatches && brandMatches) {
+                total += count;
+            }
+        }
+        return new FacetCounts(total, categories, brands, statuses);
+    }
+
+    private synchronized void apply(Long productId, FacetKey key) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.put(productId, key);
+        }
+        if (views == null) {
+            // Not built yet: the rebuild replays the change
+            return;
+        }
+        FacetKey previous = put(productId, key);
+        if (Objects.equals(previous, key)) {
+            return;
+        }
+        boolean listsChanged = false;
+        if (previous != null) {
+            listsChanged = adjust(previous, -1);
+        }
+        if (key != null) {
+            listsChanged |= adjust(key, 1);
+        }
+        refreshViews(listsChanged);
+    }
+
+    /**
+     * Records the product's combination, returning the one it had.
+     */
+    private FacetKey put(Long productId, FacetKey key) {
+        return key == null ? products.remove(productId) : products.put(productId, keys.computeIfAbsent(key, k -> k));
+    }
+
+    /**
+     * Applies {@code delta} to one combination and to the totals behind the views, returning
+     * whether the set of active categories or brands changed.
+     */
+    private boolean adjust(FacetKey key, long delta) {
+        counts.compute(key, (k, current) -> {
+            long updated = (current == null ? 0 : current) + delta;
+            return updated > 0 ? updated : null;
+        });
+        if (key.status() != null) {
+            add(statuses, key.status(), delta);
+        }
+        total += delta;
+        boolean changed = false;
+        if (key.status() == ProductStatus.ACTIVE) {
+            changed = add(activeCategories, key.category(), delta);
+            if (key.brand() != null) {
+                changed |= add(activeBrands, key.brand(), delta);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Publishes the current totals. The category and brand lists are only copied when their
+     * key sets changed, so a write that moves counts around stays O(1).
+     */
+    private void refreshViews(boolean listsChanged) {
+        List<String> categories = listsChanged || views == null
+                ? List.copyOf(activeCategories.keySet()) : views.activeCategories();
+        List<String> brands = listsChanged || views == null
+                ? List.copyOf(activeBrands.keySet()) : views.activeBrands();
+        views = new Views(categories, brands, new EnumMap<>(statuses), total);
+    }
+
+    private static <K> boolean add(Map<K, Long> totals, K key, long delta) {
+        Long current = totals.get(key);
+        long updated = (current == null ? 0 : current) + delta;
+        if (updated > 0) {
+            totals.put(key, updated);
+            return current == null;
+        }
+        totals.remove(key);
+        return current != null;
+    }
+
+    private record FacetKey(ProductStatus status, String category, String brand) {}
+
+    private record Views(List<String> activeCategories, List<String> activeBrands,
+                         Map<ProductStatus, Long> statuses, long total) {}
+
+    public record FacetCounts(
+            long total,
+            Map<String, Long> categories,
+            Map<String, Long> brands,
+            Map<ProductStatus, Long> statuses
+    ) {}
+}
@@ -0,0 +1,315 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.event.ProductEvent;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.model.Product.ProductStatus;
+import com.ecommerce.product.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Streaming bulk import of products from NDJSON or CSV. Rows are parsed one line at a time,
+ * validated, de-duplicated against the catalog one batch at a time and inserted in JDBC batches.
+ * Each batch commits on its own, so a failing batch is reported without losing the others.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductEventOutbox outbox;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final Counter productCreatedCounter;
+    private final int batchSize;
+
+    public ProductImportService(ProductRepository productRepository,
+                                ProductEventOutbox outbox,
+                                ApplicationEventPublisher eventPublisher,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${products.import.batch-size:500}") int batchSize) {
+        this.productRepository = productRepository;
+        this.outbox = outbox;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+
+        this.productCreatedCounter = Counter.builder("products.created.total")
+                .description("Total products created")
+                .register(meterRegistry);
+    }
+
+    public ImportReport importNdjson(InputStream input) throws IOException {
+        return importLines(input, false, line -> {
+            try {
+                return objectMapper.readValue(line, Product.class);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+            }
+        });
+    }
+
+    public ImportReport importCsv(InputStream input) throws IOException {
+        return importLines(input, true, null);
+    }
+
+    private ImportReport importLines(InputStream input, boolean csv, Function<String, Product> parser)
+            throws IOException {
+        long start = System.nanoTime();
+        ImportState state = new ImportState();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            if (csv) {
+                String header = reader.readLine();
+                if (header == null) {
+                    return state.report(start);
+                }
+                state.lineNumber++;
+                Map<String, Integer> columns = csvColumns(header);
+                parser = line -> fromCsv(splitCsv(line), columns);
+            }
+
+            List<Row> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                state.lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                state.rowsRead++;
+                try {
+                    Product product = parser.apply(line);
+                    product.setId(null);
+                    String violation = validate(product);
+                    if (violation != null) {
+                        state.reject(state.batchNumber, state.lineNumber, product.getSku(), violation);
+                        continue;
+                    }
+                    batch.add(new Row(state.lineNumber, product));
+                } catch (RuntimeException e) {
+                    state.reject(state.batchNumber, state.lineNumber, null, e.getMessage());
+                    continue;
+                }
+
+                if (batch.size() >= batchSize) {
+                    flush(batch, state);
+                }
+            }
+            flush(batch, state);
+        }
+
+        ImportReport report = state.report(start);
+        log.info("Product import finished: {} rows read, {} imported, {} rejected, {} rows/sec",
+                report.rowsRead(), report.imported(), report.rejected(), String.format("%.1f", report.rowsPerSecond()));
+        return report;
+    }
+
+    private void flush(List<Row> batch, ImportState state) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int batchNumber = state.batchNumber++;
+        long rejectedBefore = state.rejected;
+        try {
+            List<Product> saved = transactionTemplate.execute(tx -> insertBatch(batch, batchNumber, state));
+            state.imported += saved.size();
+            productCreatedCounter.increment(saved.size());
+        } catch (RuntimeException e) {
+            log.error("Product import batch {} failed", batchNumber, e);
+            state.reject(batchNumber, batch.get(0).line(), null,
+                    "Batch of " + batch.size() + " rows failed: " + e.getMessage());
+            state.rejected = rejectedBefore + batch.size();
+        }
+        batch.clear();
+    }
+
+    private List<Product> insertBatch(List<Row> batch, int batchNumber, ImportState state) {
+        Set<String> skus = new HashSet<>();
+        for (Row row : batch) {
+            skus.add(row.product().getSku());
+        }
+        Set<String> existing = productRepository.findExistingSkus(skus);
+
+        List<Product> toInsert = new ArrayList<>(batch.size());
+        Set<String> seen = new HashSet<>();
+        for (Row row : batch) {
+            String sku = row.product().getSku();
+            if (existing.contains(sku) || !seen.add(sku)) {
+                state.reject(batchNumber, row.line(), sku, "Product with SKU " + sku + " already exists");
+                continue;
+            }
+            toInsert.add(row.product());
+        }
+
+        List<Product> saved = productRepository.saveAll(toInsert);
+        List<ProductEvent> events = new ArrayList<>(saved.size());
+        for (Product product : saved) {
+            eventPublisher.publishEvent(ProductChangedEvent.created(product));
+            events.add(ProductEvent.created(product.getId(), product.getSku(), product.getName(), product.getPrice()));
+        }
+        outbox.appendAll(events);
+        entityManager.flush();
+        entityManager.clear();
+        return saved;
+    }
+
+    private String validate(Product product) {
+        Set<ConstraintViolation<Product>> violations = validator.validate(product);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        ConstraintViolation<Product> first = violations.iterator().next();
+        return first.getPropertyPath() + ": " + first.getMessage();
+    }
+
+    private static Map<String, Integer> csvColumns(String header) {
+        List<String> names = splitCsv(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("sku")) {
+            throw new IllegalArgumentException("CSV header must contain a sku column");
+        }
+        return columns;
+    }
+
+    private static Product fromCsv(List<String> fields, Map<String, Integer> columns) {
+        Product product = new Product();
+        product.setSku(field(fields, columns, "sku"));
+        product.setName(field(fields, columns, "name"));
+        product.setDescription(field(fields, columns, "description"));
+        product.setCategory(field(fields, columns, "category"));
+        product.setBrand(field(fields, columns, "brand"));
+
+        String price = field(fields, columns, "price");
+        product.setPrice(price != null ? new BigDecimal(price) : null);
+        String compareAtPrice = field(fields, columns, "compareatprice");
+        product.setCompareAtPrice(compareAtPrice != null ? new BigDecimal(compareAtPrice) : null);
+        String weight = field(fields, columns, "weight");
+        product.setWeight(weight != null ? Integer.valueOf(weight) : null);
+        String status = field(fields, columns, "status");
+        if (status != null) {
+            product.setStatus(ProductStatus.valueOf(status.toUpperCase(Locale.ROOT)));
+        }
+        String tags = field(fields, columns, "tags");
+        if (tags != null) {
+            product.setTags(new ArrayList<>(Arrays.asList(tags.split(";"))));
+        }
+        return product;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private record Row(long line, Product product) {}
+
+    private static class ImportState {
+        final List<RowError> errors = new ArrayList<>();
+        long lineNumber;
+        long rowsRead;
+        long imported;
+        long rejected;
+        int batchNumber;
+
+        void reject(int batch, long line, String sku, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(batch, line, sku, message));
+            }
+        }
+
+        ImportReport report(long startNanos) {
+            long elapsedMs = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+            return new ImportReport(rowsRead, imported, rejected, batchNumber, elapsedMs,
+                    imported * 1000.0 / elapsedMs, errors);
+        }
+    }
+
+    public record ImportReport(
+            long rowsRead,
+            long imported,
+            long rejected,
+            int batches,
+            long durationMs,
+            double rowsPerSecond,
+            List<RowError> errors
+    ) {}
+
+    public record RowError(int batch, long line, String sku, String message) {}
+}
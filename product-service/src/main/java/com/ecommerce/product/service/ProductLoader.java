@@ -0,0 +1,163 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.cache.ProductCacheInvalidator;
+import com.ecommerce.product.cache.TwoLevelCache;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+/**
+ * Batched product lookups by id and SKU. L1 hits are answered immediately; everything else is
+ * coalesced by a {@link BatchLoader} into one L2 multi-get and one IN query per batch, and the
+ * loaded products are written back to the "products" cache under their id and SKU keys.
+ */
+@Component
+public class ProductLoader {
+
+    private final ProductRepository productRepository;
+    private final TwoLevelCache cache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ScheduledExecutorService executor;
+    private final BatchLoader<Long, Product> byId;
+    private final BatchLoader<String, Product> bySku;
+
+    public ProductLoader(ProductRepository productRepository,
+                         CacheManager cacheManager,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${products.loader.max-batch-size:100}") int maxBatchSize,
+                         @Value("${products.loader.max-wait:2ms}") Duration maxWait,
+                         @Value("${products.loader.threads:4}") int threads) {
+        this.productRepository = productRepository;
+        this.cache = (TwoLevelCache) cacheManager.getCache(ProductCacheInvalidator.CACHE_NAME);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.executor = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "product-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.byId = new BatchLoader<>("id", this::loadByIds, executor, maxBatchSize, maxWait, meterRegistry);
+        this.bySku = new BatchLoader<>("sku", this::loadBySkus, executor, maxBatchSize, maxWait, meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public Optional<Product> findById(Long id) {
+        ValueWrapper cached = cache.getLocal(id);
+        if (cached != null) {
+            return Optional.ofNullable((Product) cached.get());
+        }
+        return Optional.ofNullable(join(byId.load(id)));
+    }
+
+    public Optional<Product> findBySku(String sku) {
+        ValueWrapper cached = cache.getLocal(ProductCacheInvalidator.skuKey(sku));
+        if (cached != null) {
+            return Optional.ofNullable((Product) cached.get());
+        }
+        return Optional.ofNullable(join(bySku.load(sku)));
+    }
+
+    /**
+     * Loads products for the given ids in request order, skipping ids that do not exist.
+     */
+    public List<Product> findByIds(List<Long> ids) {
+        List<CompletableFuture<Product>> futures = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            futures.add(byId.load(id));
+        }
+        List<Product> products = new ArrayList<>(ids.size());
+        for (CompletableFuture<Product> future : futures) {
+            Product product = join(future);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    private Map<Long, Product> loadByIds(Set<Long> ids) {
+        return load(ids, key -> key, missing -> productRepository.findByIdIn(missing), Product::getId);
+    }
+
+    private Map<String, Product> loadBySkus(Set<String> skus) {
+        return load(skus, ProductCacheInvalidator::skuKey, missing -> productRepository.findBySkuIn(missing),
+                Product::getSku);
+    }
+
+    private <K> Map<K, Product> load(Set<K> keys,
+                                     Function<K, Object> cacheKey,
+                                     Function<List<K>, List<Product>> query,
+                                     Function<Product, K> keyOf) {
+        Map<Object, K> byCacheKey = new HashMap<>();
+        for (K key : keys) {
+            byCacheKey.put(cacheKey.apply(key), key);
+        }
+
+        Map<K, Product> results = new HashMap<>();
+        Map<Object, ValueWrapper> cached = cache.getAll(byCacheKey.keySet());
+        cached.forEach((key, value) -> results.put(byCacheKey.get(key), (Product) value.get()));
+
+        List<K> missing = new ArrayList<>();
+        for (K key : keys) {
+            if (!results.containsKey(key)) {
+                missing.add(key);
+            }
+        }
+        if (missing.isEmpty()) {
+            return results;
+        }
+
+        List<Product> loaded = readOnlyTransaction.execute(tx -> {
+            List<Product> products = query.apply(missing);
+            for (Product product : products) {
+                Hibernate.initialize(product.getTags());
+                Hibernate.initialize(product.getImageUrls());
+            }
+            return products;
+        });
+        for (Product product : loaded) {
+            K key = keyOf.apply(product);
+            results.put(key, product);
+            cache.put(cacheKey.apply(key), product);
+        }
+        return results;
+    }
+
+    private static Product join(CompletableFuture<Product> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.model.Product.ProductStatus;
+import com.ecommerce.product.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sorted in-memory price index. Each (status, category) partition keeps prices in cents and
+ * product ids as parallel primitive arrays ordered by (price, id), plus one cross-category
+ * partition per status. Range queries are two binary searches and an array slice.
+ * Updates are idempotent upserts, so replaying an already applied change is harmless.
+ * A rebuild fills a fresh index without the lock and swaps it in, replaying the changes
+ * that arrived meanwhile, so queries and updates keep going during the scan.
+ */
+@Component
+public class ProductPriceIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductPriceIndex.class);
+    private static final int REBUILD_CHUNK_SIZE = 5000;
+
+    private final ProductRepository productRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    // Changes applied while a rebuild scans, by product id; a null entry is a removal
+    private Map<Long, Entry> changedDuringRebuild;
+    private volatile boolean ready;
+
+    public ProductPriceIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index fresh = new Index();
+        long lastId = 0;
+        List<ProductRepository.PriceRow> chunk;
+        do {
+            chunk = productRepository.findPriceRows(lastId, PageRequest.of(0, REBUILD_CHUNK_SIZE));
+            for (ProductRepository.PriceRow row : chunk) {
+                if (row.price() != null && row.status() != null) {
+                    fresh.append(row.id(), new Entry(row.status(), row.category(), toCents(row.price())));
+                }
+                lastId = row.id();
+            }
+        } while (chunk.size() == REBUILD_CHUNK_SIZE);
+        fresh.partitions.values().forEach(Partition::sort);
+
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild.forEach((id, entry) -> {
+                if (entry == null) {
+                    fresh.remove(id);
+                } else {
+                    fresh.upsert(id, entry);
+                }
+            });
+            changedDuringRebuild = null;
+            index = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product price index built: {} products in {} partitions in {} ms",
+                fresh.entries.size(), fresh.partitions.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.after() == null) {
+            apply(event.before().id(), null);
+        } else if (event.after().price() != null && event.after().status() != null) {
+            apply(event.after().id(), new Entry(event.after().status(), event.after().category(),
+                    toCents(event.after().price())));
+        }
+    }
+
+    /**
+     * Applies a product as reloaded after a change reported by any instance; null when it no
+     * longer exists.
+     */
+    public void onProductReloaded(Long productId, Product product) {
+        if (product == null || product.getPrice() == null || product.getStatus() == null) {
+            apply(productId, null);
+        } else {
+            apply(productId, new Entry(product.getStatus(), product.getCategory(), toCents(product.getPrice())));
+        }
+    }
+
+    /**
+     * Price, product count pairs bucketed like {@link #histogram}, for answering from the
+     * database while the index is not ready.
+     */
+    public static Histogram histogram(List<ProductRepository.PriceCount> prices, BigDecimal min, BigDecimal max,
+                                      int buckets) {
+        long minCents = ceilCents(min);
+        long maxCents = floorCents(max);
+        long width = bucketWidth(minCents, maxCents, buckets);
+        long[] counts = new long[buckets];
+        for (ProductRepository.PriceCount price : prices) {
+            long cents = toCents(price.price());
+            if (cents >= minCents && cents <= maxCents) {
+                counts[(int) Math.min(buckets - 1, (cents - minCents) / width)] += price.count();
+            }
+        }
+        List<Histogram.Bucket> result = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            long lower = minCents + i * width;
+            long upper = i == buckets - 1 ? maxCents : Math.min(maxCents, lower + width - 1);
+            result.add(new Histogram.Bucket(fromCents(lower), fromCents(upper), lower <= upper ? counts[i] : 0));
+        }
+        return new Histogram(result);
+    }
+
+    /**
+     * Product ids with a price in [min, max], cheapest first, paged by offset and limit.
+     * A null category searches across all categories.
+     */
+    public Range range(ProductStatus status, String category, BigDecimal min, BigDecimal max, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Partition partition = index.partitions.get(new PartitionKey(status, category));
+            if (partition == null) {
+                return new Range(new long[0], 0);
+            }
+            int from = partition.lowerBound(ceilCents(min));
+            int to = partition.upperBound(floorCents(max));
+            int total = Math.max(0, to - from);
+            // In long arithmetic, so a page far past the end yields an empty slice
+            int start = (int) Math.min(from + offset, to);
+            int end = (int) Math.min((long) start + limit, to);
+            return new Range(Arrays.copyOfRange(partition.ids, start, Math.max(start, end)), total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Product counts in {@code buckets} equal-width price buckets between min and max.
+     */
+    public Histogram histogram(ProductStatus status, String category, BigDecimal min, BigDecimal max, int buckets) {
+        long minCents = ceilCents(min);
+        long maxCents = floorCents(max);
+        long width = bucketWidth(minCents, maxCents, buckets);
+        List<Histogram.Bucket> result = new ArrayList<>(buckets);
+
+        lock.readLock().lock();
+        try {
+            Partition partition = index.partitions.get(new PartitionKey(status, category));
+            for (int i = 0; i < buckets; i++) {
+                long lower = minCents + i * width;
+                long upper = i == buckets - 1 ? maxCents : Math.min(maxCents, lower + width - 1);
+                long count = 0;
+                if (partition != null && lower <= upper) {
+                    count = partition.upperBound(upper) - partition.lowerBound(lower);
+                }
+                result.add(new Histogram.Bucket(fromCents(lower), fromCents(upper), count));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new Histogram(result);
+    }
+
+    private void apply(Long id, Entry entry) {
+        lock.writeLock().lock();
+        try {
+            if (entry == null) {
+                index.remove(id);
+            } else {
+                index.upsert(id, entry);
+            }
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(id, entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static long bucketWidth(long minCents, long maxCents, int buckets) {
+        return Math.max(1, (maxCents - minCents + buckets) / buckets);
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static long ceilCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.CEILING).unscaledValue().longValueExact();
+    }
+
+    private static long floorCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.FLOOR).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private record PartitionKey(ProductStatus status, String category) {}
+
+    private record Entry(ProductStatus status, String category, long cents) {}
+
+    /**
+     * Entries by product id and the partitions built from them; swapped as a whole on rebuild.
+     */
+    private static final class Index {
+        final Map<PartitionKey, Partition> partitions = new HashMap<>();
+        final Map<Long, Entry> entries = new HashMap<>();
+
+        /** Adds an entry during a rebuild; partitions are sorted once all are appended. */
+        void append(Long id, Entry entry) {
+            entries.put(id, entry);
+            partition(entry.status(), entry.category()).append(entry.cents(), id);
+            partition(entry.status(), null).append(entry.cents(), id);
+        }
+
+        void upsert(Long id, Entry entry) {
+            remove(id);
+            entries.put(id, entry);
+            partition(entry.status(), entry.category()).insert(entry.cents(), id);
+            partition(entry.status(), null).insert(entry.cents(), id);
+        }
+
+        void remove(Long id) {
+            Entry existing = entries.remove(id);
+            if (existing != null) {
+                partition(existing.status(), existing.category()).remove(existing.cents(), id);
+                partition(existing.status(), null).remove(existing.cents(), id);
+            }
+        }
+
+        private Partition partition(ProductStatus status, String category) {
+            return partitions.computeIfAbsent(new PartitionKey(status, category), key -> new Partition());
+        }
+    }
+
+    /**
+     * Parallel arrays sorted by (cents, id); {@code size} is the number of live slots.
+     */
+    private static final class Partition {
+        long[] cents = new long[16];
+        long[] ids = new long[16];
+        int size;
+
+        void append(long price, long id) {
+            ensureCapacity(size + 1);
+            cents[size] = price;
+            ids[size] = id;
+            size++;
+        }
+
+        void insert(long price, long id) {
+            int pos = position(price, id);
+            ensureCapacity(size + 1);
+            System.arraycopy(cents, pos, cents, pos + 1, size - pos);
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            cents[pos] = price;
+            ids[pos] = id;
+            size++;
+        }
+
+        void remove(long price, long id) {
+            int pos = position(price, id);
+            if (pos < size && cents[pos] == price && ids[pos] == id) {
+                System.arraycopy(cents, pos + 1, cents, pos, size - pos - 1);
+                System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+                size--;
+            }
+        }
+
+        /** First slot with price >= the given price. */
+        int lowerBound(long price) {
+            return position(price, Long.MIN_VALUE);
+        }
+
+        /** First slot with price > the given price. */
+        int upperBound(long price) {
+            return position(price, Long.MAX_VALUE);
+        }
+
+        private int position(long price, long id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cents[mid] < price || (cents[mid] == price && ids[mid] < id)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required > cents.length) {
+                int capacity = Math.max(required, cents.length * 2);
+                cents = Arrays.copyOf(cents, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+            }
+        }
+
+        void sort() {
+            quickSort(0, size - 1);
+        }
+
+        private void quickSort(int low, int high) {
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                long pivotPrice = cents[mid];
+                long pivotId = ids[mid];
+                int i = low;
+                int j = high;
+                while (i <= j) {
+                    while (cents[i] < pivotPrice || (cents[i] == pivotPrice && ids[i] < pivotId)) {
+                        i++;
+                    }
+                    while (cents[j] > pivotPrice || (cents[j] == pivotPrice && ids[j] > pivotId)) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        swap(i++, j--);
+                    }
+                }
+                if (j - low < high - i) {
+                    quickSort(low, j);
+                    low = i;
+                } else {
+                    quickSort(i, high);
+                    high = j;
+                }
+            }
+        }
+
+        private void swap(int a, int b) {
+            long price = cents[a];
+            cents[a] = cents[b];
+            cents[b] = price;
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+        }
+    }
+
+    public record Range(long[] ids, long total) {}
+
+    public record Histogram(List<Bucket> buckets) {
+        public record Bucket(BigDecimal min, BigDecimal max, long count) {}
+    }
+}
@@ -0,0 +1,288 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram inverted index over product name and description.
+ * Matching keeps the semantics of {@link ProductRepository#searchByKeyword}
+ * (case-insensitive substring), so the SQL path remains a drop-in fallback.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+    private static final int GRAM_SIZE = 3;
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<Long, Set<Long>> postings = new HashMap<>();
+    private Set<Long> touchedDuringRebuild;
+    private volatile boolean ready;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${products.search.mode:index}") String mode) {
+        this.productRepository = productRepository;
+        this.enabled = "index".equalsIgnoreCase(mode);
+
+        Gauge.builder("products.search.index.documents", documents, Map::size)
+                .description("Products held in the search index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * True when searches should be answered from the index rather than the database.
+     */
+    public boolean isServing() {
+        return enabled && ready;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            log.info("Product search index disabled, using SQL search");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            touchedDuringRebuild = new HashSet<>();
+            ready = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long lastId = 0;
+        List<Product> chunk;
+        do {
+            chunk = productRepository.findByIdGreaterThan(lastId,
+                    PageRequest.of(0, REBUILD_CHUNK_SIZE, Sort.by("id")));
+            lock.writeLock().lock();
+            try {
+                for (Product product : chunk) {
+                    if (!touchedDuringRebuild.contains(product.getId())) {
+                        put(product.getId(), product.getName(), product.getDescription());
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!chunk.isEmpty()) {
+                lastId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == REBUILD_CHUNK_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index built: {} products, {} grams in {} ms",
+                documents.size(), postings.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (event.after() == null) {
+                remove(event.before().id());
+                markTouched(event.before().id());
+            } else {
+                put(event.after().id(), event.after().name(), event.after().description());
+                markTouched(event.after().id());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a product as reloaded after a change reported on the product-events topic, which
+     * also carries writes made on other instances; null when it no longer exists.
+     */
+    public void onProductReloaded(Long productId, Product product) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (product == null) {
+                remove(productId);
+            } else {
+                put(productId, product.getName(), product.getDescription());
+            }
+            markTouched(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of all products whose name or description contains the keyword,
+     * ranked best match first, together with the total number of matches.
+     */
+    public SearchResult search(String keyword, int offset, int limit) {
+        String needle = keyword.toLowerCase(Locale.ROOT);
+        List<Match> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            if (needle.length() < GRAM_SIZE) {
+                for (Document document : documents.values()) {
+                    addIfMatches(document, needle, matches);
+                }
+            } else {
+                for (Long id : candidates(needle)) {
+                    addIfMatches(documents.get(id), needle, matches);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(Comparator.comparingInt(Match::score).reversed()
+                .thenComparingInt(Match::nameLength)
+                .thenComparingLong(Match::id));
+
+        int from = Math.min(offset, matches.size());
+        int to = Math.min(from + limit, matches.size());
+        List<Long> ids = new ArrayList<>(to - from);
+        for (Match match : matches.subList(from, to)) {
+            ids.add(match.id());
+        }
+        return new SearchResult(ids, matches.size());
+    }
+
+    private Set<Long> candidates(String needle) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (long gram : grams(needle)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return Set.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> result = new HashSet<>();
+        outer:
+        for (Long id : lists.get(0)) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (!lists.get(i).contains(id)) {
+                    continue outer;
+                }
+            }
+            result.add(id);
+        }
+        return result;
+    }
+
+    private void addIfMatches(Document document, String needle, List<Match> matches) {
+        int namePos = document.name().indexOf(needle);
+        int score;
+        if (namePos == 0) {
+            score = 3;
+        } else if (namePos > 0) {
+            score = 2;
+        } else if (document.description().contains(needle)) {
+            score = 1;
+        } else {
+            return;
+        }
+        matches.add(new Match(document.id(), score, document.name().length()));
+    }
+
+    private void put(Long id, String name, String description) {
+        remove(id);
+        Document document = new Document(id, normalize(name), normalize(description));
+        documents.put(id, document);
+        for (long gram : document.grams()) {
+            postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void remove(Long id) {
+        Document existing = documents.remove(id);
+        if (existing == null) {
+            return;
+        }
+        for (long gram : existing.grams()) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private void markTouched(Long id) {
+        if (touchedDuringRebuild != null) {
+            touchedDuringRebuild.add(id);
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<Long> grams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    private record Document(Long id, String name, String description) {
+        Set<Long> grams() {
+            Set<Long> grams = ProductSearchIndex.grams(name);
+            grams.addAll(ProductSearchIndex.grams(description));
+            return grams;
+        }
+    }
+
+    private record Match(long id, int score, int nameLength) {}
+
+    public record SearchResult(List<Long> ids, long total) {}
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.product.service;
 
+import com.ecommerce.product.event.ProductChangedEvent;
 import com.ecommerce.product.event.ProductEvent;
 import com.ecommerce.product.model.Product;
 import com.ecommerce.product.model.Product.ProductStatus;
@@ -9,17 +10,21 @@ import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -27,19 +32,33 @@ import java.util.Optional;
 public class ProductService {
 
     private static final Logger log = LoggerFactory.getLogger(ProductService.class);
-    private static final String PRODUCT_TOPIC = "product-events";
 
     private final ProductRepository productRepository;
-    private final KafkaTemplate<String, ProductEvent> kafkaTemplate;
+    private final ProductEventOutbox outbox;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacets facets;
+    private final ProductLoader productLoader;
+    private final ProductPriceIndex priceIndex;
+    private final ApplicationEventPublisher eventPublisher;
     private final Counter productCreatedCounter;
     private final Counter productUpdatedCounter;
     private final Timer productSearchTimer;
 
     public ProductService(ProductRepository productRepository,
-                         KafkaTemplate<String, ProductEvent> kafkaTemplate,
+                         ProductEventOutbox outbox,
+                         ProductSearchIndex searchIndex,
+                         ProductFacets facets,
+                         ProductLoader productLoader,
+                         ProductPriceIndex priceIndex,
+                         ApplicationEventPublisher eventPublisher,
                          MeterRegistry meterRegistry) {
         this.productRepository = productRepository;
-        this.kafkaTemplate = kafkaTemplate;
+        this.outbox = outbox;
+        this.searchIndex = searchIndex;
+        this.facets = facets;
+        this.productLoader = productLoader;
+        this.priceIndex = priceIndex;
+        this.eventPublisher = eventPublisher;
 
         // Custom metrics
         this.productCreatedCounter = Counter.builder("products.created.total")
@@ -55,44 +74,146 @@ public class ProductService {
                 .register(meterRegistry);
     }
 
-    @Cacheable(value = "products", key = "#id")
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<Product> findById(Long id) {
         log.debug("Finding product by id: {}", id);
-        return productRepository.findById(id);
+        return productLoader.findById(id);
     }
 
-    @Cacheable(value = "products", key = "'sku-' + #sku")
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<Product> findBySku(String sku) {
         log.debug("Finding product by SKU: {}", sku);
-        return productRepository.findBySku(sku);
+        return productLoader.findBySku(sku);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ProductSummary> findAll(Pageable pageable) {
+        return productRepository.findAll(pageable).map(ProductSummary::of);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Product> scrollAll(String cursor, int size, boolean includeTotal) {
+        Pageable limit = CursorPage.limit(size);
+        List<Product> fetched;
+        if (cursor == null) {
+            fetched = productRepository.findAllByOrderByCreatedAtDescIdDesc(limit);
+        } else {
+            CursorPage.Position<LocalDateTime> after = CursorPage.Cursor.decode(cursor, LocalDateTime::parse);
+            fetched = productRepository.findAllAfter(after.sortKey(), after.id(), limit);
+        }
+        return CursorPage.of(fetched, size, ProductService::createdAtCursor,
+                includeTotal ? productRepository.count() : null);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Product> scrollByCategory(ProductStatus status, String category, String cursor,
+                                                int size, boolean includeTotal) {
+        Pageable limit = CursorPage.limit(size);
+        List<Product> fetched;
+        if (cursor == null) {
+            fetched = productRepository.findByStatusAndCategoryOrderByCreatedAtDescIdDesc(status, category, limit);
+        } else {
+            CursorPage.Position<LocalDateTime> after = CursorPage.Cursor.decode(cursor, LocalDateTime::parse);
+            fetched = productRepository.findByStatusAndCategoryAfter(
+                    status, category, after.sortKey(), after.id(), limit);
+        }
+        return CursorPage.of(fetched, size, ProductService::createdAtCursor,
+                includeTotal ? productRepository.countByStatusAndCategory(status, category) : null);
     }
 
     @Transactional(readOnly = true)
-    public Page<Product> findAll(Pageable pageable) {
-        return productRepository.findAll(pageable);
+    public CursorPage<Product> scrollByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, String cursor,
+                                                  int size, boolean includeTotal) {
+        BigDecimal afterPrice = minPrice;
+        long afterId = -1;
+        if (cursor != null) {
+            CursorPage.Position<BigDecimal> after = CursorPage.Cursor.decode(cursor, BigDecimal::new);
+            afterPrice = after.sortKey();
+            afterId = after.id();
+        }
+        List<Product> fetched = productRepository.findByStatusAndPriceRangeAfter(
+                ProductStatus.ACTIVE, minPrice, maxPrice, afterPrice, afterId, CursorPage.limit(size));
+        return CursorPage.of(fetched, size,
+                p -> new CursorPage.Cursor(p.getPrice().toPlainString(), p.getId()),
+                includeTotal ? productRepository.countByStatusAndPriceRange(ProductStatus.ACTIVE, minPrice, maxPrice) : null);
+    }
+
+    private static CursorPage.Cursor createdAtCursor(Product product) {
+        return new CursorPage.Cursor(product.getCreatedAt().toString(), product.getId());
     }
 
     @Transactional(readOnly = true)
-    public Page<Product> searchProducts(String keyword, Pageable pageable) {
+    public Page<ProductSummary> searchProducts(String keyword, Pageable pageable) {
         return productSearchTimer.record(() -> {
             log.info("Searching products with keyword: {}", keyword);
-            return productRepository.searchByKeyword(keyword, pageable);
+            if (!searchIndex.isServing()) {
+                return productRepository.searchByKeyword(keyword, pageable).map(ProductSummary::of);
+            }
+
+            ProductSearchIndex.SearchResult result = searchIndex.search(
+                    keyword, (int) pageable.getOffset(), pageable.getPageSize());
+            List<ProductSummary> summaries = loadInOrder(result.ids()).stream()
+                    .map(ProductSummary::of)
+                    .toList();
+            return new PageImpl<>(summaries, pageable, result.total());
         });
     }
 
+    private List<Product> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            positions.put(ids.get(i), i);
+        }
+        return productRepository.findByIdIn(ids).stream()
+                .sorted(Comparator.comparing(p -> positions.get(p.getId())))
+                .toList();
+    }
+
     @Transactional(readOnly = true)
-    public Page<Product> findByCategory(ProductStatus status, String category, Pageable pageable) {
-        return productRepository.findByStatusAndCategory(status, category, pageable);
+    public Page<ProductSummary> findByCategory(ProductStatus status, String category, Pageable pageable) {
+        return productRepository.findByStatusAndCategory(status, category, pageable).map(ProductSummary::of);
     }
 
     @Transactional(readOnly = true)
     public Page<Product> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
-        return productRepository.findByStatusAndPriceRange(ProductStatus.ACTIVE, minPrice, maxPrice, pageable);
+        return findByPriceRange(null, minPrice, maxPrice, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Product> findByPriceRange(String category, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        if (!priceIndex.isReady()) {
+            if (category != null) {
+                return productRepository.findByStatusAndCategoryAndPriceBetween(
+                        ProductStatus.ACTIVE, category, minPrice, maxPrice, pageable);
+            }
+            return productRepository.findByStatusAndPriceRange(ProductStatus.ACTIVE, minPrice, maxPrice, pageable);
+        }
+
+        ProductPriceIndex.Range range = priceIndex.range(ProductStatus.ACTIVE, category, minPrice, maxPrice,
+                pageable.getOffset(), pageable.getPageSize());
+        List<Long> ids = new ArrayList<>(range.ids().length);
+        for (long id : range.ids()) {
+            ids.add(id);
+        }
+        return new PageImpl<>(loadInOrder(ids), pageable, range.total());
+    }
+
+    public ProductPriceIndex.Histogram getPriceHistogram(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                                         int buckets) {
+        if (buckets < 1 || minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("Invalid histogram range or bucket count");
+        }
+        if (!priceIndex.isReady()) {
+            return ProductPriceIndex.histogram(
+                    productRepository.countByPrice(ProductStatus.ACTIVE, category, minPrice, maxPrice),
+                    minPrice, maxPrice, buckets);
+        }
+        return priceIndex.histogram(ProductStatus.ACTIVE, category, minPrice, maxPrice, buckets);
     }
 
-    @CacheEvict(value = "products", allEntries = true)
     public Product createProduct(Product product) {
         log.info("Creating product: {}", product.getSku());
 
@@ -102,6 +223,7 @@ public class ProductService {
 
         Product saved = productRepository.save(product);
         productCreatedCounter.increment();
+        eventPublisher.publishEvent(ProductChangedEvent.created(saved));
 
         // Publish event
         publishEvent(ProductEvent.created(saved.getId(), saved.getSku(), saved.getName(), saved.getPrice()));
@@ -109,10 +231,6 @@ public class ProductService {
         return saved;
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "products", key = "#id"),
-        @CacheEvict(value = "products", key = "'sku-' + #result.sku")
-    })
     public Product updateProduct(Long id, Product productDetails) {
         log.info("Updating product: {}", id);
 
@@ -120,6 +238,7 @@ public class ProductService {
                 .orElseThrow(() -> new RuntimeException("Product not found: " + id));
 
         BigDecimal oldPrice = product.getPrice();
+        ProductChangedEvent.Snapshot before = ProductChangedEvent.Snapshot.of(product);
 
         product.setName(productDetails.getName());
         product.setDescription(productDetails.getDescription());
@@ -134,6 +253,7 @@ public class ProductService {
 
         Product saved = productRepository.save(product);
         productUpdatedCounter.increment();
+        eventPublisher.publishEvent(ProductChangedEvent.updated(before, saved));
 
         // Publish event
         publishEvent(ProductEvent.updated(saved.getId(), saved.getSku(), saved.getName(), saved.getPrice()));
@@ -146,10 +266,6 @@ public class ProductService {
         return saved;
     }
 
-    @Caching(evict = {
-        @CacheEvict(value = "products", key = "#id"),
-        @CacheEvict(value = "products", allEntries = true)
-    })
     public void deleteProduct(Long id) {
         log.info("Deleting product: {}", id);
 
@@ -157,6 +273,7 @@ public class ProductService {
                 .orElseThrow(() -> new RuntimeException("Product not found: " + id));
 
         productRepository.delete(product);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(product));
 
         // Publish event
         publishEvent(ProductEvent.deleted(id, product.getSku()));
@@ -164,16 +281,30 @@ public class ProductService {
 
     @Transactional(readOnly = true)
     public List<String> getAllCategories() {
+        if (facets.isReady()) {
+            return facets.activeCategories();
+        }
         return productRepository.findAllActiveCategories();
     }
 
     @Transactional(readOnly = true)
     public List<String> getAllBrands() {
+        if (facets.isReady()) {
+            return facets.activeBrands();
+        }
         return productRepository.findAllActiveBrands();
     }
 
     @Transactional(readOnly = true)
     public ProductStats getStats() {
+        if (facets.isReady()) {
+            return new ProductStats(facets.total(),
+                    facets.countByStatus(ProductStatus.ACTIVE),
+                    facets.countByStatus(ProductStatus.INACTIVE),
+                    facets.countByStatus(ProductStatus.DISCONTINUED),
+                    facets.countByStatus(ProductStatus.OUT_OF_STOCK));
+        }
+
         long active = productRepository.countByStatus(ProductStatus.ACTIVE);
         long inactive = productRepository.countByStatus(ProductStatus.INACTIVE);
         long discontinued = productRepository.countByStatus(ProductStatus.DISCONTINUED);
@@ -183,18 +314,23 @@ public class ProductService {
         return new ProductStats(total, active, inactive, discontinued, outOfStock);
     }
 
-    @Transactional(readOnly = true)
-    public List<Product> findByIds(List<Long> ids) {
-        return productRepository.findByIdIn(ids);
+    public ProductFacets.FacetCounts getFacetCounts(ProductStatus status, String category, String brand) {
+        if (!facets.isReady()) {
+            throw new IllegalStateException("Product facets are not available yet");
+        }
+        return facets.count(status, category, brand);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<ProductSummary> findByIds(List<Long> ids) {
+        return productLoader.findByIds(ids).stream()
+                .map(ProductSummary::of)
+                .toList();
     }
 
     private void publishEvent(ProductEvent event) {
-        try {
-            kafkaTemplate.send(PRODUCT_TOPIC, event.getPayload().getSku(), event);
-            log.debug("Published event: {} for product: {}", event.getEventType(), event.getPayload().getSku());
-        } catch (Exception e) {
-            log.error("Failed to publish event: {}", event.getEventType(), e);
-        }
+        outbox.append(event);
+        log.debug("Queued event: {} for product: {}", event.getEventType(), event.getPayload().getSku());
     }
 
     public record ProductStats(
@@ -0,0 +1,42 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.model.Product.ProductStatus;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Read-only list view of a product. Built inside the read transaction so the collections are
+ * copied while they can still be batch-loaded; the full entity is only served by the
+ * single-product endpoints.
+ */
+public record ProductSummary(
+        Long id,
+        String sku,
+        String name,
+        BigDecimal price,
+        BigDecimal compareAtPrice,
+        String category,
+        String brand,
+        ProductStatus status,
+        List<String> tags,
+        String imageUrl
+) {
+    public static ProductSummary of(Product product) {
+        List<String> tags = product.getTags() != null ? List.copyOf(product.getTags()) : List.of();
+        List<String> images = product.getImageUrls();
+        return new ProductSummary(
+                product.getId(),
+                product.getSku(),
+                product.getName(),
+                product.getPrice(),
+                product.getCompareAtPrice(),
+                product.getCategory(),
+                product.getBrand(),
+                product.getStatus(),
+                tags,
+                images == null || images.isEmpty() ? null : images.get(0)
+        );
+    }
+}
@@ -0,0 +1,114 @@
+package com.ecommerce.product.benchmark;
+
+import com.ecommerce.product.event.EventWireFormat;
+import com.ecommerce.product.event.ProductEvent;
+import com.ecommerce.product.event.ProductEventDeserializer;
+import com.ecommerce.product.event.ProductEventSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes and time per product event, written and read through the product-events serializers
+ * in each wire format: {@link com.ecommerce.product.event.ProductEventCodec} binary against
+ * the {@code JsonSerializer} path. The event mix is created, updated, price-changed and
+ * deleted events with realistic names and prices; every event is round-tripped and checked
+ * in both formats first. Skipped unless {@code PRODUCT_BENCHMARKS=true}.
+ *
+ * <pre>
+ * PRODUCT_BENCHMARKS=true gradle :product-service:test --tests '*ProductEventCodecBenchmark' -i
+ * </pre>
+ */
+@EnabledIfEnvironmentVariable(named = "PRODUCT_BENCHMARKS", matches = "true")
+class ProductEventCodecBenchmark {
+
+    private static final String TOPIC = "product-events";
+    private static final int EVENTS = 1000;
+    private static final long ROUND_NANOS = 2_000_000_000L;
+
+    @Test
+    void binaryAgainstJson() {
+        List<ProductEvent> events = events();
+        ProductEventDeserializer deserializer = new ProductEventDeserializer();
+        for (EventWireFormat format : EventWireFormat.values()) {
+            ProductEventSerializer serializer = new ProductEventSerializer(format);
+            serializer.configure(Map.of(), false);
+
+            long bytes = 0;
+            for (ProductEvent event : events) {
+                byte[] data = serializer.serialize(TOPIC, event);
+                check(event, deserializer.deserialize(TOPIC, data));
+                bytes += data.length;
+            }
+            List<byte[]> encoded = new ArrayList<>(EVENTS);
+            double encodeNanos = measure(i -> {
+                byte[] data = serializer.serialize(TOPIC, events.get(i % EVENTS));
+                if (encoded.size() < EVENTS) {
+                    encoded.add(data);
+                }
+                return data.length;
+            });
+            double decodeNanos = measure(i -> deserializer.deserialize(TOPIC, encoded.get(i % EVENTS))
+                    .getEventId().length());
+            System.out.printf("%s: %.1f bytes/event, encode %.0f ns/event, decode %.0f ns/event%n",
+                    format, bytes / (double) EVENTS, encodeNanos, decodeNanos);
+            serializer.close();
+        }
+        deserializer.close();
+    }
+
+    private static double measure(Function<Integer, Integer> operation) {
+        long sink = 0;
+        // Warm-up
+        for (int i = 0; i < 100 * EVENTS; i++) {
+            sink += operation.apply(i);
+        }
+        long start = System.nanoTime();
+        int runs = 0;
+        while (System.nanoTime() - start < ROUND_NANOS) {
+            for (int i = 0; i < EVENTS; i++) {
+                sink += operation.apply(runs++);
+            }
+        }
+        double nanos = (System.nanoTime() - start) / (double) runs;
+        assertThat(sink).isPositive();
+        return nanos;
+    }
+
+    private static void check(ProductEvent sent, ProductEvent received) {
+        assertThat(received.getEventId()).isEqualTo(sent.getEventId());
+        assertThat(received.getEventType()).isEqualTo(sent.getEventType());
+        assertThat(received.getTimestamp().toEpochMilli()).isEqualTo(sent.getTimestamp().toEpochMilli());
+        assertThat(received.getPayload().getProductId()).isEqualTo(sent.getPayload().getProductId());
+        assertThat(received.getPayload().getSku()).isEqualTo(sent.getPayload().getSku());
+        assertThat(received.getPayload().getName()).isEqualTo(sent.getPayload().getName());
+        assertThat(received.getPayload().getPrice()).isEqualTo(sent.getPayload().getPrice());
+        assertThat(received.getPayload().getOldPrice()).isEqualTo(sent.getPayload().getOldPrice());
+    }
+
+    private static List<ProductEvent> events() {
+        Random random = new Random(1);
+        List<ProductEvent> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            long id = 1 + random.nextInt(1_000_000);
+            String sku = String.format("SKU-%07d", id);
+            String name = "Wireless Noise Cancelling Headphones " + id;
+            BigDecimal price = BigDecimal.valueOf(100 + random.nextInt(100_000), 2);
+            events.add(switch (i % 4) {
+                case 0 -> ProductEvent.created(id, sku, name, price);
+                case 1 -> ProductEvent.updated(id, sku, name, price);
+                case 2 -> ProductEvent.priceChanged(id, sku, price.add(BigDecimal.ONE), price);
+                default -> ProductEvent.deleted(id, sku);
+            });
+        }
+        return events;
+    }
+}
@@ -0,0 +1,96 @@
+package com.ecommerce.product.event;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductEventCodecTest {
+
+    @Test
+    void roundTripsEveryField() {
+        ProductEvent event = ProductEvent.priceChanged(42L, "SKU-1", new BigDecimal("19.99"), new BigDecimal("-0.50"));
+        event.getPayload().setName("Widget ünïcode");
+
+        ProductEvent decoded = roundTrip(event);
+
+        assertThat(decoded.getEventId()).isEqualTo(event.getEventId());
+        assertThat(decoded.getEventType()).isEqualTo("PRICE_CHANGED");
+        assertThat(decoded.getTimestamp()).isEqualTo(Instant.ofEpochMilli(event.getTimestamp().toEpochMilli()));
+        assertThat(decoded.getPayload().getProductId()).isEqualTo(42L);
+        assertThat(decoded.getPayload().getSku()).isEqualTo("SKU-1");
+        assertThat(decoded.getPayload().getName()).isEqualTo("Widget ünïcode");
+        assertThat(decoded.getPayload().getPrice()).isEqualTo(new BigDecimal("-0.50"));
+        assertThat(decoded.getPayload().getOldPrice()).isEqualTo(new BigDecimal("19.99"));
+    }
+
+    @Test
+    void roundTripsNulls() {
+        ProductEvent event = new ProductEvent(null, null, null, null);
+
+        ProductEvent decoded = roundTrip(event);
+
+        assertThat(decoded.getEventId()).isNull();
+        assertThat(decoded.getEventType()).isNull();
+        assertThat(decoded.getTimestamp()).isNull();
+        assertThat(decoded.getPayload()).isNull();
+    }
+
+    @Test
+    void roundTripsEmptyPayloadAndNonUuidEventId() {
+        ProductEvent event = new ProductEvent("not-a-uuid", "PRODUCT_DELETED", Instant.EPOCH,
+                new ProductEvent.ProductPayload());
+
+        ProductEvent decoded = roundTrip(event);
+
+        assertThat(decoded.getEventId()).isEqualTo("not-a-uuid");
+        assertThat(decoded.getPayload().getProductId()).isNull();
+        assertThat(decoded.getPayload().getSku()).isNull();
+        assertThat(decoded.getPayload().getPrice()).isNull();
+    }
+
+    @Test
+    void writesUnknownTypesLiterally() {
+        ProductEvent event = new ProductEvent("PRODUCT_ARCHIVED", new ProductEvent.ProductPayload(1L, "S", null, null));
+
+        assertThat(roundTrip(event).getEventType()).isEqualTo("PRODUCT_ARCHIVED");
+    }
+
+    @Test
+    void rejectsUnknownTypeCodes() {
+        byte[] data = ProductEventCodec.encode(ProductEvent.deleted(1L, "S"));
+        data[2] = 99;
+
+        assertThatThrownBy(() -> ProductEventCodec.decode(data))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("99");
+    }
+
+    @Test
+    void rejectsTruncatedAndForeignData() {
+        byte[] data = ProductEventCodec.encode(ProductEvent.created(1L, "SKU-1", "Name", BigDecimal.ONE));
+        byte[] truncated = java.util.Arrays.copyOf(data, data.length - 3);
+
+        assertThatThrownBy(() -> ProductEventCodec.decode(truncated)).isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> ProductEventCodec.decode("{}".getBytes())).isInstanceOf(SerializationException.class);
+        assertThat(ProductEventCodec.isBinary("{}".getBytes())).isFalse();
+        assertThat(ProductEventCodec.isBinary(null)).isFalse();
+    }
+
+    @Test
+    void rejectsPricesTheLayoutCannotHold() {
+        ProductEvent event = ProductEvent.created(1L, "S", "N", new BigDecimal("1e30").setScale(2));
+
+        assertThatThrownBy(() -> ProductEventCodec.encode(event)).isInstanceOf(ArithmeticException.class);
+    }
+
+    private static ProductEvent roundTrip(ProductEvent event) {
+        byte[] data = ProductEventCodec.encode(event);
+        assertThat(ProductEventCodec.isBinary(data)).isTrue();
+        return ProductEventCodec.decode(data);
+    }
+}
@@ -0,0 +1,122 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.event.ProductEvent;
+import com.ecommerce.product.model.OutboxEvent;
+import com.ecommerce.product.model.OutboxRelayLock;
+import com.ecommerce.product.repository.OutboxEventRepository;
+import com.ecommerce.product.repository.OutboxRelayLockRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductEventRelayTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final OutboxEventRepository outboxRepository = mock(OutboxEventRepository.class);
+    private final OutboxRelayLockRepository lockRepository = mock(OutboxRelayLockRepository.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, ProductEvent> kafkaTemplate = mock(KafkaTemplate.class);
+    private final List<String> sent = new ArrayList<>();
+    private ProductEventRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(lockRepository.existsById(OutboxRelayLock.ID)).thenReturn(true);
+        relay = new ProductEventRelay(outboxRepository, lockRepository, kafkaTemplate, objectMapper,
+                transactionManager, new SimpleMeterRegistry(), 10, 1, Duration.ofMillis(200),
+                Duration.ofSeconds(1), Duration.ofSeconds(1));
+    }
+
+    @Test
+    void stopsSendingAKeyAfterItsFirstFailure() throws Exception {
+        OutboxEvent a1 = row(1L, "A");
+        OutboxEvent b1 = row(2L, "B");
+        OutboxEvent a2 = row(3L, "A");
+        when(lockRepository.tryLock()).thenReturn(Optional.of(new OutboxRelayLock()));
+        when(outboxRepository.findPending(any())).thenReturn(List.of(a1, b1, a2));
+        when(kafkaTemplate.send(eq("product-events"), anyString(), any(ProductEvent.class))).thenAnswer(call -> {
+            String key = call.getArgument(1);
+            sent.add(key);
+            return "A".equals(key)
+                    ? CompletableFuture.failedFuture(new IllegalStateException("broker down"))
+                    : CompletableFuture.completedFuture(sendResult());
+        });
+
+        relay.poll();
+
+        assertThat(sent).containsExactly("A", "B");
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(2L));
+    }
+
+    @Test
+    void sendsOneKeyInOrderAfterEachAcknowledgement() throws Exception {
+        OutboxEvent a1 = row(1L, "A");
+        OutboxEvent a2 = row(2L, "A");
+        CompletableFuture<SendResult<String, ProductEvent>> first = new CompletableFuture<>();
+        when(lockRepository.tryLock()).thenReturn(Optional.of(new OutboxRelayLock()));
+        when(outboxRepository.findPending(any())).thenReturn(List.of(a1, a2));
+        when(kafkaTemplate.send(eq("product-events"), anyString(), any(ProductEvent.class))).thenAnswer(call -> {
+            sent.add(call.<ProductEvent>getArgument(2).getEventId());
+            if (sent.size() == 1) {
+                // The second send must not start before the first is acknowledged
+                CompletableFuture.delayedExecutor(50, java.util.concurrent.TimeUnit.MILLISECONDS)
+                        .execute(() -> first.complete(sendResult()));
+                return first;
+            }
+            assertThat(first).isDone();
+            return CompletableFuture.completedFuture(sendResult());
+        });
+
+        relay.poll();
+
+        assertThat(sent).containsExactly("event-1", "event-2");
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+    }
+
+    @Test
+    void skipsTheBatchWhileAnotherRelayHoldsTheLock() {
+        when(lockRepository.tryLock()).thenReturn(Optional.empty());
+
+        relay.poll();
+
+        verify(outboxRepository, never()).findPending(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SendResult<String, ProductEvent> sendResult() {
+        return mock(SendResult.class);
+    }
+
+    private OutboxEvent row(Long id, String sku) throws Exception {
+        ProductEvent event = ProductEvent.updated(id, sku, "Product " + sku, BigDecimal.TEN);
+        event.setEventId("event-" + id);
+        OutboxEvent row = new OutboxEvent("product-events", sku, event.getEventType(),
+                objectMapper.writeValueAsString(event));
+        row.setId(id);
+        return row;
+    }
+}
@@ -0,0 +1,73 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.model.Product.ProductStatus;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.repository.ProductRepository.FacetRow;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductFacetsTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductFacets facets = new ProductFacets(productRepository);
+
+    @Test
+    void followsWritesOfOtherInstancesAndIgnoresEchoesOfItsOwn() {
+        build(new FacetRow(1L, ProductStatus.ACTIVE, "Books", "Acme"),
+                new FacetRow(2L, ProductStatus.ACTIVE, "Games", "Acme"));
+
+        Product local = product(3L, ProductStatus.ACTIVE, "Toys", "Zed");
+        facets.onProductChanged(ProductChangedEvent.created(local));
+        // The same write, echoed back through product-events
+        facets.onProductReloaded(3L, local);
+        // Written on another instance
+        facets.onProductReloaded(2L, product(2L, ProductStatus.INACTIVE, "Games", "Acme"));
+        facets.onProductReloaded(1L, null);
+
+        assertThat(facets.total()).isEqualTo(2);
+        assertThat(facets.countByStatus(ProductStatus.ACTIVE)).isEqualTo(1);
+        assertThat(facets.countByStatus(ProductStatus.INACTIVE)).isEqualTo(1);
+        assertThat(facets.activeCategories()).containsExactly("Toys");
+        assertThat(facets.activeBrands()).containsExactly("Zed");
+    }
+
+    @Test
+    void changesDuringTheScanWinOverTheRowsItRead() {
+        when(productRepository.findFacetRows(anyLong(), any())).thenAnswer(call -> {
+            facets.onProductReloaded(1L, product(1L, ProductStatus.INACTIVE, "Books", "Acme"));
+            facets.onProductReloaded(9L, product(9L, ProductStatus.ACTIVE, "Games", null));
+            return List.of(new FacetRow(1L, ProductStatus.ACTIVE, "Books", "Acme"));
+        });
+        assertThat(facets.isReady()).isFalse();
+
+        facets.rebuild();
+
+        assertThat(facets.total()).isEqualTo(2);
+        assertThat(facets.countByStatus(ProductStatus.INACTIVE)).isEqualTo(1);
+        assertThat(facets.activeCategories()).containsExactly("Games");
+        assertThat(facets.count(null, "Books", null).total()).isEqualTo(1);
+    }
+
+    private void build(FacetRow... rows) {
+        when(productRepository.findFacetRows(anyLong(), any())).thenReturn(List.of(rows));
+        facets.rebuild();
+    }
+
+    private static Product product(Long id, ProductStatus status, String category, String brand) {
+        Product product = new Product("SKU-" + id, "Product " + id, BigDecimal.TEN, category);
+        product.setId(id);
+        product.setStatus(status);
+        product.setBrand(brand);
+        return product;
+    }
+}
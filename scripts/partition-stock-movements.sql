@@ -0,0 +1,71 @@
+-- Partitions inventorydb.stock_movements by month on movement_day (PostgreSQL 11+), so old
+-- months are detached and archived or dropped instead of deleted row by row.
+--
+-- Run once, with inventory-service stopped:
+--   psql -U postgres -d inventorydb -f scripts/partition-stock-movements.sql
+-- With ddl-auto update or none Hibernate leaves the partitioned table in place. Ids carry on
+-- from the old table; the primary key has to include the partition key.
+--
+-- Before each month starts, create its partition:
+--   SELECT stock_movements_add_month((current_date + interval '1 month')::date);
+-- To retire a month:
+--   ALTER TABLE stock_movements DETACH PARTITION stock_movements_2026_01;
+-- Rows of months without a partition land in stock_movements_default. A month's partition
+-- cannot be added while the default partition holds rows of that month.
+
+BEGIN;
+
+ALTER TABLE stock_movements RENAME TO stock_movements_unpartitioned;
+ALTER INDEX idx_movement_sku RENAME TO idx_movement_sku_unpartitioned;
+ALTER INDEX idx_movement_day RENAME TO idx_movement_day_unpartitioned;
+
+-- Partitioned tables take no identity column before PostgreSQL 17, so ids come from a
+-- sequence, named apart from the old table's identity sequence
+CREATE SEQUENCE stock_movement_ids;
+SELECT setval('stock_movement_ids', COALESCE((SELECT max(id) FROM stock_movements_unpartitioned), 0) + 1, false);
+
+CREATE TABLE stock_movements (
+    id             bigint       NOT NULL DEFAULT nextval('stock_movement_ids'),
+    sku            varchar(50)  NOT NULL,
+    type           varchar(16)  NOT NULL,
+    on_hand_delta  integer      NOT NULL,
+    reserved_delta integer      NOT NULL,
+    reference      varchar(64),
+    movement_day   date         NOT NULL,
+    occurred_at    timestamp(6) NOT NULL,
+    CONSTRAINT stock_movements_partitioned_pkey PRIMARY KEY (id, movement_day)
+) PARTITION BY RANGE (movement_day);
+
+ALTER SEQUENCE stock_movement_ids OWNED BY stock_movements.id;
+
+CREATE INDEX idx_movement_sku ON stock_movements (sku, id);
+CREATE INDEX idx_movement_day ON stock_movements (movement_day, id);
+
+-- Creates the partition holding the month of the given day, unless it exists
+CREATE OR REPLACE FUNCTION stock_movements_add_month(day date) RETURNS void AS $$
+DECLARE
+    first_day date := date_trunc('month', day)::date;
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF stock_movements FOR VALUES FROM (%L) TO (%L)',
+                   'stock_movements_' || to_char(first_day, 'YYYY_MM'),
+                   first_day, (first_day + interval '1 month')::date);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Every month already in the log, through next month
+SELECT stock_movements_add_month(month::date)
+FROM generate_series(
+        date_trunc('month', LEAST(COALESCE((SELECT min(movement_day) FROM stock_movements_unpartitioned),
+                                           current_date), current_date)),
+        date_trunc('month', current_date + interval '1 month'),
+        interval '1 month') AS month;
+
+CREATE TABLE stock_movements_default PARTITION OF stock_movements DEFAULT;
+
+INSERT INTO stock_movements (id, sku, type, on_hand_delta, reserved_delta, reference, movement_day, occurred_at)
+SELECT id, sku, type, on_hand_delta, reserved_delta, reference, movement_day, occurred_at
+FROM stock_movements_unpartitioned;
+
+DROP TABLE stock_movements_unpartitioned;
+
+COMMIT;